@@ -1,6 +1,7 @@
 package io.keen.client.android;
 
 import android.content.Context;
+import android.os.Build;
 
 import io.keen.client.java.FileEventStore;
 import io.keen.client.java.KeenClient;
@@ -13,9 +14,11 @@ import io.keen.client.java.KeenNetworkStatusHandler;
  * platform.
  * <p>
  * This client uses the built-in Android JSON libraries for reading/writing JSON in order to
- * minimize library size. For applications which already include a more robust JSON library such
- * as Jackson or GSON, configure the builder to use an appropriate {@link KeenJsonHandler} via
- * the {@link #withJsonHandler(KeenJsonHandler)} method.
+ * minimize library size. On API level 11 and above the streaming {@link android.util.JsonReader}
+ * and {@link android.util.JsonWriter} classes are used; on older devices the
+ * {@link org.json.JSONObject}-based handler is used instead. For applications which already
+ * include a more robust JSON library such as Jackson or GSON, configure the builder to use an
+ * appropriate {@link KeenJsonHandler} via the {@link #withJsonHandler(KeenJsonHandler)} method.
  * </p>
  * <p>
  * To cache events in between batch uploads, this client uses a file-based event store with its
@@ -41,6 +44,9 @@ public class AndroidKeenClientBuilder extends KeenClient.Builder {
 
     @Override
     protected KeenJsonHandler getDefaultJsonHandler() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.HONEYCOMB) {
+            return new AndroidStreamingJsonHandler();
+        }
         return new AndroidJsonHandler();
     }
 
@@ -0,0 +1,392 @@
+package io.keen.client.android;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.util.JsonReader;
+import android.util.JsonToken;
+import android.util.JsonWriter;
+
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.keen.client.java.KeenJsonReader;
+import io.keen.client.java.KeenJsonToken;
+import io.keen.client.java.KeenJsonWriter;
+import io.keen.client.java.KeenStreamingJsonHandler;
+
+/**
+ * Implementation of the {@link io.keen.client.java.KeenStreamingJsonHandler} interface using the
+ * built-in Android streaming JSON classes ({@link android.util.JsonReader} and
+ * {@link android.util.JsonWriter}).
+ * <p>
+ * Unlike {@link AndroidJsonHandler}, this handler never copies its input into a String and never
+ * builds an intermediate tree of {@link org.json.JSONObject}s; maps are read directly from and
+ * written directly to the underlying stream. It requires API level 11 or higher.
+ * </p>
+ * @author Keen IO
+ * @since 5.1.0
+ */
+@TargetApi(Build.VERSION_CODES.HONEYCOMB)
+public class AndroidStreamingJsonHandler implements KeenStreamingJsonHandler {
+
+    ///// KeenJsonHandler METHODS /////
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> readJson(Reader reader) throws IOException {
+        if (reader == null) {
+            throw new IllegalArgumentException("Reader must not be null");
+        }
+
+        KeenJsonReader jsonReader = createReader(reader);
+        try {
+            if (jsonReader.peek() != KeenJsonToken.BEGIN_OBJECT) {
+                throw new IOException("Expected a JSON object but was " + jsonReader.peek());
+            }
+            return (Map<String, Object>) jsonReader.nextValue();
+        } finally {
+            jsonReader.close();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void writeJson(Writer writer, Map<String, ?> value) throws IOException {
+        if (writer == null) {
+            throw new IllegalArgumentException("Writer must not be null");
+        }
+
+        KeenJsonWriter jsonWriter = createWriter(writer);
+        jsonWriter.object(value);
+        jsonWriter.close();
+        writer.close();
+    }
+
+    ///// KeenStreamingJsonHandler METHODS /////
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public KeenJsonReader createReader(Reader reader) throws IOException {
+        return new AndroidJsonReader(new JsonReader(reader));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public KeenJsonWriter createWriter(Writer writer) throws IOException {
+        return new AndroidJsonWriter(new JsonWriter(new NonClosingWriter(writer)));
+    }
+
+    ///// PRIVATE INNER CLASSES /////
+
+    /**
+     * {@link KeenJsonReader} backed by an {@link android.util.JsonReader}.
+     */
+    private static class AndroidJsonReader implements KeenJsonReader {
+
+        private final JsonReader reader;
+
+        AndroidJsonReader(JsonReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public KeenJsonToken peek() throws IOException {
+            JsonToken token = reader.peek();
+            switch (token) {
+                case BEGIN_OBJECT:
+                    return KeenJsonToken.BEGIN_OBJECT;
+                case END_OBJECT:
+                    return KeenJsonToken.END_OBJECT;
+                case BEGIN_ARRAY:
+                    return KeenJsonToken.BEGIN_ARRAY;
+                case END_ARRAY:
+                    return KeenJsonToken.END_ARRAY;
+                case NAME:
+                    return KeenJsonToken.NAME;
+                case STRING:
+                    return KeenJsonToken.STRING;
+                case NUMBER:
+                    return KeenJsonToken.NUMBER;
+                case BOOLEAN:
+                    return KeenJsonToken.BOOLEAN;
+                case NULL:
+                    return KeenJsonToken.NULL;
+                default:
+                    return KeenJsonToken.END_DOCUMENT;
+            }
+        }
+
+        @Override
+        public void beginObject() throws IOException {
+            reader.beginObject();
+        }
+
+        @Override
+        public void endObject() throws IOException {
+            reader.endObject();
+        }
+
+        @Override
+        public void beginArray() throws IOException {
+            reader.beginArray();
+        }
+
+        @Override
+        public void endArray() throws IOException {
+            reader.endArray();
+        }
+
+        @Override
+        public boolean hasNext() throws IOException {
+            return reader.hasNext();
+        }
+
+        @Override
+        public String nextName() throws IOException {
+            return reader.nextName();
+        }
+
+        @Override
+        public String nextString() throws IOException {
+            return reader.nextString();
+        }
+
+        @Override
+        public boolean nextBoolean() throws IOException {
+            return reader.nextBoolean();
+        }
+
+        @Override
+        public long nextLong() throws IOException {
+            return reader.nextLong();
+        }
+
+        @Override
+        public double nextDouble() throws IOException {
+            return reader.nextDouble();
+        }
+
+        @Override
+        public void nextNull() throws IOException {
+            reader.nextNull();
+        }
+
+        @Override
+        public void skipValue() throws IOException {
+            reader.skipValue();
+        }
+
+        @Override
+        public Object nextValue() throws IOException {
+            switch (reader.peek()) {
+                case BEGIN_OBJECT:
+                    Map<String, Object> map = new HashMap<String, Object>();
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        String name = reader.nextName();
+                        map.put(name, nextValue());
+                    }
+                    reader.endObject();
+                    return map;
+                case BEGIN_ARRAY:
+                    List<Object> list = new ArrayList<Object>();
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        list.add(nextValue());
+                    }
+                    reader.endArray();
+                    return list;
+                case STRING:
+                    return reader.nextString();
+                case NUMBER:
+                    return parseNumber(reader.nextString());
+                case BOOLEAN:
+                    return reader.nextBoolean();
+                case NULL:
+                    reader.nextNull();
+                    return null;
+                default:
+                    throw new IOException("Expected a value but was " + reader.peek());
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+
+        /**
+         * Converts a JSON number to the narrowest of Integer, Long or Double which can hold it,
+         * matching the types produced by {@link AndroidJsonHandler}.
+         *
+         * @param number The textual form of the number.
+         * @return The number.
+         */
+        private static Number parseNumber(String number) {
+            if (number.indexOf('.') < 0 && number.indexOf('e') < 0 && number.indexOf('E') < 0) {
+                try {
+                    long longValue = Long.parseLong(number);
+                    if (longValue >= Integer.MIN_VALUE && longValue <= Integer.MAX_VALUE) {
+                        return (int) longValue;
+                    }
+                    return longValue;
+                } catch (NumberFormatException e) {
+                    // Too large for a long; fall through to double.
+                }
+            }
+            return Double.parseDouble(number);
+        }
+
+    }
+
+    /**
+     * {@link KeenJsonWriter} backed by an {@link android.util.JsonWriter}.
+     */
+    private static class AndroidJsonWriter implements KeenJsonWriter {
+
+        private final JsonWriter writer;
+
+        AndroidJsonWriter(JsonWriter writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public KeenJsonWriter beginObject() throws IOException {
+            writer.beginObject();
+            return this;
+        }
+
+        @Override
+        public KeenJsonWriter endObject() throws IOException {
+            writer.endObject();
+            return this;
+        }
+
+        @Override
+        public KeenJsonWriter beginArray() throws IOException {
+            writer.beginArray();
+            return this;
+        }
+
+        @Override
+        public KeenJsonWriter endArray() throws IOException {
+            writer.endArray();
+            return this;
+        }
+
+        @Override
+        public KeenJsonWriter name(String name) throws IOException {
+            writer.name(name);
+            return this;
+        }
+
+        @Override
+        public KeenJsonWriter value(String value) throws IOException {
+            writer.value(value);
+            return this;
+        }
+
+        @Override
+        public KeenJsonWriter value(boolean value) throws IOException {
+            writer.value(value);
+            return this;
+        }
+
+        @Override
+        public KeenJsonWriter value(long value) throws IOException {
+            writer.value(value);
+            return this;
+        }
+
+        @Override
+        public KeenJsonWriter value(double value) throws IOException {
+            writer.value(value);
+            return this;
+        }
+
+        @Override
+        public KeenJsonWriter nullValue() throws IOException {
+            writer.nullValue();
+            return this;
+        }
+
+        @Override
+        public KeenJsonWriter object(Object value) throws IOException {
+            if (value == null) {
+                writer.nullValue();
+            } else if (value instanceof String) {
+                writer.value((String) value);
+            } else if (value instanceof Boolean) {
+                writer.value(((Boolean) value).booleanValue());
+            } else if (value instanceof Number) {
+                writer.value((Number) value);
+            } else if (value instanceof Map) {
+                writer.beginObject();
+                for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                    writer.name(String.valueOf(entry.getKey()));
+                    object(entry.getValue());
+                }
+                writer.endObject();
+            } else if (value instanceof Iterable) {
+                writer.beginArray();
+                for (Object element : (Iterable<?>) value) {
+                    object(element);
+                }
+                writer.endArray();
+            } else if (value instanceof Object[]) {
+                writer.beginArray();
+                for (Object element : (Object[]) value) {
+                    object(element);
+                }
+                writer.endArray();
+            } else {
+                writer.value(value.toString());
+            }
+            return this;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            writer.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.close();
+        }
+
+    }
+
+    /**
+     * Writer which flushes, rather than closes, its delegate when it is closed. This allows a
+     * {@link android.util.JsonWriter} to be closed without closing the caller's writer.
+     */
+    private static class NonClosingWriter extends FilterWriter {
+
+        NonClosingWriter(Writer out) {
+            super(out);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+
+    }
+
+}
@@ -0,0 +1,182 @@
+package io.keen.client.android;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import io.keen.client.java.KeenJsonHandler;
+import io.keen.client.java.KeenJsonReader;
+import io.keen.client.java.KeenJsonToken;
+import io.keen.client.java.KeenJsonWriter;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Tests the AndroidStreamingJsonHandler class against the real Android JSON classes provided by
+ * Robolectric.
+ *
+ * @author Keen IO
+ * @since 5.1.0
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(emulateSdk = 18, manifest = Config.NONE)
+public class AndroidStreamingJsonHandlerTest {
+
+    private AndroidStreamingJsonHandler handler;
+
+    @Before
+    public void createJsonHandler() {
+        handler = new AndroidStreamingJsonHandler();
+    }
+
+    @Test
+    public void readNumbersAsNarrowestType() throws IOException {
+        Map<String, Object> result = handler.readJson(new StringReader(
+                "{\"int\":1,\"long\":12345678901,\"double\":1.5,\"exp\":1e3}"));
+        assertThat(result.get("int"), instanceOf(Integer.class));
+        assertThat(result.get("int"), equalTo((Object) 1));
+        assertThat(result.get("long"), equalTo((Object) 12345678901L));
+        assertThat(result.get("double"), equalTo((Object) 1.5));
+        assertThat(result.get("exp"), equalTo((Object) 1000.0));
+    }
+
+    @Test
+    public void readNestedStructures() throws IOException {
+        Map<String, Object> result = handler.readJson(new StringReader(
+                "{\"a\":{\"b\":[true,null,\"c\"]},\"d\":[]}"));
+        Map<String, Object> expectedInner = new HashMap<String, Object>();
+        expectedInner.put("b", Arrays.asList(true, null, "c"));
+        Map<String, Object> expected = new HashMap<String, Object>();
+        expected.put("a", expectedInner);
+        expected.put("d", new ArrayList<Object>());
+        assertThat(result, equalTo(expected));
+    }
+
+    @Test(expected = IOException.class)
+    public void readNonObjectFails() throws IOException {
+        handler.readJson(new StringReader("[1,2]"));
+    }
+
+    @Test
+    public void writeNestedStructures() throws IOException {
+        Map<String, Object> inner = new LinkedHashMap<String, Object>();
+        inner.put("list", Arrays.asList(1, "two", 3.5, null));
+        inner.put("array", new Object[] { false });
+        Map<String, Object> map = new LinkedHashMap<String, Object>();
+        map.put("inner", inner);
+        map.put("long", 12345678901L);
+
+        StringWriter writer = new StringWriter();
+        handler.writeJson(writer, map);
+        assertThat(writer.toString(), equalTo(
+                "{\"inner\":{\"list\":[1,\"two\",3.5,null],\"array\":[false]},\"long\":12345678901}"));
+    }
+
+    @Test
+    public void roundTrip() throws IOException {
+        Map<String, Object> map = new HashMap<String, Object>();
+        map.put("string", "value \"quoted\" \u00e9");
+        map.put("number", 42);
+        map.put("list", Arrays.asList("x", "y"));
+
+        StringWriter writer = new StringWriter();
+        handler.writeJson(writer, map);
+        assertThat(handler.readJson(new StringReader(writer.toString())), equalTo(map));
+    }
+
+    @Test
+    public void streamTokens() throws IOException {
+        StringWriter stringWriter = new StringWriter();
+        KeenJsonWriter writer = handler.createWriter(stringWriter);
+        writer.beginObject().name("a").value(1L).name("b").beginArray().value("c").nullValue()
+                .endArray().endObject();
+        writer.close();
+
+        KeenJsonReader reader = handler.createReader(new StringReader(stringWriter.toString()));
+        assertThat(reader.peek(), equalTo(KeenJsonToken.BEGIN_OBJECT));
+        reader.beginObject();
+        assertThat(reader.nextName(), equalTo("a"));
+        assertThat(reader.peek(), equalTo(KeenJsonToken.NUMBER));
+        assertThat(reader.nextLong(), equalTo(1L));
+        assertThat(reader.nextName(), equalTo("b"));
+        reader.beginArray();
+        assertThat(reader.nextString(), equalTo("c"));
+        assertThat(reader.peek(), equalTo(KeenJsonToken.NULL));
+        reader.nextNull();
+        reader.endArray();
+        reader.endObject();
+        assertThat(reader.peek(), equalTo(KeenJsonToken.END_DOCUMENT));
+        reader.close();
+    }
+
+    @Test
+    public void closingStreamWriterLeavesTargetOpen() throws IOException {
+        final boolean[] closed = new boolean[1];
+        StringWriter target = new StringWriter() {
+            @Override
+            public void close() throws IOException {
+                closed[0] = true;
+                super.close();
+            }
+        };
+        KeenJsonWriter writer = handler.createWriter(target);
+        writer.beginObject().endObject();
+        writer.close();
+        assertThat(closed[0], equalTo(false));
+        assertThat(target.toString(), equalTo("{}"));
+    }
+
+    @Test
+    public void writeAllocatesLessThanTreeHandler() throws IOException {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(allocationBean.isThreadAllocatedMemorySupported());
+
+        Map<String, Object> event = new HashMap<String, Object>();
+        for (int i = 0; i < 50; i++) {
+            event.put("property" + i, Arrays.asList("value" + i, i, i * 0.5));
+        }
+        AndroidJsonHandler treeHandler = new AndroidJsonHandler();
+
+        // Warm up both handlers so that class loading doesn't skew the measurements.
+        measureWrite(allocationBean, handler, event, 20);
+        measureWrite(allocationBean, treeHandler, event, 20);
+
+        long streamingBytes = measureWrite(allocationBean, handler, event, 200);
+        long treeBytes = measureWrite(allocationBean, treeHandler, event, 200);
+        assertThat(streamingBytes, lessThan(treeBytes));
+    }
+
+    private static long measureWrite(com.sun.management.ThreadMXBean bean,
+                                     KeenJsonHandler jsonHandler,
+                                     Map<String, Object> event, int iterations)
+            throws IOException {
+        long threadId = Thread.currentThread().getId();
+        long before = bean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < iterations; i++) {
+            Writer writer = new StringWriter(4096);
+            jsonHandler.writeJson(writer, event);
+        }
+        return bean.getThreadAllocatedBytes(threadId) - before;
+    }
+
+}
@@ -0,0 +1,187 @@
+package io.keen.client.java;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.ErrorManager;
+import java.util.logging.Formatter;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+
+/**
+ * Log handler which writes records to an output stream from a background thread, so that the
+ * threads which log never block on output. Records are queued and written in batches, with one
+ * flush of the stream per batch rather than per record. If the queue fills up, further records
+ * are dropped and the number dropped is reported with the next batch.
+ * <p>
+ * The background thread is a daemon thread, started when the first record is published.
+ * </p>
+ *
+ * @author Keen IO
+ * @since 5.1.0
+ */
+class BatchingLogHandler extends Handler {
+
+    /**
+     * The maximum number of records waiting to be written.
+     */
+    static final int QUEUE_CAPACITY = 4096;
+
+    /**
+     * The maximum number of records written per flush of the stream.
+     */
+    static final int MAX_BATCH_SIZE = 256;
+
+    /**
+     * The longest time {@link #flush()} waits for the background thread, in milliseconds.
+     */
+    private static final long FLUSH_TIMEOUT_MILLIS = 5000;
+
+    private final BlockingQueue<LogRecord> queue = new LinkedBlockingQueue<LogRecord>(QUEUE_CAPACITY);
+    private final AtomicLong queuedCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final Object writeLock = new Object();
+    private final Writer writer;
+    private long writtenCount;
+    private Thread writerThread;
+
+    /**
+     * Constructs a handler which writes to the given stream using the given formatter.
+     *
+     * @param out       The stream to write to. It isn't closed when the handler is closed.
+     * @param formatter The formatter for records.
+     */
+    BatchingLogHandler(OutputStream out, Formatter formatter) {
+        this.writer = new OutputStreamWriter(out);
+        setFormatter(formatter);
+    }
+
+    ///// Handler METHODS /////
+
+    /**
+     * Queues a record to be written, if it's loggable.
+     *
+     * @param record The record.
+     */
+    @Override
+    public void publish(LogRecord record) {
+        if (!isLoggable(record)) {
+            return;
+        }
+        startWriterThread();
+        if (queue.offer(record)) {
+            queuedCount.incrementAndGet();
+        } else {
+            droppedCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * Waits until the background thread has written all records queued before this call, then
+     * flushes the stream. If the background thread isn't running, the records are written on
+     * the calling thread instead.
+     */
+    @Override
+    public void flush() {
+        long target = queuedCount.get();
+        long deadline = System.currentTimeMillis() + FLUSH_TIMEOUT_MILLIS;
+        synchronized (writeLock) {
+            while (writtenCount < target && isWriterThreadRunning()) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    break;
+                }
+                try {
+                    writeLock.wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            if (!isWriterThreadRunning()) {
+                List<LogRecord> batch = new ArrayList<LogRecord>();
+                queue.drainTo(batch);
+                write(batch);
+            } else {
+                write(new ArrayList<LogRecord>(0));
+            }
+        }
+    }
+
+    /**
+     * Writes all queued records. The underlying stream is left open.
+     */
+    @Override
+    public void close() {
+        flush();
+    }
+
+    ///// PRIVATE METHODS /////
+
+    private synchronized boolean isWriterThreadRunning() {
+        return writerThread != null;
+    }
+
+    private synchronized void startWriterThread() {
+        if (writerThread != null) {
+            return;
+        }
+        writerThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                writeLoop();
+            }
+        }, "KeenLogging");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    private void writeLoop() {
+        List<LogRecord> batch = new ArrayList<LogRecord>();
+        try {
+            while (true) {
+                batch.add(queue.take());
+                queue.drainTo(batch, MAX_BATCH_SIZE - 1);
+                synchronized (writeLock) {
+                    write(batch);
+                    writeLock.notifyAll();
+                }
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            // Let the next published record start a new thread.
+            synchronized (this) {
+                writerThread = null;
+            }
+        }
+    }
+
+    /**
+     * Writes a batch of records and flushes the stream. Must be called holding the write lock.
+     */
+    private void write(List<LogRecord> batch) {
+        writtenCount += batch.size();
+        try {
+            Formatter formatter = getFormatter();
+            for (LogRecord record : batch) {
+                writer.write(formatter.format(record));
+            }
+            long dropped = droppedCount.getAndSet(0);
+            if (dropped > 0) {
+                writer.write("KeenLogging dropped " + dropped + " log records\n");
+            }
+            writer.flush();
+        } catch (IOException e) {
+            reportError(null, e, ErrorManager.WRITE_FAILURE);
+        } catch (RuntimeException e) {
+            reportError(null, e, ErrorManager.FORMAT_FAILURE);
+        }
+    }
+
+}
@@ -0,0 +1,176 @@
+package io.keen.client.java;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Applies {@link EvictionPolicy} limits to the events a store has queued for one project. The
+ * store describes its events through a {@link Queue}, and each call evicts only as many of the
+ * oldest events as are needed, so the cost is proportional to the number of events evicted plus
+ * the number of collections.
+ *
+ * @author Keen IO
+ * @since 5.1.0
+ */
+final class EventEvictor {
+
+    /**
+     * The events a store has queued for one project, as seen by the evictor.
+     */
+    interface Queue {
+
+        /**
+         * @return The names of the project's collections.
+         */
+        Collection<String> getCollections();
+
+        /**
+         * @param eventCollection The name of a collection.
+         * @return The number of events in the collection.
+         */
+        int getEventCount(String eventCollection);
+
+        /**
+         * @param eventCollection The name of a collection.
+         * @return The total size of the events in the collection, in bytes.
+         */
+        long getByteCount(String eventCollection);
+
+        /**
+         * @param eventCollection The name of a collection.
+         * @return When the oldest event in the collection was stored, in milliseconds since the
+         * epoch, or {@link Long#MAX_VALUE} if the collection is empty.
+         */
+        long getOldestTime(String eventCollection);
+
+        /**
+         * Removes the oldest event in a collection.
+         *
+         * @param eventCollection The name of a non-empty collection.
+         * @return Whether the event was removed.
+         * @throws IOException If there is an error removing the event.
+         */
+        boolean removeOldest(String eventCollection) throws IOException;
+    }
+
+    ///// PACKAGE STATIC METHODS /////
+
+    /**
+     * Evicts events so that the project's queue satisfies the given policies once an event of
+     * the given size is added to the given collection.
+     *
+     * @param policies        The policies.
+     * @param queue           The project's events.
+     * @param eventCollection The collection to which an event is about to be added.
+     * @param size            The size of the event, in bytes.
+     * @param now             The current time, in milliseconds since the epoch.
+     * @param metrics         The metrics to which evictions are reported.
+     * @throws IOException If there is an error removing an event.
+     */
+    static void makeRoom(List<EvictionPolicy> policies, Queue queue, String eventCollection,
+                         long size, long now, KeenMetrics metrics) throws IOException {
+        removeExpired(policies, queue, now, metrics);
+        for (EvictionPolicy policy : policies) {
+            long limit = policy.getValue();
+            switch (policy.getKind()) {
+                case MAX_EVENTS_PER_COLLECTION:
+                    while (queue.getEventCount(eventCollection) >= limit) {
+                        if (!evict(queue, eventCollection, metrics)) {
+                            break;
+                        }
+                    }
+                    break;
+                case MAX_BYTES_PER_COLLECTION:
+                    while (queue.getEventCount(eventCollection) > 0
+                            && queue.getByteCount(eventCollection) + size > limit) {
+                        if (!evict(queue, eventCollection, metrics)) {
+                            break;
+                        }
+                    }
+                    break;
+                case MAX_BYTES_PER_PROJECT:
+                    while (getProjectByteCount(queue) + size > limit) {
+                        String oldestCollection = getOldestCollection(queue);
+                        if (oldestCollection == null
+                                || !evict(queue, oldestCollection, metrics)) {
+                            break;
+                        }
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Evicts the events which are older than any {@link EvictionPolicy#maxAge(long)} policy
+     * allows.
+     *
+     * @param policies The policies.
+     * @param queue    The project's events.
+     * @param now      The current time, in milliseconds since the epoch.
+     * @param metrics  The metrics to which evictions are reported.
+     * @throws IOException If there is an error removing an event.
+     */
+    static void removeExpired(List<EvictionPolicy> policies, Queue queue, long now,
+                              KeenMetrics metrics) throws IOException {
+        for (EvictionPolicy policy : policies) {
+            if (policy.getKind() != EvictionPolicy.Kind.MAX_AGE) {
+                continue;
+            }
+            long oldestAllowed = now - policy.getValue();
+            for (String eventCollection : queue.getCollections()) {
+                // Events are ordered by age, so only the oldest ones need to be checked.
+                while (queue.getOldestTime(eventCollection) < oldestAllowed
+                        && queue.removeOldest(eventCollection)) {
+                    metrics.increment(KeenMetrics.Counter.EVENTS_EXPIRED, 1);
+                }
+            }
+        }
+    }
+
+    ///// PRIVATE CONSTRUCTORS /////
+
+    private EventEvictor() {
+    }
+
+    ///// PRIVATE STATIC METHODS /////
+
+    private static boolean evict(Queue queue, String eventCollection, KeenMetrics metrics)
+            throws IOException {
+        if (!queue.removeOldest(eventCollection)) {
+            KeenLogging.log("CRITICAL: can't evict events from %s, cache is going to be too big",
+                    eventCollection);
+            return false;
+        }
+        metrics.increment(KeenMetrics.Counter.EVENTS_DROPPED, 1);
+        return true;
+    }
+
+    private static long getProjectByteCount(Queue queue) {
+        long bytes = 0;
+        for (String eventCollection : queue.getCollections()) {
+            bytes += queue.getByteCount(eventCollection);
+        }
+        return bytes;
+    }
+
+    private static String getOldestCollection(Queue queue) {
+        String oldestCollection = null;
+        long oldestTime = Long.MAX_VALUE;
+        for (String eventCollection : queue.getCollections()) {
+            if (queue.getEventCount(eventCollection) == 0) {
+                continue;
+            }
+            long time = queue.getOldestTime(eventCollection);
+            if (oldestCollection == null || time < oldestTime) {
+                oldestCollection = eventCollection;
+                oldestTime = time;
+            }
+        }
+        return oldestCollection;
+    }
+
+}
@@ -0,0 +1,130 @@
+package io.keen.client.java;
+
+/**
+ * A limit on the queued events kept by a {@link RamEventStore} or {@link FileEventStore}, beyond
+ * its built-in cap on the number of events per collection. Policies are applied as each event is
+ * stored: just enough of the oldest events are evicted to make room for it. Events older than a
+ * {@link #maxAge(long)} policy allows are also evicted before the store returns its handles, so
+ * they are never sent.
+ * <p>
+ * Evictions to stay within a size or count limit are reported to the store's
+ * {@link KeenMetrics} as {@link KeenMetrics.Counter#EVENTS_DROPPED}, and evictions of events
+ * which are too old as {@link KeenMetrics.Counter#EVENTS_EXPIRED}.
+ * </p>
+ * <p>
+ * Sizes are measured as the store keeps the events: the encoded size of each file for a
+ * {@link FileEventStore}, and approximately two bytes per character for a
+ * {@link RamEventStore}. If a single event is larger than a size limit, every older event it
+ * competes with is evicted and the event is still stored.
+ * </p>
+ *
+ * @author Keen IO
+ * @since 5.1.0
+ */
+public final class EvictionPolicy {
+
+    enum Kind {
+        MAX_EVENTS_PER_COLLECTION,
+        MAX_BYTES_PER_COLLECTION,
+        MAX_BYTES_PER_PROJECT,
+        MAX_AGE
+    }
+
+    ///// PUBLIC STATIC METHODS /////
+
+    /**
+     * Limits the number of events queued in each collection.
+     *
+     * @param events The maximum number of events per collection; must be positive.
+     * @return The policy.
+     */
+    public static EvictionPolicy maxEventsPerCollection(int events) {
+        if (events <= 0) {
+            throw new IllegalArgumentException("Maximum events per collection must be positive");
+        }
+        return new EvictionPolicy(Kind.MAX_EVENTS_PER_COLLECTION, events);
+    }
+
+    /**
+     * Limits the total size of the events queued in each collection.
+     *
+     * @param bytes The maximum size of each collection's events; must be positive.
+     * @return The policy.
+     */
+    public static EvictionPolicy maxBytesPerCollection(long bytes) {
+        if (bytes <= 0) {
+            throw new IllegalArgumentException("Maximum bytes per collection must be positive");
+        }
+        return new EvictionPolicy(Kind.MAX_BYTES_PER_COLLECTION, bytes);
+    }
+
+    /**
+     * Limits the total size of the events queued in all of a project's collections. When the
+     * budget is exceeded the oldest events are evicted, whichever collection they are in.
+     *
+     * @param bytes The maximum size of each project's events; must be positive.
+     * @return The policy.
+     */
+    public static EvictionPolicy maxBytesPerProject(long bytes) {
+        if (bytes <= 0) {
+            throw new IllegalArgumentException("Maximum bytes per project must be positive");
+        }
+        return new EvictionPolicy(Kind.MAX_BYTES_PER_PROJECT, bytes);
+    }
+
+    /**
+     * Limits how long an event may stay queued.
+     *
+     * @param millis The maximum time since an event was stored, in milliseconds; must be
+     *               positive.
+     * @return The policy.
+     */
+    public static EvictionPolicy maxAge(long millis) {
+        if (millis <= 0) {
+            throw new IllegalArgumentException("Maximum age must be positive");
+        }
+        return new EvictionPolicy(Kind.MAX_AGE, millis);
+    }
+
+    ///// PUBLIC METHODS /////
+
+    @Override
+    public String toString() {
+        switch (kind) {
+            case MAX_EVENTS_PER_COLLECTION:
+                return "maxEventsPerCollection(" + value + ")";
+            case MAX_BYTES_PER_COLLECTION:
+                return "maxBytesPerCollection(" + value + ")";
+            case MAX_BYTES_PER_PROJECT:
+                return "maxBytesPerProject(" + value + ")";
+            default:
+                return "maxAge(" + value + ")";
+        }
+    }
+
+    ///// PACKAGE METHODS /////
+
+    Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * @return The number of events, bytes or milliseconds allowed, depending on the kind.
+     */
+    long getValue() {
+        return value;
+    }
+
+    ///// PRIVATE CONSTRUCTORS /////
+
+    private EvictionPolicy(Kind kind, long value) {
+        this.kind = kind;
+        this.value = value;
+    }
+
+    ///// PRIVATE FIELDS /////
+
+    private final Kind kind;
+    private final long value;
+
+}
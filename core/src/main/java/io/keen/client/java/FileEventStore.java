@@ -2,44 +2,96 @@ package io.keen.client.java;
 
 import java.io.File;
 import java.io.FileFilter;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Calendar;
+import java.util.Collection;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
 
 /**
  * Implementation of the {@link io.keen.client.java.KeenEventStore} interface using the file system
  * to cache events in between queueing and batch posting.
+ * <p>
+ * Each project directory holds an index of its event files, so that the queued events can be
+ * found quickly however many there are, without listing every file. The index is rebuilt from
+ * the files themselves if it's missing or out of date. Only one store should use a given root
+ * directory at a time.
+ * </p>
  *
  * @author Kevin Litwack (kevin@kevinlitwack.com)
  * @since 2.0.0
  */
-public class FileEventStore implements KeenAttemptCountingEventStore {
+public class FileEventStore implements KeenAttemptCountingEventStore,
+        KeenMetricsReportingEventStore, KeenCursorEventStore {
 
     ///// PUBLIC CONSTRUCTORS /////
 
     /**
-     * Constructs a new File-based event store.
+     * Constructs a new File-based event store which stores events as UTF-8 JSON text.
      *
      * @param root The root directory in which to store queued event files.
      * @throws IOException If the provided {@code root} isn't an existing directory.
      */
     public FileEventStore(File root) throws IOException {
+        this(root, JSON_CODEC);
+    }
+
+    /**
+     * Constructs a new File-based event store which uses the given codec to encode events on disk.
+     * Events which were written as plain JSON (e.g. by an earlier version of the library) can
+     * still be read regardless of the codec.
+     *
+     * @param root  The root directory in which to store queued event files.
+     * @param codec The {@link KeenEventCodec} to use to encode and decode event files.
+     * @throws IOException If the provided {@code root} isn't an existing directory.
+     */
+    public FileEventStore(File root, KeenEventCodec codec) throws IOException {
+        this(root, codec, new KeenEventCodec[0]);
+    }
+
+    /**
+     * Constructs a new File-based event store which uses the given codec to encode events on disk,
+     * and can also read events which were written with other codecs, e.g. before the store's codec
+     * was changed. Each event file is decoded with the codec whose suffix it carries; files with
+     * no suffix are plain JSON.
+     *
+     * @param root       The root directory in which to store queued event files.
+     * @param codec      The {@link KeenEventCodec} to use to encode and decode event files.
+     * @param readCodecs Other codecs with which event files already in the store may have been
+     *                   written.
+     * @throws IOException If the provided {@code root} isn't an existing directory.
+     */
+    public FileEventStore(File root, KeenEventCodec codec, KeenEventCodec... readCodecs)
+            throws IOException {
         if (!root.exists() || !root.isDirectory()) {
             throw new IOException("Event store root '" + root + "' must exist and be a directory");
         }
+        if (codec == null) {
+            throw new IllegalArgumentException("Event codec must not be null");
+        }
 
         this.root = root;
+        this.codec = codec;
+        codecsBySuffix = new HashMap<String, KeenEventCodec>();
+        codecsBySuffix.put(JSON_CODEC.getFileSuffix(), JSON_CODEC);
+        for (KeenEventCodec readCodec : readCodecs) {
+            if (readCodec == null) {
+                throw new IllegalArgumentException("Event codecs must not be null");
+            }
+            codecsBySuffix.put(readCodec.getFileSuffix(), readCodec);
+        }
+        codecsBySuffix.put(codec.getFileSuffix(), codec);
     }
 
     ///// PUBLIC METHODS /////
@@ -50,25 +102,45 @@ public class FileEventStore implements KeenAttemptCountingEventStore {
     @Override
     public Object store(String projectId, String eventCollection,
                         String event) throws IOException {
-        // Prepare the collection cache directory.
-        File collectionCacheDir = prepareCollectionDir(projectId, eventCollection);
+        // Encode the event before taking the index lock.
+        byte[] data = codec.encode(event);
+
+        FileEventStoreIndex index = getIndex(projectId, true);
+        synchronized (index) {
+            // Prepare the collection cache directory.
+            File collectionCacheDir = prepareCollectionDir(index, projectId, eventCollection);
+            List<EvictionPolicy> policies = evictionPolicies;
+            if (!policies.isEmpty()) {
+                EventEvictor.makeRoom(policies, getQueue(index, collectionCacheDir.getParentFile()),
+                        eventCollection, data.length, System.currentTimeMillis(), metrics);
+            }
 
-        // Create the cache file.
-        Calendar timestamp = Calendar.getInstance();
-        File cacheFile = getFileForEvent(collectionCacheDir, timestamp);
+            // Create the cache file.
+            Calendar timestamp = Calendar.getInstance();
+            File cacheFile = getFileForEvent(collectionCacheDir, timestamp);
+
+            // Write the event to the cache file, and don't leave a partial file behind if that
+            // fails.
+            index.changing(eventCollection);
+            boolean isWritten = false;
+            OutputStream out = null;
+            try {
+                out = new FileOutputStream(cacheFile);
+                out.write(data);
+                out.close();
+                isWritten = true;
+            } finally {
+                KeenUtils.closeQuietly(out);
+                if (!isWritten) {
+                    cacheFile.delete();
+                    index.touched(eventCollection);
+                }
+            }
+            index.added(eventCollection, cacheFile.getName(), data.length);
 
-        // Write the event to the cache file.
-        Writer writer = null;
-        try {
-            OutputStream out = new FileOutputStream(cacheFile);
-            writer = new OutputStreamWriter(out, ENCODING);
-            writer.write(event);
-        } finally {
-            KeenUtils.closeQuietly(writer);
+            // Return the file as the handle to use for retrieving/removing the event.
+            return cacheFile;
         }
-
-        // Return the file as the handle to use for retrieving/removing the event.
-        return cacheFile;
     }
 
     /**
@@ -81,11 +153,7 @@ public class FileEventStore implements KeenAttemptCountingEventStore {
         }
 
         File eventFile = (File) handle;
-        if (eventFile.exists() && eventFile.isFile()) {
-            return KeenUtils.convertFileToString(eventFile);
-        } else {
-            return null;
-        }
+        return readFile(eventFile, getCodecForFile(eventFile));
     }
 
     /**
@@ -98,18 +166,16 @@ public class FileEventStore implements KeenAttemptCountingEventStore {
         }
 
         File eventFile = (File) handle;
-        if (eventFile.exists() && eventFile.isFile()) {
-            if (eventFile.delete()) {
-                KeenLogging.log(String.format(Locale.US, "Successfully deleted file: %s",
-                        eventFile.getAbsolutePath()));
-            } else {
-                KeenLogging.log(String.format(Locale.US,
-                        "CRITICAL ERROR: Could not remove event at %s",
-                        eventFile.getAbsolutePath()));
-            }
-        } else {
-            KeenLogging.log(String.format(Locale.US, "WARNING: no event found at %s",
-                    eventFile.getAbsolutePath()));
+        FileEventStoreIndex index = getIndexForFile(eventFile);
+        if (index == null) {
+            deleteEventFile(eventFile);
+            return;
+        }
+
+        synchronized (index) {
+            index.changing(eventFile.getParentFile().getName());
+            deleteEventFile(eventFile);
+            index.removed(eventFile.getParentFile().getName(), eventFile.getName());
         }
     }
 
@@ -118,12 +184,15 @@ public class FileEventStore implements KeenAttemptCountingEventStore {
      */
     @Override
     public Map<String, List<Object>> getHandles(String projectId) throws IOException {
-        File projectDir = getProjectDir(projectId, false);
-        if (projectDir.exists() && projectDir.isDirectory()) {
-            return getHandlesFromProjectDirectory(projectDir);
-        } else {
+        FileEventStoreIndex index = getIndex(projectId, false);
+        if (index == null) {
             return new HashMap<String, List<Object>>();
         }
+
+        synchronized (index) {
+            removeExpired(index, getProjectDir(projectId, false));
+            return index.getHandles();
+        }
     }
 
     /**
@@ -134,7 +203,7 @@ public class FileEventStore implements KeenAttemptCountingEventStore {
         File projectDir = getProjectDir(projectId, false);
         File collectionDir = new File(projectDir, eventCollection);
         File attemptsFile = new File(collectionDir, ATTEMPTS_JSON_FILE_NAME);
-        return get(attemptsFile);
+        return readFile(attemptsFile, JSON_CODEC);
     }
 
     /**
@@ -142,23 +211,83 @@ public class FileEventStore implements KeenAttemptCountingEventStore {
      */
     @Override
     public void setAttempts(String projectId, String eventCollection, String attemptsString) throws IOException {
-        // Prepare the collection cache directory.
-        File collectionCacheDir = prepareCollectionDir(projectId, eventCollection);
+        FileEventStoreIndex index = getIndex(projectId, true);
+        synchronized (index) {
+            // Prepare the collection cache directory.
+            File collectionCacheDir = prepareCollectionDir(index, projectId, eventCollection);
 
-        // Create the cache file.
-        File cacheFile = new File(collectionCacheDir, ATTEMPTS_JSON_FILE_NAME);
+            // Create the cache file.
+            File cacheFile = new File(collectionCacheDir, ATTEMPTS_JSON_FILE_NAME);
+            boolean isNew = !cacheFile.exists();
 
-        // Write the event to the cache file.
-        OutputStream out = new FileOutputStream(cacheFile);
-        Writer writer = null;
-        try {
-            writer = new OutputStreamWriter(out, ENCODING);
-            writer.write(attemptsString);
-        } finally {
-            KeenUtils.closeQuietly(writer);
+            // Write the event to the cache file.
+            OutputStream out = new FileOutputStream(cacheFile);
+            Writer writer = null;
+            try {
+                writer = new OutputStreamWriter(out, ENCODING);
+                writer.write(attemptsString);
+            } finally {
+                KeenUtils.closeQuietly(writer);
+                if (isNew) {
+                    // Creating the file changed the directory, so the index must know about it.
+                    index.touched(eventCollection);
+                }
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public KeenHandlePage getHandles(String projectId, Object cursor, int maxHandles)
+            throws IOException {
+        final FileEventStoreIndex index = getIndex(projectId, false);
+        if (index == null) {
+            return new KeenHandlePage(new HashMap<String, List<Object>>(), null);
+        }
+
+        final File projectDir = getProjectDir(projectId, false);
+        synchronized (index) {
+            removeExpired(index, projectDir);
+            return HandleCursor.getPage(new HandleCursor.Source() {
+                @Override
+                public Collection<String> getCollections() {
+                    return index.getCollections();
+                }
+
+                @Override
+                public Iterator<?> getPositionsAfter(String eventCollection, Object after) {
+                    return index.getNamesAfter(eventCollection, (String) after);
+                }
+
+                @Override
+                public Object getHandle(String eventCollection, Object position) {
+                    return new File(new File(projectDir, eventCollection), (String) position);
+                }
+            }, cursor, maxHandles);
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setMetrics(KeenMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Sets the eviction policies applied in addition to the maximum number of events per
+     * collection, replacing any set previously. Events are measured by the size of their files.
+     *
+     * @param policies The eviction policies.
+     */
+    public void setEvictionPolicies(EvictionPolicy... policies) {
+        evictionPolicies = Collections.unmodifiableList(
+                new ArrayList<EvictionPolicy>(Arrays.asList(policies)));
+    }
+
     ///// PRIVATE CONSTANTS /////
 
     /**
@@ -181,87 +310,169 @@ public class FileEventStore implements KeenAttemptCountingEventStore {
      */
     private static final String ATTEMPTS_JSON_FILE_NAME = "__attempts.json";
 
+    /**
+     * The codec used for plain JSON files, including the attempts file.
+     */
+    private static final KeenEventCodec JSON_CODEC = new Utf8JsonEventCodec();
+
+    /**
+     * Accepts the files in a collection directory which hold events.
+     */
+    private static final FileFilter EVENT_FILE_FILTER = new FileFilter() {
+        public boolean accept(File file) {
+            return file.isFile() && !file.getName().equals(ATTEMPTS_JSON_FILE_NAME);
+        }
+    };
+
     ///// PRIVATE FIELDS /////
 
     private final File root;
+    private final KeenEventCodec codec;
+    private final Map<String, KeenEventCodec> codecsBySuffix;
+    private volatile KeenMetrics metrics = new NoOpKeenMetrics();
+    private volatile List<EvictionPolicy> evictionPolicies = Collections.emptyList();
+    private final Map<String, FileEventStoreIndex> indexes =
+            new HashMap<String, FileEventStoreIndex>();
 
     ///// PRIVATE METHODS /////
 
     /**
-     * Gets the handle map for all collections in the specified project cache directory.
+     * Gets the index of the event files for the given project, loading it the first time it's
+     * needed.
      *
-     * @param projectDir The cache directory for the project.
-     * @return The handle map. See {@link #getHandles(String)} for details.
-     * @throws IOException If there is an error reading the event files.
-     */
-    private Map<String, List<Object>> getHandlesFromProjectDirectory(File projectDir) throws
-            IOException {
-        File[] collectionDirs = getSubDirectories(projectDir);
-
-        Map<String, List<Object>> handleMap = new HashMap<String, List<Object>>();
-        if (collectionDirs != null) {
-            // iterate through the directories
-            for (File directory : collectionDirs) {
-                String collectionName = directory.getName();
-                File[] files = getFilesInDir(directory);
-                if (files != null) {
-                    List<Object> handleList = new ArrayList<Object>();
-                    handleList.addAll(Arrays.asList(files));
-                    handleMap.put(collectionName, handleList);
-                } else {
-                    KeenLogging.log("Directory was null while getting event handles: " + collectionName);
+     * @param projectId The project ID.
+     * @param create    Whether to create the project directory if it doesn't exist.
+     * @return The index, or null if the project directory doesn't exist and {@code create} is
+     * false.
+     * @throws IOException If there is an error loading the index.
+     */
+    private FileEventStoreIndex getIndex(String projectId, boolean create) throws IOException {
+        synchronized (indexes) {
+            FileEventStoreIndex index = indexes.get(projectId);
+            if (index == null) {
+                File projectDir = getProjectDir(projectId, create);
+                if (!projectDir.isDirectory()) {
+                    return null;
                 }
+                index = FileEventStoreIndex.load(projectDir, EVENT_FILE_FILTER);
+                indexes.put(projectId, index);
             }
+            return index;
         }
+    }
 
-        return handleMap;
+    /**
+     * Gets the index which contains the given event file.
+     *
+     * @param eventFile An event file.
+     * @return The index, or null if the file isn't in a project directory of this store.
+     * @throws IOException If there is an error loading the index.
+     */
+    private FileEventStoreIndex getIndexForFile(File eventFile) throws IOException {
+        File collectionDir = eventFile.getParentFile();
+        File projectDir = collectionDir == null ? null : collectionDir.getParentFile();
+        if (projectDir == null || !getKeenCacheDirectory().equals(projectDir.getParentFile())) {
+            return null;
+        }
+        return getIndex(projectDir.getName(), false);
     }
 
     /**
-     * Gets the root directory of the Keen cache, based on the root directory passed to the
-     * constructor of this file store. If necessary, this method will attempt to create the
-     * directory.
+     * Deletes an event file, logging the outcome.
      *
-     * @return The root directory of the cache.
+     * @param eventFile The event file.
      */
-    private File getKeenCacheDirectory() throws IOException {
-        File file = new File(root, "keen");
-        if (!file.exists()) {
-            boolean dirMade = file.mkdir();
-            if (!dirMade) {
-                throw new IOException("Could not make keen cache directory at: " + file.getAbsolutePath());
+    private void deleteEventFile(File eventFile) {
+        if (eventFile.exists() && eventFile.isFile()) {
+            if (eventFile.delete()) {
+                KeenLogging.log("Successfully deleted file: %s", eventFile);
+            } else {
+                KeenLogging.log("CRITICAL ERROR: Could not remove event at %s", eventFile);
             }
+        } else {
+            KeenLogging.log("WARNING: no event found at %s", eventFile);
+        }
+    }
+
+    /**
+     * Removes the events in a project which are older than the eviction policies allow. The
+     * caller must hold the index's monitor.
+     *
+     * @param index      The index of the project's event files.
+     * @param projectDir The project directory.
+     * @throws IOException If there is an error removing an event.
+     */
+    private void removeExpired(FileEventStoreIndex index, File projectDir) throws IOException {
+        List<EvictionPolicy> policies = evictionPolicies;
+        if (!policies.isEmpty()) {
+            EventEvictor.removeExpired(policies, getQueue(index, projectDir),
+                    System.currentTimeMillis(), metrics);
         }
-        return file;
     }
 
     /**
-     * Gets an array containing all of the sub-directories in the given parent directory.
+     * Gets a view of a project's event files for the {@link EventEvictor}. The caller must hold
+     * the index's monitor while using it.
      *
-     * @param parent The directory from which to get sub-directories.
-     * @return An array of sub-directories.
-     * @throws IOException If there is an error listing the files in the directory.
-     */
-    private File[] getSubDirectories(File parent) throws IOException {
-        return parent.listFiles(new FileFilter() { // Can return null if there are no events
-            public boolean accept(File file) {
-                return file.isDirectory();
+     * @param index      The index of the project's event files.
+     * @param projectDir The project directory.
+     * @return The view.
+     */
+    private EventEvictor.Queue getQueue(final FileEventStoreIndex index, final File projectDir) {
+        return new EventEvictor.Queue() {
+            @Override
+            public Collection<String> getCollections() {
+                return index.getCollections();
+            }
+
+            @Override
+            public int getEventCount(String eventCollection) {
+                return index.size(eventCollection);
+            }
+
+            @Override
+            public long getByteCount(String eventCollection) {
+                return index.getByteCount(eventCollection);
+            }
+
+            @Override
+            public long getOldestTime(String eventCollection) {
+                return index.getOldestTime(eventCollection);
             }
-        });
+
+            @Override
+            public boolean removeOldest(String eventCollection) throws IOException {
+                List<String> oldest = index.getOldest(eventCollection, 1);
+                if (oldest.isEmpty()) {
+                    return false;
+                }
+                File f = new File(new File(projectDir, eventCollection), oldest.get(0));
+                index.changing(eventCollection);
+                if (!f.delete() && f.exists()) {
+                    return false;
+                }
+                index.removed(eventCollection, oldest.get(0));
+                return true;
+            }
+        };
     }
 
     /**
-     * Gets an array containing all of the files in the given directory.
+     * Gets the root directory of the Keen cache, based on the root directory passed to the
+     * constructor of this file store. If necessary, this method will attempt to create the
+     * directory.
      *
-     * @param dir A directory.
-     * @return An array containing all of the files in the given directory.
+     * @return The root directory of the cache.
      */
-    private File[] getFilesInDir(File dir) {
-        return dir.listFiles(new FileFilter() {
-            public boolean accept(File file) {
-                return file.isFile() && !file.getName().equals(ATTEMPTS_JSON_FILE_NAME);
+    private File getKeenCacheDirectory() throws IOException {
+        File file = new File(root, "keen");
+        if (!file.exists()) {
+            boolean dirMade = file.mkdir();
+            if (!dirMade) {
+                throw new IOException("Could not make keen cache directory at: " + file.getAbsolutePath());
             }
-        });
+        }
+        return file;
     }
 
     /**
@@ -275,8 +486,7 @@ public class FileEventStore implements KeenAttemptCountingEventStore {
     private File getProjectDir(String projectId, boolean create) throws IOException {
         File projectDir = new File(getKeenCacheDirectory(), projectId);
         if (create && !projectDir.exists()) {
-            KeenLogging.log("Cache directory for project '" + projectId + "' doesn't exist. " +
-                    "Creating it.");
+            KeenLogging.log("Cache directory for project '%s' doesn't exist. Creating it.", projectId);
             if (!projectDir.mkdirs()) {
                 throw new IOException("Could not create project cache directory '" +
                         projectDir.getAbsolutePath() + "'");
@@ -296,8 +506,8 @@ public class FileEventStore implements KeenAttemptCountingEventStore {
     private File getCollectionDir(String projectId, String eventCollection) throws IOException {
         File collectionDir = new File(getProjectDir(projectId, true), eventCollection);
         if (!collectionDir.exists()) {
-            KeenLogging.log("Cache directory for event collection '" + eventCollection +
-                    "' doesn't exist. Creating it.");
+            KeenLogging.log("Cache directory for event collection '%s' doesn't exist. " +
+                    "Creating it.", eventCollection);
             if (!collectionDir.mkdirs()) {
                 throw new IOException("Could not create collection cache directory '" +
                         collectionDir.getAbsolutePath() + "'");
@@ -337,7 +547,76 @@ public class FileEventStore implements KeenAttemptCountingEventStore {
     private File getNextFileForEvent(File dir, Calendar timestamp, int counter) {
         long timestampInMillis = timestamp.getTimeInMillis();
         String name = Long.toString(timestampInMillis);
-        return new File(dir, name + "." + counter);
+        return new File(dir, name + "." + counter + codec.getFileSuffix());
+    }
+
+    /**
+     * Gets the codec which should be used to decode the given event file, based on its own
+     * suffix rather than this store's codec. Files with no suffix are plain JSON.
+     *
+     * @param eventFile The event file.
+     * @return The codec to use to decode the file.
+     * @throws IOException If none of this store's codecs wrote files with the file's suffix.
+     */
+    private KeenEventCodec getCodecForFile(File eventFile) throws IOException {
+        String suffix = getFileSuffix(eventFile.getName());
+        KeenEventCodec fileCodec = codecsBySuffix.get(suffix);
+        if (fileCodec == null) {
+            KeenLogging.log("No event codec for files with suffix '%s'; can't read %s",
+                    suffix, eventFile);
+            throw new IOException("No event codec for files with suffix '" + suffix + "': "
+                    + eventFile);
+        }
+        return fileCodec;
+    }
+
+    /**
+     * Gets the codec suffix of an event file's name, which is everything after the counter in
+     * names of the form {@code <timestamp>.<counter><suffix>}.
+     *
+     * @param name The name of the event file.
+     * @return The suffix, or an empty string if the name has none.
+     */
+    private static String getFileSuffix(String name) {
+        int counterStart = name.indexOf('.');
+        int suffixStart = counterStart < 0 ? -1 : name.indexOf('.', counterStart + 1);
+        return suffixStart < 0 ? "" : name.substring(suffixStart);
+    }
+
+    /**
+     * Reads and decodes the contents of a file.
+     *
+     * @param file  The file to read.
+     * @param codec The codec with which to decode the file's contents.
+     * @return The decoded contents of the file, or null if the file doesn't exist.
+     * @throws IOException If there is an error reading or decoding the file.
+     */
+    private String readFile(File file, KeenEventCodec codec) throws IOException {
+        if (!file.exists() || !file.isFile()) {
+            return null;
+        }
+
+        InputStream in = null;
+        try {
+            in = new FileInputStream(file);
+            byte[] data = new byte[(int) file.length()];
+            int offset = 0;
+            while (offset < data.length) {
+                int read = in.read(data, offset, data.length - offset);
+                if (read == -1) {
+                    break;
+                }
+                offset += read;
+            }
+            if (offset < data.length) {
+                byte[] truncated = new byte[offset];
+                System.arraycopy(data, 0, truncated, 0, offset);
+                data = truncated;
+            }
+            return codec.decode(data);
+        } finally {
+            KeenUtils.closeQuietly(in);
+        }
     }
 
     /**
@@ -361,41 +640,37 @@ public class FileEventStore implements KeenAttemptCountingEventStore {
     /**
      * Prepares the file cache for the given event collection for another event to be added. This
      * method checks to make sure that the maximum number of events per collection hasn't been
-     * exceeded, and if it has, this method discards events to make room.
+     * exceeded, and if it has, this method discards events to make room. The caller must hold
+     * the index's monitor.
      *
+     * @param index           The index of the project's event files.
      * @param projectId       The project ID.
      * @param eventCollection The name of the event collection.
      * @return The prepared cache directory for the given project/collection.
      * @throws IOException If there is an error creating the directory or validating/discarding
      *                     events.
      */
-    private File prepareCollectionDir(String projectId, String eventCollection) throws IOException {
+    private File prepareCollectionDir(FileEventStoreIndex index, String projectId,
+                                      String eventCollection) throws IOException {
         File collectionDir = getCollectionDir(projectId, eventCollection);
 
         // Make sure the max number of events has not been exceeded in this collection. If it has,
         // delete events to make room.
-        File[] eventFiles = getFilesInDir(collectionDir);
-        if (eventFiles.length >= getMaxEventsPerCollection()) {
+        int eventCount = index.size(eventCollection);
+        if (eventCount >= getMaxEventsPerCollection()) {
             // need to age out old data so the cache doesn't grow too large
-            KeenLogging.log(String.format(Locale.US, "Too many events in cache for %s, " +
-                    "aging out old data", eventCollection));
-            KeenLogging.log(String.format(Locale.US, "Count: %d and Max: %d",
-                    eventFiles.length, getMaxEventsPerCollection()));
-
-            // delete the eldest (i.e. first we have to sort the list by name)
-            List<File> fileList = Arrays.asList(eventFiles);
-            Collections.sort(fileList, new Comparator<File>() {
-                @Override
-                public int compare(File file, File file1) {
-                    return file.getAbsolutePath().compareToIgnoreCase(file1.getAbsolutePath());
-                }
-            });
-            for (int i = 0; i < getNumberEventsToForget(); i++) {
-                File f = fileList.get(i);
-                if (!f.delete()) {
-                    KeenLogging.log(String.format(Locale.US,
-                            "CRITICAL: can't delete file %s, cache is going to be too big",
-                            f.getAbsolutePath()));
+            KeenLogging.log("Too many events in cache for %s, aging out old data", eventCollection);
+            KeenLogging.log("Count: %d and Max: %d", eventCount, getMaxEventsPerCollection());
+
+            // delete the eldest, which the index keeps first
+            for (String name : index.getOldest(eventCollection, getNumberEventsToForget())) {
+                File f = new File(collectionDir, name);
+                index.changing(eventCollection);
+                if (f.delete() || !f.exists()) {
+                    metrics.increment(KeenMetrics.Counter.EVENTS_DROPPED, 1);
+                    index.removed(eventCollection, name);
+                } else {
+                    KeenLogging.log("CRITICAL: can't delete file %s, cache is going to be too big", f);
                 }
             }
         }
@@ -0,0 +1,585 @@
+package io.keen.client.java;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileFilter;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Persistent index of the event files in one project directory of a {@link FileEventStore}, so
+ * that the store can find its queued events without listing and examining every file.
+ * <p>
+ * The index is kept in two files in the project directory: a checkpoint holding the full set of
+ * event file names and sizes, and a log of the files added and removed since the checkpoint was written.
+ * Each entry also records the modification time of the collection directory after the change.
+ * Before a file is created or deleted, an entry marks the collection as changing, so that a crash
+ * part way through the change can be detected even if the directory's modification time doesn't
+ * move (it may only have a resolution of a second or two). On loading, the checkpoint is read
+ * and the log replayed on top of it; any collection directory which is marked as changing, or
+ * whose modification time doesn't match the recorded one (e.g. because files were added or
+ * removed by something other than this index), is listed again. Once
+ * the log grows larger than the index itself it is folded into a new checkpoint.
+ * </p>
+ * <p>
+ * Changes made by something else within the granularity of the file system's modification
+ * times may go unnoticed until the collection next changes, so a project directory should only
+ * be used by one store at a time. All methods must be called while holding the index's monitor.
+ * </p>
+ *
+ * @author Keen IO
+ * @since 5.1.0
+ */
+final class FileEventStoreIndex {
+
+    ///// PACKAGE STATIC METHODS /////
+
+    /**
+     * Loads the index for a project directory, rebuilding it from the directory contents where
+     * necessary.
+     *
+     * @param projectDir      The project directory.
+     * @param eventFileFilter Accepts the files in a collection directory which hold events.
+     * @return The index.
+     * @throws IOException If the directory can't be read or the index can't be written.
+     */
+    static FileEventStoreIndex load(File projectDir, FileFilter eventFileFilter)
+            throws IOException {
+        FileEventStoreIndex index = new FileEventStoreIndex(projectDir, eventFileFilter);
+        index.load();
+        return index;
+    }
+
+    ///// PACKAGE METHODS /////
+
+    /**
+     * Gets the handles of all events in the project, as returned by
+     * {@link KeenEventStore#getHandles(String)}. Each list is ordered from oldest to newest.
+     *
+     * @return The handle map.
+     */
+    Map<String, List<Object>> getHandles() {
+        Map<String, List<Object>> handleMap = new HashMap<String, List<Object>>();
+        for (Map.Entry<String, Collection> entry : collections.entrySet()) {
+            File collectionDir = new File(projectDir, entry.getKey());
+            List<Object> handles = new ArrayList<Object>(entry.getValue().names.size());
+            for (EventName name : entry.getValue().names) {
+                handles.add(new File(collectionDir, name.name));
+            }
+            handleMap.put(entry.getKey(), handles);
+        }
+        return handleMap;
+    }
+
+    /**
+     * @return The names of the collections in the project.
+     */
+    Set<String> getCollections() {
+        return collections.keySet();
+    }
+
+    /**
+     * @param eventCollection The name of the collection.
+     * @param after           The name of the event file after which to start, or null to start
+     *                        with the oldest. The file needn't still be in the index.
+     * @return The names of the event files in the collection after the given one, oldest first.
+     */
+    Iterator<String> getNamesAfter(String eventCollection, String after) {
+        Collection collection = collections.get(eventCollection);
+        if (collection == null) {
+            return Collections.<String>emptyList().iterator();
+        }
+        final Iterator<EventName> names = after == null ? collection.names.iterator() :
+                collection.names.tailSet(new EventName(after, 0), false).iterator();
+        return new Iterator<String>() {
+            @Override
+            public boolean hasNext() {
+                return names.hasNext();
+            }
+
+            @Override
+            public String next() {
+                return names.next().name;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    /**
+     * @param eventCollection The name of the collection.
+     * @return The number of events in the collection.
+     */
+    int size(String eventCollection) {
+        Collection collection = collections.get(eventCollection);
+        return collection == null ? 0 : collection.names.size();
+    }
+
+    /**
+     * @param eventCollection The name of the collection.
+     * @return The total size of the event files in the collection, in bytes.
+     */
+    long getByteCount(String eventCollection) {
+        Collection collection = collections.get(eventCollection);
+        return collection == null ? 0 : collection.bytes;
+    }
+
+    /**
+     * @param eventCollection The name of the collection.
+     * @return The time in the name of the oldest event file in the collection, which is when it
+     * was stored, or {@link Long#MAX_VALUE} if the collection is empty.
+     */
+    long getOldestTime(String eventCollection) {
+        Collection collection = collections.get(eventCollection);
+        return collection == null || collection.names.isEmpty() ? Long.MAX_VALUE :
+                collection.names.first().millis;
+    }
+
+    /**
+     * @param eventCollection The name of the collection.
+     * @param count           The maximum number of file names to return.
+     * @return The names of the oldest event files in the collection, oldest first.
+     */
+    List<String> getOldest(String eventCollection, int count) {
+        List<String> oldest = new ArrayList<String>(count);
+        Collection collection = collections.get(eventCollection);
+        if (collection != null) {
+            Iterator<EventName> names = collection.names.iterator();
+            while (names.hasNext() && oldest.size() < count) {
+                oldest.add(names.next().name);
+            }
+        }
+        return oldest;
+    }
+
+    /**
+     * Records that an event file is about to be created or deleted in a collection. Until the
+     * change is recorded with {@link #added}, {@link #removed} or {@link #touched}, the
+     * collection is listed again whenever the index is loaded.
+     *
+     * @param eventCollection The name of the collection.
+     * @throws IOException If the change can't be written to the log.
+     */
+    void changing(String eventCollection) throws IOException {
+        Collection collection = getOrCreateCollection(eventCollection);
+        collection.lastModified = UNKNOWN_LAST_MODIFIED;
+        append(OP_CHANGING, eventCollection, "", 0, UNKNOWN_LAST_MODIFIED);
+    }
+
+    /**
+     * Records that an event file has been written.
+     *
+     * @param eventCollection The name of the collection.
+     * @param name            The name of the event file.
+     * @param size            The size of the event file, in bytes.
+     * @throws IOException If the change can't be written to the log.
+     */
+    void added(String eventCollection, String name, long size) throws IOException {
+        Collection collection = getOrCreateCollection(eventCollection);
+        collection.add(new EventName(name, size));
+        collection.lastModified = getLastModified(eventCollection);
+        append(OP_ADD, eventCollection, name, size, collection.lastModified);
+    }
+
+    /**
+     * Records that an event file has been deleted.
+     *
+     * @param eventCollection The name of the collection.
+     * @param name            The name of the event file.
+     * @throws IOException If the change can't be written to the log.
+     */
+    void removed(String eventCollection, String name) throws IOException {
+        Collection collection = collections.get(eventCollection);
+        if (collection == null || !collection.remove(name)) {
+            return;
+        }
+        collection.lastModified = getLastModified(eventCollection);
+        append(OP_REMOVE, eventCollection, name, 0, collection.lastModified);
+    }
+
+    /**
+     * Records that a collection directory has changed without any event files being added or
+     * removed, e.g. because its attempts file was created.
+     *
+     * @param eventCollection The name of the collection.
+     * @throws IOException If the change can't be written to the log.
+     */
+    void touched(String eventCollection) throws IOException {
+        Collection collection = getOrCreateCollection(eventCollection);
+        collection.lastModified = getLastModified(eventCollection);
+        append(OP_TOUCH, eventCollection, "", 0, collection.lastModified);
+    }
+
+    ///// PRIVATE CONSTANTS /////
+
+    private static final String CHECKPOINT_FILE_NAME = "__index.checkpoint";
+    private static final String LOG_FILE_NAME = "__index.log";
+
+    private static final int CHECKPOINT_MAGIC = 0x4b494458;
+    private static final int CHECKPOINT_VERSION = 2;
+
+    private static final byte OP_ADD = '+';
+    private static final byte OP_REMOVE = '-';
+    private static final byte OP_TOUCH = 'M';
+    private static final byte OP_CHANGING = '?';
+
+    /**
+     * The modification time recorded for a collection which is being changed. No directory has
+     * this modification time, so the collection is always listed again.
+     */
+    private static final long UNKNOWN_LAST_MODIFIED = -1;
+
+    /**
+     * The minimum number of log entries before the log is folded into a new checkpoint.
+     */
+    private static final int MIN_LOG_ENTRIES_BEFORE_CHECKPOINT = 1000;
+
+    ///// PRIVATE TYPES /////
+
+    private static final class Collection {
+        final TreeSet<EventName> names = new TreeSet<EventName>();
+        long bytes;
+        long lastModified;
+
+        void add(EventName name) {
+            if (names.add(name)) {
+                bytes += name.size;
+            }
+        }
+
+        boolean remove(String name) {
+            // Find the stored entry, which knows the size of the file.
+            EventName key = new EventName(name, 0);
+            EventName stored = names.ceiling(key);
+            if (stored == null || !stored.equals(key)) {
+                return false;
+            }
+            names.remove(stored);
+            bytes -= stored.size;
+            return true;
+        }
+    }
+
+    /**
+     * An event file name ({@code <millis>.<counter><suffix>}), parsed once so that names can be
+     * ordered from oldest to newest cheaply. Names which don't follow the pattern sort after
+     * those which do. The size of the file is carried along but plays no part in the ordering.
+     */
+    private static final class EventName implements Comparable<EventName> {
+        final String name;
+        final long millis;
+        final long counter;
+        final long size;
+
+        EventName(String name, long size) {
+            this.name = name;
+            this.size = size;
+            int dot = name.indexOf('.');
+            this.millis = parseNumber(name, 0);
+            this.counter = dot < 0 ? Long.MAX_VALUE : parseNumber(name, dot + 1);
+        }
+
+        @Override
+        public int compareTo(EventName other) {
+            if (millis != other.millis) {
+                return millis < other.millis ? -1 : 1;
+            }
+            if (counter != other.counter) {
+                return counter < other.counter ? -1 : 1;
+            }
+            return name.compareTo(other.name);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof EventName && name.equals(((EventName) o).name);
+        }
+
+        @Override
+        public int hashCode() {
+            return name.hashCode();
+        }
+
+        private static long parseNumber(String name, int start) {
+            long value = 0;
+            int end = start;
+            // Limit the digits so that the value can't overflow.
+            while (end < name.length() && end - start < 18
+                    && name.charAt(end) >= '0' && name.charAt(end) <= '9') {
+                value = value * 10 + (name.charAt(end) - '0');
+                end++;
+            }
+            return end == start ? Long.MAX_VALUE : value;
+        }
+    }
+
+    ///// PRIVATE FIELDS /////
+
+    private final File projectDir;
+    private final FileFilter eventFileFilter;
+    private final File checkpointFile;
+    private final File logFile;
+    private final Map<String, Collection> collections = new HashMap<String, Collection>();
+    private int logEntries;
+
+    ///// PRIVATE CONSTRUCTORS /////
+
+    private FileEventStoreIndex(File projectDir, FileFilter eventFileFilter) {
+        this.projectDir = projectDir;
+        this.eventFileFilter = eventFileFilter;
+        this.checkpointFile = new File(projectDir, CHECKPOINT_FILE_NAME);
+        this.logFile = new File(projectDir, LOG_FILE_NAME);
+    }
+
+    ///// PRIVATE METHODS /////
+
+    private void load() throws IOException {
+        // Without a checkpoint every collection is listed again below, and the log may be in an
+        // older format, so there's no point replaying it.
+        boolean isCheckpointNeeded = !readCheckpoint();
+        if (isCheckpointNeeded) {
+            logEntries = 0;
+        } else if (!replayLog()) {
+            // New entries can't be appended after a damaged one.
+            isCheckpointNeeded = true;
+        }
+
+        // Check each collection directory against the index. This only needs one stat per
+        // collection; the event files themselves are only listed if the directory has changed.
+        File[] collectionDirs = projectDir.listFiles(new FileFilter() {
+            public boolean accept(File file) {
+                return file.isDirectory();
+            }
+        });
+        Map<String, Collection> found = new HashMap<String, Collection>();
+        if (collectionDirs != null) {
+            for (File collectionDir : collectionDirs) {
+                String eventCollection = collectionDir.getName();
+                Collection collection = collections.get(eventCollection);
+                long lastModified = collectionDir.lastModified();
+                if (collection == null || collection.lastModified != lastModified) {
+                    KeenLogging.log("Rebuilding event index for collection '%s'", eventCollection);
+                    collection = scan(collectionDir, lastModified);
+                    isCheckpointNeeded = true;
+                }
+                found.put(eventCollection, collection);
+            }
+        }
+        if (found.size() != collections.size()) {
+            isCheckpointNeeded = true;
+        }
+        collections.clear();
+        collections.putAll(found);
+
+        if (isCheckpointNeeded) {
+            writeCheckpoint();
+        }
+    }
+
+    private Collection scan(File collectionDir, long lastModified) {
+        Collection collection = new Collection();
+        // Record the modification time from before listing, so that anything which changes
+        // during the listing causes another scan next time.
+        collection.lastModified = lastModified;
+        File[] files = collectionDir.listFiles(eventFileFilter);
+        if (files != null) {
+            for (File file : files) {
+                collection.add(new EventName(file.getName(), file.length()));
+            }
+        }
+        return collection;
+    }
+
+    /**
+     * @return Whether a valid checkpoint was read.
+     */
+    private boolean readCheckpoint() {
+        if (!checkpointFile.exists()) {
+            return false;
+        }
+
+        DataInputStream in = null;
+        try {
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(checkpointFile)));
+            if (in.readInt() != CHECKPOINT_MAGIC || in.readInt() != CHECKPOINT_VERSION) {
+                throw new IOException("Unrecognized index checkpoint");
+            }
+            int collectionCount = in.readInt();
+            for (int i = 0; i < collectionCount; i++) {
+                Collection collection = getOrCreateCollection(in.readUTF());
+                collection.lastModified = in.readLong();
+                int nameCount = in.readInt();
+                for (int j = 0; j < nameCount; j++) {
+                    String name = in.readUTF();
+                    collection.add(new EventName(name, in.readLong()));
+                }
+            }
+            return true;
+        } catch (IOException e) {
+            KeenLogging.log("Discarding event index checkpoint %s: %s", checkpointFile, e);
+            collections.clear();
+            return false;
+        } finally {
+            KeenUtils.closeQuietly(in);
+        }
+    }
+
+    /**
+     * @return False if the log ended with a damaged or incomplete entry, e.g. from a crash part
+     * way through writing it. The collections it would have changed are rescanned anyway, since
+     * their modification times no longer match.
+     */
+    private boolean replayLog() {
+        logEntries = 0;
+        if (!logFile.exists()) {
+            return true;
+        }
+
+        DataInputStream in = null;
+        try {
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(logFile)));
+            while (true) {
+                int op = in.read();
+                if (op == -1) {
+                    return true;
+                }
+                String eventCollection = in.readUTF();
+                String name = in.readUTF();
+                long size = in.readLong();
+                long lastModified = in.readLong();
+
+                Collection collection = getOrCreateCollection(eventCollection);
+                if (op == OP_ADD) {
+                    collection.add(new EventName(name, size));
+                } else if (op == OP_REMOVE) {
+                    collection.remove(name);
+                } else if (op != OP_TOUCH && op != OP_CHANGING) {
+                    throw new IOException("Unrecognized index log entry: " + op);
+                }
+                collection.lastModified = lastModified;
+                logEntries++;
+            }
+        } catch (EOFException e) {
+            KeenLogging.log("Discarding incomplete entry at the end of %s", logFile);
+            return false;
+        } catch (IOException e) {
+            KeenLogging.log("Discarding damaged entries in %s: %s", logFile, e);
+            return false;
+        } finally {
+            KeenUtils.closeQuietly(in);
+        }
+    }
+
+    private void append(byte op, String eventCollection, String name, long size,
+                        long lastModified) throws IOException {
+        // Build the entry first so that it's appended with a single write.
+        ByteArrayOutputStream entry = new ByteArrayOutputStream();
+        DataOutputStream data = new DataOutputStream(entry);
+        data.writeByte(op);
+        data.writeUTF(eventCollection);
+        data.writeUTF(name);
+        data.writeLong(size);
+        data.writeLong(lastModified);
+
+        OutputStream out = null;
+        try {
+            out = new FileOutputStream(logFile, true);
+            entry.writeTo(out);
+        } finally {
+            KeenUtils.closeQuietly(out);
+        }
+
+        logEntries++;
+        if (logEntries >= MIN_LOG_ENTRIES_BEFORE_CHECKPOINT && logEntries > getEventCount()) {
+            writeCheckpoint();
+        }
+    }
+
+    /**
+     * Writes the whole index to a new checkpoint and empties the log. The checkpoint is written
+     * to a temporary file first, so a crash leaves either the old or the new one in place; the
+     * old log can safely be replayed on top of either.
+     */
+    private void writeCheckpoint() throws IOException {
+        File tempFile = new File(projectDir, CHECKPOINT_FILE_NAME + ".tmp");
+        FileOutputStream fileOut = new FileOutputStream(tempFile);
+        DataOutputStream out = null;
+        boolean isWritten = false;
+        try {
+            out = new DataOutputStream(new BufferedOutputStream(fileOut));
+            out.writeInt(CHECKPOINT_MAGIC);
+            out.writeInt(CHECKPOINT_VERSION);
+            out.writeInt(collections.size());
+            for (Map.Entry<String, Collection> entry : collections.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeLong(entry.getValue().lastModified);
+                out.writeInt(entry.getValue().names.size());
+                for (EventName name : entry.getValue().names) {
+                    out.writeUTF(name.name);
+                    out.writeLong(name.size);
+                }
+            }
+
+            // Make sure the whole checkpoint is on disk before it replaces the old one.
+            out.flush();
+            fileOut.getFD().sync();
+            out.close();
+            isWritten = true;
+        } finally {
+            if (!isWritten) {
+                KeenUtils.closeQuietly(out != null ? out : fileOut);
+                tempFile.delete();
+            }
+        }
+
+        // Some platforms can't rename over an existing file.
+        if (!tempFile.renameTo(checkpointFile)
+                && !(checkpointFile.delete() && tempFile.renameTo(checkpointFile))) {
+            throw new IOException("Could not write event index checkpoint " + checkpointFile);
+        }
+        if (logFile.exists() && !logFile.delete()) {
+            throw new IOException("Could not delete event index log " + logFile);
+        }
+        logEntries = 0;
+    }
+
+    private Collection getOrCreateCollection(String eventCollection) {
+        Collection collection = collections.get(eventCollection);
+        if (collection == null) {
+            collection = new Collection();
+            collections.put(eventCollection, collection);
+        }
+        return collection;
+    }
+
+    private long getLastModified(String eventCollection) {
+        return new File(projectDir, eventCollection).lastModified();
+    }
+
+    private int getEventCount() {
+        int count = 0;
+        for (Collection collection : collections.values()) {
+            count += collection.names.size();
+        }
+        return count;
+    }
+
+}
@@ -0,0 +1,119 @@
+package io.keen.client.java;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The cursor used by the built-in {@link KeenCursorEventStore} implementations. Collections are
+ * visited in order of name and the events in each collection in the store's own order, so a
+ * cursor only needs to record the collection and the position of the last event returned.
+ *
+ * @author Keen IO
+ * @since 5.1.0
+ */
+final class HandleCursor {
+
+    /**
+     * The events of a store, as seen by {@link #getPage}.
+     */
+    interface Source {
+
+        /**
+         * @return The names of the collections in the project.
+         */
+        Collection<String> getCollections();
+
+        /**
+         * @param eventCollection The name of a collection.
+         * @param after           The position after which to start, or null to start from the
+         *                        beginning of the collection.
+         * @return The positions of the events in the collection after the given one, in order.
+         */
+        Iterator<?> getPositionsAfter(String eventCollection, Object after);
+
+        /**
+         * @param eventCollection The name of a collection.
+         * @param position        The position of an event in the collection.
+         * @return The handle of the event.
+         */
+        Object getHandle(String eventCollection, Object position);
+    }
+
+    ///// PACKAGE STATIC METHODS /////
+
+    /**
+     * Gets a page of handles from a store.
+     *
+     * @param source     The store's events.
+     * @param cursor     The cursor returned with the previous page, or null.
+     * @param maxHandles The maximum number of handles to return.
+     * @return The page.
+     */
+    static KeenHandlePage getPage(Source source, Object cursor, int maxHandles) {
+        if (maxHandles <= 0) {
+            throw new IllegalArgumentException("Maximum number of handles must be positive");
+        }
+        if (cursor != null && !(cursor instanceof HandleCursor)) {
+            throw new IllegalArgumentException("Expected cursor to be a HandleCursor, but was: " +
+                    cursor.getClass().getCanonicalName());
+        }
+        HandleCursor start = (HandleCursor) cursor;
+
+        List<String> collections = new ArrayList<String>(source.getCollections());
+        Collections.sort(collections);
+
+        Map<String, List<Object>> handleMap = new HashMap<String, List<Object>>();
+        int count = 0;
+        String lastCollection = null;
+        Object lastPosition = null;
+        for (String eventCollection : collections) {
+            Object after = null;
+            if (start != null) {
+                int comparison = eventCollection.compareTo(start.eventCollection);
+                if (comparison < 0) {
+                    continue;
+                } else if (comparison == 0) {
+                    after = start.position;
+                }
+            }
+
+            Iterator<?> positions = source.getPositionsAfter(eventCollection, after);
+            List<Object> handles = null;
+            while (positions.hasNext()) {
+                Object position = positions.next();
+                if (count == maxHandles) {
+                    // There's at least one more event, so resume after the last one returned.
+                    return new KeenHandlePage(handleMap,
+                            new HandleCursor(lastCollection, lastPosition));
+                }
+                if (handles == null) {
+                    handles = new ArrayList<Object>();
+                    handleMap.put(eventCollection, handles);
+                }
+                handles.add(source.getHandle(eventCollection, position));
+                count++;
+                lastCollection = eventCollection;
+                lastPosition = position;
+            }
+        }
+        return new KeenHandlePage(handleMap, null);
+    }
+
+    ///// PRIVATE CONSTRUCTORS /////
+
+    private HandleCursor(String eventCollection, Object position) {
+        this.eventCollection = eventCollection;
+        this.position = position;
+    }
+
+    ///// PRIVATE FIELDS /////
+
+    private final String eventCollection;
+    private final Object position;
+
+}
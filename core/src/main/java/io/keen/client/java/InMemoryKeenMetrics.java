@@ -0,0 +1,163 @@
+package io.keen.client.java;
+
+/**
+ * {@link KeenMetrics} which aggregates metrics in memory, for use in tests and benchmarks. Each
+ * counter holds a running total; each histogram holds the count, sum, minimum and maximum of
+ * its values, along with counts in power-of-two buckets from which approximate percentiles are
+ * computed.
+ * <p>
+ * NOTE: This implementation synchronizes all operations in order to ensure thread safety.
+ * </p>
+ *
+ * @author Keen IO
+ * @since 5.1.0
+ */
+public class InMemoryKeenMetrics implements KeenMetrics {
+
+    ///// KeenMetrics METHODS /////
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void increment(Counter counter, long delta) {
+        counters[counter.ordinal()] += delta;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void record(Histogram histogram, long value) {
+        Stats stats = histograms[histogram.ordinal()];
+        if (stats.count == 0) {
+            stats.min = value;
+            stats.max = value;
+        } else {
+            stats.min = Math.min(stats.min, value);
+            stats.max = Math.max(stats.max, value);
+        }
+        stats.count++;
+        stats.sum += value;
+        stats.buckets[bucket(value)]++;
+    }
+
+    ///// PUBLIC METHODS /////
+
+    /**
+     * @param counter The counter.
+     * @return The counter's total.
+     */
+    public synchronized long getCount(Counter counter) {
+        return counters[counter.ordinal()];
+    }
+
+    /**
+     * @param histogram The histogram.
+     * @return The number of values recorded in the histogram.
+     */
+    public synchronized long getCount(Histogram histogram) {
+        return histograms[histogram.ordinal()].count;
+    }
+
+    /**
+     * @param histogram The histogram.
+     * @return The sum of the values recorded in the histogram.
+     */
+    public synchronized long getSum(Histogram histogram) {
+        return histograms[histogram.ordinal()].sum;
+    }
+
+    /**
+     * @param histogram The histogram.
+     * @return The smallest value recorded in the histogram, or 0 if it is empty.
+     */
+    public synchronized long getMin(Histogram histogram) {
+        return histograms[histogram.ordinal()].min;
+    }
+
+    /**
+     * @param histogram The histogram.
+     * @return The largest value recorded in the histogram, or 0 if it is empty.
+     */
+    public synchronized long getMax(Histogram histogram) {
+        return histograms[histogram.ordinal()].max;
+    }
+
+    /**
+     * @param histogram The histogram.
+     * @return The mean of the values recorded in the histogram, or 0 if it is empty.
+     */
+    public synchronized double getMean(Histogram histogram) {
+        Stats stats = histograms[histogram.ordinal()];
+        return stats.count == 0 ? 0.0 : (double) stats.sum / stats.count;
+    }
+
+    /**
+     * Estimates a percentile of the values recorded in a histogram. The estimate is the upper
+     * bound of the power-of-two bucket containing the percentile, limited to the range of the
+     * recorded values, so it is at most twice the true value.
+     *
+     * @param histogram  The histogram.
+     * @param percentile The percentile, between 0 and 100.
+     * @return The estimated percentile, or 0 if the histogram is empty.
+     */
+    public synchronized long getPercentile(Histogram histogram, double percentile) {
+        Stats stats = histograms[histogram.ordinal()];
+        if (stats.count == 0) {
+            return 0;
+        }
+
+        long rank = (long) Math.ceil(percentile / 100.0 * stats.count);
+        long seen = 0;
+        for (int i = 0; i < stats.buckets.length; i++) {
+            seen += stats.buckets[i];
+            if (seen >= rank && seen > 0) {
+                long upperBound = i == 0 ? 0 : (i >= 63 ? Long.MAX_VALUE : (1L << i) - 1);
+                return Math.max(stats.min, Math.min(stats.max, upperBound));
+            }
+        }
+        return stats.max;
+    }
+
+    /**
+     * Resets all counters and histograms.
+     */
+    public synchronized void reset() {
+        counters = new long[Counter.values().length];
+        histograms = newHistograms();
+    }
+
+    ///// PRIVATE METHODS /////
+
+    /**
+     * Bucket 0 holds values of zero or less; bucket i holds values in [2^(i-1), 2^i).
+     */
+    private static int bucket(long value) {
+        return value <= 0 ? 0 : 64 - Long.numberOfLeadingZeros(value);
+    }
+
+    private static Stats[] newHistograms() {
+        Stats[] histograms = new Stats[Histogram.values().length];
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new Stats();
+        }
+        return histograms;
+    }
+
+    ///// PRIVATE TYPES /////
+
+    private static final class Stats {
+        long count;
+        long sum;
+        long min;
+        long max;
+        final long[] buckets = new long[64];
+    }
+
+    ///// PRIVATE FIELDS /////
+
+    private long[] counters = new long[Counter.values().length];
+    private Stats[] histograms = newHistograms();
+
+}
@@ -0,0 +1,116 @@
+package io.keen.client.java;
+
+/**
+ * Controls when a {@link JournaledFileEventStore} forces its journal to durable storage, trading
+ * the number of recently queued events which may be lost if the machine crashes against the cost
+ * of syncing. Events are always written to the operating system before
+ * {@link KeenEventStore#store} returns, so none are lost if only the application crashes.
+ * <p>
+ * Concurrent callers share syncs: one sync covers every event written before it started, so
+ * with {@link #everyEvent()} many threads queueing at once pay for far fewer syncs than events.
+ * </p>
+ *
+ * @author Keen IO
+ * @since 5.1.0
+ */
+public final class JournalSyncPolicy {
+
+    enum Mode {
+        EVERY_EVENT,
+        EVERY_N_EVENTS,
+        EVERY_N_MILLIS,
+        NEVER
+    }
+
+    ///// PUBLIC STATIC METHODS /////
+
+    /**
+     * Syncs before each call to {@link KeenEventStore#store} returns, so no queued event is
+     * ever lost. This is the slowest policy.
+     *
+     * @return The policy.
+     */
+    public static JournalSyncPolicy everyEvent() {
+        return new JournalSyncPolicy(Mode.EVERY_EVENT, 1);
+    }
+
+    /**
+     * Syncs once at least the given number of events have been queued or removed since the last
+     * sync. Up to that many queued events may be lost.
+     *
+     * @param events The number of events between syncs; must be positive.
+     * @return The policy.
+     */
+    public static JournalSyncPolicy everyEvents(int events) {
+        if (events <= 0) {
+            throw new IllegalArgumentException("Events between syncs must be positive");
+        }
+        return new JournalSyncPolicy(Mode.EVERY_N_EVENTS, events);
+    }
+
+    /**
+     * Syncs from a background thread at the given interval. Events queued within the interval
+     * before a crash may be lost.
+     *
+     * @param millis The interval between syncs in milliseconds; must be positive.
+     * @return The policy.
+     */
+    public static JournalSyncPolicy everyMillis(long millis) {
+        if (millis <= 0) {
+            throw new IllegalArgumentException("Interval between syncs must be positive");
+        }
+        return new JournalSyncPolicy(Mode.EVERY_N_MILLIS, millis);
+    }
+
+    /**
+     * Only syncs when a journal file fills up, leaving the rest to the operating system. This is
+     * the fastest policy.
+     *
+     * @return The policy.
+     */
+    public static JournalSyncPolicy never() {
+        return new JournalSyncPolicy(Mode.NEVER, 0);
+    }
+
+    ///// PUBLIC METHODS /////
+
+    @Override
+    public String toString() {
+        switch (mode) {
+            case EVERY_EVENT:
+                return "everyEvent";
+            case EVERY_N_EVENTS:
+                return "everyEvents(" + value + ")";
+            case EVERY_N_MILLIS:
+                return "everyMillis(" + value + ")";
+            default:
+                return "never";
+        }
+    }
+
+    ///// PACKAGE METHODS /////
+
+    Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * @return The number of events or milliseconds between syncs, depending on the mode.
+     */
+    long getValue() {
+        return value;
+    }
+
+    ///// PRIVATE CONSTRUCTORS /////
+
+    private JournalSyncPolicy(Mode mode, long value) {
+        this.mode = mode;
+        this.value = value;
+    }
+
+    ///// PRIVATE FIELDS /////
+
+    private final Mode mode;
+    private final long value;
+
+}
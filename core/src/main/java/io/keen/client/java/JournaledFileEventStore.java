@@ -0,0 +1,897 @@
+package io.keen.client.java;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+/**
+ * Implementation of {@link KeenEventStore} which appends events to a write-ahead journal on the
+ * file system rather than writing a file per event like {@link FileEventStore}. Each event
+ * costs one append to an open file, and when it is forced to durable storage is controlled by a
+ * {@link JournalSyncPolicy}, so that each deployment can choose between syncing every event,
+ * syncing in groups, or leaving it to the operating system.
+ * <p>
+ * The journal is a sequence of segment files in a {@code keen-journal} directory under the
+ * root. Queued and removed events are appended to the newest segment as checksummed records;
+ * when the store is constructed the segments are replayed to rebuild the queue, discarding any
+ * record which was only partly written when the process or machine stopped. Segments are
+ * deleted once all of their events have been removed, and a mostly-empty oldest segment has its
+ * remaining events copied forward so that a few stragglers can't hold on to old segments.
+ * </p>
+ * <p>
+ * Handles are {@link Long} IDs, which are stable across restarts. Attempt counts are kept in a
+ * file per collection, as by {@link FileEventStore}.
+ * </p>
+ * <p>
+ * Only one store may use a given root directory at a time. Call {@link #close()} to sync and
+ * release the journal when the store is no longer needed.
+ * </p>
+ *
+ * @author Keen IO
+ * @since 5.1.0
+ */
+public class JournaledFileEventStore implements KeenAttemptCountingEventStore,
+        KeenMetricsReportingEventStore, KeenCursorEventStore, Closeable {
+
+    ///// PUBLIC CONSTRUCTORS /////
+
+    /**
+     * Constructs a new journaled event store which stores events as UTF-8 JSON text, replaying
+     * any journal left in the root directory by a previous instance.
+     *
+     * @param root       The root directory in which to keep the journal.
+     * @param syncPolicy When to force the journal to durable storage.
+     * @throws IOException If the provided {@code root} isn't an existing directory, or the
+     *                     journal can't be read.
+     */
+    public JournaledFileEventStore(File root, JournalSyncPolicy syncPolicy) throws IOException {
+        this(root, syncPolicy, JSON_CODEC);
+    }
+
+    /**
+     * Constructs a new journaled event store which uses the given codec to encode events in the
+     * journal, replaying any journal left in the root directory by a previous instance. The
+     * journal must have been written with the same codec.
+     *
+     * @param root       The root directory in which to keep the journal.
+     * @param syncPolicy When to force the journal to durable storage.
+     * @param codec      The {@link KeenEventCodec} to use to encode and decode events.
+     * @throws IOException If the provided {@code root} isn't an existing directory, or the
+     *                     journal can't be read.
+     */
+    public JournaledFileEventStore(File root, JournalSyncPolicy syncPolicy, KeenEventCodec codec)
+            throws IOException {
+        if (!root.exists() || !root.isDirectory()) {
+            throw new IOException("Event store root '" + root + "' must exist and be a directory");
+        }
+        if (syncPolicy == null) {
+            throw new IllegalArgumentException("Sync policy must not be null");
+        }
+        if (codec == null) {
+            throw new IllegalArgumentException("Event codec must not be null");
+        }
+
+        this.syncPolicy = syncPolicy;
+        this.codec = codec;
+        this.journalDir = new File(root, JOURNAL_DIR_NAME);
+        if (!journalDir.isDirectory() && !journalDir.mkdirs()) {
+            throw new IOException("Could not create journal directory at: " +
+                    journalDir.getAbsolutePath());
+        }
+
+        synchronized (this) {
+            replay();
+            reclaimSegments();
+        }
+
+        if (syncPolicy.getMode() == JournalSyncPolicy.Mode.EVERY_N_MILLIS) {
+            startSyncThread(syncPolicy.getValue());
+        }
+    }
+
+    ///// KeenEventStore METHODS /////
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object store(String projectId, String eventCollection,
+                        String event) throws IOException {
+        byte[] data = codec.encode(event);
+        long id;
+        long sequence;
+        synchronized (this) {
+            ensureOpen();
+            TreeMap<Long, Entry> collectionEntries = getCollection(projectId, eventCollection, true);
+
+            // Remove the oldest events until there is room for at least one more event.
+            if (collectionEntries.size() >= MAX_EVENTS_PER_COLLECTION) {
+                KeenLogging.log("Too many events in journal for %s, aging out old data", eventCollection);
+                Iterator<Long> oldest = collectionEntries.keySet().iterator();
+                for (int i = 0; i < NUMBER_EVENTS_TO_FORGET && oldest.hasNext(); i++) {
+                    Long oldestId = oldest.next();
+                    oldest.remove();
+                    removeEntry(oldestId);
+                    metrics.increment(KeenMetrics.Counter.EVENTS_DROPPED, 1);
+                }
+            }
+
+            id = nextId++;
+            Entry entry = appendStore(id, projectId, eventCollection, data);
+            collectionEntries.put(id, entry);
+            entries.put(id, entry);
+            sequence = appendedSequence;
+            rollSegmentIfFull();
+        }
+
+        // Sync outside the lock so that concurrent callers can append and then share one sync.
+        switch (syncPolicy.getMode()) {
+            case EVERY_EVENT:
+                syncTo(sequence);
+                break;
+            case EVERY_N_EVENTS:
+                if (sequence - syncedSequence >= syncPolicy.getValue()) {
+                    syncTo(sequence);
+                }
+                break;
+            default:
+                break;
+        }
+        return id;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String get(Object handle) throws IOException {
+        Long id = handleToId(handle);
+
+        // The event may be copied to a newer segment and its old segment closed between looking
+        // it up and reading it, in which case look it up again.
+        while (true) {
+            Segment segment;
+            long offset;
+            int length;
+            synchronized (this) {
+                ensureOpen();
+                Entry entry = entries.get(id);
+                if (entry == null) {
+                    return null;
+                }
+                segment = entry.segment;
+                offset = entry.dataOffset;
+                length = entry.dataLength;
+            }
+            byte[] data;
+            try {
+                data = segment.read(offset, length);
+            } catch (IOException e) {
+                if (segment.isClosed) {
+                    continue;
+                }
+                throw e;
+            }
+            return codec.decode(data);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void remove(Object handle) throws IOException {
+        ensureOpen();
+        Long id = handleToId(handle);
+        Entry entry = entries.get(id);
+        if (entry == null) {
+            KeenLogging.log("WARNING: no event found with handle %d", id);
+            return;
+        }
+        getCollection(entry.projectId, entry.eventCollection, false).remove(id);
+        removeEntry(id);
+        rollSegmentIfFull();
+        reclaimSegments();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized Map<String, List<Object>> getHandles(String projectId) throws IOException {
+        ensureOpen();
+        Map<String, List<Object>> result = new HashMap<String, List<Object>>();
+        Map<String, TreeMap<Long, Entry>> projectEntries = collections.get(projectId);
+        if (projectEntries != null) {
+            for (Map.Entry<String, TreeMap<Long, Entry>> collection : projectEntries.entrySet()) {
+                if (!collection.getValue().isEmpty()) {
+                    result.put(collection.getKey(), new ArrayList<Object>(collection.getValue().keySet()));
+                }
+            }
+        }
+        return result;
+    }
+
+    ///// KeenAttemptCountingEventStore METHODS /////
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getAttempts(String projectId, String eventCollection) throws IOException {
+        File attemptsFile = getAttemptsFile(projectId, eventCollection);
+        if (!attemptsFile.isFile()) {
+            return null;
+        }
+        return KeenUtils.convertFileToString(attemptsFile);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setAttempts(String projectId, String eventCollection, String attemptsString)
+            throws IOException {
+        File attemptsFile = getAttemptsFile(projectId, eventCollection);
+        File parent = attemptsFile.getParentFile();
+        if (!parent.isDirectory() && !parent.mkdirs()) {
+            throw new IOException("Could not create attempts directory at: " +
+                    parent.getAbsolutePath());
+        }
+
+        OutputStream out = new FileOutputStream(attemptsFile);
+        Writer writer = null;
+        try {
+            writer = new OutputStreamWriter(out, ENCODING);
+            writer.write(attemptsString);
+        } finally {
+            KeenUtils.closeQuietly(writer);
+        }
+    }
+
+    ///// KeenCursorEventStore METHODS /////
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized KeenHandlePage getHandles(String projectId, Object cursor,
+                                                  int maxHandles) throws IOException {
+        ensureOpen();
+        Map<String, TreeMap<Long, Entry>> found = collections.get(projectId);
+        final Map<String, TreeMap<Long, Entry>> projectEntries = found != null ? found :
+                new HashMap<String, TreeMap<Long, Entry>>();
+        return HandleCursor.getPage(new HandleCursor.Source() {
+            @Override
+            public Collection<String> getCollections() {
+                return projectEntries.keySet();
+            }
+
+            @Override
+            public Iterator<?> getPositionsAfter(String eventCollection, Object after) {
+                TreeMap<Long, Entry> collectionEntries = projectEntries.get(eventCollection);
+                if (after == null) {
+                    return collectionEntries.keySet().iterator();
+                }
+                return collectionEntries.tailMap((Long) after, false).keySet().iterator();
+            }
+
+            @Override
+            public Object getHandle(String eventCollection, Object position) {
+                return position;
+            }
+        }, cursor, maxHandles);
+    }
+
+    ///// KeenMetricsReportingEventStore METHODS /////
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setMetrics(KeenMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    ///// PUBLIC METHODS /////
+
+    /**
+     * Gets the policy which controls when the journal is forced to durable storage.
+     *
+     * @return The sync policy.
+     */
+    public JournalSyncPolicy getSyncPolicy() {
+        return syncPolicy;
+    }
+
+    /**
+     * Forces everything written to the journal so far to durable storage, regardless of the
+     * sync policy.
+     *
+     * @throws IOException If the journal can't be synced.
+     */
+    public void sync() throws IOException {
+        syncTo(appendedSequence);
+    }
+
+    /**
+     * Syncs the journal, unless the sync policy is {@link JournalSyncPolicy#never()}, and closes
+     * it. Any further use of the store fails with an {@link IOException}.
+     *
+     * @throws IOException If the journal can't be synced.
+     */
+    @Override
+    public void close() throws IOException {
+        Thread thread;
+        synchronized (this) {
+            if (isClosed) {
+                return;
+            }
+            thread = syncThread;
+            syncThread = null;
+        }
+        if (thread != null) {
+            thread.interrupt();
+        }
+        try {
+            if (syncPolicy.getMode() != JournalSyncPolicy.Mode.NEVER) {
+                sync();
+            }
+        } finally {
+            synchronized (this) {
+                isClosed = true;
+                for (Segment segment : segments) {
+                    KeenUtils.closeQuietly(segment);
+                }
+                segments.clear();
+            }
+        }
+    }
+
+    ///// PRIVATE TYPES /////
+
+    /**
+     * The location of a queued event in the journal.
+     */
+    private static final class Entry {
+        final long id;
+        final String projectId;
+        final String eventCollection;
+        Segment segment;
+        long dataOffset;
+        int dataLength;
+        int recordLength;
+
+        Entry(long id, String projectId, String eventCollection) {
+            this.id = id;
+            this.projectId = projectId;
+            this.eventCollection = eventCollection;
+        }
+    }
+
+    /**
+     * One file of the journal. This uses {@link RandomAccessFile} rather than a
+     * {@link java.nio.channels.FileChannel}, which would be closed for every thread if any thread
+     * was interrupted while using it.
+     */
+    private static final class Segment implements Closeable {
+        final long number;
+        final File file;
+        final RandomAccessFile randomAccessFile;
+        volatile boolean isClosed;
+        long size;
+        int liveEvents;
+        long liveBytes;
+
+        Segment(long number, File file) throws IOException {
+            this.number = number;
+            this.file = file;
+            this.randomAccessFile = new RandomAccessFile(file, "rw");
+            this.size = randomAccessFile.length();
+        }
+
+        void append(byte[] data) throws IOException {
+            synchronized (randomAccessFile) {
+                randomAccessFile.seek(size);
+                randomAccessFile.write(data);
+            }
+            size += data.length;
+        }
+
+        byte[] read(long offset, int length) throws IOException {
+            byte[] data = new byte[length];
+            synchronized (randomAccessFile) {
+                randomAccessFile.seek(offset);
+                randomAccessFile.readFully(data);
+            }
+            return data;
+        }
+
+        void truncate(long newSize) throws IOException {
+            synchronized (randomAccessFile) {
+                randomAccessFile.setLength(newSize);
+            }
+            size = newSize;
+        }
+
+        void force() throws IOException {
+            randomAccessFile.getFD().sync();
+        }
+
+        @Override
+        public void close() throws IOException {
+            isClosed = true;
+            randomAccessFile.close();
+        }
+    }
+
+    ///// PRIVATE CONSTANTS /////
+
+    /**
+     * The encoding to use for attempts files and project and collection names.
+     */
+    private static final String ENCODING = "UTF-8";
+
+    /**
+     * The number of events that can be stored for a single collection before aging them out.
+     */
+    private static final int MAX_EVENTS_PER_COLLECTION = 10000;
+
+    /**
+     * The number of events to drop when aging out.
+     */
+    private static final int NUMBER_EVENTS_TO_FORGET = 100;
+
+    /**
+     * The size at which a new segment is started.
+     */
+    private static final long SEGMENT_SIZE = 4 * 1024 * 1024;
+
+    /**
+     * The oldest segment's remaining events are copied forward once they take up less than this
+     * fraction of it.
+     */
+    private static final int RELOCATE_BELOW_FRACTION = 4;
+
+    private static final String JOURNAL_DIR_NAME = "keen-journal";
+    private static final String ATTEMPTS_DIR_NAME = "attempts";
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    /**
+     * Each segment starts with a header of the magic number, the format version and the next
+     * event ID when the segment was started.
+     */
+    private static final int MAGIC = 0x4b4a524e;
+    private static final int VERSION = 1;
+    private static final int HEADER_LENGTH = 16;
+
+    /**
+     * Each record is the length of its body, the CRC32 of its body, then the body: a type and an
+     * event ID, followed for stored events by the project ID, collection and encoded event.
+     */
+    private static final int RECORD_HEADER_LENGTH = 8;
+    private static final byte RECORD_STORE = 1;
+    private static final byte RECORD_REMOVE = 2;
+
+    /**
+     * The codec used for plain JSON events.
+     */
+    private static final KeenEventCodec JSON_CODEC = new Utf8JsonEventCodec();
+
+    ///// PRIVATE FIELDS /////
+
+    private final JournalSyncPolicy syncPolicy;
+    private final KeenEventCodec codec;
+    private final File journalDir;
+    private final Object syncLock = new Object();
+
+    // The following are guarded by this store's monitor.
+    private final LinkedList<Segment> segments = new LinkedList<Segment>();
+    private final Map<Long, Entry> entries = new HashMap<Long, Entry>();
+    private final Map<String, Map<String, TreeMap<Long, Entry>>> collections =
+            new HashMap<String, Map<String, TreeMap<Long, Entry>>>();
+    private long nextId;
+    private boolean isClosed;
+    private Thread syncThread;
+
+    /**
+     * The number of records appended to the journal, which is written under this store's monitor.
+     */
+    private volatile long appendedSequence;
+
+    /**
+     * The number of records known to be durable, which is written under the sync lock.
+     */
+    private volatile long syncedSequence;
+
+    private volatile KeenMetrics metrics = new NoOpKeenMetrics();
+
+    ///// PRIVATE METHODS /////
+
+    private void ensureOpen() throws IOException {
+        if (isClosed) {
+            throw new IOException("Event store is closed");
+        }
+    }
+
+    private TreeMap<Long, Entry> getCollection(String projectId, String eventCollection,
+                                                     boolean create) {
+        Map<String, TreeMap<Long, Entry>> projectEntries = collections.get(projectId);
+        if (projectEntries == null) {
+            if (!create) {
+                return new TreeMap<Long, Entry>();
+            }
+            projectEntries = new HashMap<String, TreeMap<Long, Entry>>();
+            collections.put(projectId, projectEntries);
+        }
+        TreeMap<Long, Entry> collectionEntries = projectEntries.get(eventCollection);
+        if (collectionEntries == null) {
+            collectionEntries = new TreeMap<Long, Entry>();
+            if (create) {
+                projectEntries.put(eventCollection, collectionEntries);
+            }
+        }
+        return collectionEntries;
+    }
+
+    private static Long handleToId(Object handle) {
+        if (handle instanceof Long) {
+            return (Long) handle;
+        } else {
+            throw new IllegalArgumentException("Expected handle to be a Long, but was: " +
+                    handle.getClass().getCanonicalName());
+        }
+    }
+
+    private File getAttemptsFile(String projectId, String eventCollection) {
+        File projectDir = new File(new File(journalDir, ATTEMPTS_DIR_NAME), projectId);
+        return new File(projectDir, eventCollection + ".json");
+    }
+
+    /**
+     * Appends a record for a stored event to the newest segment. Must be called holding this
+     * store's monitor.
+     *
+     * @return The entry locating the event in the journal.
+     */
+    private Entry appendStore(long id, String projectId, String eventCollection, byte[] data)
+            throws IOException {
+        byte[] projectBytes = projectId.getBytes(ENCODING);
+        byte[] collectionBytes = eventCollection.getBytes(ENCODING);
+        int bodyLength = 1 + 8 + 4 + projectBytes.length + 4 + collectionBytes.length + data.length;
+
+        ByteBuffer body = ByteBuffer.allocate(bodyLength);
+        body.put(RECORD_STORE);
+        body.putLong(id);
+        body.putInt(projectBytes.length);
+        body.put(projectBytes);
+        body.putInt(collectionBytes.length);
+        body.put(collectionBytes);
+        body.put(data);
+
+        Segment segment = segments.getLast();
+        long recordOffset = segment.size;
+        append(segment, body.array());
+
+        Entry entry = new Entry(id, projectId, eventCollection);
+        entry.segment = segment;
+        entry.dataOffset = recordOffset + RECORD_HEADER_LENGTH + bodyLength - data.length;
+        entry.dataLength = data.length;
+        entry.recordLength = RECORD_HEADER_LENGTH + bodyLength;
+        segment.liveEvents++;
+        segment.liveBytes += entry.recordLength;
+        return entry;
+    }
+
+    /**
+     * Removes an event from the index and appends a record of its removal. Must be called holding
+     * this store's monitor; the caller is responsible for removing it from its collection.
+     */
+    private void removeEntry(Long id) throws IOException {
+        Entry entry = entries.remove(id);
+        if (entry == null) {
+            return;
+        }
+        entry.segment.liveEvents--;
+        entry.segment.liveBytes -= entry.recordLength;
+
+        ByteBuffer body = ByteBuffer.allocate(1 + 8);
+        body.put(RECORD_REMOVE);
+        body.putLong(id);
+        append(segments.getLast(), body.array());
+    }
+
+    /**
+     * Appends a record to a segment. Must be called holding this store's monitor.
+     */
+    private void append(Segment segment, byte[] body) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_LENGTH + body.length);
+        record.putInt(body.length);
+        record.putInt((int) crc.getValue());
+        record.put(body);
+        segment.append(record.array());
+        appendedSequence++;
+    }
+
+    /**
+     * Starts a new segment if the newest one is full. Must be called holding this store's
+     * monitor.
+     */
+    private void rollSegmentIfFull() throws IOException {
+        Segment newest = segments.getLast();
+        if (newest.size < SEGMENT_SIZE) {
+            return;
+        }
+
+        // Make the full segment durable, so that syncs only ever need to force the newest one.
+        force(newest);
+        startSegment(newest.number + 1);
+        reclaimSegments();
+    }
+
+    /**
+     * Deletes the oldest segments for as long as they hold no events, copying the events of a
+     * mostly-empty oldest segment into the newest segment first. Segments are only ever deleted
+     * oldest first, so that replaying the journal never finds a removal record without the
+     * record of the event being stored before it. Must be called holding this store's monitor.
+     */
+    private void reclaimSegments() throws IOException {
+        while (segments.size() > 1) {
+            Segment oldest = segments.getFirst();
+            if (oldest.liveEvents > 0) {
+                if (oldest.liveBytes * RELOCATE_BELOW_FRACTION >= oldest.size) {
+                    return;
+                }
+                relocate(oldest);
+            }
+            segments.removeFirst();
+            KeenUtils.closeQuietly(oldest);
+            if (!oldest.file.delete()) {
+                KeenLogging.log("CRITICAL: can't delete journal segment %s", oldest.file);
+            }
+        }
+    }
+
+    /**
+     * Copies the events remaining in a segment into the newest segment and makes the copies
+     * durable. Must be called holding this store's monitor.
+     */
+    private void relocate(Segment segment) throws IOException {
+        Segment newest = segments.getLast();
+        for (Entry entry : entries.values()) {
+            if (entry.segment != segment) {
+                continue;
+            }
+            byte[] data = segment.read(entry.dataOffset, entry.dataLength);
+            Entry copy = appendStore(entry.id, entry.projectId, entry.eventCollection, data);
+            segment.liveEvents--;
+            segment.liveBytes -= entry.recordLength;
+            entry.segment = copy.segment;
+            entry.dataOffset = copy.dataOffset;
+            entry.dataLength = copy.dataLength;
+            entry.recordLength = copy.recordLength;
+        }
+        force(newest);
+    }
+
+    /**
+     * Starts a new, empty segment. Must be called holding this store's monitor.
+     */
+    private void startSegment(long number) throws IOException {
+        File file = new File(journalDir, String.format(Locale.US, "%s%020d%s",
+                SEGMENT_PREFIX, number, SEGMENT_SUFFIX));
+        Segment segment = new Segment(number, file);
+        if (segment.size > 0) {
+            segment.truncate(0);
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+        header.putInt(MAGIC);
+        header.putInt(VERSION);
+        header.putLong(nextId);
+        segment.append(header.array());
+        segments.addLast(segment);
+    }
+
+    /**
+     * Rebuilds the index from the segments on disk, then starts a new segment. Must be called
+     * holding this store's monitor.
+     */
+    private void replay() throws IOException {
+        File[] files = journalDir.listFiles();
+        List<File> segmentFiles = new ArrayList<File>();
+        if (files != null) {
+            for (File file : files) {
+                String name = file.getName();
+                if (file.isFile() && name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX)) {
+                    segmentFiles.add(file);
+                }
+            }
+        }
+        // The zero-padded numbers sort in order by name.
+        File[] sorted = segmentFiles.toArray(new File[segmentFiles.size()]);
+        Arrays.sort(sorted);
+
+        long lastNumber = 0;
+        for (File file : sorted) {
+            String name = file.getName();
+            long number;
+            try {
+                number = Long.parseLong(name.substring(SEGMENT_PREFIX.length(),
+                        name.length() - SEGMENT_SUFFIX.length()));
+            } catch (NumberFormatException e) {
+                KeenLogging.log("Ignoring unexpected file in journal directory: %s", file);
+                continue;
+            }
+            Segment segment = new Segment(number, file);
+            segments.addLast(segment);
+            replaySegment(segment);
+            lastNumber = number;
+        }
+
+        startSegment(lastNumber + 1);
+    }
+
+    /**
+     * Replays the records in a segment into the index, truncating the segment at the first
+     * record which is incomplete or corrupt.
+     */
+    private void replaySegment(Segment segment) throws IOException {
+        if (segment.size > Integer.MAX_VALUE) {
+            throw new IOException("Journal segment is too large: " + segment.file);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(segment.read(0, (int) segment.size));
+        if (buffer.remaining() < HEADER_LENGTH || buffer.getInt() != MAGIC
+                || buffer.getInt() != VERSION) {
+            KeenLogging.log("Discarding journal segment with invalid header: %s", segment.file);
+            truncate(segment, 0);
+            return;
+        }
+        nextId = Math.max(nextId, buffer.getLong());
+
+        CRC32 crc = new CRC32();
+        while (buffer.remaining() > 0) {
+            int recordOffset = buffer.position();
+            if (buffer.remaining() < RECORD_HEADER_LENGTH) {
+                truncate(segment, recordOffset);
+                return;
+            }
+            int bodyLength = buffer.getInt();
+            int checksum = buffer.getInt();
+            if (bodyLength < 9 || bodyLength > buffer.remaining()) {
+                truncate(segment, recordOffset);
+                return;
+            }
+            crc.reset();
+            crc.update(buffer.array(), buffer.position(), bodyLength);
+            if ((int) crc.getValue() != checksum) {
+                truncate(segment, recordOffset);
+                return;
+            }
+
+            int bodyEnd = buffer.position() + bodyLength;
+            byte type = buffer.get();
+            long id = buffer.getLong();
+            nextId = Math.max(nextId, id + 1);
+            if (type == RECORD_STORE) {
+                String projectId = readString(buffer);
+                String eventCollection = readString(buffer);
+                Entry entry = new Entry(id, projectId, eventCollection);
+                entry.segment = segment;
+                entry.dataOffset = buffer.position();
+                entry.dataLength = bodyEnd - buffer.position();
+                entry.recordLength = RECORD_HEADER_LENGTH + bodyLength;
+
+                // A relocated event replaces its earlier copy.
+                Entry previous = entries.put(id, entry);
+                if (previous != null) {
+                    previous.segment.liveEvents--;
+                    previous.segment.liveBytes -= previous.recordLength;
+                }
+                getCollection(projectId, eventCollection, true).put(id, entry);
+                segment.liveEvents++;
+                segment.liveBytes += entry.recordLength;
+            } else if (type == RECORD_REMOVE) {
+                Entry entry = entries.remove(id);
+                if (entry != null) {
+                    getCollection(entry.projectId, entry.eventCollection, false).remove(id);
+                    entry.segment.liveEvents--;
+                    entry.segment.liveBytes -= entry.recordLength;
+                }
+            } else {
+                KeenLogging.log("Skipping journal record of unknown type %d in %s", type, segment.file);
+            }
+            buffer.position(bodyEnd);
+        }
+    }
+
+    private static String readString(ByteBuffer buffer) throws IOException {
+        int length = buffer.getInt();
+        String value = new String(buffer.array(), buffer.position(), length, ENCODING);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    private void truncate(Segment segment, long size) throws IOException {
+        KeenLogging.log("Discarding incomplete journal records after offset %d in %s", size,
+                segment.file);
+        segment.truncate(size);
+    }
+
+    /**
+     * Makes all records up to the given sequence number durable. Callers which arrive while
+     * another is syncing wait for it, and return at once if its sync covered their records.
+     */
+    private void syncTo(long sequence) throws IOException {
+        synchronized (syncLock) {
+            if (syncedSequence >= sequence) {
+                return;
+            }
+            Segment newest;
+            long target;
+            synchronized (this) {
+                ensureOpen();
+                newest = segments.getLast();
+                target = appendedSequence;
+            }
+            try {
+                force(newest);
+            } catch (IOException e) {
+                // A full segment is forced before it's closed, so there's nothing left to sync.
+                if (!newest.isClosed) {
+                    throw e;
+                }
+            }
+            syncedSequence = target;
+        }
+    }
+
+    private void force(Segment segment) throws IOException {
+        segment.force();
+        metrics.increment(KeenMetrics.Counter.STORE_SYNCS, 1);
+    }
+
+    private synchronized void startSyncThread(final long intervalMillis) {
+        syncThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                while (!Thread.currentThread().isInterrupted()) {
+                    try {
+                        Thread.sleep(intervalMillis);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    try {
+                        if (appendedSequence > syncedSequence) {
+                            sync();
+                        }
+                    } catch (IOException e) {
+                        KeenLogging.log("Failed to sync event journal: %s", e.getMessage());
+                    }
+                }
+            }
+        }, "KeenJournalSync");
+        syncThread.setDaemon(true);
+        syncThread.start();
+    }
+
+}
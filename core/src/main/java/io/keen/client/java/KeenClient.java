@@ -1,7 +1,6 @@
 package io.keen.client.java;
 
 import java.io.IOException;
-import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.StringReader;
 import java.io.StringWriter;
@@ -22,10 +21,11 @@ import java.util.concurrent.Executors;
 
 import io.keen.client.java.exceptions.InvalidEventCollectionException;
 import io.keen.client.java.exceptions.InvalidEventException;
+import io.keen.client.java.exceptions.KeenException;
 import io.keen.client.java.exceptions.NoWriteKeyException;
 import io.keen.client.java.exceptions.ServerException;
+import io.keen.client.java.http.ByteArrayOutputSource;
 import io.keen.client.java.http.HttpHandler;
-import io.keen.client.java.http.OutputSource;
 import io.keen.client.java.http.Request;
 import io.keen.client.java.http.Response;
 import io.keen.client.java.http.UrlConnectionHttpHandler;
@@ -157,7 +157,7 @@ public class KeenClient {
         try {
             // Build the event.
             Map<String, Object> newEvent =
-                    validateAndBuildEvent(useProject, eventCollection, event, keenProperties);
+                    tracedValidateAndBuildEvent(useProject, eventCollection, event, keenProperties);
 
             // Publish the event.
             publish(useProject, eventCollection, newEvent);
@@ -297,7 +297,7 @@ public class KeenClient {
         try {
             // Build the event
             Map<String, Object> newEvent =
-                    validateAndBuildEvent(useProject, eventCollection, event, keenProperties);
+                    tracedValidateAndBuildEvent(useProject, eventCollection, event, keenProperties);
 
             // Serialize the event into JSON.
             StringWriter writer = new StringWriter();
@@ -307,7 +307,17 @@ public class KeenClient {
 
             try {
                 // Save the JSON event out to the event store.
-                Object handle = eventStore.store(useProject.getProjectId(), eventCollection, jsonEvent);
+                Object handle;
+                KeenTraceSpan span = beginSpan(KeenTracer.Operation.STORE_EVENT);
+                try {
+                    handle = eventStore.store(useProject.getProjectId(), eventCollection, jsonEvent);
+                } finally {
+                    if (span != null) {
+                        span.setEventCollection(eventCollection);
+                        span.end();
+                    }
+                }
+                metrics.increment(KeenMetrics.Counter.EVENTS_QUEUED, 1);
 
                 if (eventStore instanceof KeenAttemptCountingEventStore) {
                     synchronized (attemptsLock) {
@@ -350,6 +360,11 @@ public class KeenClient {
     /**
      * Synchronously sends all queued events for the given project. This method will immediately
      * publish the events to the Keen server in the current thread.
+     * <p>
+     * If the event store implements {@link KeenCursorEventStore}, the events are sent in batches
+     * of at most {@link #getMaxBatchSize()} events, so that only one batch is held in memory at a
+     * time. If a batch fails, the remaining events are left queued for the next call.
+     * </p>
      *
      * @param project  The project for which to send queued events. If a default project has been set
      *                 on the client this parameter may be null, in which case the default project
@@ -377,22 +392,40 @@ public class KeenClient {
 
         KeenProject useProject = (project == null ? defaultProject : project);
 
+        KeenTraceSpan drainSpan = beginSpan(KeenTracer.Operation.DRAIN);
         try {
             String projectId = useProject.getProjectId();
-            Map<String, List<Object>> eventHandles = eventStore.getHandles(projectId);
-            Map<String, List<Map<String, Object>>> events = buildEventMap(projectId, eventHandles);
-            String response = publishAll(useProject, events);
-            if (response != null) {
-                try {
-                    handleAddEventsResponse(eventHandles, response);
-                } catch (Exception e) {
-                    // Errors handling the response are non-fatal; just log them.
-                    KeenLogging.log("Error handling response to batch publish: " + e.getMessage());
+            if (eventStore instanceof KeenCursorEventStore) {
+                // Page through the backlog so that memory use is bounded by the batch size.
+                KeenCursorEventStore cursorStore = (KeenCursorEventStore) eventStore;
+                int eventCount = 0;
+                Object cursor = null;
+                do {
+                    KeenHandlePage page = cursorStore.getHandles(projectId, cursor, maxBatchSize);
+                    eventCount += countHandles(page.getHandles());
+                    if (drainSpan != null) {
+                        drainSpan.setEventCount(eventCount);
+                    }
+                    sendBatch(useProject, page.getHandles());
+                    cursor = page.getCursor();
+                } while (cursor != null);
+            } else {
+                Map<String, List<Object>> eventHandles = eventStore.getHandles(projectId);
+                if (drainSpan != null) {
+                    drainSpan.setEventCount(countHandles(eventHandles));
                 }
+                sendBatch(useProject, eventHandles);
             }
             handleSuccess(callback);
         } catch (Exception e) {
+            if (drainSpan != null) {
+                drainSpan.setError(e);
+            }
             handleFailure(callback, e);
+        } finally {
+            if (drainSpan != null) {
+                drainSpan.end();
+            }
         }
     }
 
@@ -480,6 +513,24 @@ public class KeenClient {
         return publishExecutor;
     }
 
+    /**
+     * Gets the metrics to which this client reports.
+     *
+     * @return The {@link io.keen.client.java.KeenMetrics}.
+     */
+    public KeenMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Gets the tracer to which this client reports trace spans.
+     *
+     * @return The {@link io.keen.client.java.KeenTracer}.
+     */
+    public KeenTracer getTracer() {
+        return tracer;
+    }
+
     /**
      * Gets the default project that this {@link KeenClient} will use if no project is specified.
      *
@@ -523,6 +574,30 @@ public class KeenClient {
         }
     }
 
+    /**
+     * Sets the maximum number of queued events which {@link #sendQueuedEvents} sends in a single
+     * request. This only applies if the event store implements {@link KeenCursorEventStore};
+     * otherwise all queued events are sent at once.
+     *
+     * @param maxBatchSize The maximum number of events per request; must be positive.
+     */
+    public void setMaxBatchSize(int maxBatchSize) {
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("Maximum batch size must be positive");
+        }
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * Gets the maximum number of queued events which {@link #sendQueuedEvents} sends in a single
+     * request.
+     *
+     * @return The maximum number of events per request.
+     */
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
     /**
      * Sets the maximum number of HTTPS POST retry attempts for all events added in the future.
      *
@@ -711,6 +786,8 @@ public class KeenClient {
         private KeenEventStore eventStore;
         private Executor publishExecutor;
         private KeenNetworkStatusHandler networkStatusHandler;
+        private KeenMetrics metrics;
+        private KeenTracer tracer;
 
         /**
          * Gets the default {@link HttpHandler} to use if none is explicitly set for this builder.
@@ -932,6 +1009,93 @@ public class KeenClient {
             return this;
         }
 
+        /**
+         * Gets the default {@link KeenMetrics} to use if none is explicitly set for this builder.
+         *
+         * This implementation returns a {@link NoOpKeenMetrics}, which ignores all metrics.
+         *
+         * Subclasses should override this to provide an alternative default {@link KeenMetrics}.
+         *
+         * @return The default {@link KeenMetrics}.
+         */
+        protected KeenMetrics getDefaultMetrics() {
+            return new NoOpKeenMetrics();
+        }
+
+        /**
+         * Gets the {@link KeenMetrics} that this builder is currently configured to use. If null,
+         * a default will be used instead.
+         *
+         * @return The {@link KeenMetrics} to use.
+         */
+        public KeenMetrics getMetrics() {
+            return metrics;
+        }
+
+        /**
+         * Sets the {@link KeenMetrics} to use. If the event store implements
+         * {@link KeenMetricsReportingEventStore}, it will also report to these metrics.
+         *
+         * @param metrics The {@link KeenMetrics} to use.
+         */
+        public void setMetrics(KeenMetrics metrics) {
+            this.metrics = metrics;
+        }
+
+        /**
+         * Sets the {@link KeenMetrics} to use.
+         *
+         * @param metrics The {@link KeenMetrics} to use.
+         * @return This instance (for method chaining).
+         */
+        public Builder withMetrics(KeenMetrics metrics) {
+            setMetrics(metrics);
+            return this;
+        }
+
+        /**
+         * Gets the default {@link KeenTracer} to use if none is explicitly set for this builder.
+         *
+         * This implementation returns a {@link NoOpKeenTracer}, which never records spans.
+         *
+         * Subclasses should override this to provide an alternative default {@link KeenTracer}.
+         *
+         * @return The default {@link KeenTracer}.
+         */
+        protected KeenTracer getDefaultTracer() {
+            return new NoOpKeenTracer();
+        }
+
+        /**
+         * Gets the {@link KeenTracer} that this builder is currently configured to use. If null,
+         * a default will be used instead.
+         *
+         * @return The {@link KeenTracer} to use.
+         */
+        public KeenTracer getTracer() {
+            return tracer;
+        }
+
+        /**
+         * Sets the {@link KeenTracer} to use.
+         *
+         * @param tracer The {@link KeenTracer} to use.
+         */
+        public void setTracer(KeenTracer tracer) {
+            this.tracer = tracer;
+        }
+
+        /**
+         * Sets the {@link KeenTracer} to use.
+         *
+         * @param tracer The {@link KeenTracer} to use.
+         * @return This instance (for method chaining).
+         */
+        public Builder withTracer(KeenTracer tracer) {
+            setTracer(tracer);
+            return this;
+        }
+
         /**
          * Builds a new Keen client using the interfaces which have been specified explicitly on
          * this builder instance via the set* or with* methods, or the default interfaces if none
@@ -980,6 +1144,22 @@ public class KeenClient {
                 KeenLogging.log("Exception building network status handler: " + e.getMessage());
             }
 
+            try {
+                if (metrics == null) {
+                    metrics = getDefaultMetrics();
+                }
+            } catch (Exception e) {
+                KeenLogging.log("Exception building metrics: " + e.getMessage());
+            }
+
+            try {
+                if (tracer == null) {
+                    tracer = getDefaultTracer();
+                }
+            } catch (Exception e) {
+                KeenLogging.log("Exception building tracer: " + e.getMessage());
+            }
+
             return buildInstance();
         }
 
@@ -1023,6 +1203,12 @@ public class KeenClient {
         this.eventStore = builder.eventStore;
         this.publishExecutor = builder.publishExecutor;
         this.networkStatusHandler = builder.networkStatusHandler;
+        this.metrics = (builder.metrics == null ? new NoOpKeenMetrics() : builder.metrics);
+        this.isTimingEnabled = !(metrics instanceof NoOpKeenMetrics);
+        this.tracer = (builder.tracer == null ? new NoOpKeenTracer() : builder.tracer);
+        if (eventStore instanceof KeenMetricsReportingEventStore) {
+            ((KeenMetricsReportingEventStore) eventStore).setMetrics(metrics);
+        }
 
         // If any of the interfaces are null, mark this client as inactive.
         if (httpHandler == null || jsonHandler == null ||
@@ -1052,7 +1238,7 @@ public class KeenClient {
      */
     protected void setActive(boolean isActive) {
         this.isActive = isActive;
-        KeenLogging.log("Keen Client set to " + (isActive? "active" : "inactive"));
+        KeenLogging.log("Keen Client set to %s", (isActive? "active" : "inactive"));
     }
 
     /**
@@ -1072,10 +1258,16 @@ public class KeenClient {
             throw new NoWriteKeyException("You can't send events to Keen IO if you haven't set a write key.");
         }
 
-        validateEventCollection(eventCollection);
-        validateEvent(event);
+        try {
+            validateEventCollection(eventCollection);
+            validateEvent(event);
+        } catch (KeenException e) {
+            metrics.increment(KeenMetrics.Counter.EVENTS_REJECTED, 1);
+            throw e;
+        }
+        metrics.increment(KeenMetrics.Counter.EVENTS_VALIDATED, 1);
 
-        KeenLogging.log(String.format(Locale.US, "Adding event to collection: %s", eventCollection));
+        KeenLogging.log("Adding event to collection: %s", eventCollection);
 
         // Create maps to aggregate keen & non-keen properties
         Map<String, Object> newEvent = new HashMap<String, Object>();
@@ -1110,6 +1302,7 @@ public class KeenClient {
 
         // merge any per-event non-keen properties
         newEvent.putAll(event);
+        metrics.increment(KeenMetrics.Counter.EVENTS_BUILT, 1);
         return newEvent;
     }
 
@@ -1156,11 +1349,18 @@ public class KeenClient {
     private final KeenEventStore eventStore;
     private final Executor publishExecutor;
     private final KeenNetworkStatusHandler networkStatusHandler;
+    private final KeenMetrics metrics;
+    private final boolean isTimingEnabled;
+    private final KeenTracer tracer;
     private final Object attemptsLock = new Object();
+    private final RecyclableByteArrayOutputStream requestBuffer =
+            new RecyclableByteArrayOutputStream(REQUEST_BUFFER_INITIAL_SIZE,
+                    REQUEST_BUFFER_MAX_RETAINED_SIZE);
 
     private boolean isActive = true;
     private boolean isDebugMode;
     private int maxAttempts = KeenConstants.DEFAULT_MAX_ATTEMPTS;
+    private volatile int maxBatchSize = KeenConstants.DEFAULT_MAX_BATCH_SIZE;
     private KeenProject defaultProject;
     private String baseUrl;
     private GlobalPropertiesEvaluator globalPropertiesEvaluator;
@@ -1256,13 +1456,35 @@ public class KeenClient {
      * Builds a map from collection name to a list of event maps, given a map from collection name
      * to a list of event handles. This method just uses the event store to retrieve each event by
      * its handle.
+     * <p>
+     * This method is package-private so that the benchmarks in the jmh module can call it.
+     * </p>
      *
      * @param eventHandles A map from collection name to a list of event handles in the event store.
      * @return A map from collection name to a list of event maps.
      * @throws IOException If there is an error retrieving events from the store.
      */
-    private Map<String, List<Map<String, Object>>> buildEventMap(String projectId,
+    Map<String, List<Map<String, Object>>> buildEventMap(String projectId,
             Map<String, List<Object>> eventHandles) throws IOException {
+        return buildEventMap(projectId, eventHandles, null);
+    }
+
+    /**
+     * Builds a map from collection name to a list of event maps, as
+     * {@link #buildEventMap(String, Map)} does, and also collects the handles of the events
+     * which are actually sent. Events which have run out of attempts are removed from the store
+     * rather than sent, so the collected handles match the returned events index for index, and
+     * hence the results in the server's response. The given handle map is not modified.
+     *
+     * @param eventHandles A map from collection name to a list of event handles in the event store.
+     * @param sentHandles  A map to which the handles of the events to be sent are added, by
+     *                     collection name, or null.
+     * @return A map from collection name to a list of event maps.
+     * @throws IOException If there is an error retrieving events from the store.
+     */
+    Map<String, List<Map<String, Object>>> buildEventMap(String projectId,
+            Map<String, List<Object>> eventHandles, Map<String, List<Object>> sentHandles)
+            throws IOException {
         Map<String, List<Map<String, Object>>> result =
                 new HashMap<String, List<Map<String, Object>>>();
         for (Map.Entry<String, List<Object>> entry : eventHandles.entrySet()) {
@@ -1287,9 +1509,12 @@ public class KeenClient {
                         // these events.
                         attempts = new HashMap<String, Integer>();
                         KeenLogging.log("Failed to read attempt counts map. Events will still be POSTed. " +
-                                "Exception: " + ex);
+                                "Exception: %s", ex);
                     }
 
+                    // Handles of the events which are actually sent, so that they line up with
+                    // the results in the server's response.
+                    List<Object> collectionSentHandles = new ArrayList<Object>(handles.size());
                     for (Object handle : handles) {
                         Map<String, Object> event = getEvent(handle);
 
@@ -1307,27 +1532,38 @@ public class KeenClient {
                         if (remainingAttempts >= 0) {
                             // if we had some remaining attempts, then try again
                             events.add(event);
+                            collectionSentHandles.add(handle);
+                            if (remainingAttempts < maxAttempts - 1) {
+                                metrics.increment(KeenMetrics.Counter.EVENTS_RETRIED, 1);
+                            }
                         } else {
                             // otherwise remove it from the store
-                            eventStore.remove(handle);
+                            removeEvent(handle);
+                            metrics.increment(KeenMetrics.Counter.ATTEMPTS_EXHAUSTED, 1);
 
                             // iff eventStore.remove succeeds we can do some housekeeping and remove the
                             // key from the attempts hash.
                             attempts.remove(attemptsKey);
                         }
                     }
+                    if (sentHandles != null) {
+                        sentHandles.put(eventCollection, collectionSentHandles);
+                    }
 
                     try {
                         setAttemptsMap(projectId, eventCollection, attempts);
                     } catch(IOException ex) {
                         KeenLogging.log("Failed to update event POST attempts counts while sending queued " +
-                                "events. Events will still be POSTed. Exception: " + ex);
+                                "events. Events will still be POSTed. Exception: %s", ex);
                     }
                 }
             } else {
                 for (Object handle : handles) {
                     events.add(getEvent(handle));
                 }
+                if (sentHandles != null) {
+                    sentHandles.put(eventCollection, handles);
+                }
             }
 
 
@@ -1336,6 +1572,40 @@ public class KeenClient {
         return result;
     }
 
+    /**
+     * Publishes a batch of queued events and removes those which the server accepted (or
+     * rejected for good) from the event store.
+     *
+     * @param project      The project in which to publish the events.
+     * @param eventHandles A map from collection name to a list of event handles in the event
+     *                     store.
+     * @throws IOException If there was an error reading the events or communicating with the
+     *                     server.
+     */
+    private void sendBatch(KeenProject project, Map<String, List<Object>> eventHandles)
+            throws IOException {
+        Map<String, List<Object>> sentHandles = new HashMap<String, List<Object>>();
+        Map<String, List<Map<String, Object>>> events =
+                buildEventMap(project.getProjectId(), eventHandles, sentHandles);
+        String response = publishAll(project, events);
+        if (response != null) {
+            KeenTraceSpan responseSpan = beginSpan(KeenTracer.Operation.HANDLE_RESPONSE);
+            try {
+                handleAddEventsResponse(sentHandles, response);
+            } catch (Exception e) {
+                // Errors handling the response are non-fatal; just log them.
+                KeenLogging.log("Error handling response to batch publish: %s", e.getMessage());
+                if (responseSpan != null) {
+                    responseSpan.setError(e);
+                }
+            } finally {
+                if (responseSpan != null) {
+                    responseSpan.end();
+                }
+            }
+        }
+    }
+
     /**
      * Publishes a single event to the Keen service.
      *
@@ -1368,6 +1638,14 @@ public class KeenClient {
         String urlString = String.format(Locale.US, "%s/%s/projects/%s/events", getBaseUrl(),
                 KeenConstants.API_VERSION, project.getProjectId());
         URL url = new URL(urlString);
+
+        int batchSize = 0;
+        for (List<Map<String, Object>> collectionEvents : events.values()) {
+            batchSize += collectionEvents.size();
+        }
+        if (batchSize > 0) {
+            metrics.record(KeenMetrics.Histogram.BATCH_SIZE, batchSize);
+        }
         return publishObject(project, url, events);
     }
 
@@ -1391,34 +1669,61 @@ public class KeenClient {
             return null;
         }
 
-        // Build an output source which simply writes the serialized JSON to the output.
-        OutputSource source = new OutputSource() {
-            @Override
-            public void writeTo(OutputStream out) throws IOException {
-                OutputStreamWriter writer = new OutputStreamWriter(out, ENCODING);
-                jsonHandler.writeJson(writer, requestData);
-            }
-        };
+        Response response;
 
-        // If logging is enabled, log the request being sent.
-        if (KeenLogging.isLoggingEnabled()) {
+        // Serialize the request once into the recycled buffer. The same bytes are used for
+        // logging and for the request body, which is sent with a known Content-Length.
+        try {
+            KeenTraceSpan serializeSpan = beginSpan(KeenTracer.Operation.SERIALIZE_REQUEST);
             try {
-                StringWriter writer = new StringWriter();
+                OutputStreamWriter writer = new OutputStreamWriter(requestBuffer, ENCODING);
                 jsonHandler.writeJson(writer, requestData);
-                String request = writer.toString();
+                writer.close();
+            } finally {
+                if (serializeSpan != null) {
+                    serializeSpan.setRequestBytes(requestBuffer.size());
+                    serializeSpan.end();
+                }
+            }
+            ByteArrayOutputSource source = requestBuffer.toOutputSource();
+
+            // If logging is enabled, log the request being sent.
+            if (KeenLogging.isLoggingEnabled()) {
                 KeenLogging.log(String.format(Locale.US, "Sent request '%s' to URL '%s'",
-                        request, url.toString()));
+                        source.toString(ENCODING), url.toString()));
+            }
+
+            // Send the request.
+            String writeKey = project.getWriteKey();
+            Request request = new Request(url, "POST", writeKey, source, proxy);
+            long start = (isTimingEnabled ? System.nanoTime() : 0);
+            KeenTraceSpan httpSpan = beginSpan(KeenTracer.Operation.HTTP_EXECUTE);
+            try {
+                response = httpHandler.execute(request);
+                if (httpSpan != null) {
+                    httpSpan.setStatusCode(response.statusCode);
+                    httpSpan.setResponseBytes(KeenUtils.utf8Length(response.body));
+                }
             } catch (IOException e) {
-                KeenLogging.log("Couldn't log event written to file: ");
-                e.printStackTrace();
+                metrics.increment(KeenMetrics.Counter.REQUESTS_FAILED, 1);
+                if (httpSpan != null) {
+                    httpSpan.setError(e);
+                }
+                throw e;
+            } finally {
+                if (httpSpan != null) {
+                    httpSpan.setRequestBytes(source.getLength());
+                    httpSpan.end();
+                }
+            }
+            if (isTimingEnabled) {
+                metrics.record(KeenMetrics.Histogram.PUBLISH_LATENCY_NANOS, System.nanoTime() - start);
             }
+            metrics.increment(KeenMetrics.Counter.BYTES_UPLOADED, source.getLength());
+        } finally {
+            requestBuffer.recycle();
         }
 
-        // Send the request.
-        String writeKey = project.getWriteKey();
-        Request request = new Request(url, "POST", writeKey, source, proxy);
-        Response response = httpHandler.execute(request);
-
         // If logging is enabled, log the response.
         if (KeenLogging.isLoggingEnabled()) {
             KeenLogging.log(String.format(Locale.US,
@@ -1430,6 +1735,7 @@ public class KeenClient {
         if (response.isSuccess()) {
             return response.body;
         } else {
+            metrics.increment(KeenMetrics.Counter.REQUESTS_FAILED, 1);
             throw new ServerException(response.body);
         }
     }
@@ -1446,11 +1752,24 @@ public class KeenClient {
     ///// PRIVATE CONSTANTS /////
     private static final String ENCODING = "UTF-8";
 
+    /**
+     * The initial size of the buffer used to serialize request bodies.
+     */
+    private static final int REQUEST_BUFFER_INITIAL_SIZE = 8 * 1024;
+
+    /**
+     * The largest request buffer which will be kept for reuse between requests.
+     */
+    private static final int REQUEST_BUFFER_MAX_RETAINED_SIZE = 1024 * 1024;
+
     /**
      * Handles a response from the Keen service to a batch post events operation. In particular,
      * this method will iterate through the responses and remove any successfully processed events
      * (or events which failed for known fatal reasons) from the event store so they won't be sent
      * in subsequent posts.
+     * <p>
+     * This method is package-private so that the benchmarks in the jmh module can call it.
+     * </p>
      *
      * @param handles  A map from collection names to lists of handles in the event store. This is
      *                 referenced against the response from the server to determine which events to
@@ -1459,7 +1778,14 @@ public class KeenClient {
      * @throws IOException If there is an error removing events from the store.
      */
     @SuppressWarnings("unchecked")
-    private void handleAddEventsResponse(Map<String, List<Object>> handles, String response) throws IOException {
+    void handleAddEventsResponse(Map<String, List<Object>> handles, String response) throws IOException {
+        // If the JSON handler supports streaming, walk the response one event result at a time
+        // rather than building a tree for the entire response.
+        if (jsonHandler instanceof KeenStreamingJsonHandler) {
+            streamAddEventsResponse(handles, response);
+            return;
+        }
+
         // Parse the response into a map.
         StringReader reader = new StringReader(response);
         Map<String, Object> responseMap;
@@ -1479,42 +1805,88 @@ public class KeenClient {
             List<Map<String, Object>> eventResults = (List<Map<String, Object>>) entry.getValue();
             int index = 0;
             for (Map<String, Object> eventResult : eventResults) {
-                // now loop through each event collection's individual results
-                boolean removeCacheEntry = true;
-                boolean success = (Boolean) eventResult.get(KeenConstants.SUCCESS_PARAM);
-                if (!success) {
-                    // grab error code and description
-                    Map errorDict = (Map) eventResult.get(KeenConstants.ERROR_PARAM);
-                    String errorCode = (String) errorDict.get(KeenConstants.NAME_PARAM);
-                    if (errorCode.equals(KeenConstants.INVALID_COLLECTION_NAME_ERROR) ||
-                            errorCode.equals(KeenConstants.INVALID_PROPERTY_NAME_ERROR) ||
-                            errorCode.equals(KeenConstants.INVALID_PROPERTY_VALUE_ERROR)) {
-                        removeCacheEntry = true;
-                        KeenLogging.log("An invalid event was found. Deleting it. Error: " +
-                                errorDict.get(KeenConstants.DESCRIPTION_PARAM));
-                    } else {
-                        String description = (String) errorDict.get(KeenConstants.DESCRIPTION_PARAM);
-                        removeCacheEntry = false;
-                        KeenLogging.log(String.format(Locale.US,
-                                "The event could not be inserted for some reason. " +
-                                "Error name and description: %s %s", errorCode,
-                                description));
-                    }
-                }
+                handleEventResult(collectionHandles, index, eventResult);
+                index++;
+            }
+        }
+    }
 
-                // If the cache entry should be removed, get the handle at the appropriate index
-                // and ask the event store to remove it.
-                if (removeCacheEntry) {
-                    Object handle = collectionHandles.get(index);
-                    // Try to remove the object from the cache. Catch and log exceptions to prevent
-                    // a single failure from derailing the rest of the cleanup.
-                    try {
-                        eventStore.remove(handle);
-                    } catch (IOException e) {
-                        KeenLogging.log("Failed to remove object '" + handle + "' from cache");
-                    }
+    /**
+     * Handles a response from the Keen service to a batch post events operation using a
+     * {@link KeenStreamingJsonHandler}. Only the result for a single event is held in memory at
+     * any time.
+     *
+     * @param handles  A map from collection names to lists of handles in the event store.
+     * @param response The response from the server.
+     * @throws IOException If there is an error parsing the response.
+     */
+    @SuppressWarnings("unchecked")
+    private void streamAddEventsResponse(Map<String, List<Object>> handles, String response)
+            throws IOException {
+        KeenJsonReader reader =
+                ((KeenStreamingJsonHandler) jsonHandler).createReader(new StringReader(response));
+        try {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String collectionName = reader.nextName();
+                List<Object> collectionHandles = handles.get(collectionName);
+
+                reader.beginArray();
+                int index = 0;
+                while (reader.hasNext()) {
+                    Map<String, Object> eventResult = (Map<String, Object>) reader.nextValue();
+                    handleEventResult(collectionHandles, index, eventResult);
+                    index++;
                 }
-                index++;
+                reader.endArray();
+            }
+            reader.endObject();
+        } finally {
+            KeenUtils.closeQuietly(reader);
+        }
+    }
+
+    /**
+     * Handles the server's result for a single event from a batch post. If the event was
+     * accepted, or was rejected for a known fatal reason, it is removed from the event store.
+     *
+     * @param collectionHandles The handles of the events which were posted to the collection.
+     * @param index             The index of the event within the collection.
+     * @param eventResult       The result reported by the server for the event.
+     */
+    private void handleEventResult(List<Object> collectionHandles, int index,
+                                   Map<String, Object> eventResult) {
+        // now loop through each event collection's individual results
+        boolean removeCacheEntry = true;
+        boolean success = (Boolean) eventResult.get(KeenConstants.SUCCESS_PARAM);
+        if (!success) {
+            // grab error code and description
+            Map errorDict = (Map) eventResult.get(KeenConstants.ERROR_PARAM);
+            String errorCode = (String) errorDict.get(KeenConstants.NAME_PARAM);
+            if (errorCode.equals(KeenConstants.INVALID_COLLECTION_NAME_ERROR) ||
+                    errorCode.equals(KeenConstants.INVALID_PROPERTY_NAME_ERROR) ||
+                    errorCode.equals(KeenConstants.INVALID_PROPERTY_VALUE_ERROR)) {
+                removeCacheEntry = true;
+                KeenLogging.log("An invalid event was found. Deleting it. Error: %s",
+                        errorDict.get(KeenConstants.DESCRIPTION_PARAM));
+            } else {
+                String description = (String) errorDict.get(KeenConstants.DESCRIPTION_PARAM);
+                removeCacheEntry = false;
+                KeenLogging.log("The event could not be inserted for some reason. " +
+                        "Error name and description: %s %s", errorCode, description);
+            }
+        }
+
+        // If the cache entry should be removed, get the handle at the appropriate index
+        // and ask the event store to remove it.
+        if (removeCacheEntry) {
+            Object handle = collectionHandles.get(index);
+            // Try to remove the object from the cache. Catch and log exceptions to prevent
+            // a single failure from derailing the rest of the cleanup.
+            try {
+                removeEvent(handle);
+            } catch (IOException e) {
+                KeenLogging.log("Failed to remove object '%s' from cache", handle);
             }
         }
     }
@@ -1580,7 +1952,7 @@ public class KeenClient {
                 throw new RuntimeException(e);
             }
         } else {
-            KeenLogging.log("Encountered error: " + e.getMessage());
+            KeenLogging.log("Encountered error: %s", e.getMessage());
             if (callback != null) {
                 try {
                     callback.onFailure(e);
@@ -1619,7 +1991,7 @@ public class KeenClient {
         } else {
         	handleFailure(callback, e);
         	
-            KeenLogging.log("Encountered error: " + e.getMessage());
+            KeenLogging.log("Encountered error: %s", e.getMessage());
             if (callback != null) {
                 try {
                     if(callback instanceof KeenDetailedCallback){
@@ -1651,14 +2023,84 @@ public class KeenClient {
      * @throws IOException
      */
     private Map<String, Object> getEvent(Object handle) throws IOException {
-        // Get the event from the store.
-        String jsonEvent = eventStore.get(handle);
+        KeenTraceSpan span = beginSpan(KeenTracer.Operation.GET_EVENT);
+        try {
+            // Get the event from the store.
+            String jsonEvent = eventStore.get(handle);
+
+            // De-serialize the event from its JSON.
+            StringReader reader = new StringReader(jsonEvent);
+            Map<String, Object> event = jsonHandler.readJson(reader);
+            KeenUtils.closeQuietly(reader);
+            return event;
+        } finally {
+            if (span != null) {
+                span.end();
+            }
+        }
+    }
+
+    /**
+     * Removes an event from the event store.
+     *
+     * @param handle The handle of the event to remove.
+     * @throws IOException If the event store fails to remove the event.
+     */
+    private void removeEvent(Object handle) throws IOException {
+        KeenTraceSpan span = beginSpan(KeenTracer.Operation.REMOVE_EVENT);
+        try {
+            eventStore.remove(handle);
+        } finally {
+            if (span != null) {
+                span.end();
+            }
+        }
+    }
+
+    /**
+     * Begins a trace span if tracing is enabled.
+     *
+     * @param operation The operation which is beginning.
+     * @return The span, or null if tracing is disabled.
+     */
+    private KeenTraceSpan beginSpan(KeenTracer.Operation operation) {
+        return (tracer.isEnabled() ? tracer.beginSpan(operation) : null);
+    }
+
+    /**
+     * Counts the event handles in a map of handles by collection.
+     *
+     * @param handles A map from collection names to lists of handles.
+     * @return The total number of handles.
+     */
+    private static int countHandles(Map<String, List<Object>> handles) {
+        int count = 0;
+        for (List<Object> collectionHandles : handles.values()) {
+            count += collectionHandles.size();
+        }
+        return count;
+    }
 
-        // De-serialize the event from its JSON.
-        StringReader reader = new StringReader(jsonEvent);
-        Map<String, Object> event = jsonHandler.readJson(reader);
-        KeenUtils.closeQuietly(reader);
-        return event;
+    /**
+     * Validates and builds an event as {@link #validateAndBuildEvent}, within a trace span.
+     */
+    private Map<String, Object> tracedValidateAndBuildEvent(KeenProject project, String eventCollection,
+                                                            Map<String, Object> event,
+                                                            Map<String, Object> keenProperties) {
+        KeenTraceSpan span = beginSpan(KeenTracer.Operation.BUILD_EVENT);
+        try {
+            return validateAndBuildEvent(project, eventCollection, event, keenProperties);
+        } catch (RuntimeException e) {
+            if (span != null) {
+                span.setError(e);
+            }
+            throw e;
+        } finally {
+            if (span != null) {
+                span.setEventCollection(eventCollection);
+                span.end();
+            }
+        }
     }
     
     /**
@@ -1674,7 +2116,24 @@ public class KeenClient {
         if (eventStore instanceof KeenAttemptCountingEventStore) {
             KeenAttemptCountingEventStore res = (KeenAttemptCountingEventStore)eventStore;
             String attemptsJSON = res.getAttempts(projectId, eventCollection);
-            if (attemptsJSON != null) {
+            if (attemptsJSON != null && jsonHandler instanceof KeenStreamingJsonHandler) {
+                KeenJsonReader reader = ((KeenStreamingJsonHandler) jsonHandler)
+                        .createReader(new StringReader(attemptsJSON));
+                try {
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        String key = reader.nextName();
+                        if (reader.peek() == KeenJsonToken.NUMBER) {
+                            attempts.put(key, (int) reader.nextLong());
+                        } else {
+                            reader.skipValue();
+                        }
+                    }
+                    reader.endObject();
+                } finally {
+                    KeenUtils.closeQuietly(reader);
+                }
+            } else if (attemptsJSON != null) {
                 StringReader reader = new StringReader(attemptsJSON);
                 Map<String, Object> attemptTmp = jsonHandler.readJson(reader);
                 for (Entry<String, Object> entry : attemptTmp.entrySet()) {
@@ -1702,7 +2161,18 @@ public class KeenClient {
             StringWriter writer = null;
             try {
                 writer = new StringWriter();
-                jsonHandler.writeJson(writer, attempts);
+                if (jsonHandler instanceof KeenStreamingJsonHandler) {
+                    KeenJsonWriter jsonWriter =
+                            ((KeenStreamingJsonHandler) jsonHandler).createWriter(writer);
+                    jsonWriter.beginObject();
+                    for (Entry<String, Integer> entry : attempts.entrySet()) {
+                        jsonWriter.name(entry.getKey()).value(entry.getValue());
+                    }
+                    jsonWriter.endObject();
+                    jsonWriter.close();
+                } else {
+                    jsonHandler.writeJson(writer, attempts);
+                }
                 String attemptsJSON = writer.toString();
                 res.setAttempts(projectId, eventCollection, attemptsJSON);
             } finally {
@@ -0,0 +1,33 @@
+package io.keen.client.java;
+
+import java.io.IOException;
+
+/**
+ * Interface for event stores which can return their handles a page at a time. A
+ * {@link KeenClient} uses this to send a large backlog of queued events in bounded batches, so
+ * that it only needs to hold one batch of events in memory at a time.
+ *
+ * @author Keen IO
+ * @since 5.1.0
+ */
+public interface KeenCursorEventStore extends KeenEventStore {
+
+    /**
+     * Retrieves handles for up to {@code maxHandles} of the events stored for a project, starting
+     * after the position given by a cursor. Each call returns the events after those returned by
+     * the previous one, in an order chosen by the store, so that following the cursors from
+     * {@code null} visits every event stored before the first call exactly once. Removing events
+     * between calls doesn't affect the position of a cursor; events stored between calls may or
+     * may not be visited.
+     *
+     * @param projectId  The ID of the project for which to retrieve event handles.
+     * @param cursor     The cursor returned with the previous page, or null to start from the
+     *                   beginning.
+     * @param maxHandles The maximum number of handles to return; must be positive.
+     * @return The page of handles, grouped by collection as in
+     * {@link #getHandles(String)}.
+     * @throws IOException If there is an error retrieving the handles.
+     */
+    KeenHandlePage getHandles(String projectId, Object cursor, int maxHandles) throws IOException;
+
+}
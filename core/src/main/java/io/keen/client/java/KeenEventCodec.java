@@ -0,0 +1,46 @@
+package io.keen.client.java;
+
+import java.io.IOException;
+
+/**
+ * Interface for converting serialized JSON events to and from the representation used to persist
+ * them in an event store.
+ * <p>
+ * The default codec used by {@link FileEventStore} simply stores the UTF-8 bytes of the JSON
+ * text. Alternative implementations may use a more compact encoding (for example a binary JSON
+ * format) in order to reduce disk usage and parsing cost; events are only converted back to JSON
+ * text when they are retrieved for upload.
+ * </p>
+ * @author Keen IO
+ * @since 5.1.0
+ */
+public interface KeenEventCodec {
+
+    /**
+     * Gets the suffix which is appended to the names of files written with this codec. The suffix
+     * allows a store to tell which codec was used to write each persisted event, so that events
+     * written before a store's codec was changed can still be read.
+     *
+     * @return The file name suffix (e.g. {@code ".smile"}), or an empty string for plain JSON.
+     */
+    String getFileSuffix();
+
+    /**
+     * Encodes a serialized JSON event for storage.
+     *
+     * @param event The serialized JSON for the event.
+     * @return The encoded event.
+     * @throws IOException If the event can't be encoded.
+     */
+    byte[] encode(String event) throws IOException;
+
+    /**
+     * Decodes a stored event back into serialized JSON.
+     *
+     * @param data The encoded event, as returned by {@link #encode(String)}.
+     * @return The serialized JSON for the event.
+     * @throws IOException If the event can't be decoded.
+     */
+    String decode(byte[] data) throws IOException;
+
+}
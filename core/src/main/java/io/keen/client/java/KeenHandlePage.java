@@ -0,0 +1,51 @@
+package io.keen.client.java;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One page of event handles returned by
+ * {@link KeenCursorEventStore#getHandles(String, Object, int)}.
+ *
+ * @author Keen IO
+ * @since 5.1.0
+ */
+public final class KeenHandlePage {
+
+    ///// PUBLIC CONSTRUCTORS /////
+
+    /**
+     * Constructs a page of handles.
+     *
+     * @param handles A map from collection names to lists of handles, as returned by
+     *                {@link KeenEventStore#getHandles(String)}.
+     * @param cursor  The opaque cursor from which to retrieve the next page, or null if there
+     *                are no more events.
+     */
+    public KeenHandlePage(Map<String, List<Object>> handles, Object cursor) {
+        this.handles = handles;
+        this.cursor = cursor;
+    }
+
+    ///// PUBLIC METHODS /////
+
+    /**
+     * @return A map from collection names to the lists of handles in this page.
+     */
+    public Map<String, List<Object>> getHandles() {
+        return handles;
+    }
+
+    /**
+     * @return The cursor from which to retrieve the next page, or null if this is the last page.
+     */
+    public Object getCursor() {
+        return cursor;
+    }
+
+    ///// PRIVATE FIELDS /////
+
+    private final Map<String, List<Object>> handles;
+    private final Object cursor;
+
+}
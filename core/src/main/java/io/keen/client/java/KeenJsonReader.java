@@ -0,0 +1,127 @@
+package io.keen.client.java;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Pull-style reader over a JSON document. Values are consumed one token at a time, which allows
+ * callers to process large documents without first materializing them as a
+ * {@code Map&lt;String, Object&gt;}.
+ * <p>
+ * Implementations are obtained from {@link KeenStreamingJsonHandler#createReader(java.io.Reader)}
+ * and are not thread safe.
+ * </p>
+ * @author Keen IO
+ * @since 5.1.0
+ */
+public interface KeenJsonReader extends Closeable {
+
+    /**
+     * Returns the type of the next token without consuming it.
+     *
+     * @return The next token, or {@link KeenJsonToken#END_DOCUMENT} if the input is exhausted.
+     * @throws IOException If there is an error reading from the input.
+     */
+    KeenJsonToken peek() throws IOException;
+
+    /**
+     * Consumes the opening of an object.
+     *
+     * @throws IOException If the next token is not {@link KeenJsonToken#BEGIN_OBJECT}.
+     */
+    void beginObject() throws IOException;
+
+    /**
+     * Consumes the closing of the current object.
+     *
+     * @throws IOException If the next token is not {@link KeenJsonToken#END_OBJECT}.
+     */
+    void endObject() throws IOException;
+
+    /**
+     * Consumes the opening of an array.
+     *
+     * @throws IOException If the next token is not {@link KeenJsonToken#BEGIN_ARRAY}.
+     */
+    void beginArray() throws IOException;
+
+    /**
+     * Consumes the closing of the current array.
+     *
+     * @throws IOException If the next token is not {@link KeenJsonToken#END_ARRAY}.
+     */
+    void endArray() throws IOException;
+
+    /**
+     * Checks whether the current object or array has more elements.
+     *
+     * @return {@code true} if there is another member or element to read.
+     * @throws IOException If there is an error reading from the input.
+     */
+    boolean hasNext() throws IOException;
+
+    /**
+     * Consumes the next member name of the current object.
+     *
+     * @return The member name.
+     * @throws IOException If the next token is not {@link KeenJsonToken#NAME}.
+     */
+    String nextName() throws IOException;
+
+    /**
+     * Consumes the next string value. Numbers are returned in their textual form.
+     *
+     * @return The string value.
+     * @throws IOException If the next token is not a string or number.
+     */
+    String nextString() throws IOException;
+
+    /**
+     * Consumes the next boolean value.
+     *
+     * @return The boolean value.
+     * @throws IOException If the next token is not {@link KeenJsonToken#BOOLEAN}.
+     */
+    boolean nextBoolean() throws IOException;
+
+    /**
+     * Consumes the next numeric value as a {@code long}.
+     *
+     * @return The long value.
+     * @throws IOException If the next token is not a number which fits in a {@code long}.
+     */
+    long nextLong() throws IOException;
+
+    /**
+     * Consumes the next numeric value as a {@code double}.
+     *
+     * @return The double value.
+     * @throws IOException If the next token is not a number.
+     */
+    double nextDouble() throws IOException;
+
+    /**
+     * Consumes the next {@code null} value.
+     *
+     * @throws IOException If the next token is not {@link KeenJsonToken#NULL}.
+     */
+    void nextNull() throws IOException;
+
+    /**
+     * Consumes the next value, including all nested members if it is an object or array.
+     *
+     * @throws IOException If there is an error reading from the input.
+     */
+    void skipValue() throws IOException;
+
+    /**
+     * Consumes the next value and returns it in the same form produced by
+     * {@link KeenJsonHandler#readJson(java.io.Reader)}: objects become Maps, arrays become Lists
+     * and scalars become Strings, Numbers, Booleans or null.
+     *
+     * @return The value which was read.
+     * @throws IOException If there is an error reading from the input.
+     */
+    Object nextValue() throws IOException;
+
+}
@@ -0,0 +1,61 @@
+package io.keen.client.java;
+
+/**
+ * The structural elements of a JSON document, as reported by {@link KeenJsonReader#peek()}.
+ *
+ * @author Keen IO
+ * @since 5.1.0
+ */
+public enum KeenJsonToken {
+
+    /**
+     * The opening of a JSON object.
+     */
+    BEGIN_OBJECT,
+
+    /**
+     * The closing of a JSON object.
+     */
+    END_OBJECT,
+
+    /**
+     * The opening of a JSON array.
+     */
+    BEGIN_ARRAY,
+
+    /**
+     * The closing of a JSON array.
+     */
+    END_ARRAY,
+
+    /**
+     * The name of an object member.
+     */
+    NAME,
+
+    /**
+     * A JSON string value.
+     */
+    STRING,
+
+    /**
+     * A JSON number value.
+     */
+    NUMBER,
+
+    /**
+     * A JSON {@code true} or {@code false} value.
+     */
+    BOOLEAN,
+
+    /**
+     * A JSON {@code null} value.
+     */
+    NULL,
+
+    /**
+     * The end of the JSON input.
+     */
+    END_DOCUMENT
+
+}
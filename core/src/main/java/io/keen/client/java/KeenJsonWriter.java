@@ -0,0 +1,117 @@
+package io.keen.client.java;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+
+/**
+ * Generator-style writer for a JSON document. Callers emit one token at a time, which allows
+ * large requests to be written without first assembling them into a single
+ * {@code Map&lt;String, Object&gt;}.
+ * <p>
+ * Implementations are obtained from {@link KeenStreamingJsonHandler#createWriter(java.io.Writer)}
+ * and are not thread safe. Closing the writer does not close the underlying
+ * {@link java.io.Writer}.
+ * </p>
+ * @author Keen IO
+ * @since 5.1.0
+ */
+public interface KeenJsonWriter extends Closeable, Flushable {
+
+    /**
+     * Writes the opening of an object.
+     *
+     * @return This writer (for method chaining).
+     * @throws IOException If there is an error writing to the output.
+     */
+    KeenJsonWriter beginObject() throws IOException;
+
+    /**
+     * Writes the closing of the current object.
+     *
+     * @return This writer (for method chaining).
+     * @throws IOException If there is an error writing to the output.
+     */
+    KeenJsonWriter endObject() throws IOException;
+
+    /**
+     * Writes the opening of an array.
+     *
+     * @return This writer (for method chaining).
+     * @throws IOException If there is an error writing to the output.
+     */
+    KeenJsonWriter beginArray() throws IOException;
+
+    /**
+     * Writes the closing of the current array.
+     *
+     * @return This writer (for method chaining).
+     * @throws IOException If there is an error writing to the output.
+     */
+    KeenJsonWriter endArray() throws IOException;
+
+    /**
+     * Writes the name of the next member of the current object.
+     *
+     * @param name The member name.
+     * @return This writer (for method chaining).
+     * @throws IOException If there is an error writing to the output.
+     */
+    KeenJsonWriter name(String name) throws IOException;
+
+    /**
+     * Writes a string value, or {@code null} if the value is null.
+     *
+     * @param value The value to write.
+     * @return This writer (for method chaining).
+     * @throws IOException If there is an error writing to the output.
+     */
+    KeenJsonWriter value(String value) throws IOException;
+
+    /**
+     * Writes a boolean value.
+     *
+     * @param value The value to write.
+     * @return This writer (for method chaining).
+     * @throws IOException If there is an error writing to the output.
+     */
+    KeenJsonWriter value(boolean value) throws IOException;
+
+    /**
+     * Writes a long value.
+     *
+     * @param value The value to write.
+     * @return This writer (for method chaining).
+     * @throws IOException If there is an error writing to the output.
+     */
+    KeenJsonWriter value(long value) throws IOException;
+
+    /**
+     * Writes a double value.
+     *
+     * @param value The value to write.
+     * @return This writer (for method chaining).
+     * @throws IOException If there is an error writing to the output.
+     */
+    KeenJsonWriter value(double value) throws IOException;
+
+    /**
+     * Writes a {@code null} value.
+     *
+     * @return This writer (for method chaining).
+     * @throws IOException If there is an error writing to the output.
+     */
+    KeenJsonWriter nullValue() throws IOException;
+
+    /**
+     * Writes an arbitrary value. Maps, Iterables and arrays are written recursively; all other
+     * values are written the same way {@link KeenJsonHandler#writeJson(java.io.Writer, java.util.Map)}
+     * would write them.
+     *
+     * @param value The value to write.
+     * @return This writer (for method chaining).
+     * @throws IOException If there is an error writing to the output.
+     */
+    KeenJsonWriter object(Object value) throws IOException;
+
+}
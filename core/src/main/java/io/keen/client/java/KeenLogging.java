@@ -1,14 +1,20 @@
 package io.keen.client.java;
 
+import java.util.Locale;
 import java.util.logging.Handler;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.logging.SimpleFormatter;
-import java.util.logging.StreamHandler;
 
 /**
  * KeenLogging is a wrapper around a logging module and provides, well, logging for the Keen Java SDK.
  * Logging is disabled by default so as not to clutter up your development experience.
+ * <p>
+ * Messages which need arguments should be logged with the parameterized {@code log} methods, which
+ * only format the message once they've checked that logging is enabled. The default handler writes
+ * to {@code System.out} in batches from a background thread; call {@link #flush()} to wait for
+ * pending messages to be written.
+ * </p>
  *
  * @author dkador
  * @since 1.0.0
@@ -16,11 +22,11 @@ import java.util.logging.StreamHandler;
 public class KeenLogging {
 
     private static final Logger LOGGER;
-    private static final StreamHandler HANDLER;
+    private static final BatchingLogHandler HANDLER;
 
     static {
         LOGGER = Logger.getLogger(KeenLogging.class.getName());
-        HANDLER = new StreamHandler(System.out, new SimpleFormatter());
+        HANDLER = new BatchingLogHandler(System.out, new SimpleFormatter());
         LOGGER.addHandler(HANDLER);
         disableLogging();
     }
@@ -28,10 +34,41 @@ public class KeenLogging {
     static void log(String msg) {
         if (isLoggingEnabled()) {
             LOGGER.log(Level.FINER, msg);
-            HANDLER.flush();
         }
     }
 
+    /**
+     * Logs a message with one argument. The message is only formatted if logging is enabled.
+     *
+     * @param format The message format, as for {@link String#format(Locale, String, Object...)}.
+     * @param arg    The argument.
+     */
+    static void log(String format, Object arg) {
+        if (isLoggingEnabled()) {
+            LOGGER.log(Level.FINER, String.format(Locale.US, format, arg));
+        }
+    }
+
+    /**
+     * Logs a message with two arguments. The message is only formatted if logging is enabled.
+     *
+     * @param format The message format, as for {@link String#format(Locale, String, Object...)}.
+     * @param arg1   The first argument.
+     * @param arg2   The second argument.
+     */
+    static void log(String format, Object arg1, Object arg2) {
+        if (isLoggingEnabled()) {
+            LOGGER.log(Level.FINER, String.format(Locale.US, format, arg1, arg2));
+        }
+    }
+
+    /**
+     * Writes any log messages which are waiting to be output by the default log handler.
+     */
+    public static void flush() {
+        HANDLER.flush();
+    }
+
     /**
      * Call this to enable logging.
      */
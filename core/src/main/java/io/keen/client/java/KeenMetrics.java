@@ -0,0 +1,75 @@
+package io.keen.client.java;
+
+/**
+ * Interface which receives ingestion metrics from a {@link KeenClient} and its event store.
+ * Implementations may forward the metrics to any metrics library; a client which isn't
+ * configured with an implementation uses {@link NoOpKeenMetrics}, which ignores them.
+ * <p>
+ * Counters are incremented from wherever the counted work happens: validation and queueing
+ * counters on the application threads which add events, request and retry counters on the
+ * thread which sends them (the publish executor, for asynchronous sends), and store counters
+ * such as {@link Counter#STORE_SYNCS} possibly on an event store's own background thread. An
+ * implementation therefore sees concurrent updates of the same counter or histogram.
+ *
+ * @author Keen IO
+ * @since 5.1.0
+ */
+public interface KeenMetrics {
+
+    /**
+     * Counters, which only ever increase.
+     */
+    public enum Counter {
+        /** Events which passed validation. */
+        EVENTS_VALIDATED,
+        /** Events which failed validation and were rejected. */
+        EVENTS_REJECTED,
+        /** Events which were built, i.e. validated and merged with global properties. */
+        EVENTS_BUILT,
+        /** Events which were stored in the event store to be sent later. */
+        EVENTS_QUEUED,
+        /** Queued events which the event store evicted to stay within its capacity. */
+        EVENTS_DROPPED,
+        /** Queued events which were sent again after a previous attempt failed. */
+        EVENTS_RETRIED,
+        /** Queued events which were removed because they had no attempts remaining. */
+        ATTEMPTS_EXHAUSTED,
+        /** Requests to the Keen service which failed. */
+        REQUESTS_FAILED,
+        /** Bytes sent in request bodies to the Keen service. */
+        BYTES_UPLOADED,
+        /** Times the event store forced its data to durable storage. */
+        STORE_SYNCS,
+        /** Queued events which a tiered event store wrote to disk because its memory was full. */
+        EVENTS_SPILLED,
+        /** Queued events which the event store evicted because they were older than allowed. */
+        EVENTS_EXPIRED
+    }
+
+    /**
+     * Histograms, which record the distribution of a value.
+     */
+    public enum Histogram {
+        /** The number of events in each batch of queued events sent to the Keen service. */
+        BATCH_SIZE,
+        /** The time taken by each request to the Keen service, in nanoseconds. */
+        PUBLISH_LATENCY_NANOS
+    }
+
+    /**
+     * Increments a counter.
+     *
+     * @param counter The counter.
+     * @param delta   The amount by which to increment it.
+     */
+    public void increment(Counter counter, long delta);
+
+    /**
+     * Records a value in a histogram.
+     *
+     * @param histogram The histogram.
+     * @param value     The value.
+     */
+    public void record(Histogram histogram, long value);
+
+}
@@ -0,0 +1,20 @@
+package io.keen.client.java;
+
+/**
+ * Interface for event stores which report their own metrics, such as events evicted to stay
+ * within capacity. A {@link KeenClient} passes its {@link KeenMetrics} to an event store which
+ * implements this interface when the client is constructed.
+ *
+ * @author Keen IO
+ * @since 5.1.0
+ */
+public interface KeenMetricsReportingEventStore extends KeenEventStore {
+
+    /**
+     * Sets the metrics to which this store reports.
+     *
+     * @param metrics The metrics; never null.
+     */
+    public void setMetrics(KeenMetrics metrics);
+
+}
@@ -0,0 +1,41 @@
+package io.keen.client.java;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+
+/**
+ * Extension of {@link KeenJsonHandler} for implementations which can read and write JSON one
+ * token at a time.
+ * <p>
+ * When the configured handler implements this interface the Keen clients will use it to process
+ * batch responses, attempt counts and query results incrementally rather than building a full
+ * {@code Map&lt;String, Object&gt;} for each document. Handlers which only implement
+ * {@link KeenJsonHandler} continue to work unchanged.
+ * </p>
+ * @author Keen IO
+ * @since 5.1.0
+ */
+public interface KeenStreamingJsonHandler extends KeenJsonHandler {
+
+    /**
+     * Creates a {@link KeenJsonReader} which reads JSON-formatted data from the given
+     * {@link java.io.Reader}.
+     *
+     * @param reader The {@link java.io.Reader} from which to read the JSON data.
+     * @return A new {@link KeenJsonReader}.
+     * @throws IOException If there is an error creating the reader.
+     */
+    KeenJsonReader createReader(Reader reader) throws IOException;
+
+    /**
+     * Creates a {@link KeenJsonWriter} which writes JSON-formatted data to the given
+     * {@link java.io.Writer}.
+     *
+     * @param writer The {@link java.io.Writer} to which the JSON data should be written.
+     * @return A new {@link KeenJsonWriter}.
+     * @throws IOException If there is an error creating the writer.
+     */
+    KeenJsonWriter createWriter(Writer writer) throws IOException;
+
+}
@@ -0,0 +1,59 @@
+package io.keen.client.java;
+
+/**
+ * A single traced operation, begun by {@link KeenTracer#beginSpan(KeenTracer.Operation)}. The
+ * client sets whichever attributes apply to the operation before ending the span.
+ *
+ * @author Keen IO
+ * @since 5.1.0
+ */
+public interface KeenTraceSpan {
+
+    /**
+     * Sets the event collection the operation applies to.
+     *
+     * @param eventCollection The name of the event collection.
+     */
+    public void setEventCollection(String eventCollection);
+
+    /**
+     * Sets the number of events the operation handled, e.g. the size of a drained batch.
+     *
+     * @param eventCount The number of events.
+     */
+    public void setEventCount(int eventCount);
+
+    /**
+     * Sets the HTTP status code of the response.
+     *
+     * @param statusCode The status code.
+     */
+    public void setStatusCode(int statusCode);
+
+    /**
+     * Sets the size of the request body.
+     *
+     * @param requestBytes The number of bytes.
+     */
+    public void setRequestBytes(long requestBytes);
+
+    /**
+     * Sets the size of the response body.
+     *
+     * @param responseBytes The number of bytes.
+     */
+    public void setResponseBytes(long responseBytes);
+
+    /**
+     * Marks the operation as failed.
+     *
+     * @param error The error which caused it to fail.
+     */
+    public void setError(Throwable error);
+
+    /**
+     * Ends the span. No further methods are called on it.
+     */
+    public void end();
+
+}
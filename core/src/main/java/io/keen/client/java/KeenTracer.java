@@ -0,0 +1,63 @@
+package io.keen.client.java;
+
+/**
+ * Interface which receives timed trace spans from a {@link KeenClient}, for profiling where the
+ * time goes when adding and sending events: building events, event store I/O, serialization,
+ * HTTP requests and handling batch responses.
+ * <p>
+ * The client asks {@link #isEnabled()} before each operation and only begins a span if it
+ * returns true, so a tracer which is disabled costs one call per operation. This maps directly
+ * onto Java Flight Recorder on platforms which have it: an implementation can return whether
+ * its event type is enabled from {@link #isEnabled()}, begin a JFR event in
+ * {@link #beginSpan(Operation)}, and copy the span's attributes onto the event and commit it in
+ * {@link KeenTraceSpan#end()}.
+ * <p>
+ * Each span is begun and ended on the same thread, around the operation it times, so a span
+ * needn't be thread-safe. The tracer itself is shared, though: application threads adding
+ * events and the publish executor sending them may begin spans at the same time. Time spent in
+ * the tracer is included in any span which encloses it, such as {@link Operation#DRAIN}.
+ *
+ * @author Keen IO
+ * @since 5.1.0
+ */
+public interface KeenTracer {
+
+    /**
+     * The operations which are traced.
+     */
+    public enum Operation {
+        /** Validating an event and merging it with global properties. */
+        BUILD_EVENT,
+        /** Storing a queued event in the event store. */
+        STORE_EVENT,
+        /** Reading a queued event from the event store and parsing it. */
+        GET_EVENT,
+        /** Removing a queued event from the event store. */
+        REMOVE_EVENT,
+        /** Sending all queued events for a project, from reading the store to handling the response. */
+        DRAIN,
+        /** Serializing a request body to JSON. */
+        SERIALIZE_REQUEST,
+        /** Executing an HTTP request to the Keen service. */
+        HTTP_EXECUTE,
+        /** Handling the response to a batch of queued events. */
+        HANDLE_RESPONSE
+    }
+
+    /**
+     * Checks whether spans should currently be recorded.
+     *
+     * @return {@code true} if the client should begin spans.
+     */
+    public boolean isEnabled();
+
+    /**
+     * Begins a span for an operation. The client calls {@link KeenTraceSpan#end()} on the span
+     * when the operation completes, whether or not it succeeded.
+     *
+     * @param operation The operation which is beginning.
+     * @return The span.
+     */
+    public KeenTraceSpan beginSpan(Operation operation);
+
+}
@@ -73,4 +73,32 @@ public class KeenUtils {
         return new String(hexChars);
     }
 
+    /**
+     * Counts the bytes a string occupies when encoded as UTF-8, without encoding it.
+     *
+     * @param value The string, or null.
+     * @return The length of the string in UTF-8, or 0 if it's null.
+     */
+    public static long utf8Length(String value) {
+        if (value == null) {
+            return 0;
+        }
+        long length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
 }
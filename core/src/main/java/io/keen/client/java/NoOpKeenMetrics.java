@@ -0,0 +1,32 @@
+package io.keen.client.java;
+
+/**
+ * This class implements the KeenMetrics interface by ignoring all metrics. It's the default
+ * for {@link KeenClient}, which also skips timing requests when it's in use.
+ *
+ * @author Keen IO
+ * @since 5.1.0
+ */
+public class NoOpKeenMetrics implements KeenMetrics {
+
+    /**
+     * Does nothing.
+     *
+     * @param counter Ignored.
+     * @param delta   Ignored.
+     */
+    @Override
+    public void increment(Counter counter, long delta) {
+    }
+
+    /**
+     * Does nothing.
+     *
+     * @param histogram Ignored.
+     * @param value     Ignored.
+     */
+    @Override
+    public void record(Histogram histogram, long value) {
+    }
+
+}
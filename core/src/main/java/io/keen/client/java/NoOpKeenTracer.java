@@ -0,0 +1,33 @@
+package io.keen.client.java;
+
+/**
+ * This class implements the KeenTracer interface by never recording spans. It's the default
+ * for {@link KeenClient}.
+ *
+ * @author Keen IO
+ * @since 5.1.0
+ */
+public class NoOpKeenTracer implements KeenTracer {
+
+    /**
+     * Default implementation of the isEnabled method.
+     *
+     * @return false, always
+     */
+    @Override
+    public boolean isEnabled() {
+        return false;
+    }
+
+    /**
+     * Not called by the client, since {@link #isEnabled()} is always false.
+     *
+     * @param operation Ignored.
+     * @return null, always
+     */
+    @Override
+    public KeenTraceSpan beginSpan(Operation operation) {
+        return null;
+    }
+
+}
@@ -2,11 +2,15 @@ package io.keen.client.java;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.NoSuchElementException;
 
 /**
  * Implementation of {@link KeenEventStore} which simply keeps a copy of each event in memory until
@@ -19,7 +23,8 @@ import java.util.Map;
  * @author Kevin Litwack (kevin@kevinlitwack.com)
  * @since 2.0.0
  */
-public class RamEventStore implements KeenAttemptCountingEventStore {
+public class RamEventStore implements KeenAttemptCountingEventStore,
+        KeenMetricsReportingEventStore, KeenCursorEventStore {
 
     ///// PUBLIC CONSTRUCTORS /////
 
@@ -28,7 +33,8 @@ public class RamEventStore implements KeenAttemptCountingEventStore {
      */
     public RamEventStore() {
         collectionIds = new HashMap<String, List<Long>>();
-        events = new HashMap<Long, String>();
+        events = new HashMap<Long, StoredEvent>();
+        collectionStats = new HashMap<String, CollectionStats>();
     }
 
     ///// KeenEventStore METHODS /////
@@ -50,16 +56,31 @@ public class RamEventStore implements KeenAttemptCountingEventStore {
             collectionIds.put(key, collectionEvents);
         }
 
+        CollectionStats stats = collectionStats.get(key);
+        if (stats == null) {
+            stats = new CollectionStats();
+            collectionStats.put(key, stats);
+        }
+
         // Remove the oldest events until there is room for at least one more event.
-        while (collectionEvents.size() >= maxEventsPerCollection) {
-            long idToRemove = collectionEvents.remove(0);
-            events.remove(idToRemove);
+        while (stats.events >= maxEventsPerCollection && removeOldest(collectionEvents)) {
+            metrics.increment(KeenMetrics.Counter.EVENTS_DROPPED, 1);
+        }
+
+        // Apply any eviction policies.
+        long size = getSize(event);
+        long now = System.currentTimeMillis();
+        if (!evictionPolicies.isEmpty()) {
+            EventEvictor.makeRoom(evictionPolicies, getQueue(projectId), eventCollection, size,
+                    now, metrics);
         }
 
         // Add the event to the event store, add its ID to the collection's list, and return the ID.
         long id = getNextId();
-        events.put(id, event);
+        events.put(id, new StoredEvent(event, key, now));
         collectionEvents.add(id);
+        stats.events++;
+        stats.bytes += size;
         return id;
     }
 
@@ -69,7 +90,8 @@ public class RamEventStore implements KeenAttemptCountingEventStore {
     @Override
     public synchronized String get(Object handle) throws IOException {
         Long id = handleToId(handle);
-        return events.get(id);
+        StoredEvent storedEvent = events.get(id);
+        return storedEvent == null ? null : storedEvent.event;
     }
 
     /**
@@ -78,9 +100,14 @@ public class RamEventStore implements KeenAttemptCountingEventStore {
     @Override
     public synchronized void remove(Object handle) throws IOException {
         Long id = handleToId(handle);
-        events.remove(id);
-        // Be lazy about removing handles from the collectionIds map - this can happen during the
-        // getHandles call.
+        StoredEvent storedEvent = events.get(id);
+        if (storedEvent == null) {
+            return;
+        }
+        removeEvent(id);
+        // Be lazy about removing handles from the collectionIds map - they are pruned by the
+        // getHandles call, or once enough of them are dead, by compacting the list.
+        compactIds(storedEvent.key);
     }
 
     /**
@@ -88,12 +115,13 @@ public class RamEventStore implements KeenAttemptCountingEventStore {
      */
     @Override
     public synchronized Map<String, List<Object>> getHandles(String projectId) throws IOException {
+        removeExpired(projectId);
         Map<String, List<Object>> result = new HashMap<String, List<Object>>();
         for (Map.Entry<String, List<Long>> entry : collectionIds.entrySet()) {
             String key = entry.getKey();
 
             // Skip collections for different projects.
-            if (!key.startsWith(projectId)) {
+            if (!key.startsWith(projectId + "$")) {
                 continue;
             }
 
@@ -153,6 +181,61 @@ public class RamEventStore implements KeenAttemptCountingEventStore {
         project.put(eventCollection, attemptsString);
     }
 
+    ///// KeenCursorEventStore METHODS /////
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized KeenHandlePage getHandles(String projectId, Object cursor,
+                                                  int maxHandles) throws IOException {
+        removeExpired(projectId);
+
+        // Find the collections for this project.
+        String prefix = projectId + "$";
+        final Map<String, List<Long>> projectCollectionIds = new HashMap<String, List<Long>>();
+        for (Map.Entry<String, List<Long>> entry : collectionIds.entrySet()) {
+            if (entry.getKey().startsWith(prefix)) {
+                projectCollectionIds.put(entry.getKey().substring(prefix.length()),
+                        entry.getValue());
+            }
+        }
+
+        return HandleCursor.getPage(new HandleCursor.Source() {
+            @Override
+            public Collection<String> getCollections() {
+                return projectCollectionIds.keySet();
+            }
+
+            @Override
+            public Iterator<?> getPositionsAfter(String eventCollection, Object after) {
+                // IDs are assigned in increasing order, so each collection's list is sorted.
+                List<Long> ids = projectCollectionIds.get(eventCollection);
+                int start = 0;
+                if (after != null) {
+                    int index = Collections.binarySearch(ids, (Long) after);
+                    start = index >= 0 ? index + 1 : -index - 1;
+                }
+                return getLiveIds(ids, start);
+            }
+
+            @Override
+            public Object getHandle(String eventCollection, Object position) {
+                return position;
+            }
+        }, cursor, maxHandles);
+    }
+
+    ///// KeenMetricsReportingEventStore METHODS /////
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void setMetrics(KeenMetrics metrics) {
+        this.metrics = metrics;
+    }
+
     ///// PUBLIC METHODS /////
 
     /**
@@ -164,8 +247,34 @@ public class RamEventStore implements KeenAttemptCountingEventStore {
         this.maxEventsPerCollection = maxEventsPerCollection;
     }
 
+    /**
+     * Sets the eviction policies applied in addition to the maximum number of events per
+     * collection, replacing any set previously. Events are measured as approximately two bytes
+     * per character.
+     *
+     * @param policies The eviction policies.
+     */
+    public synchronized void setEvictionPolicies(EvictionPolicy... policies) {
+        evictionPolicies = Collections.unmodifiableList(
+                new ArrayList<EvictionPolicy>(Arrays.asList(policies)));
+    }
+
     ///// TEST HOOKS /////
 
+    /**
+     * Gets the number of IDs, live or dead, retained in a collection's list. This method is
+     * intended for use during unit testing.
+     *
+     * @param projectId       The project ID.
+     * @param eventCollection The name of the collection.
+     * @return The number of IDs in the collection's list.
+     */
+    synchronized int getRetainedIdCount(String projectId, String eventCollection) {
+        List<Long> ids = collectionIds.get(String.format(Locale.US, "%s$%s", projectId,
+                eventCollection));
+        return ids == null ? 0 : ids.size();
+    }
+
     /**
      * Clears all events from the store, effectively resetting it to its initial state. This method
      * is intended for use during unit testing, and should generally not be called by production
@@ -174,16 +283,47 @@ public class RamEventStore implements KeenAttemptCountingEventStore {
     void clear() {
         nextId = 0;
         collectionIds = new HashMap<String, List<Long>>();
-        events = new HashMap<Long, String>();
+        events = new HashMap<Long, StoredEvent>();
+        collectionStats = new HashMap<String, CollectionStats>();
+    }
+
+    ///// PRIVATE TYPES /////
+
+    private static final class StoredEvent {
+        final String event;
+        final String key;
+        final long storeTime;
+
+        StoredEvent(String event, String key, long storeTime) {
+            this.event = event;
+            this.key = key;
+            this.storeTime = storeTime;
+        }
+    }
+
+    private static final class CollectionStats {
+        int events;
+        long bytes;
     }
 
+    ///// PRIVATE CONSTANTS /////
+
+    /**
+     * The number of dead IDs a collection's list may hold, regardless of its number of live
+     * events, before it is compacted.
+     */
+    private static final int MIN_DEAD_IDS_TO_COMPACT = 64;
+
     ///// PRIVATE FIELDS /////
 
     private long nextId = 0;
     private Map<String, List<Long>> collectionIds;
-    private Map<Long, String> events;
+    private Map<Long, StoredEvent> events;
+    private Map<String, CollectionStats> collectionStats;
     private int maxEventsPerCollection = 10000;
+    private List<EvictionPolicy> evictionPolicies = Collections.emptyList();
     private Map<String, Map<String, String>> attempts;
+    private KeenMetrics metrics = new NoOpKeenMetrics();
 
     ///// PRIVATE METHODS /////
 
@@ -214,6 +354,177 @@ public class RamEventStore implements KeenAttemptCountingEventStore {
         return id;
     }
 
+    /**
+     * Approximates the memory used by an event.
+     *
+     * @param event The event.
+     * @return The size of the event, in bytes.
+     */
+    private static long getSize(String event) {
+        return 2L * event.length();
+    }
+
+    /**
+     * Removes an event and updates its collection's statistics.
+     *
+     * @param id The ID of the event.
+     * @return Whether the event was present.
+     */
+    private boolean removeEvent(Long id) {
+        StoredEvent storedEvent = events.remove(id);
+        if (storedEvent == null) {
+            return false;
+        }
+        CollectionStats stats = collectionStats.get(storedEvent.key);
+        stats.events--;
+        stats.bytes -= getSize(storedEvent.event);
+        return true;
+    }
+
+    /**
+     * Removes the "dead" IDs from a collection's list once they outnumber both its live events and
+     * {@link #MIN_DEAD_IDS_TO_COMPACT}. Every live event's ID is in the list, so the number of
+     * dead IDs is the difference between the list's size and the number of events. Each
+     * compaction at least halves the list, so its cost is amortized over the removals which made
+     * the IDs dead, and the list never holds more than about twice as many IDs as events.
+     *
+     * @param key The collection's key.
+     */
+    private void compactIds(String key) {
+        List<Long> ids = collectionIds.get(key);
+        int liveIds = collectionStats.get(key).events;
+        int deadIds = ids.size() - liveIds;
+        if (deadIds <= Math.max(liveIds, MIN_DEAD_IDS_TO_COMPACT)) {
+            return;
+        }
+
+        // Copying the live IDs preserves their order, which the cursor's binary search relies on.
+        List<Long> compacted = new ArrayList<Long>(liveIds);
+        for (Long id : ids) {
+            if (events.containsKey(id)) {
+                compacted.add(id);
+            }
+        }
+        collectionIds.put(key, compacted);
+    }
+
+    /**
+     * Removes the oldest live event in a collection's list, along with any "dead" IDs before it.
+     *
+     * @param ids The collection's list of IDs.
+     * @return Whether an event was removed.
+     */
+    private boolean removeOldest(List<Long> ids) {
+        while (!ids.isEmpty()) {
+            if (removeEvent(ids.remove(0))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Removes the events in a project which are older than the eviction policies allow.
+     *
+     * @param projectId The project ID.
+     * @throws IOException Never; declared by {@link EventEvictor}.
+     */
+    private void removeExpired(String projectId) throws IOException {
+        if (!evictionPolicies.isEmpty()) {
+            EventEvictor.removeExpired(evictionPolicies, getQueue(projectId),
+                    System.currentTimeMillis(), metrics);
+        }
+    }
+
+    /**
+     * Gets a view of a project's events for the {@link EventEvictor}.
+     *
+     * @param projectId The project ID.
+     * @return The view.
+     */
+    private EventEvictor.Queue getQueue(String projectId) {
+        final String prefix = projectId + "$";
+        final List<String> projectCollections = new ArrayList<String>();
+        for (String key : collectionIds.keySet()) {
+            if (key.startsWith(prefix)) {
+                projectCollections.add(key.substring(prefix.length()));
+            }
+        }
+
+        return new EventEvictor.Queue() {
+            @Override
+            public Collection<String> getCollections() {
+                return projectCollections;
+            }
+
+            @Override
+            public int getEventCount(String eventCollection) {
+                CollectionStats stats = collectionStats.get(prefix + eventCollection);
+                return stats == null ? 0 : stats.events;
+            }
+
+            @Override
+            public long getByteCount(String eventCollection) {
+                CollectionStats stats = collectionStats.get(prefix + eventCollection);
+                return stats == null ? 0 : stats.bytes;
+            }
+
+            @Override
+            public long getOldestTime(String eventCollection) {
+                // Prune "dead" IDs from the front of the list so they aren't visited again.
+                List<Long> ids = collectionIds.get(prefix + eventCollection);
+                while (!ids.isEmpty()) {
+                    StoredEvent storedEvent = events.get(ids.get(0));
+                    if (storedEvent != null) {
+                        return storedEvent.storeTime;
+                    }
+                    ids.remove(0);
+                }
+                return Long.MAX_VALUE;
+            }
+
+            @Override
+            public boolean removeOldest(String eventCollection) {
+                return RamEventStore.this.removeOldest(collectionIds.get(prefix + eventCollection));
+            }
+        };
+    }
+
+    /**
+     * Gets an iterator over the IDs in a collection's list which haven't been removed yet,
+     * skipping the "dead" ones which {@link #compactIds(String)} hasn't pruned yet.
+     *
+     * @param ids   The collection's list of IDs.
+     * @param start The index in the list at which to start.
+     * @return The iterator.
+     */
+    private Iterator<Long> getLiveIds(final List<Long> ids, final int start) {
+        return new Iterator<Long>() {
+            private int index = start;
+
+            @Override
+            public boolean hasNext() {
+                while (index < ids.size() && events.get(ids.get(index)) == null) {
+                    index++;
+                }
+                return index < ids.size();
+            }
+
+            @Override
+            public Long next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return ids.get(index++);
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
     /**
      * Converts an opaque handle into a long ID. If the handle is not a Long, this will throw an
      * {@link java.lang.IllegalArgumentException}.
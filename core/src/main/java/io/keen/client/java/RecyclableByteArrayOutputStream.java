@@ -0,0 +1,64 @@
+package io.keen.client.java;
+
+import java.io.ByteArrayOutputStream;
+
+import io.keen.client.java.http.ByteArrayOutputSource;
+
+/**
+ * {@link ByteArrayOutputStream} which is reused across requests to avoid allocating (and growing)
+ * a new buffer for every serialized request body. The contents can be exposed as an
+ * {@link ByteArrayOutputSource} without copying.
+ * <p>
+ * This class is not thread safe; callers must ensure that the buffer is only used by one request
+ * at a time.
+ * </p>
+ * @author Keen IO
+ * @since 5.1.0
+ */
+class RecyclableByteArrayOutputStream extends ByteArrayOutputStream {
+
+    ///// DEFAULT ACCESS CONSTRUCTORS /////
+
+    /**
+     * Constructs a new recyclable buffer.
+     *
+     * @param initialCapacity     The initial capacity of the buffer, in bytes.
+     * @param maxRetainedCapacity The largest capacity which will be kept when the buffer is
+     *                            recycled. Larger buffers are released so that a single large
+     *                            request does not pin its memory for the life of the client.
+     */
+    RecyclableByteArrayOutputStream(int initialCapacity, int maxRetainedCapacity) {
+        super(initialCapacity);
+        this.initialCapacity = initialCapacity;
+        this.maxRetainedCapacity = maxRetainedCapacity;
+    }
+
+    ///// DEFAULT ACCESS METHODS /////
+
+    /**
+     * Wraps the current contents of the buffer in an {@link ByteArrayOutputSource}. The source
+     * shares the buffer, so it must not be used after {@link #recycle()} is called.
+     *
+     * @return A source which writes the current contents of this buffer.
+     */
+    synchronized ByteArrayOutputSource toOutputSource() {
+        return new ByteArrayOutputSource(buf, count);
+    }
+
+    /**
+     * Resets the buffer so that it can be reused, releasing the backing array if it has grown
+     * beyond the maximum retained capacity.
+     */
+    synchronized void recycle() {
+        if (buf.length > maxRetainedCapacity) {
+            buf = new byte[initialCapacity];
+        }
+        count = 0;
+    }
+
+    ///// PRIVATE FIELDS /////
+
+    private final int initialCapacity;
+    private final int maxRetainedCapacity;
+
+}
@@ -0,0 +1,468 @@
+package io.keen.client.java;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Implementation of {@link KeenEventStore} which keeps queued events in memory, like
+ * {@link RamEventStore}, until the memory tier reaches its capacity, and then spills further
+ * events to a disk tier such as {@link FileEventStore} or {@link JournaledFileEventStore}. In the
+ * common case queueing an event costs no disk I/O at all, while a long outage can't make the
+ * queue use more than a bounded amount of memory.
+ * <p>
+ * Events stay in the tier in which they were stored until they are sent, so their handles (and
+ * the attempt counts kept for them) never change. Sending serves the events in memory first.
+ * Attempt counts are kept in memory and written through to the disk tier while a collection has
+ * events on disk, so they survive a restart along with those events.
+ * </p>
+ * <p>
+ * Events in the memory tier are lost if the process stops before they are sent, so the capacity
+ * of the memory tier bounds how many recent events can be lost. This implementation synchronizes
+ * all operations, including those on the disk tier.
+ * </p>
+ *
+ * @author Keen IO
+ * @since 5.1.0
+ */
+public class TieredEventStore implements KeenAttemptCountingEventStore,
+        KeenMetricsReportingEventStore, KeenCursorEventStore {
+
+    ///// PUBLIC CONSTRUCTORS /////
+
+    /**
+     * Constructs a new tiered event store with the default memory capacity of 1000 events or
+     * 1 MiB of events, whichever is reached first.
+     *
+     * @param diskTier The store to which events are spilled once the memory tier is full.
+     */
+    public TieredEventStore(KeenAttemptCountingEventStore diskTier) {
+        if (diskTier == null) {
+            throw new IllegalArgumentException("Disk tier must not be null");
+        }
+        this.diskTier = diskTier;
+        ramTier = new RamEventStore();
+        // The memory tier's capacity is enforced here, so it mustn't drop events of its own. Its
+        // lists of IDs stay bounded because it compacts them as events are removed.
+        ramTier.setMaxEventsPerCollection(Integer.MAX_VALUE);
+    }
+
+    ///// KeenEventStore METHODS /////
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized Object store(String projectId, String eventCollection,
+                                     String event) throws IOException {
+        long size = getSize(event);
+        if (ramEvents < maxRamEvents && ramBytes + size <= maxRamBytes) {
+            Long id = (Long) ramTier.store(projectId, eventCollection, event);
+            ramEvents++;
+            ramBytes += size;
+            return new RamHandle(id);
+        }
+
+        // The memory tier is full, so spill the event to disk.
+        int count = getDiskEventCount(projectId, eventCollection);
+        Object handle = diskTier.store(projectId, eventCollection, event);
+        getDiskEventCounts(projectId).put(eventCollection, count + 1);
+        metrics.increment(KeenMetrics.Counter.EVENTS_SPILLED, 1);
+        return new DiskHandle(projectId, eventCollection, handle);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized String get(Object handle) throws IOException {
+        if (handle instanceof RamHandle) {
+            return ramTier.get(((RamHandle) handle).id);
+        }
+        return diskTier.get(toDiskHandle(handle).handle);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void remove(Object handle) throws IOException {
+        if (handle instanceof RamHandle) {
+            Long id = ((RamHandle) handle).id;
+            String event = ramTier.get(id);
+            if (event != null) {
+                ramTier.remove(id);
+                ramEvents--;
+                ramBytes -= getSize(event);
+            }
+            return;
+        }
+
+        DiskHandle diskHandle = toDiskHandle(handle);
+        int count = getDiskEventCount(diskHandle.projectId, diskHandle.eventCollection);
+        diskTier.remove(diskHandle.handle);
+        if (count > 0) {
+            getDiskEventCounts(diskHandle.projectId).put(diskHandle.eventCollection, count - 1);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The handles of events in memory come before those of events on disk.
+     * </p>
+     */
+    @Override
+    public synchronized Map<String, List<Object>> getHandles(String projectId) throws IOException {
+        Map<String, List<Object>> result = wrapRamHandles(ramTier.getHandles(projectId));
+        Map<String, List<Object>> diskHandles =
+                wrapDiskHandles(projectId, diskTier.getHandles(projectId));
+        for (Map.Entry<String, List<Object>> entry : diskHandles.entrySet()) {
+            List<Object> handles = result.get(entry.getKey());
+            if (handles == null) {
+                result.put(entry.getKey(), entry.getValue());
+            } else {
+                handles.addAll(entry.getValue());
+            }
+        }
+        return result;
+    }
+
+    ///// KeenCursorEventStore METHODS /////
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * All of the pages of events in memory come before those of events on disk. If the disk tier
+     * isn't a {@link KeenCursorEventStore}, the events on disk are returned in a single page.
+     * </p>
+     */
+    @Override
+    public synchronized KeenHandlePage getHandles(String projectId, Object cursor,
+                                                  int maxHandles) throws IOException {
+        if (cursor != null && !(cursor instanceof TierCursor)) {
+            throw new IllegalArgumentException("Expected cursor to be a TierCursor, but was: " +
+                    cursor.getClass().getCanonicalName());
+        }
+        TierCursor tierCursor = (TierCursor) cursor;
+
+        if (tierCursor != null && tierCursor.isDisk) {
+            return getDiskPage(projectId, tierCursor.cursor, maxHandles);
+        }
+
+        KeenHandlePage ramPage = ramTier.getHandles(projectId,
+                tierCursor == null ? null : tierCursor.cursor, maxHandles);
+        Map<String, List<Object>> result = wrapRamHandles(ramPage.getHandles());
+        if (ramPage.getCursor() != null) {
+            return new KeenHandlePage(result, new TierCursor(false, ramPage.getCursor()));
+        }
+
+        // The events in memory are exhausted, so fill the rest of the page from disk.
+        int remaining = maxHandles - countHandles(result);
+        if (remaining == 0) {
+            // Only return a cursor if there's something left to read.
+            KeenHandlePage diskPage = getDiskPage(projectId, null, 1);
+            return new KeenHandlePage(result, diskPage.getHandles().isEmpty() ? null :
+                    new TierCursor(true, null));
+        }
+        KeenHandlePage diskPage = getDiskPage(projectId, null, remaining);
+        for (Map.Entry<String, List<Object>> entry : diskPage.getHandles().entrySet()) {
+            List<Object> handles = result.get(entry.getKey());
+            if (handles == null) {
+                result.put(entry.getKey(), entry.getValue());
+            } else {
+                handles.addAll(entry.getValue());
+            }
+        }
+        return new KeenHandlePage(result, diskPage.getCursor());
+    }
+
+    ///// KeenAttemptCountingEventStore METHODS /////
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized String getAttempts(String projectId, String eventCollection)
+            throws IOException {
+        Map<String, String> projectAttempts = getProjectAttempts(projectId);
+        if (!projectAttempts.containsKey(eventCollection)) {
+            // Pick up the attempt counts of any events left on disk by a previous instance.
+            projectAttempts.put(eventCollection,
+                    diskTier.getAttempts(projectId, eventCollection));
+        }
+        return projectAttempts.get(eventCollection);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void setAttempts(String projectId, String eventCollection,
+                                         String attemptsString) throws IOException {
+        getProjectAttempts(projectId).put(eventCollection, attemptsString);
+        if (getDiskEventCount(projectId, eventCollection) > 0) {
+            diskTier.setAttempts(projectId, eventCollection, attemptsString);
+        }
+    }
+
+    ///// KeenMetricsReportingEventStore METHODS /////
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void setMetrics(KeenMetrics metrics) {
+        this.metrics = metrics;
+        if (diskTier instanceof KeenMetricsReportingEventStore) {
+            ((KeenMetricsReportingEventStore) diskTier).setMetrics(metrics);
+        }
+    }
+
+    ///// PUBLIC METHODS /////
+
+    /**
+     * Sets the maximum number of events to keep in memory before spilling to disk.
+     *
+     * @param maxRamEvents The maximum number of events in memory.
+     */
+    public synchronized void setMaxRamEvents(int maxRamEvents) {
+        this.maxRamEvents = maxRamEvents;
+    }
+
+    /**
+     * Sets the maximum approximate size of the events to keep in memory before spilling to disk.
+     *
+     * @param maxRamBytes The maximum size of the events in memory, in bytes.
+     */
+    public synchronized void setMaxRamBytes(long maxRamBytes) {
+        this.maxRamBytes = maxRamBytes;
+    }
+
+    /**
+     * @return The number of events currently in memory.
+     */
+    public synchronized int getRamEventCount() {
+        return ramEvents;
+    }
+
+    ///// TEST HOOKS /////
+
+    /**
+     * @return The memory tier. This method is intended for use during unit testing.
+     */
+    RamEventStore getRamTier() {
+        return ramTier;
+    }
+
+    ///// PRIVATE CONSTANTS /////
+
+    /**
+     * The default maximum number of events in memory.
+     */
+    private static final int DEFAULT_MAX_RAM_EVENTS = 1000;
+
+    /**
+     * The default maximum size of the events in memory.
+     */
+    private static final long DEFAULT_MAX_RAM_BYTES = 1024 * 1024;
+
+    /**
+     * The approximate overhead of keeping an event in memory, beyond its characters.
+     */
+    private static final int EVENT_OVERHEAD_BYTES = 64;
+
+    ///// PRIVATE TYPES /////
+
+    /**
+     * Handle of an event in the memory tier. The hash code is used as the key of the event's
+     * attempt count, so it's kept apart from the small IDs used by some disk tiers.
+     */
+    private static final class RamHandle {
+        final Long id;
+
+        RamHandle(Long id) {
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof RamHandle && id.equals(((RamHandle) o).id);
+        }
+
+        @Override
+        public int hashCode() {
+            return ~id.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return "ram:" + id;
+        }
+    }
+
+    /**
+     * Handle of an event in the disk tier. It has the same hash code as the disk tier's handle,
+     * so attempt counts kept by a previous instance still apply.
+     */
+    private static final class DiskHandle {
+        final String projectId;
+        final String eventCollection;
+        final Object handle;
+
+        DiskHandle(String projectId, String eventCollection, Object handle) {
+            this.projectId = projectId;
+            this.eventCollection = eventCollection;
+            this.handle = handle;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof DiskHandle && handle.equals(((DiskHandle) o).handle);
+        }
+
+        @Override
+        public int hashCode() {
+            return handle.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return "disk:" + handle;
+        }
+    }
+
+    private static final class TierCursor {
+        final boolean isDisk;
+        final Object cursor;
+
+        TierCursor(boolean isDisk, Object cursor) {
+            this.isDisk = isDisk;
+            this.cursor = cursor;
+        }
+    }
+
+    ///// PRIVATE FIELDS /////
+
+    private final KeenAttemptCountingEventStore diskTier;
+    private final RamEventStore ramTier;
+    private final Map<String, Map<String, String>> attempts =
+            new HashMap<String, Map<String, String>>();
+    private final Map<String, Map<String, Integer>> diskEventCounts =
+            new HashMap<String, Map<String, Integer>>();
+    private int maxRamEvents = DEFAULT_MAX_RAM_EVENTS;
+    private long maxRamBytes = DEFAULT_MAX_RAM_BYTES;
+    private int ramEvents;
+    private long ramBytes;
+    private KeenMetrics metrics = new NoOpKeenMetrics();
+
+    ///// PRIVATE METHODS /////
+
+    private static long getSize(String event) {
+        return 2L * event.length() + EVENT_OVERHEAD_BYTES;
+    }
+
+    private static DiskHandle toDiskHandle(Object handle) {
+        if (handle instanceof DiskHandle) {
+            return (DiskHandle) handle;
+        } else {
+            throw new IllegalArgumentException("Expected handle from a TieredEventStore, but was: " +
+                    handle.getClass().getCanonicalName());
+        }
+    }
+
+    private static Map<String, List<Object>> wrapRamHandles(Map<String, List<Object>> handleMap) {
+        Map<String, List<Object>> result = new HashMap<String, List<Object>>();
+        for (Map.Entry<String, List<Object>> entry : handleMap.entrySet()) {
+            List<Object> handles = new ArrayList<Object>(entry.getValue().size());
+            for (Object handle : entry.getValue()) {
+                handles.add(new RamHandle((Long) handle));
+            }
+            result.put(entry.getKey(), handles);
+        }
+        return result;
+    }
+
+    private static Map<String, List<Object>> wrapDiskHandles(String projectId,
+                                                             Map<String, List<Object>> handleMap) {
+        Map<String, List<Object>> result = new HashMap<String, List<Object>>();
+        for (Map.Entry<String, List<Object>> entry : handleMap.entrySet()) {
+            List<Object> handles = new ArrayList<Object>(entry.getValue().size());
+            for (Object handle : entry.getValue()) {
+                handles.add(new DiskHandle(projectId, entry.getKey(), handle));
+            }
+            result.put(entry.getKey(), handles);
+        }
+        return result;
+    }
+
+    /**
+     * Gets a page of handles from the disk tier. If the disk tier isn't a
+     * {@link KeenCursorEventStore}, all of its handles are returned in one page.
+     */
+    private KeenHandlePage getDiskPage(String projectId, Object diskCursor, int maxHandles)
+            throws IOException {
+        if (!(diskTier instanceof KeenCursorEventStore)) {
+            return new KeenHandlePage(
+                    wrapDiskHandles(projectId, nonEmpty(diskTier.getHandles(projectId))), null);
+        }
+        KeenHandlePage page = ((KeenCursorEventStore) diskTier).getHandles(projectId, diskCursor,
+                maxHandles);
+        Object next = page.getCursor();
+        return new KeenHandlePage(wrapDiskHandles(projectId, page.getHandles()),
+                next == null ? null : new TierCursor(true, next));
+    }
+
+    private static Map<String, List<Object>> nonEmpty(Map<String, List<Object>> handleMap) {
+        Map<String, List<Object>> result = new HashMap<String, List<Object>>();
+        for (Map.Entry<String, List<Object>> entry : handleMap.entrySet()) {
+            if (!entry.getValue().isEmpty()) {
+                result.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return result;
+    }
+
+    private static int countHandles(Map<String, List<Object>> handleMap) {
+        int count = 0;
+        for (List<Object> handles : handleMap.values()) {
+            count += handles.size();
+        }
+        return count;
+    }
+
+    private Map<String, String> getProjectAttempts(String projectId) {
+        Map<String, String> projectAttempts = attempts.get(projectId);
+        if (projectAttempts == null) {
+            projectAttempts = new HashMap<String, String>();
+            attempts.put(projectId, projectAttempts);
+        }
+        return projectAttempts;
+    }
+
+    /**
+     * Gets the number of events on disk in each of a project's collections, counting the events
+     * left by a previous instance the first time the project is used. The counts may be too
+     * high if the disk tier evicts events, which only costs some unnecessary attempt writes.
+     */
+    private Map<String, Integer> getDiskEventCounts(String projectId) throws IOException {
+        Map<String, Integer> collectionCounts = diskEventCounts.get(projectId);
+        if (collectionCounts == null) {
+            collectionCounts = new HashMap<String, Integer>();
+            for (Map.Entry<String, List<Object>> entry :
+                    diskTier.getHandles(projectId).entrySet()) {
+                collectionCounts.put(entry.getKey(), entry.getValue().size());
+            }
+            diskEventCounts.put(projectId, collectionCounts);
+        }
+        return collectionCounts;
+    }
+
+    private int getDiskEventCount(String projectId, String eventCollection) throws IOException {
+        Integer count = getDiskEventCounts(projectId).get(eventCollection);
+        return count == null ? 0 : count;
+    }
+
+}
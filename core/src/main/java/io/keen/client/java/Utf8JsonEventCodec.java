@@ -0,0 +1,45 @@
+package io.keen.client.java;
+
+import java.io.IOException;
+
+/**
+ * {@link KeenEventCodec} which stores events as UTF-8 encoded JSON text. This is the default
+ * codec for {@link FileEventStore} and matches the format written by earlier versions of the
+ * library.
+ *
+ * @author Keen IO
+ * @since 5.1.0
+ */
+public class Utf8JsonEventCodec implements KeenEventCodec {
+
+    ///// KeenEventCodec METHODS /////
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getFileSuffix() {
+        return "";
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public byte[] encode(String event) throws IOException {
+        return event.getBytes(ENCODING);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String decode(byte[] data) throws IOException {
+        return new String(data, ENCODING);
+    }
+
+    ///// PRIVATE CONSTANTS /////
+
+    private static final String ENCODING = "UTF-8";
+
+}
@@ -0,0 +1,74 @@
+package io.keen.client.java.http;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+
+/**
+ * {@link OutputSource} whose content has already been serialized into a byte array. Because the
+ * length of the body is known up front, {@link HttpHandler} implementations can send it with a
+ * fixed Content-Length rather than using chunked encoding.
+ * <p>
+ * The backing array is not copied. Callers which recycle the array must not do so until the
+ * request which uses this source has been executed.
+ * </p>
+ * @author Keen IO
+ * @since 5.1.0
+ */
+public final class ByteArrayOutputSource implements OutputSource {
+
+    ///// PUBLIC CONSTRUCTORS /////
+
+    /**
+     * Constructs a source which writes the first {@code length} bytes of {@code buffer}.
+     *
+     * @param buffer The serialized request body.
+     * @param length The number of valid bytes in {@code buffer}.
+     */
+    public ByteArrayOutputSource(byte[] buffer, int length) {
+        if (length < 0 || length > buffer.length) {
+            throw new IllegalArgumentException("Invalid length " + length + " for buffer of size " +
+                    buffer.length);
+        }
+        this.buffer = buffer;
+        this.length = length;
+    }
+
+    ///// PUBLIC METHODS /////
+
+    /**
+     * Gets the number of bytes which will be written by {@link #writeTo(OutputStream)}.
+     *
+     * @return The length of the request body in bytes.
+     */
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * Decodes the body into a String, e.g. for logging.
+     *
+     * @param encoding The name of the character encoding of the body.
+     * @return The decoded body.
+     * @throws UnsupportedEncodingException If the encoding is not supported.
+     */
+    public String toString(String encoding) throws UnsupportedEncodingException {
+        return new String(buffer, 0, length, encoding);
+    }
+
+    ///// OutputSource METHODS /////
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(buffer, 0, length);
+    }
+
+    ///// PRIVATE FIELDS /////
+
+    private final byte[] buffer;
+    private final int length;
+
+}
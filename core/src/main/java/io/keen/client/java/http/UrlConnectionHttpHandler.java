@@ -71,6 +71,13 @@ public class UrlConnectionHttpHandler implements HttpHandler {
         if (request.body != null) {
             connection.setDoOutput(true);
             connection.setRequestProperty("Content-Type", "application/json");
+
+            // If the body has already been serialized, send it with a fixed Content-Length so
+            // the connection doesn't have to buffer it or fall back to chunked encoding.
+            if (request.body instanceof ByteArrayOutputSource) {
+                connection.setFixedLengthStreamingMode(
+                        ((ByteArrayOutputSource) request.body).getLength());
+            }
             request.body.writeTo(connection.getOutputStream());
         } else {
             connection.connect();
@@ -0,0 +1,64 @@
+package io.keen.client.java;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.logging.Formatter;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests the BatchingLogHandler class.
+ *
+ * @author Keen IO
+ * @since 5.1.0
+ */
+public class BatchingLogHandlerTest {
+
+    private ByteArrayOutputStream out;
+    private BatchingLogHandler handler;
+
+    @Before
+    public void setup() {
+        out = new ByteArrayOutputStream();
+        handler = new BatchingLogHandler(out, new Formatter() {
+            @Override
+            public String format(LogRecord record) {
+                return record.getMessage() + "\n";
+            }
+        });
+        handler.setLevel(Level.FINER);
+    }
+
+    @Test
+    public void flushWritesRecordsInOrder() throws Exception {
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            handler.publish(new LogRecord(Level.FINER, "message " + i));
+            expected.append("message ").append(i).append("\n");
+        }
+        handler.flush();
+        assertEquals(expected.toString(), out.toString("UTF-8"));
+    }
+
+    @Test
+    public void backgroundThreadWritesRecords() throws Exception {
+        handler.publish(new LogRecord(Level.FINER, "message"));
+        for (int i = 0; i < 100 && out.size() == 0; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals("message\n", out.toString("UTF-8"));
+    }
+
+    @Test
+    public void ignoresRecordsBelowLevel() throws Exception {
+        handler.setLevel(Level.OFF);
+        handler.publish(new LogRecord(Level.FINER, "message"));
+        handler.flush();
+        assertEquals(0, out.size());
+    }
+
+}
@@ -5,6 +5,7 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
@@ -115,4 +116,28 @@ public abstract class EventStoreTestBase {
         assertEquals(2, handleMap.get("collection3").size());
     }
 
+    @Test
+    public void getHandlesInPages() throws Exception {
+        KeenCursorEventStore cursorStore = (KeenCursorEventStore) store;
+        Object handle1 = store.store("project1", "collection1", TEST_EVENT_1);
+        Object handle2 = store.store("project1", "collection1", TEST_EVENT_2);
+        Object handle3 = store.store("project1", "collection2", TEST_EVENT_3);
+        store.store("project2", "collection1", TEST_EVENT_4);
+        Object handle5 = store.store("project1", "collection2", TEST_EVENT_5);
+
+        // The first page is full and there are more events, so it has a cursor.
+        KeenHandlePage page = cursorStore.getHandles("project1", null, 2);
+        assertEquals(1, page.getHandles().size());
+        assertEquals(Arrays.asList(handle1, handle2), page.getHandles().get("collection1"));
+        assertNotNull(page.getCursor());
+
+        // Removing events which were already returned doesn't affect the cursor.
+        store.remove(handle1);
+        store.remove(handle2);
+        page = cursorStore.getHandles("project1", page.getCursor(), 2);
+        assertEquals(1, page.getHandles().size());
+        assertEquals(Arrays.asList(handle3, handle5), page.getHandles().get("collection2"));
+        assertNull(page.getCursor());
+    }
+
 }
@@ -7,13 +7,18 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 
 import java.io.File;
+import java.io.FileFilter;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -64,6 +69,147 @@ public class FileEventStoreTest extends AttemptCountingEventStoreTestBase {
         assertTrue(events.contains(TEST_EVENT_2));
     }
 
+    @Test
+    public void handlesFoundAfterReopen() throws Exception {
+        Object handle1 = store.store("project1", "collection1", TEST_EVENT_1);
+        Object handle2 = store.store("project1", "collection1", TEST_EVENT_2);
+        store.store("project1", "collection2", TEST_EVENT_3);
+        store.remove(handle1);
+
+        store = buildStore();
+        Map<String, List<Object>> handleMap = store.getHandles("project1");
+        assertEquals(2, handleMap.size());
+        assertEquals(1, handleMap.get("collection1").size());
+        assertEquals(handle2, handleMap.get("collection1").get(0));
+        assertEquals(TEST_EVENT_2, store.get(handle2));
+        assertEquals(1, handleMap.get("collection2").size());
+    }
+
+    @Test
+    public void damagedIndexLogIgnored() throws Exception {
+        store.store("project1", "collection1", TEST_EVENT_1);
+        store.store("project1", "collection1", TEST_EVENT_2);
+
+        // Simulate a crash part way through writing an index entry.
+        OutputStream out = new FileOutputStream(
+                new File(TEST_STORE_ROOT, "keen/project1/__index.log"), true);
+        try {
+            out.write(new byte[] {'+', 0, 100, 'c'});
+        } finally {
+            out.close();
+        }
+
+        store = buildStore();
+        assertEquals(2, store.getHandles("project1").get("collection1").size());
+        store.store("project1", "collection1", TEST_EVENT_3);
+        store = buildStore();
+        assertEquals(3, store.getHandles("project1").get("collection1").size());
+    }
+
+    @Test
+    public void eventWrittenBeforeCrashFound() throws Exception {
+        store.store("project1", "collection1", TEST_EVENT_1);
+        File projectDir = new File(TEST_STORE_ROOT, "keen/project1");
+        File collectionDir = new File(projectDir, "collection1");
+        long lastModified = collectionDir.lastModified();
+
+        // Simulate a crash after an event file was written but before it was added to the index,
+        // within the same tick of the directory's modification time.
+        FileEventStoreIndex index = FileEventStoreIndex.load(projectDir, new FileFilter() {
+            public boolean accept(File file) {
+                return file.isFile();
+            }
+        });
+        index.changing("collection1");
+        writeEventFile("keen/project1/collection1/" + (System.currentTimeMillis() + 1000) + ".0",
+                TEST_EVENT_2);
+        assertTrue(collectionDir.setLastModified(lastModified));
+
+        store = buildStore();
+        List<Object> handles = store.getHandles("project1").get("collection1");
+        assertEquals(2, handles.size());
+        assertEquals(TEST_EVENT_2, store.get(handles.get(1)));
+    }
+
+    @Test
+    public void filesChangedOutsideStoreFound() throws Exception {
+        Object handle = store.store("project1", "collection1", TEST_EVENT_1);
+        store.getHandles("project1");
+
+        // Change the collection while no store is using it. Moving the directory's modification
+        // time forward makes sure the change is noticed on file systems with coarse timestamps.
+        File collectionDir = new File(TEST_STORE_ROOT, "keen/project1/collection1");
+        assertTrue(((File) handle).delete());
+        writeEventFile("keen/project1/collection1/1393564454103.0", TEST_EVENT_2);
+        assertTrue(collectionDir.setLastModified(collectionDir.lastModified() + 2000));
+
+        store = buildStore();
+        List<Object> handles = store.getHandles("project1").get("collection1");
+        assertEquals(1, handles.size());
+        assertEquals(TEST_EVENT_2, store.get(handles.get(0)));
+        assertNull(store.get(handle));
+    }
+
+    @Test
+    public void oldestEventsDroppedAtCapacity() throws Exception {
+        InMemoryKeenMetrics metrics = new InMemoryKeenMetrics();
+        ((KeenMetricsReportingEventStore) store).setMetrics(metrics);
+
+        for (int i = 0; i <= 10000; i++) {
+            store.store("project1", "collection1", "{\"index\":" + i + "}");
+        }
+        List<Object> handles = store.getHandles("project1").get("collection1");
+        assertEquals(9901, handles.size());
+        assertEquals("{\"index\":100}", store.get(handles.get(0)));
+        assertEquals("{\"index\":10000}", store.get(handles.get(9900)));
+        assertEquals(100, metrics.getCount(KeenMetrics.Counter.EVENTS_DROPPED));
+
+        store = buildStore();
+        assertEquals(9901, store.getHandles("project1").get("collection1").size());
+    }
+
+    @Test
+    public void oldestEventsEvictedOverProjectByteLimit() throws Exception {
+        // Each test event is 19 bytes, so this allows room for two of them.
+        writeEventFile("keen/project1/collection1/1393564454103.0", TEST_EVENT_1);
+        FileEventStore fileStore = (FileEventStore) store;
+        fileStore.setEvictionPolicies(EvictionPolicy.maxBytesPerProject(2 * 19));
+        InMemoryKeenMetrics metrics = new InMemoryKeenMetrics();
+        fileStore.setMetrics(metrics);
+
+        store.store("project1", "collection2", TEST_EVENT_2);
+        store.store("project1", "collection2", TEST_EVENT_3);
+        Map<String, List<Object>> handleMap = store.getHandles("project1");
+        assertTrue(handleMap.get("collection1").isEmpty());
+        assertEquals(2, handleMap.get("collection2").size());
+        assertEquals(1, metrics.getCount(KeenMetrics.Counter.EVENTS_DROPPED));
+
+        // The sizes of the queued events are remembered when the store is reopened.
+        fileStore = new FileEventStore(TEST_STORE_ROOT);
+        fileStore.setEvictionPolicies(EvictionPolicy.maxBytesPerProject(2 * 19));
+        fileStore.store("project1", "collection1", TEST_EVENT_4);
+        handleMap = fileStore.getHandles("project1");
+        assertEquals(TEST_EVENT_3, fileStore.get(handleMap.get("collection2").get(0)));
+        assertEquals(TEST_EVENT_4, fileStore.get(handleMap.get("collection1").get(0)));
+        assertEquals(1, handleMap.get("collection2").size());
+    }
+
+    @Test
+    public void expiredEventsEvicted() throws Exception {
+        writeEventFile("keen/project1/collection1/1393564454103.0", TEST_EVENT_1);
+        FileEventStore fileStore = (FileEventStore) store;
+        fileStore.setEvictionPolicies(EvictionPolicy.maxAge(60 * 60 * 1000));
+        InMemoryKeenMetrics metrics = new InMemoryKeenMetrics();
+        fileStore.setMetrics(metrics);
+
+        Object handle = store.store("project1", "collection1", TEST_EVENT_2);
+        List<Object> handles = store.getHandles("project1").get("collection1");
+        assertEquals(1, handles.size());
+        assertEquals(handle, handles.get(0));
+        assertFalse(new File(TEST_STORE_ROOT, "keen/project1/collection1/1393564454103.0").exists());
+        assertEquals(1, metrics.getCount(KeenMetrics.Counter.EVENTS_EXPIRED));
+    }
+
     private void writeEventFile(String path, String data) throws IOException {
         File eventFile = new File(TEST_STORE_ROOT, path);
         FileUtils.write(eventFile, data, "UTF-8");
@@ -0,0 +1,155 @@
+package io.keen.client.java;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the JournaledFileEventStore class.
+ *
+ * @author Keen IO
+ * @since 5.1.0
+ */
+public class JournaledFileEventStoreTest extends AttemptCountingEventStoreTestBase {
+
+    private static final File TEST_STORE_ROOT = new File("test_journal_root");
+
+    @BeforeClass
+    public static void createStoreRoot() throws Exception {
+        FileUtils.forceMkdir(TEST_STORE_ROOT);
+    }
+
+    @After
+    public void closeStore() throws IOException {
+        ((JournaledFileEventStore) store).close();
+    }
+
+    @AfterClass
+    public static void deleteStoreRoot() throws Exception {
+        FileUtils.deleteDirectory(TEST_STORE_ROOT);
+    }
+
+    @Override
+    protected KeenEventStore buildStore() throws IOException {
+        // Clean the root here rather than in a @Before method, which would run after this.
+        FileUtils.cleanDirectory(TEST_STORE_ROOT);
+        return new JournaledFileEventStore(TEST_STORE_ROOT, JournalSyncPolicy.everyEvent());
+    }
+
+    @Test
+    public void eventsReplayedAfterReopen() throws Exception {
+        Object handle1 = store.store("project1", "collection1", TEST_EVENT_1);
+        Object handle2 = store.store("project1", "collection1", TEST_EVENT_2);
+        Object handle3 = store.store("project1", "collection2", TEST_EVENT_3);
+        store.remove(handle2);
+
+        reopenStore();
+        Map<String, List<Object>> handleMap = store.getHandles("project1");
+        assertEquals(2, handleMap.size());
+        assertEquals(1, handleMap.get("collection1").size());
+        assertEquals(TEST_EVENT_1, store.get(handle1));
+        assertNull(store.get(handle2));
+        assertEquals(TEST_EVENT_3, store.get(handle3));
+
+        // Handles issued after reopening never reuse earlier ones.
+        Object handle4 = store.store("project1", "collection1", TEST_EVENT_4);
+        assertTrue((Long) handle4 > (Long) handle3);
+    }
+
+    @Test
+    public void incompleteRecordDiscarded() throws Exception {
+        Object handle = store.store("project1", "collection1", TEST_EVENT_1);
+        ((JournaledFileEventStore) store).close();
+
+        // Simulate a crash part way through writing a record.
+        File[] segments = new File(TEST_STORE_ROOT, "keen-journal").listFiles();
+        File segment = null;
+        for (File file : segments) {
+            if (file.isFile()) {
+                segment = file;
+            }
+        }
+        OutputStream out = new FileOutputStream(segment, true);
+        try {
+            out.write(new byte[] {0, 0, 0, 100, 1, 2, 3, 4, 1});
+        } finally {
+            out.close();
+        }
+
+        store = new JournaledFileEventStore(TEST_STORE_ROOT, JournalSyncPolicy.everyEvent());
+        assertEquals(TEST_EVENT_1, store.get(handle));
+        assertEquals(1, store.getHandles("project1").get("collection1").size());
+        Object handle2 = store.store("project1", "collection1", TEST_EVENT_2);
+        reopenStore();
+        assertEquals(TEST_EVENT_2, store.get(handle2));
+    }
+
+    @Test
+    public void concurrentStoresShareSyncs() throws Exception {
+        InMemoryKeenMetrics metrics = new InMemoryKeenMetrics();
+        ((KeenMetricsReportingEventStore) store).setMetrics(metrics);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<Void>> futures = new ArrayList<Future<Void>>();
+        for (int thread = 0; thread < 8; thread++) {
+            futures.add(executor.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    for (int i = 0; i < 100; i++) {
+                        store.store("project1", "collection1", TEST_EVENT_1);
+                    }
+                    return null;
+                }
+            }));
+        }
+        for (Future<Void> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        assertEquals(800, store.getHandles("project1").get("collection1").size());
+        long syncs = metrics.getCount(KeenMetrics.Counter.STORE_SYNCS);
+        assertTrue(syncs > 0);
+        assertTrue(syncs <= 800);
+    }
+
+    @Test
+    public void oldestEventsDroppedAtCapacity() throws Exception {
+        ((JournaledFileEventStore) store).close();
+        store = new JournaledFileEventStore(TEST_STORE_ROOT, JournalSyncPolicy.never());
+        InMemoryKeenMetrics metrics = new InMemoryKeenMetrics();
+        ((KeenMetricsReportingEventStore) store).setMetrics(metrics);
+
+        for (int i = 0; i <= 10000; i++) {
+            store.store("project1", "collection1", "{\"index\":" + i + "}");
+        }
+        List<Object> handles = store.getHandles("project1").get("collection1");
+        assertEquals(9901, handles.size());
+        assertEquals("{\"index\":100}", store.get(handles.get(0)));
+        assertEquals(100, metrics.getCount(KeenMetrics.Counter.EVENTS_DROPPED));
+    }
+
+    private void reopenStore() throws IOException {
+        ((JournaledFileEventStore) store).close();
+        store = new JournaledFileEventStore(TEST_STORE_ROOT, JournalSyncPolicy.everyEvent());
+    }
+
+}
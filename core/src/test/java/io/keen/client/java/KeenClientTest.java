@@ -12,6 +12,7 @@ import org.mockito.ArgumentCaptor;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -31,9 +32,11 @@ import static org.hamcrest.Matchers.startsWith;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -451,6 +454,113 @@ public class KeenClientTest {
         assertEquals(0, attempts.entrySet().size());
     }
 
+    @Test
+    public void testSendQueuedEventsWithFailureAfterDroppedEvent() throws Exception {
+        // Queue an event and fail to send it until it has no attempts left.
+        client.queueEvent(TEST_COLLECTION, TEST_EVENTS.get(0));
+        setMockResponse(500, "Injected server failure");
+        for (int i = 0; i < 3; i++) {
+            try {
+                client.sendQueuedEvents();
+            } catch (ServerException e) {
+                // This exception is expected; continue.
+            }
+        }
+
+        // Queue two more events. The next send drops the first event and posts the other two.
+        client.queueEvent(TEST_COLLECTION, TEST_EVENTS.get(1));
+        client.queueEvent(TEST_COLLECTION, TEST_EVENTS.get(2));
+        Map<String, Integer> expectedResponse = new HashMap<String, Integer>();
+        expectedResponse.put(TEST_COLLECTION, 2);
+        Map<String, Object> responseMap = buildSuccessMap(expectedResponse);
+        replaceSuccessWithFailure(responseMap, TEST_COLLECTION, 1, "TestInjectedError",
+                "This is an error injected by the unit test code");
+        setMockResponse(200, getPostEventsResponse(responseMap));
+        client.sendQueuedEvents();
+
+        // Validate that the results were matched to the events which were actually posted.
+        RamEventStore store = (RamEventStore) client.getEventStore();
+        Map<String, List<Object>> handleMap = store.getHandles(TEST_PROJECT.getProjectId());
+        List<Object> handles = handleMap.get(TEST_COLLECTION);
+        assertEquals(1, handles.size());
+        assertThat(store.get(handles.get(0)), containsString("test-value-2"));
+    }
+
+    @Test
+    public void testSendQueuedEventsWithUnmodifiableHandleMap() throws Exception {
+        // Use a store which returns handle maps that can't be modified.
+        final RamEventStore ramStore = new RamEventStore();
+        KeenAttemptCountingEventStore store = new KeenAttemptCountingEventStore() {
+            @Override
+            public Object store(String projectId, String eventCollection, String event)
+                    throws IOException {
+                return ramStore.store(projectId, eventCollection, event);
+            }
+
+            @Override
+            public String get(Object handle) throws IOException {
+                return ramStore.get(handle);
+            }
+
+            @Override
+            public void remove(Object handle) throws IOException {
+                ramStore.remove(handle);
+            }
+
+            @Override
+            public Map<String, List<Object>> getHandles(String projectId) throws IOException {
+                Map<String, List<Object>> handleMap = new HashMap<String, List<Object>>();
+                for (Map.Entry<String, List<Object>> entry :
+                        ramStore.getHandles(projectId).entrySet()) {
+                    handleMap.put(entry.getKey(), Collections.unmodifiableList(entry.getValue()));
+                }
+                return Collections.unmodifiableMap(handleMap);
+            }
+
+            @Override
+            public String getAttempts(String projectId, String eventCollection) {
+                return ramStore.getAttempts(projectId, eventCollection);
+            }
+
+            @Override
+            public void setAttempts(String projectId, String eventCollection,
+                                    String attemptsString) {
+                ramStore.setAttempts(projectId, eventCollection, attemptsString);
+            }
+        };
+        client = new TestKeenClientBuilder()
+                .withHttpHandler(mockHttpHandler)
+                .withEventStore(store)
+                .build();
+        client.setBaseUrl(null);
+        client.setDefaultProject(TEST_PROJECT);
+
+        // Queue an event and fail to send it until it has no attempts left.
+        client.queueEvent(TEST_COLLECTION, TEST_EVENTS.get(0));
+        setMockResponse(500, "Injected server failure");
+        for (int i = 0; i < 3; i++) {
+            try {
+                client.sendQueuedEvents();
+            } catch (ServerException e) {
+                // This exception is expected; continue.
+            }
+        }
+
+        // The next send drops the first event and posts the second, which fails.
+        client.queueEvent(TEST_COLLECTION, TEST_EVENTS.get(1));
+        Map<String, Integer> expectedResponse = new HashMap<String, Integer>();
+        expectedResponse.put(TEST_COLLECTION, 1);
+        Map<String, Object> responseMap = buildSuccessMap(expectedResponse);
+        replaceSuccessWithFailure(responseMap, TEST_COLLECTION, 0, "TestInjectedError",
+                "This is an error injected by the unit test code");
+        setMockResponse(200, getPostEventsResponse(responseMap));
+        client.sendQueuedEvents();
+
+        List<Object> handles = store.getHandles(TEST_PROJECT.getProjectId()).get(TEST_COLLECTION);
+        assertEquals(1, handles.size());
+        assertThat(store.get(handles.get(0)), containsString("test-value-1"));
+    }
+
     @Test
     public void testSendQueuedEventsConcurrentProjects() throws Exception {
         // Queue some events in each of two separate projects
@@ -699,6 +809,35 @@ public class KeenClientTest {
         }
     }
 
+    @Test
+    public void testSendQueuedEventsInBatches() throws Exception {
+        client.setMaxBatchSize(2);
+        client.queueEvent(TEST_COLLECTION, TEST_EVENTS.get(0));
+        client.queueEvent(TEST_COLLECTION, TEST_EVENTS.get(1));
+        client.queueEvent(TEST_COLLECTION_2, TEST_EVENTS.get(2));
+
+        // The first batch holds the first collection's events and the second batch the other
+        // collection's event, which fails.
+        Map<String, Integer> firstBatch = new HashMap<String, Integer>();
+        firstBatch.put(TEST_COLLECTION, 2);
+        Map<String, Integer> secondBatch = new HashMap<String, Integer>();
+        secondBatch.put(TEST_COLLECTION_2, 1);
+        Map<String, Object> secondResponse = buildSuccessMap(secondBatch);
+        replaceSuccessWithFailure(secondResponse, TEST_COLLECTION_2, 0, "TestInjectedError",
+                "This is an error injected by the unit test code");
+        when(mockHttpHandler.execute(any(Request.class))).thenReturn(
+                new Response(200, getPostEventsResponse(buildSuccessMap(firstBatch))),
+                new Response(200, getPostEventsResponse(secondResponse)));
+        client.sendQueuedEvents();
+        verify(mockHttpHandler, times(2)).execute(any(Request.class));
+
+        // Validate that only the failed event is still queued.
+        RamEventStore store = (RamEventStore) client.getEventStore();
+        Map<String, List<Object>> handleMap = store.getHandles(TEST_PROJECT.getProjectId());
+        assertEquals(1, handleMap.size());
+        assertEquals(1, handleMap.get(TEST_COLLECTION_2).size());
+    }
+
     private void setMockResponse(int statusCode, String body) throws IOException {
         Response response = new Response(statusCode, body);
         when(mockHttpHandler.execute(any(Request.class))).thenReturn(response);
@@ -841,4 +980,94 @@ public class KeenClientTest {
         assertEquals(0, handleMap.size());
     }
 
+    @Test
+    public void testMetrics() throws Exception {
+        InMemoryKeenMetrics metrics = new InMemoryKeenMetrics();
+        RamEventStore store = new RamEventStore();
+        store.setMaxEventsPerCollection(2);
+        client = new TestKeenClientBuilder()
+                .withHttpHandler(mockHttpHandler)
+                .withEventStore(store)
+                .withMetrics(metrics)
+                .build();
+        client.setBaseUrl(null);
+        client.setDefaultProject(TEST_PROJECT);
+        assertEquals(metrics, client.getMetrics());
+
+        // Queue three events; the store only has room for two, so the first is dropped.
+        client.queueEvent(TEST_COLLECTION, TEST_EVENTS.get(0));
+        client.queueEvent(TEST_COLLECTION, TEST_EVENTS.get(1));
+        client.queueEvent(TEST_COLLECTION, TEST_EVENTS.get(2));
+        client.queueEvent(TEST_COLLECTION, new HashMap<String, Object>());
+        assertEquals(3, metrics.getCount(KeenMetrics.Counter.EVENTS_VALIDATED));
+        assertEquals(1, metrics.getCount(KeenMetrics.Counter.EVENTS_REJECTED));
+        assertEquals(3, metrics.getCount(KeenMetrics.Counter.EVENTS_BUILT));
+        assertEquals(3, metrics.getCount(KeenMetrics.Counter.EVENTS_QUEUED));
+        assertEquals(1, metrics.getCount(KeenMetrics.Counter.EVENTS_DROPPED));
+
+        // Fail to send the events twice, so that the second attempt is a retry.
+        setMockResponse(500, "Injected server failure");
+        client.sendQueuedEvents();
+        client.sendQueuedEvents();
+        assertEquals(2, metrics.getCount(KeenMetrics.Counter.REQUESTS_FAILED));
+        assertEquals(2, metrics.getCount(KeenMetrics.Counter.EVENTS_RETRIED));
+        assertEquals(2, metrics.getCount(KeenMetrics.Histogram.BATCH_SIZE));
+        assertEquals(2, metrics.getMax(KeenMetrics.Histogram.BATCH_SIZE));
+        assertEquals(2, metrics.getCount(KeenMetrics.Histogram.PUBLISH_LATENCY_NANOS));
+        assertTrue(metrics.getCount(KeenMetrics.Counter.BYTES_UPLOADED) > 0);
+
+        // Use up the remaining attempt; the next send drops both events.
+        client.sendQueuedEvents();
+        client.sendQueuedEvents();
+        assertEquals(2, metrics.getCount(KeenMetrics.Counter.ATTEMPTS_EXHAUSTED));
+        assertEquals(0, store.getHandles(TEST_PROJECT.getProjectId()).size());
+    }
+
+    @Test
+    public void testTracer() throws Exception {
+        TestKeenTracer tracer = new TestKeenTracer();
+        client = new TestKeenClientBuilder()
+                .withHttpHandler(mockHttpHandler)
+                .withTracer(tracer)
+                .build();
+        client.setBaseUrl(null);
+        client.setDebugMode(true);
+        client.setDefaultProject(TEST_PROJECT);
+
+        // Queue some events and send them.
+        client.queueEvent(TEST_COLLECTION, TEST_EVENTS.get(0));
+        client.queueEvent(TEST_COLLECTION, TEST_EVENTS.get(1));
+        Map<String, Integer> expectedResponse = new HashMap<String, Integer>();
+        expectedResponse.put(TEST_COLLECTION, 2);
+        setMockResponse(200, getPostEventsResponse(buildSuccessMap(expectedResponse)));
+        client.sendQueuedEvents();
+
+        assertEquals(2, tracer.getSpans(KeenTracer.Operation.BUILD_EVENT).size());
+        assertEquals(2, tracer.getSpans(KeenTracer.Operation.STORE_EVENT).size());
+        assertEquals(TEST_COLLECTION,
+                tracer.getSpans(KeenTracer.Operation.STORE_EVENT).get(0).eventCollection);
+        assertEquals(2, tracer.getSpans(KeenTracer.Operation.GET_EVENT).size());
+        assertEquals(2, tracer.getSpans(KeenTracer.Operation.REMOVE_EVENT).size());
+        assertEquals(1, tracer.getSpans(KeenTracer.Operation.HANDLE_RESPONSE).size());
+
+        List<TestKeenTracer.Span> drains = tracer.getSpans(KeenTracer.Operation.DRAIN);
+        assertEquals(1, drains.size());
+        assertEquals(2, drains.get(0).eventCount);
+        assertNull(drains.get(0).error);
+
+        List<TestKeenTracer.Span> requests = tracer.getSpans(KeenTracer.Operation.HTTP_EXECUTE);
+        assertEquals(1, requests.size());
+        assertEquals(200, requests.get(0).statusCode);
+        assertTrue(requests.get(0).requestBytes > 0);
+        assertTrue(requests.get(0).responseBytes > 0);
+        assertEquals(requests.get(0).requestBytes,
+                tracer.getSpans(KeenTracer.Operation.SERIALIZE_REQUEST).get(0).requestBytes);
+
+        // Nothing is recorded while the tracer is disabled.
+        tracer.setEnabled(false);
+        int spanCount = tracer.getSpans().size();
+        client.queueEvent(TEST_COLLECTION, TEST_EVENTS.get(2));
+        assertEquals(spanCount, tracer.getSpans().size());
+    }
+
 }
@@ -10,6 +10,7 @@ import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Tests the RamEventStore class.
@@ -59,4 +60,73 @@ public class RamEventStoreTest extends AttemptCountingEventStoreTestBase {
         assertThat(retrievedEvents, containsInAnyOrder(TEST_EVENT_3, TEST_EVENT_4, TEST_EVENT_5));
     }
 
+    @Test
+    public void oldestEventsEvictedOverByteLimit() throws Exception {
+        // Each test event is 19 characters, so this allows room for two of them.
+        RamEventStore ramStore = (RamEventStore) store;
+        ramStore.setEvictionPolicies(EvictionPolicy.maxBytesPerCollection(2 * 2 * 19));
+        InMemoryKeenMetrics metrics = new InMemoryKeenMetrics();
+        ramStore.setMetrics(metrics);
+
+        store.store("project1", "collection1", TEST_EVENT_1);
+        store.store("project1", "collection1", TEST_EVENT_2);
+        store.store("project1", "collection2", TEST_EVENT_3);
+        store.store("project1", "collection1", TEST_EVENT_4);
+
+        List<Object> handles = store.getHandles("project1").get("collection1");
+        assertEquals(2, handles.size());
+        assertEquals(TEST_EVENT_2, store.get(handles.get(0)));
+        assertEquals(TEST_EVENT_4, store.get(handles.get(1)));
+        assertEquals(1, store.getHandles("project1").get("collection2").size());
+        assertEquals(1, metrics.getCount(KeenMetrics.Counter.EVENTS_DROPPED));
+    }
+
+    @Test
+    public void expiredEventsEvicted() throws Exception {
+        RamEventStore ramStore = (RamEventStore) store;
+        ramStore.setEvictionPolicies(EvictionPolicy.maxAge(50));
+        InMemoryKeenMetrics metrics = new InMemoryKeenMetrics();
+        ramStore.setMetrics(metrics);
+
+        store.store("project1", "collection1", TEST_EVENT_1);
+        Thread.sleep(100);
+        Object handle = store.store("project1", "collection1", TEST_EVENT_2);
+
+        List<Object> handles = store.getHandles("project1").get("collection1");
+        assertEquals(1, handles.size());
+        assertEquals(handle, handles.get(0));
+        assertEquals(1, metrics.getCount(KeenMetrics.Counter.EVENTS_EXPIRED));
+        assertEquals(0, metrics.getCount(KeenMetrics.Counter.EVENTS_DROPPED));
+    }
+
+    @Test
+    public void cursorDrainDoesNotRetainRemovedIds() throws Exception {
+        RamEventStore ramStore = (RamEventStore) store;
+        for (int drain = 0; drain < 50; drain++) {
+            for (int i = 0; i < 1000; i++) {
+                store.store("project1", "collection1", TEST_EVENT_1);
+            }
+
+            // Drain the events a page at a time, as KeenClient does, without ever calling the
+            // getHandles method which returns every handle.
+            int drained = 0;
+            Object cursor = null;
+            do {
+                KeenHandlePage page = ramStore.getHandles("project1", cursor, 100);
+                List<Object> handles = page.getHandles().get("collection1");
+                if (handles != null) {
+                    for (Object handle : handles) {
+                        store.remove(handle);
+                        drained++;
+                    }
+                }
+                cursor = page.getCursor();
+            } while (cursor != null);
+            assertEquals(1000, drained);
+
+            // The IDs of the removed events are compacted away rather than accumulating.
+            assertTrue(ramStore.getRetainedIdCount("project1", "collection1") <= 64);
+        }
+    }
+
 }
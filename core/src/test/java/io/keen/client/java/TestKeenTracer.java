@@ -0,0 +1,81 @@
+package io.keen.client.java;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class TestKeenTracer implements KeenTracer {
+    private final List<Span> spans = new ArrayList<Span>();
+    private boolean isEnabled = true;
+
+    public void setEnabled(boolean isEnabled) {
+        this.isEnabled = isEnabled;
+    }
+
+    public synchronized List<Span> getSpans() {
+        return new ArrayList<Span>(spans);
+    }
+
+    public synchronized List<Span> getSpans(Operation operation) {
+        List<Span> matching = new ArrayList<Span>();
+        for (Span span : spans) {
+            if (span.operation == operation) {
+                matching.add(span);
+            }
+        }
+        return matching;
+    }
+
+    public boolean isEnabled() {
+        return isEnabled;
+    }
+
+    public KeenTraceSpan beginSpan(Operation operation) {
+        return new Span(operation);
+    }
+
+    public class Span implements KeenTraceSpan {
+        public final Operation operation;
+        public String eventCollection;
+        public int eventCount;
+        public int statusCode;
+        public long requestBytes;
+        public long responseBytes;
+        public Throwable error;
+        public boolean isEnded;
+
+        Span(Operation operation) {
+            this.operation = operation;
+        }
+
+        public void setEventCollection(String eventCollection) {
+            this.eventCollection = eventCollection;
+        }
+
+        public void setEventCount(int eventCount) {
+            this.eventCount = eventCount;
+        }
+
+        public void setStatusCode(int statusCode) {
+            this.statusCode = statusCode;
+        }
+
+        public void setRequestBytes(long requestBytes) {
+            this.requestBytes = requestBytes;
+        }
+
+        public void setResponseBytes(long responseBytes) {
+            this.responseBytes = responseBytes;
+        }
+
+        public void setError(Throwable error) {
+            this.error = error;
+        }
+
+        public void end() {
+            isEnded = true;
+            synchronized (TestKeenTracer.this) {
+                spans.add(this);
+            }
+        }
+    }
+}
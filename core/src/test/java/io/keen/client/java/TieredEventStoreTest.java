@@ -0,0 +1,138 @@
+package io.keen.client.java;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the TieredEventStore class.
+ *
+ * @author Keen IO
+ * @since 5.1.0
+ */
+public class TieredEventStoreTest extends AttemptCountingEventStoreTestBase {
+
+    private static final File TEST_STORE_ROOT = new File("test_tiered_root");
+
+    @BeforeClass
+    public static void createStoreRoot() throws Exception {
+        FileUtils.forceMkdir(TEST_STORE_ROOT);
+    }
+
+    @AfterClass
+    public static void deleteStoreRoot() throws Exception {
+        FileUtils.deleteDirectory(TEST_STORE_ROOT);
+    }
+
+    @Override
+    protected KeenEventStore buildStore() throws IOException {
+        // Clean the root here rather than in a @Before method, which would run after this.
+        FileUtils.cleanDirectory(TEST_STORE_ROOT);
+        return new TieredEventStore(new FileEventStore(TEST_STORE_ROOT));
+    }
+
+    @Test
+    public void eventsSpilledToDiskPastCapacity() throws Exception {
+        TieredEventStore tieredStore = (TieredEventStore) store;
+        tieredStore.setMaxRamEvents(2);
+        InMemoryKeenMetrics metrics = new InMemoryKeenMetrics();
+        tieredStore.setMetrics(metrics);
+
+        Object handle1 = store.store("project1", "collection1", TEST_EVENT_1);
+        Object handle2 = store.store("project1", "collection1", TEST_EVENT_2);
+        Object handle3 = store.store("project1", "collection1", TEST_EVENT_3);
+        assertEquals(2, tieredStore.getRamEventCount());
+        assertEquals(1, metrics.getCount(KeenMetrics.Counter.EVENTS_SPILLED));
+        assertEquals(TEST_EVENT_1, store.get(handle1));
+        assertEquals(TEST_EVENT_3, store.get(handle3));
+
+        // Only the spilled event is on disk.
+        List<Object> diskHandles =
+                new FileEventStore(TEST_STORE_ROOT).getHandles("project1").get("collection1");
+        assertEquals(1, diskHandles.size());
+
+        // Sending an event from memory makes room for the next one.
+        store.remove(handle2);
+        assertNull(store.get(handle2));
+        store.store("project1", "collection1", TEST_EVENT_4);
+        assertEquals(2, tieredStore.getRamEventCount());
+        assertEquals(1, metrics.getCount(KeenMetrics.Counter.EVENTS_SPILLED));
+    }
+
+    @Test
+    public void eventsInMemoryServedFirst() throws Exception {
+        TieredEventStore tieredStore = (TieredEventStore) store;
+        tieredStore.setMaxRamEvents(1);
+        Object handle1 = store.store("project1", "collection1", TEST_EVENT_1);
+        Object handle2 = store.store("project1", "collection1", TEST_EVENT_2);
+        store.remove(handle1);
+        Object handle3 = store.store("project1", "collection1", TEST_EVENT_3);
+
+        assertEquals(Arrays.asList(handle3, handle2),
+                store.getHandles("project1").get("collection1"));
+
+        KeenHandlePage page = tieredStore.getHandles("project1", null, 1);
+        assertEquals(Arrays.asList(handle3), page.getHandles().get("collection1"));
+        assertNotNull(page.getCursor());
+        page = tieredStore.getHandles("project1", page.getCursor(), 1);
+        assertEquals(Arrays.asList(handle2), page.getHandles().get("collection1"));
+        assertNull(page.getCursor());
+    }
+
+    @Test
+    public void spilledEventsAndAttemptsSurviveRestart() throws Exception {
+        ((TieredEventStore) store).setMaxRamEvents(1);
+        store.store("project1", "collection1", TEST_EVENT_1);
+        Object handle2 = store.store("project1", "collection1", TEST_EVENT_2);
+        KeenAttemptCountingEventStore attemptCountingStore = (KeenAttemptCountingEventStore) store;
+        attemptCountingStore.setAttempts("project1", "collection1", "{\"attempts\":2}");
+
+        store = new TieredEventStore(new FileEventStore(TEST_STORE_ROOT));
+        List<Object> handles = store.getHandles("project1").get("collection1");
+        assertEquals(Arrays.asList(handle2), handles);
+        assertEquals(handle2.hashCode(), handles.get(0).hashCode());
+        assertEquals(TEST_EVENT_2, store.get(handles.get(0)));
+        assertEquals("{\"attempts\":2}", ((KeenAttemptCountingEventStore) store)
+                .getAttempts("project1", "collection1"));
+    }
+
+    @Test
+    public void ramTierStaysBoundedAcrossDrains() throws Exception {
+        TieredEventStore tieredStore = (TieredEventStore) store;
+        tieredStore.setMaxRamEvents(100);
+        for (int drain = 0; drain < 50; drain++) {
+            // Fill the memory tier without spilling, then drain it a page at a time.
+            for (int i = 0; i < 100; i++) {
+                store.store("project1", "collection1", TEST_EVENT_1);
+            }
+            Object cursor = null;
+            do {
+                KeenHandlePage page = tieredStore.getHandles("project1", cursor, 30);
+                List<Object> handles = page.getHandles().get("collection1");
+                if (handles != null) {
+                    for (Object handle : handles) {
+                        store.remove(handle);
+                    }
+                }
+                cursor = page.getCursor();
+            } while (cursor != null);
+            assertEquals(0, tieredStore.getRamEventCount());
+
+            // The memory tier doesn't keep an ID for every event it has ever held.
+            assertTrue(tieredStore.getRamTier().getRetainedIdCount("project1", "collection1")
+                    <= 100);
+        }
+    }
+
+}
@@ -11,6 +11,7 @@ import java.io.OutputStream;
 import java.net.HttpURLConnection;
 import java.net.URL;
 
+import io.keen.client.java.http.ByteArrayOutputSource;
 import io.keen.client.java.http.OutputSource;
 import io.keen.client.java.http.Request;
 import io.keen.client.java.http.Response;
@@ -21,6 +22,7 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -86,6 +88,21 @@ public class UrlConnectionHttpHandlerTest {
         assertEquals("500 Internal Server Error", response.body);
     }
 
+    @Test
+    public void byteArraySourceUsesFixedLength() throws Exception {
+        ByteArrayOutputStream requestOutputStream = new ByteArrayOutputStream();
+        configureMockConnection(requestOutputStream, 200, "200 OK", null);
+
+        byte[] body = "request-body-with-padding".getBytes("UTF-8");
+        ByteArrayOutputSource source = new ByteArrayOutputSource(body, 12);
+        Request request = new Request(new URL(TEST_URL), "POST", TEST_AUTHORIZATION, source);
+        Response response = handler.execute(request);
+
+        assertTrue(response.isSuccess());
+        verify(mockConnection).setFixedLengthStreamingMode(12);
+        assertEquals("request-body", requestOutputStream.toString("UTF-8"));
+    }
+
     private Response runResponseTest(int statusCode, final String requestBody,
                                      String response, String error) throws IOException {
         // Configure the mock connection.
@@ -1,5 +1,9 @@
 package io.keen.client.java;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.databind.type.MapType;
@@ -12,11 +16,15 @@ import java.util.Map;
 
 /**
  * Implementation of the Keen JSON handler interface using the Jackson JSON library.
- *
+ * <p>
+ * In addition to the tree-based {@link KeenJsonHandler} methods, this handler implements
+ * {@link KeenStreamingJsonHandler} on top of Jackson's {@link JsonParser} and
+ * {@link JsonGenerator}.
+ * </p>
  * @author Kevin Litwack (kevin@kevinlitwack.com)
  * @since 2.0.0
  */
-public class JacksonJsonHandler implements KeenJsonHandler {
+public class JacksonJsonHandler implements KeenStreamingJsonHandler {
 
     ///// KeenJsonHandler METHODS /////
 
@@ -36,6 +44,26 @@ public class JacksonJsonHandler implements KeenJsonHandler {
         mapper.writeValue(writer, value);
     }
 
+    ///// KeenStreamingJsonHandler METHODS /////
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public KeenJsonReader createReader(Reader reader) throws IOException {
+        return new JacksonJsonReader(factory.createParser(reader));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public KeenJsonWriter createWriter(Writer writer) throws IOException {
+        JsonGenerator generator = factory.createGenerator(writer);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        return new JacksonJsonWriter(generator);
+    }
+
     ///// DEFAULT ACCESS CONSTRUCTORS /////
 
     /**
@@ -44,6 +72,7 @@ public class JacksonJsonHandler implements KeenJsonHandler {
     public JacksonJsonHandler() {
         mapper = new ObjectMapper();
         mapper.configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
+        factory = mapper.getFactory();
     }
 
     ///// PRIVATE CONSTANTS /////
@@ -54,5 +83,267 @@ public class JacksonJsonHandler implements KeenJsonHandler {
     ///// PRIVATE FIELDS /////
 
     private final ObjectMapper mapper;
+    private final JsonFactory factory;
+
+    ///// PRIVATE INNER CLASSES /////
+
+    /**
+     * {@link KeenJsonReader} backed by a Jackson {@link JsonParser}. The parser is advanced lazily
+     * so that {@link #peek()} can be called any number of times before a token is consumed.
+     */
+    private class JacksonJsonReader implements KeenJsonReader {
+
+        private final JsonParser parser;
+        private JsonToken token;
+        private boolean isPeeked;
+
+        JacksonJsonReader(JsonParser parser) {
+            this.parser = parser;
+        }
+
+        @Override
+        public KeenJsonToken peek() throws IOException {
+            JsonToken next = peekToken();
+            if (next == null) {
+                return KeenJsonToken.END_DOCUMENT;
+            }
+            switch (next) {
+                case START_OBJECT:
+                    return KeenJsonToken.BEGIN_OBJECT;
+                case END_OBJECT:
+                    return KeenJsonToken.END_OBJECT;
+                case START_ARRAY:
+                    return KeenJsonToken.BEGIN_ARRAY;
+                case END_ARRAY:
+                    return KeenJsonToken.END_ARRAY;
+                case FIELD_NAME:
+                    return KeenJsonToken.NAME;
+                case VALUE_NUMBER_INT:
+                case VALUE_NUMBER_FLOAT:
+                    return KeenJsonToken.NUMBER;
+                case VALUE_TRUE:
+                case VALUE_FALSE:
+                    return KeenJsonToken.BOOLEAN;
+                case VALUE_NULL:
+                    return KeenJsonToken.NULL;
+                default:
+                    return KeenJsonToken.STRING;
+            }
+        }
+
+        @Override
+        public void beginObject() throws IOException {
+            consume(JsonToken.START_OBJECT);
+        }
+
+        @Override
+        public void endObject() throws IOException {
+            consume(JsonToken.END_OBJECT);
+        }
+
+        @Override
+        public void beginArray() throws IOException {
+            consume(JsonToken.START_ARRAY);
+        }
+
+        @Override
+        public void endArray() throws IOException {
+            consume(JsonToken.END_ARRAY);
+        }
+
+        @Override
+        public boolean hasNext() throws IOException {
+            JsonToken next = peekToken();
+            return next != null && next != JsonToken.END_OBJECT && next != JsonToken.END_ARRAY;
+        }
+
+        @Override
+        public String nextName() throws IOException {
+            consume(JsonToken.FIELD_NAME);
+            return parser.getCurrentName();
+        }
+
+        @Override
+        public String nextString() throws IOException {
+            JsonToken next = peekToken();
+            if (next == null || !next.isScalarValue() || next == JsonToken.VALUE_NULL) {
+                throw unexpected("a string", next);
+            }
+            isPeeked = false;
+            return parser.getText();
+        }
+
+        @Override
+        public boolean nextBoolean() throws IOException {
+            JsonToken next = peekToken();
+            if (next != JsonToken.VALUE_TRUE && next != JsonToken.VALUE_FALSE) {
+                throw unexpected("a boolean", next);
+            }
+            isPeeked = false;
+            return next == JsonToken.VALUE_TRUE;
+        }
+
+        @Override
+        public long nextLong() throws IOException {
+            JsonToken next = peekToken();
+            if (next == null || !next.isNumeric()) {
+                throw unexpected("a number", next);
+            }
+            isPeeked = false;
+            return parser.getLongValue();
+        }
+
+        @Override
+        public double nextDouble() throws IOException {
+            JsonToken next = peekToken();
+            if (next == null || !next.isNumeric()) {
+                throw unexpected("a number", next);
+            }
+            isPeeked = false;
+            return parser.getDoubleValue();
+        }
+
+        @Override
+        public void nextNull() throws IOException {
+            consume(JsonToken.VALUE_NULL);
+        }
+
+        @Override
+        public void skipValue() throws IOException {
+            peekToken();
+            isPeeked = false;
+            parser.skipChildren();
+        }
+
+        @Override
+        public Object nextValue() throws IOException {
+            JsonToken next = peekToken();
+            if (next == null) {
+                throw unexpected("a value", null);
+            }
+            isPeeked = false;
+            return mapper.readValue(parser, Object.class);
+        }
+
+        @Override
+        public void close() throws IOException {
+            parser.close();
+        }
+
+        private JsonToken peekToken() throws IOException {
+            if (!isPeeked) {
+                token = parser.nextToken();
+                isPeeked = true;
+            }
+            return token;
+        }
+
+        private void consume(JsonToken expected) throws IOException {
+            JsonToken next = peekToken();
+            if (next != expected) {
+                throw unexpected(expected.toString(), next);
+            }
+            isPeeked = false;
+        }
+
+        private IOException unexpected(String expected, JsonToken actual) {
+            return new IOException("Expected " + expected + " but was " +
+                    (actual == null ? "end of document" : actual.toString()));
+        }
+
+    }
+
+    /**
+     * {@link KeenJsonWriter} backed by a Jackson {@link JsonGenerator}.
+     */
+    private static class JacksonJsonWriter implements KeenJsonWriter {
+
+        private final JsonGenerator generator;
+
+        JacksonJsonWriter(JsonGenerator generator) {
+            this.generator = generator;
+        }
+
+        @Override
+        public KeenJsonWriter beginObject() throws IOException {
+            generator.writeStartObject();
+            return this;
+        }
+
+        @Override
+        public KeenJsonWriter endObject() throws IOException {
+            generator.writeEndObject();
+            return this;
+        }
+
+        @Override
+        public KeenJsonWriter beginArray() throws IOException {
+            generator.writeStartArray();
+            return this;
+        }
+
+        @Override
+        public KeenJsonWriter endArray() throws IOException {
+            generator.writeEndArray();
+            return this;
+        }
+
+        @Override
+        public KeenJsonWriter name(String name) throws IOException {
+            generator.writeFieldName(name);
+            return this;
+        }
+
+        @Override
+        public KeenJsonWriter value(String value) throws IOException {
+            if (value == null) {
+                generator.writeNull();
+            } else {
+                generator.writeString(value);
+            }
+            return this;
+        }
+
+        @Override
+        public KeenJsonWriter value(boolean value) throws IOException {
+            generator.writeBoolean(value);
+            return this;
+        }
+
+        @Override
+        public KeenJsonWriter value(long value) throws IOException {
+            generator.writeNumber(value);
+            return this;
+        }
+
+        @Override
+        public KeenJsonWriter value(double value) throws IOException {
+            generator.writeNumber(value);
+            return this;
+        }
+
+        @Override
+        public KeenJsonWriter nullValue() throws IOException {
+            generator.writeNull();
+            return this;
+        }
+
+        @Override
+        public KeenJsonWriter object(Object value) throws IOException {
+            generator.writeObject(value);
+            return this;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            generator.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            generator.close();
+        }
+
+    }
 
 }
@@ -0,0 +1,116 @@
+package io.keen.client.java;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+
+/**
+ * {@link KeenEventCodec} which stores events using the binary Smile encoding of JSON. Smile
+ * events are typically noticeably smaller than the equivalent JSON text (property names are
+ * back-referenced and numbers are stored in binary), and are cheaper to parse.
+ * <p>
+ * Events are transcoded token-by-token, without building an intermediate tree, when they are
+ * stored and again when they are read back for upload.
+ * </p><p>
+ * This codec requires the {@code com.fasterxml.jackson.dataformat:jackson-dataformat-smile}
+ * library, which is not a required dependency of this library and must be added by applications
+ * which want to use it. To use it, construct the event store with it:
+ * </p>
+ * <pre>
+ *     {@code
+ * KeenClient client = new JavaKeenClientBuilder()
+ *         .withEventStore(new FileEventStore(cacheDir, new SmileEventCodec()))
+ *         .build();
+ * }
+ * </pre>
+ *
+ * @author Keen IO
+ * @since 5.1.0
+ */
+public class SmileEventCodec implements KeenEventCodec {
+
+    ///// PUBLIC CONSTRUCTORS /////
+
+    /**
+     * Constructs a new Smile codec.
+     */
+    public SmileEventCodec() {
+        jsonFactory = new JsonFactory();
+        smileFactory = new SmileFactory();
+    }
+
+    ///// KeenEventCodec METHODS /////
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getFileSuffix() {
+        return FILE_SUFFIX;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public byte[] encode(String event) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(event.length());
+        JsonParser parser = jsonFactory.createParser(event);
+        JsonGenerator generator = smileFactory.createGenerator(out);
+        try {
+            transcode(parser, generator);
+        } finally {
+            parser.close();
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String decode(byte[] data) throws IOException {
+        StringWriter out = new StringWriter(data.length * 2);
+        JsonParser parser = smileFactory.createParser(data);
+        JsonGenerator generator = jsonFactory.createGenerator(out);
+        try {
+            transcode(parser, generator);
+        } finally {
+            parser.close();
+        }
+        return out.toString();
+    }
+
+    ///// PRIVATE CONSTANTS /////
+
+    private static final String FILE_SUFFIX = ".smile";
+
+    ///// PRIVATE FIELDS /////
+
+    private final JsonFactory jsonFactory;
+    private final SmileFactory smileFactory;
+
+    ///// PRIVATE METHODS /////
+
+    /**
+     * Copies the single JSON value available from the parser to the generator, then closes the
+     * generator.
+     *
+     * @param parser    The parser from which to read.
+     * @param generator The generator to which to write.
+     * @throws IOException If the input is empty or there is an error reading or writing.
+     */
+    private static void transcode(JsonParser parser, JsonGenerator generator) throws IOException {
+        if (parser.nextToken() == null) {
+            throw new IOException("Cannot transcode an empty event");
+        }
+        generator.copyCurrentStructure(parser);
+        generator.close();
+    }
+
+}
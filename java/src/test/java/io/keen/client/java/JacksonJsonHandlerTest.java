@@ -0,0 +1,129 @@
+package io.keen.client.java;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the streaming methods of the JacksonJsonHandler class.
+ *
+ * @author Keen IO
+ * @since 5.1.0
+ */
+public class JacksonJsonHandlerTest {
+
+    private JacksonJsonHandler handler;
+
+    @Before
+    public void createJsonHandler() {
+        handler = new JacksonJsonHandler();
+    }
+
+    @Test
+    public void writeTokens() throws Exception {
+        StringWriter out = new StringWriter();
+        KeenJsonWriter writer = handler.createWriter(out);
+        writer.beginObject()
+                .name("string").value("value")
+                .name("long").value(10L)
+                .name("boolean").value(true)
+                .name("null").nullValue()
+                .name("array").beginArray().value(1.5).value("a").endArray()
+                .endObject();
+        writer.close();
+
+        assertEquals("{\"string\":\"value\",\"long\":10,\"boolean\":true,\"null\":null," +
+                "\"array\":[1.5,\"a\"]}", out.toString());
+    }
+
+    @Test
+    public void writeNestedObject() throws Exception {
+        Map<String, Object> nested = new HashMap<String, Object>();
+        nested.put("key", "value");
+        List<Object> list = new ArrayList<Object>();
+        list.add(nested);
+
+        StringWriter out = new StringWriter();
+        KeenJsonWriter writer = handler.createWriter(out);
+        writer.beginObject().name("list").object(list).endObject();
+        writer.close();
+
+        assertEquals("{\"list\":[{\"key\":\"value\"}]}", out.toString());
+    }
+
+    @Test
+    public void readTokens() throws Exception {
+        String json = "{\"a\":\"b\",\"n\":42,\"d\":2.5,\"t\":false,\"z\":null,\"skip\":{\"x\":[1,2]}}";
+        KeenJsonReader reader = handler.createReader(new StringReader(json));
+
+        assertEquals(KeenJsonToken.BEGIN_OBJECT, reader.peek());
+        reader.beginObject();
+        assertEquals("a", reader.nextName());
+        assertEquals("b", reader.nextString());
+        assertEquals("n", reader.nextName());
+        assertEquals(KeenJsonToken.NUMBER, reader.peek());
+        assertEquals(42L, reader.nextLong());
+        assertEquals("d", reader.nextName());
+        assertEquals(2.5, reader.nextDouble(), 0.0);
+        assertEquals("t", reader.nextName());
+        assertFalse(reader.nextBoolean());
+        assertEquals("z", reader.nextName());
+        reader.nextNull();
+        assertEquals("skip", reader.nextName());
+        reader.skipValue();
+        assertFalse(reader.hasNext());
+        reader.endObject();
+        assertEquals(KeenJsonToken.END_DOCUMENT, reader.peek());
+        reader.close();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void readValues() throws Exception {
+        String json = "{\"events\":[{\"success\":true},{\"success\":false,\"error\":{\"name\":\"E\"}}]}";
+        KeenJsonReader reader = handler.createReader(new StringReader(json));
+
+        reader.beginObject();
+        assertEquals("events", reader.nextName());
+        reader.beginArray();
+        List<Map<String, Object>> results = new ArrayList<Map<String, Object>>();
+        while (reader.hasNext()) {
+            results.add((Map<String, Object>) reader.nextValue());
+        }
+        reader.endArray();
+        reader.endObject();
+        reader.close();
+
+        assertEquals(2, results.size());
+        assertTrue((Boolean) results.get(0).get("success"));
+        Map<String, Object> error = (Map<String, Object>) results.get(1).get("error");
+        assertThat((String) error.get("name"), equalTo("E"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void readValueMatchesReadJson() throws Exception {
+        String json = "{\"list\":[1,\"two\",3.0]}";
+        KeenJsonReader reader = handler.createReader(new StringReader(json));
+        Map<String, Object> streamed = (Map<String, Object>) reader.nextValue();
+        reader.close();
+
+        Map<String, Object> tree = handler.readJson(new StringReader(json));
+        assertEquals(tree, streamed);
+        assertThat((List<Object>) streamed.get("list"), contains((Object) 1, "two", 3.0));
+    }
+
+}
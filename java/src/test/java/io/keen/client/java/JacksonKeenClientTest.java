@@ -0,0 +1,204 @@
+package io.keen.client.java;
+
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.keen.client.java.http.HttpHandler;
+import io.keen.client.java.http.Request;
+import io.keen.client.java.http.Response;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests that a KeenClient using the streaming JacksonJsonHandler matches the results in a batch
+ * response to the events which were sent.
+ *
+ * @author Keen IO
+ * @since 5.1.0
+ */
+public class JacksonKeenClientTest {
+
+    private static final KeenProject TEST_PROJECT =
+            new KeenProject("<project ID>", "<write key>", "<read key>");
+
+    private static final String COLLECTION_A = "collection_a";
+    private static final String COLLECTION_B = "collection_b";
+    private static final String COLLECTION_C = "collection_c";
+
+    private static final String TRANSIENT_ERROR = "TestInjectedError";
+
+    private KeenClient client;
+    private RamEventStore store;
+    private BatchHttpHandler httpHandler;
+
+    @BeforeClass
+    public static void classSetUp() {
+        KeenLogging.enableLogging();
+    }
+
+    @Before
+    public void setup() {
+        store = new RamEventStore();
+        httpHandler = new BatchHttpHandler();
+        client = new JavaKeenClientBuilder()
+                .withHttpHandler(httpHandler)
+                .withEventStore(store)
+                .build();
+        client.setDebugMode(true);
+        client.setDefaultProject(TEST_PROJECT);
+    }
+
+    @Test
+    public void mixedBatchResponse() throws Exception {
+        queueEvents(COLLECTION_A, "a0", "a1", "a2", "a3", "a4");
+        httpHandler.fail("a1", TRANSIENT_ERROR);
+        httpHandler.fail("a2", KeenConstants.INVALID_PROPERTY_NAME_ERROR);
+        httpHandler.fail("a4", TRANSIENT_ERROR);
+
+        client.sendQueuedEvents();
+
+        // Events rejected as invalid are dropped; only those which failed transiently remain.
+        assertEquals(1, httpHandler.requests);
+        assertQueued(COLLECTION_A, "a1", "a4");
+    }
+
+    @Test
+    public void multipleCollections() throws Exception {
+        queueEvents(COLLECTION_A, "a0", "a1", "a2");
+        queueEvents(COLLECTION_B, "b0", "b1");
+        queueEvents(COLLECTION_C, "c0", "c1", "c2", "c3");
+        httpHandler.fail("a0", TRANSIENT_ERROR);
+        httpHandler.fail("b1", TRANSIENT_ERROR);
+        httpHandler.fail("c2", KeenConstants.INVALID_PROPERTY_VALUE_ERROR);
+        httpHandler.fail("c3", TRANSIENT_ERROR);
+
+        client.sendQueuedEvents();
+
+        assertEquals(1, httpHandler.requests);
+        assertQueued(COLLECTION_A, "a0");
+        assertQueued(COLLECTION_B, "b1");
+        assertQueued(COLLECTION_C, "c3");
+        assertEquals(3, store.getHandles(TEST_PROJECT.getProjectId()).size());
+    }
+
+    @Test
+    public void responseInDifferentCollectionOrder() throws Exception {
+        queueEvents(COLLECTION_A, "a0", "a1");
+        queueEvents(COLLECTION_B, "b0", "b1", "b2");
+        queueEvents(COLLECTION_C, "c0");
+        httpHandler.reverseCollections = true;
+        httpHandler.fail("a1", TRANSIENT_ERROR);
+        httpHandler.fail("b0", TRANSIENT_ERROR);
+        httpHandler.fail("b2", KeenConstants.INVALID_COLLECTION_NAME_ERROR);
+
+        client.sendQueuedEvents();
+
+        // Make sure the response really did list the collections in a different order.
+        assertThat(httpHandler.responseOrder, not(httpHandler.requestOrder));
+        assertQueued(COLLECTION_A, "a1");
+        assertQueued(COLLECTION_B, "b0");
+        assertQueued(COLLECTION_C);
+    }
+
+    private void queueEvents(String eventCollection, String... ids) {
+        for (String id : ids) {
+            Map<String, Object> event = new HashMap<String, Object>();
+            event.put("id", id);
+            client.queueEvent(eventCollection, event);
+        }
+    }
+
+    private void assertQueued(String eventCollection, String... ids) throws IOException {
+        List<Object> handles = store.getHandles(TEST_PROJECT.getProjectId()).get(eventCollection);
+        if (ids.length == 0) {
+            assertTrue(handles == null || handles.isEmpty());
+            return;
+        }
+
+        JacksonJsonHandler jsonHandler = new JacksonJsonHandler();
+        List<String> queuedIds = new ArrayList<String>();
+        for (Object handle : handles) {
+            Map<String, Object> event = jsonHandler.readJson(new StringReader(store.get(handle)));
+            queuedIds.add((String) event.get("id"));
+        }
+        assertThat(queuedIds, containsInAnyOrder(ids));
+    }
+
+    /**
+     * Answers each batch post with a result for every event in the request: a failure with the
+     * configured error for the events registered through {@link #fail}, and a success for the
+     * rest. The collections can be listed in the reverse of the order in which they were sent.
+     */
+    private static class BatchHttpHandler implements HttpHandler {
+
+        private final JacksonJsonHandler jsonHandler = new JacksonJsonHandler();
+        private final Map<String, String> failures = new HashMap<String, String>();
+        boolean reverseCollections;
+        int requests;
+        List<String> requestOrder;
+        List<String> responseOrder;
+
+        void fail(String id, String errorName) {
+            failures.put(id, errorName);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Response execute(Request request) throws IOException {
+            requests++;
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            request.body.writeTo(body);
+            Map<String, Object> posted =
+                    jsonHandler.readJson(new StringReader(body.toString("UTF-8")));
+
+            requestOrder = new ArrayList<String>(posted.keySet());
+            responseOrder = new ArrayList<String>(requestOrder);
+            if (reverseCollections) {
+                Collections.reverse(responseOrder);
+            }
+
+            Map<String, Object> response = new LinkedHashMap<String, Object>();
+            for (String eventCollection : responseOrder) {
+                List<Object> results = new ArrayList<Object>();
+                for (Object event : (List<Object>) posted.get(eventCollection)) {
+                    String id = (String) ((Map<String, Object>) event).get("id");
+                    results.add(buildResult(failures.get(id)));
+                }
+                response.put(eventCollection, results);
+            }
+
+            StringWriter writer = new StringWriter();
+            jsonHandler.writeJson(writer, response);
+            return new Response(200, writer.toString());
+        }
+
+        private static Map<String, Object> buildResult(String errorName) {
+            Map<String, Object> result = new HashMap<String, Object>();
+            result.put("success", errorName == null);
+            if (errorName != null) {
+                Map<String, String> error = new HashMap<String, String>();
+                error.put("name", errorName);
+                error.put("description", "This is an error injected by the unit test code");
+                result.put("error", error);
+            }
+            return result;
+        }
+    }
+
+}
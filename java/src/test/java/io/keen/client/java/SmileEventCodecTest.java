@@ -0,0 +1,112 @@
+package io.keen.client.java;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.endsWith;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+/**
+ * Tests the SmileEventCodec class.
+ *
+ * @author Keen IO
+ * @since 5.1.0
+ */
+public class SmileEventCodecTest {
+
+    private static final String TEST_EVENT = "{\"keen\":{\"timestamp\":\"2015-01-01T00:00:00.000+0000\"}," +
+            "\"items\":[{\"sku\":\"A-1\",\"price\":9.99,\"quantity\":2}," +
+            "{\"sku\":\"B-2\",\"price\":19.99,\"quantity\":1}],\"user\":{\"id\":12345,\"premium\":true}}";
+
+    private static final File TEST_STORE_ROOT = new File("test_smile_store_root");
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private SmileEventCodec codec;
+
+    @Before
+    public void setUp() throws Exception {
+        codec = new SmileEventCodec();
+        FileUtils.forceMkdir(TEST_STORE_ROOT);
+        FileUtils.cleanDirectory(TEST_STORE_ROOT);
+    }
+
+    @After
+    public void cleanUp() throws Exception {
+        FileUtils.deleteDirectory(TEST_STORE_ROOT);
+    }
+
+    @Test
+    public void roundTrip() throws Exception {
+        byte[] encoded = codec.encode(TEST_EVENT);
+        String decoded = codec.decode(encoded);
+        assertEquals(MAPPER.readTree(TEST_EVENT), MAPPER.readTree(decoded));
+    }
+
+    @Test
+    public void encodingIsSmallerThanJson() throws Exception {
+        byte[] encoded = codec.encode(TEST_EVENT);
+        assertThat(encoded.length, lessThan(TEST_EVENT.getBytes("UTF-8").length));
+    }
+
+    @Test
+    public void fileStoreUsesCodec() throws Exception {
+        FileEventStore store = new FileEventStore(TEST_STORE_ROOT, codec);
+        Object handle = store.store("project1", "collection1", TEST_EVENT);
+        assertThat(((File) handle).getName(), endsWith(".smile"));
+        assertEquals(MAPPER.readTree(TEST_EVENT), MAPPER.readTree(store.get(handle)));
+    }
+
+    @Test
+    public void fileStoreReadsLegacyJsonFiles() throws Exception {
+        File legacyFile = new File(TEST_STORE_ROOT, "keen/project1/collection1/1393564454103.0");
+        FileUtils.write(legacyFile, TEST_EVENT, "UTF-8");
+
+        FileEventStore store = new FileEventStore(TEST_STORE_ROOT, codec);
+        Map<String, List<Object>> handles = store.getHandles("project1");
+        assertNotNull(handles.get("collection1"));
+        assertEquals(1, handles.get("collection1").size());
+        assertEquals(TEST_EVENT, store.get(handles.get("collection1").get(0)));
+    }
+
+    @Test
+    public void jsonFileStoreReadsSmileFiles() throws Exception {
+        FileEventStore smileStore = new FileEventStore(TEST_STORE_ROOT, codec);
+        smileStore.store("project1", "collection1", TEST_EVENT);
+
+        // Switching the store back to plain JSON must still decode the queued Smile files.
+        FileEventStore jsonStore =
+                new FileEventStore(TEST_STORE_ROOT, new Utf8JsonEventCodec(), codec);
+        Object jsonHandle = jsonStore.store("project1", "collection1", TEST_EVENT);
+        assertThat(((File) jsonHandle).getName(), not(endsWith(".smile")));
+        List<Object> handles = jsonStore.getHandles("project1").get("collection1");
+        assertEquals(2, handles.size());
+        for (Object handle : handles) {
+            assertEquals(MAPPER.readTree(TEST_EVENT), MAPPER.readTree(jsonStore.get(handle)));
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void jsonFileStoreRejectsSmileFilesWithoutCodec() throws Exception {
+        FileEventStore smileStore = new FileEventStore(TEST_STORE_ROOT, codec);
+        smileStore.store("project1", "collection1", TEST_EVENT);
+
+        // A store which doesn't know the Smile codec fails rather than misreading the file.
+        FileEventStore jsonStore = new FileEventStore(TEST_STORE_ROOT);
+        jsonStore.get(jsonStore.getHandles("project1").get("collection1").get(0));
+    }
+
+}
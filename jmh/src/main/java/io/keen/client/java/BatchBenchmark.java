@@ -0,0 +1,158 @@
+package io.keen.client.java;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.keen.client.java.http.Response;
+
+/**
+ * Benchmarks the two halves of sending queued events around the HTTP request:
+ * {@link KeenClient#buildEventMap}, which reads the batch back out of the store and updates
+ * attempt counts, and {@link KeenClient#handleAddEventsResponse}, which parses the per-event
+ * results and removes delivered events from the store.
+ *
+ * @author Keen IO
+ * @since 5.1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class BatchBenchmark {
+
+    /**
+     * The parameters and event store shared by both benchmarks.
+     */
+    @State(Scope.Thread)
+    public abstract static class BatchState {
+
+        @Param({"ram", "file"})
+        public String store;
+
+        @Param({"100", "1000"})
+        public int batchSize;
+
+        @Param({BenchmarkEvents.TYPICAL})
+        public String shape;
+
+        KeenEventStore eventStore;
+        KeenClient client;
+        Map<String, List<Object>> handles;
+        private File root;
+
+        @Setup(Level.Trial)
+        public void createStore() throws IOException {
+            if ("ram".equals(store)) {
+                eventStore = new RamEventStore();
+            } else {
+                root = File.createTempFile("keen-benchmark", "");
+                if (!root.delete() || !root.mkdir()) {
+                    throw new IOException("Couldn't create " + root);
+                }
+                eventStore = new FileEventStore(root);
+            }
+            client = BenchmarkEvents.client(eventStore, new Response(200, "{}"));
+        }
+
+        @TearDown(Level.Trial)
+        public void deleteStore() {
+            if (root != null) {
+                EventStoreBenchmark.delete(root);
+            }
+        }
+    }
+
+    /**
+     * A batch queued once through the client. The client allows effectively unlimited attempts,
+     * so the same batch can be built repeatedly.
+     */
+    public static class QueuedBatch extends BatchState {
+
+        @Setup(Level.Trial)
+        public void queueBatch() throws IOException {
+            Map<String, List<Map<String, Object>>> batch = BenchmarkEvents.batch(shape, batchSize);
+            for (Map.Entry<String, List<Map<String, Object>>> entry : batch.entrySet()) {
+                for (Map<String, Object> event : entry.getValue()) {
+                    client.queueEvent(entry.getKey(), event);
+                }
+            }
+            handles = eventStore.getHandles(BenchmarkEvents.PROJECT_ID);
+        }
+    }
+
+    /**
+     * A batch which is stored afresh before each invocation, since handling the response removes
+     * the delivered events. Every 50th event fails with a retryable error and is left behind, so
+     * leftovers are cleared first.
+     */
+    public static class PostedBatch extends BatchState {
+
+        Map<String, List<String>> eventJson;
+        String response;
+
+        @Setup(Level.Trial)
+        public void serializeBatch() throws IOException {
+            eventJson = new HashMap<String, List<String>>();
+            JacksonJsonHandler jsonHandler = new JacksonJsonHandler();
+            Map<String, List<Map<String, Object>>> batch = BenchmarkEvents.batch(shape, batchSize);
+            for (Map.Entry<String, List<Map<String, Object>>> entry : batch.entrySet()) {
+                List<String> collectionJson = new ArrayList<String>();
+                for (Map<String, Object> event : entry.getValue()) {
+                    StringWriter writer = new StringWriter();
+                    jsonHandler.writeJson(writer, event);
+                    collectionJson.add(writer.toString());
+                }
+                eventJson.put(entry.getKey(), collectionJson);
+            }
+        }
+
+        @Setup(Level.Invocation)
+        public void storeBatch() throws IOException {
+            for (List<Object> collectionHandles : eventStore.getHandles(BenchmarkEvents.PROJECT_ID).values()) {
+                for (Object handle : collectionHandles) {
+                    eventStore.remove(handle);
+                }
+            }
+            for (Map.Entry<String, List<String>> entry : eventJson.entrySet()) {
+                for (String json : entry.getValue()) {
+                    eventStore.store(BenchmarkEvents.PROJECT_ID, entry.getKey(), json);
+                }
+            }
+            handles = eventStore.getHandles(BenchmarkEvents.PROJECT_ID);
+            response = BenchmarkEvents.batchResponse(handles, 50);
+        }
+    }
+
+    @Benchmark
+    public Map<String, List<Map<String, Object>>> buildEventMap(QueuedBatch batch) throws IOException {
+        return batch.client.buildEventMap(BenchmarkEvents.PROJECT_ID, batch.handles);
+    }
+
+    @Benchmark
+    public Map<String, List<Object>> handleAddEventsResponse(PostedBatch batch) throws IOException {
+        batch.client.handleAddEventsResponse(batch.handles, batch.response);
+        return batch.handles;
+    }
+
+}
@@ -0,0 +1,196 @@
+package io.keen.client.java;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.keen.client.java.http.HttpHandler;
+import io.keen.client.java.http.Request;
+import io.keen.client.java.http.Response;
+
+/**
+ * Realistic events and helpers shared by the benchmarks.
+ *
+ * @author Keen IO
+ * @since 5.1.0
+ */
+final class BenchmarkEvents {
+
+    static final String PROJECT_ID = "benchmark-project";
+    static final String COLLECTION = "purchases";
+    static final String OTHER_COLLECTION = "pageviews";
+
+    static final KeenProject PROJECT = new KeenProject(PROJECT_ID, "write-key", "read-key");
+
+    /**
+     * The event shapes, from a handful of flat properties to a full shopping cart.
+     */
+    static final String SMALL = "small";
+    static final String TYPICAL = "typical";
+    static final String LARGE = "large";
+
+    private BenchmarkEvents() {
+    }
+
+    /**
+     * Builds an event of the given shape. The index varies the values so that events aren't
+     * all identical.
+     *
+     * @param shape One of {@link #SMALL}, {@link #TYPICAL} or {@link #LARGE}.
+     * @param index The index of the event.
+     * @return The event.
+     */
+    static Map<String, Object> event(String shape, int index) {
+        if (SMALL.equals(shape)) {
+            return smallEvent(index);
+        } else if (TYPICAL.equals(shape)) {
+            return typicalEvent(index);
+        } else if (LARGE.equals(shape)) {
+            return largeEvent(index);
+        }
+        throw new IllegalArgumentException("Unknown event shape: " + shape);
+    }
+
+    /**
+     * Builds a batch of events, split between two collections, as sent by sendQueuedEvents.
+     *
+     * @param shape The event shape.
+     * @param size  The total number of events.
+     * @return A map from collection name to events.
+     */
+    static Map<String, List<Map<String, Object>>> batch(String shape, int size) {
+        Map<String, List<Map<String, Object>>> batch =
+                new HashMap<String, List<Map<String, Object>>>();
+        List<Map<String, Object>> purchases = new ArrayList<Map<String, Object>>();
+        List<Map<String, Object>> pageviews = new ArrayList<Map<String, Object>>();
+        for (int i = 0; i < size; i++) {
+            (i % 2 == 0 ? purchases : pageviews).add(event(shape, i));
+        }
+        batch.put(COLLECTION, purchases);
+        batch.put(OTHER_COLLECTION, pageviews);
+        return batch;
+    }
+
+    /**
+     * Builds a batch post response for the given handles, in which every {@code failureInterval}th
+     * event fails with a non-fatal error (and so stays in the store to be retried) and all others
+     * succeed.
+     *
+     * @param handles         A map from collection name to the handles which were posted.
+     * @param failureInterval How often an event fails, or 0 for no failures.
+     * @return The response body.
+     */
+    static String batchResponse(Map<String, List<Object>> handles, int failureInterval) {
+        StringBuilder response = new StringBuilder("{");
+        boolean firstCollection = true;
+        for (Map.Entry<String, List<Object>> entry : handles.entrySet()) {
+            if (!firstCollection) {
+                response.append(',');
+            }
+            firstCollection = false;
+            response.append('"').append(entry.getKey()).append("\":[");
+            for (int i = 0; i < entry.getValue().size(); i++) {
+                if (i > 0) {
+                    response.append(',');
+                }
+                if (failureInterval > 0 && i % failureInterval == failureInterval - 1) {
+                    response.append("{\"success\":false,\"error\":{\"name\":\"InternalServerError\","
+                            + "\"description\":\"Please retry.\"}}");
+                } else {
+                    response.append("{\"success\":true}");
+                }
+            }
+            response.append(']');
+        }
+        return response.append('}').toString();
+    }
+
+    /**
+     * Builds a client using Jackson and the given event store, whose HTTP handler always returns
+     * the given response without touching the network.
+     *
+     * @param store    The event store.
+     * @param response The response to every request.
+     * @return The client.
+     */
+    static KeenClient client(KeenEventStore store, final Response response) {
+        KeenClient client = new JavaKeenClientBuilder()
+                .withEventStore(store)
+                .withHttpHandler(new HttpHandler() {
+                    @Override
+                    public Response execute(Request request) throws IOException {
+                        return response;
+                    }
+                })
+                .build();
+        client.setDefaultProject(PROJECT);
+        client.setMaxAttempts(Integer.MAX_VALUE);
+        return client;
+    }
+
+    ///// PRIVATE METHODS /////
+
+    private static Map<String, Object> smallEvent(int index) {
+        Map<String, Object> event = new HashMap<String, Object>();
+        event.put("item", "item-" + (index % 50));
+        event.put("price", 9.99 + index % 10);
+        event.put("quantity", 1 + index % 3);
+        event.put("user_id", "user-" + index);
+        event.put("gift", index % 7 == 0);
+        return event;
+    }
+
+    private static Map<String, Object> typicalEvent(int index) {
+        Map<String, Object> user = new HashMap<String, Object>();
+        user.put("id", "user-" + index);
+        user.put("email", "user" + index + "@example.com");
+        user.put("signup_date", "2016-03-1" + (index % 10) + "T09:30:00.000Z");
+        user.put("plan", index % 4 == 0 ? "premium" : "free");
+        user.put("visits", 1 + index % 200);
+
+        Map<String, Object> device = new HashMap<String, Object>();
+        device.put("os", index % 2 == 0 ? "Android" : "iOS");
+        device.put("os_version", "7." + (index % 3));
+        device.put("model", "Model " + (index % 12));
+        device.put("screen", Arrays.asList(1080, 1920));
+
+        Map<String, Object> event = new HashMap<String, Object>(smallEvent(index));
+        event.put("user", user);
+        event.put("device", device);
+        event.put("session_id", "session-" + (index / 10));
+        event.put("referrer", "https://www.example.com/landing?campaign=" + (index % 5));
+        event.put("tags", Arrays.asList("sale", "spring", "category-" + (index % 8)));
+        event.put("currency", "USD");
+        event.put("discount", index % 5 == 0 ? 0.15 : 0.0);
+        event.put("ip_address", "10.0." + (index % 256) + "." + (index % 100));
+        return event;
+    }
+
+    private static Map<String, Object> largeEvent(int index) {
+        Map<String, Object> event = typicalEvent(index);
+
+        List<Map<String, Object>> cart = new ArrayList<Map<String, Object>>();
+        for (int i = 0; i < 20; i++) {
+            Map<String, Object> line = new LinkedHashMap<String, Object>();
+            line.put("sku", "SKU-" + (index + i) % 1000);
+            line.put("name", "Product number " + i + " with a reasonably descriptive name");
+            line.put("price", 4.99 + i);
+            line.put("quantity", 1 + i % 4);
+            line.put("categories", Arrays.asList("home", "kitchen", "category-" + i));
+            cart.add(line);
+        }
+        event.put("cart", cart);
+
+        Map<String, Object> experiments = new HashMap<String, Object>();
+        for (int i = 0; i < 30; i++) {
+            experiments.put("experiment_" + i, i % 3 == 0 ? "control" : "variant_" + (index % 4));
+        }
+        event.put("experiments", experiments);
+        return event;
+    }
+
+}
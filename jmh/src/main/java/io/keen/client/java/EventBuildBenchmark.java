@@ -0,0 +1,74 @@
+package io.keen.client.java;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.keen.client.java.http.Response;
+
+/**
+ * Benchmarks {@link KeenClient#validateAndBuildEvent}, which runs for every event added or
+ * queued.
+ *
+ * @author Keen IO
+ * @since 5.1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class EventBuildBenchmark {
+
+    @Param({BenchmarkEvents.SMALL, BenchmarkEvents.TYPICAL, BenchmarkEvents.LARGE})
+    public String shape;
+
+    @Param({"false", "true"})
+    public boolean globalProperties;
+
+    private KeenClient client;
+    private Map<String, Object> event;
+
+    @Setup
+    public void setup() {
+        client = BenchmarkEvents.client(new RamEventStore(), new Response(200, "{}"));
+        if (globalProperties) {
+            Map<String, Object> keen = new HashMap<String, Object>();
+            keen.put("addons", "ip_to_geo");
+            Map<String, Object> globals = new HashMap<String, Object>();
+            globals.put("keen", keen);
+            globals.put("app_version", "5.1.0");
+            globals.put("environment", "production");
+            client.setGlobalProperties(globals);
+            client.setGlobalPropertiesEvaluator(new GlobalPropertiesEvaluator() {
+                @Override
+                public Map<String, Object> getGlobalProperties(String eventCollection) {
+                    Map<String, Object> properties = new HashMap<String, Object>();
+                    properties.put("collection_group", eventCollection.substring(0, 4));
+                    return properties;
+                }
+            });
+        }
+        event = BenchmarkEvents.event(shape, 1);
+    }
+
+    @Benchmark
+    public Map<String, Object> validateAndBuildEvent() {
+        return client.validateAndBuildEvent(BenchmarkEvents.PROJECT, BenchmarkEvents.COLLECTION,
+                event, null);
+    }
+
+}
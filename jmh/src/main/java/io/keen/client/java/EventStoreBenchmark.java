@@ -0,0 +1,261 @@
+package io.keen.client.java;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the {@link RamEventStore}, {@link FileEventStore}, {@link JournaledFileEventStore}
+ * and {@link TieredEventStore} operations used when queueing and sending events. The journaled
+ * store is run with each {@link JournalSyncPolicy}, and the tiered store both with room in memory
+ * and with every event spilling to disk. The store is shared by all benchmark threads, so the multi-threaded
+ * variants show how each store behaves under contention from many producers, including how
+ * many of their syncs they share.
+ * <p>
+ * The file-based stores are run with both the plain JSON and the Smile {@link KeenEventCodec}.
+ * {@link #queueAndDrain} measures the time to queue, read back and remove each event, and
+ * reports the encoded size of each event as the {@code encodedBytesPerEvent} counter.
+ * </p>
+ *
+ * @author Keen IO
+ * @since 5.1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class EventStoreBenchmark {
+
+    @Param({"ram", "file", "journal-event", "journal-100-events", "journal-100-millis", "journal-never",
+            "tiered", "tiered-full"})
+    public String store;
+
+    /**
+     * The number of events already queued, which affects {@code getHandles}.
+     */
+    @Param({"1000"})
+    public int queuedEvents;
+
+    /**
+     * The codec with which the file-based stores encode events: "json" or "smile". The RAM store
+     * keeps events as JSON text whatever the codec.
+     */
+    @Param({"json", "smile"})
+    public String codec;
+
+    /**
+     * The number of events queued and then drained by each invocation of {@link #queueAndDrain}.
+     */
+    private static final int DRAIN_BATCH_SIZE = 100;
+
+    /**
+     * Counts the encoded size of the events queued by {@link #queueAndDrain}.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class EncodedSize {
+        private long encodedBytes;
+        private long events;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            encodedBytes = 0;
+            events = 0;
+        }
+
+        public double encodedBytesPerEvent() {
+            return events == 0 ? 0 : (double) encodedBytes / events;
+        }
+    }
+
+    private KeenEventStore eventStore;
+    private File root;
+    private String eventJson;
+    private int encodedEventSize;
+    private Object[] handles;
+    private final AtomicInteger nextHandle = new AtomicInteger();
+
+    @Setup
+    public void setup() throws IOException {
+        KeenEventCodec eventCodec = createCodec(codec);
+        if ("ram".equals(store)) {
+            eventStore = new RamEventStore();
+            eventCodec = new Utf8JsonEventCodec();
+        } else {
+            root = File.createTempFile("keen-benchmark", "");
+            if (!root.delete() || !root.mkdir()) {
+                throw new IOException("Couldn't create " + root);
+            }
+            eventStore = createFileStore(store, root, eventCodec);
+        }
+
+        StringWriter writer = new StringWriter();
+        new JacksonJsonHandler().writeJson(writer,
+                BenchmarkEvents.event(BenchmarkEvents.TYPICAL, 1));
+        eventJson = writer.toString();
+        encodedEventSize = eventCodec.encode(eventJson).length;
+
+        for (int i = 0; i < queuedEvents; i++) {
+            eventStore.store(BenchmarkEvents.PROJECT_ID, BenchmarkEvents.OTHER_COLLECTION, eventJson);
+        }
+        List<Object> queued = eventStore.getHandles(BenchmarkEvents.PROJECT_ID)
+                .get(BenchmarkEvents.OTHER_COLLECTION);
+        handles = queued.toArray();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        if (eventStore instanceof JournaledFileEventStore) {
+            ((JournaledFileEventStore) eventStore).close();
+        }
+        if (root != null) {
+            delete(root);
+        }
+    }
+
+    @Benchmark
+    public Object storeAndRemove() throws IOException {
+        Object handle = eventStore.store(BenchmarkEvents.PROJECT_ID, BenchmarkEvents.COLLECTION,
+                eventJson);
+        eventStore.remove(handle);
+        return handle;
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Object storeAndRemoveContended() throws IOException {
+        return storeAndRemove();
+    }
+
+    @Benchmark
+    public String get() throws IOException {
+        return eventStore.get(handles[(nextHandle.getAndIncrement() & Integer.MAX_VALUE) % handles.length]);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String getContended() throws IOException {
+        return get();
+    }
+
+    @Benchmark
+    public Map<String, List<Object>> getHandles() throws IOException {
+        return eventStore.getHandles(BenchmarkEvents.PROJECT_ID);
+    }
+
+    /**
+     * Queues a batch of events, then reads each of them back and removes it, as
+     * {@link KeenClient#sendQueuedEvents()} does. The score is per event.
+     */
+    @Benchmark
+    @OperationsPerInvocation(DRAIN_BATCH_SIZE)
+    public int queueAndDrain(EncodedSize size) throws IOException {
+        for (int i = 0; i < DRAIN_BATCH_SIZE; i++) {
+            eventStore.store(BenchmarkEvents.PROJECT_ID, BenchmarkEvents.COLLECTION, eventJson);
+        }
+        size.encodedBytes += (long) DRAIN_BATCH_SIZE * encodedEventSize;
+        size.events += DRAIN_BATCH_SIZE;
+
+        int length = 0;
+        List<Object> queued = eventStore.getHandles(BenchmarkEvents.PROJECT_ID)
+                .get(BenchmarkEvents.COLLECTION);
+        for (Object handle : queued) {
+            length += eventStore.get(handle).length();
+            eventStore.remove(handle);
+        }
+        return length;
+    }
+
+    /**
+     * Creates a file-based store which encodes events as plain JSON.
+     *
+     * @param store The name of the store, as for {@link #createFileStore(String, File, KeenEventCodec)}.
+     * @param root  The root directory.
+     * @return The store.
+     * @throws IOException If the store can't be created.
+     */
+    static KeenEventStore createFileStore(String store, File root) throws IOException {
+        return createFileStore(store, root, new Utf8JsonEventCodec());
+    }
+
+    /**
+     * Creates a file-based store.
+     *
+     * @param store "file", "journal-" followed by "event", "100-events", "100-millis" or "never"
+     *              for a journaled store with that sync policy, or "tiered" or "tiered-full" for
+     *              a tiered store over a file store with room for 10000 events in memory or none.
+     * @param root  The root directory.
+     * @param codec The codec with which to encode events.
+     * @return The store.
+     * @throws IOException If the store can't be created.
+     */
+    static KeenEventStore createFileStore(String store, File root, KeenEventCodec codec)
+            throws IOException {
+        if ("file".equals(store)) {
+            return new FileEventStore(root, codec);
+        } else if ("journal-event".equals(store)) {
+            return new JournaledFileEventStore(root, JournalSyncPolicy.everyEvent(), codec);
+        } else if ("journal-100-events".equals(store)) {
+            return new JournaledFileEventStore(root, JournalSyncPolicy.everyEvents(100), codec);
+        } else if ("journal-100-millis".equals(store)) {
+            return new JournaledFileEventStore(root, JournalSyncPolicy.everyMillis(100), codec);
+        } else if ("journal-never".equals(store)) {
+            return new JournaledFileEventStore(root, JournalSyncPolicy.never(), codec);
+        } else if ("tiered".equals(store) || "tiered-full".equals(store)) {
+            TieredEventStore tieredStore = new TieredEventStore(new FileEventStore(root, codec));
+            tieredStore.setMaxRamEvents("tiered".equals(store) ? 10000 : 0);
+            tieredStore.setMaxRamBytes(Long.MAX_VALUE);
+            return tieredStore;
+        }
+        throw new IllegalArgumentException("Unknown event store: " + store);
+    }
+
+    /**
+     * Creates an event codec.
+     *
+     * @param codec "json" or "smile".
+     * @return The codec.
+     */
+    static KeenEventCodec createCodec(String codec) {
+        if ("json".equals(codec)) {
+            return new Utf8JsonEventCodec();
+        } else if ("smile".equals(codec)) {
+            return new SmileEventCodec();
+        }
+        throw new IllegalArgumentException("Unknown event codec: " + codec);
+    }
+
+    static void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+
+}
@@ -0,0 +1,93 @@
+package io.keen.client.java;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.keen.client.java.result.ColumnarIntervalResult;
+import io.keen.client.java.result.QueryResult;
+
+/**
+ * Benchmarks parsing Interval query responses and constructing their results, comparing the
+ * {@link io.keen.client.java.result.IntervalResult} built by {@link KeenQueryClient#execute}
+ * with the {@link ColumnarIntervalResult} built by
+ * {@link KeenQueryClient#executeColumnarInterval}, with and without a Group By nested in each
+ * interval. Run with {@code -prof gc} to see the allocation per result.
+ *
+ * @author Keen IO
+ * @since 5.1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class IntervalResultBenchmark {
+
+    /**
+     * The number of hourly intervals: a day or a month.
+     */
+    @Param({"24", "720"})
+    public int intervals;
+
+    /**
+     * The number of groups in each interval, or 0 for no Group By.
+     */
+    @Param({"0", "50"})
+    public int groups;
+
+    @Param({QueryResponses.JACKSON, QueryResponses.JACKSON_TREE})
+    public String jsonHandler;
+
+    private KeenJsonHandler handler;
+    private String body;
+    private Query query;
+    private KeenQueryClient client;
+
+    @Setup
+    public void setup() {
+        body = QueryResponses.interval(intervals, groups);
+        query = QueryResponses.query(QueryType.SUM, groups > 0, true);
+        handler = QueryResponses.jsonHandler(jsonHandler);
+        client = QueryResponses.client(handler, body);
+    }
+
+    @TearDown
+    public void tearDown() {
+        client.getQueryExecutor().shutdown();
+    }
+
+    /**
+     * Only the parse of the response into maps and lists which {@link #execute()} starts with.
+     */
+    @Benchmark
+    public Map<String, Object> parseResponse() throws IOException {
+        return handler.readJson(new StringReader(body));
+    }
+
+    @Benchmark
+    public QueryResult execute() throws IOException {
+        return client.execute(query);
+    }
+
+    @Benchmark
+    public ColumnarIntervalResult executeColumnarInterval() throws IOException {
+        return client.executeColumnarInterval(query);
+    }
+
+}
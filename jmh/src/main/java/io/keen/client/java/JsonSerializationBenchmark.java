@@ -0,0 +1,86 @@
+package io.keen.client.java;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks JSON serialization through {@link JacksonJsonHandler}: writing single events as
+ * they're queued, reading them back as they're sent, and writing a whole batch into a reused
+ * buffer as {@link KeenClient} does for each batch post.
+ *
+ * @author Keen IO
+ * @since 5.1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class JsonSerializationBenchmark {
+
+    @Param({BenchmarkEvents.SMALL, BenchmarkEvents.TYPICAL, BenchmarkEvents.LARGE})
+    public String shape;
+
+    @Param({"100"})
+    public int batchSize;
+
+    private final KeenJsonHandler jsonHandler = new JacksonJsonHandler();
+    private final RecyclableByteArrayOutputStream buffer =
+            new RecyclableByteArrayOutputStream(64 * 1024, 1024 * 1024);
+
+    private Map<String, Object> event;
+    private String eventJson;
+    private Map<String, List<Map<String, Object>>> batch;
+
+    @Setup
+    public void setup() throws IOException {
+        event = BenchmarkEvents.event(shape, 1);
+        StringWriter writer = new StringWriter();
+        jsonHandler.writeJson(writer, event);
+        eventJson = writer.toString();
+        batch = BenchmarkEvents.batch(shape, batchSize);
+    }
+
+    @Benchmark
+    public String writeEvent() throws IOException {
+        StringWriter writer = new StringWriter();
+        jsonHandler.writeJson(writer, event);
+        return writer.toString();
+    }
+
+    @Benchmark
+    public Map<String, Object> readEvent() throws IOException {
+        return jsonHandler.readJson(new StringReader(eventJson));
+    }
+
+    @Benchmark
+    public int writeBatch() throws IOException {
+        try {
+            OutputStreamWriter writer = new OutputStreamWriter(buffer, "UTF-8");
+            jsonHandler.writeJson(writer, batch);
+            writer.close();
+            return buffer.size();
+        } finally {
+            buffer.recycle();
+        }
+    }
+
+}
@@ -0,0 +1,373 @@
+package io.keen.client.java;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end load test of event ingestion. Producer threads queue events on a
+ * {@link KeenClient} while a sender thread periodically calls
+ * {@link KeenClient#sendQueuedEvents()} against a {@link StubKeenServer}, so the whole
+ * pipeline (building, serialization, the event store, batching, retries) runs offline. Each
+ * event carries its queue time, and the server records the queue-to-ack latency when it
+ * accepts the event.
+ * <p>
+ * Options are given as {@code name=value} arguments; see {@link Options} for the names and
+ * defaults. Run it with:
+ * </p>
+ * <pre>
+ *   ./gradlew :jmh:loadTest -PloadTestArgs="producers=16 latencyMillis=50 outage=2000:1000"
+ * </pre>
+ *
+ * @author Keen IO
+ * @since 5.1.0
+ */
+public class LoadTest {
+
+    public static void main(String[] args) throws Exception {
+        Options options = Options.parse(args);
+        options.print(System.out);
+        Result result = new LoadTest(options).run();
+        result.print(System.out);
+        System.exit(0);
+    }
+
+    ///// PUBLIC TYPES /////
+
+    /**
+     * The options for a load test run.
+     */
+    public static class Options {
+        /** The number of producer threads. */
+        public int producers = 8;
+        /** The number of events each producer queues. */
+        public int eventsPerProducer = 20000;
+        /** The event shape; see {@link BenchmarkEvents}. */
+        public String shape = BenchmarkEvents.TYPICAL;
+        /** The event store: "ram", "file", or a journaled store as named by EventStoreBenchmark. */
+        public String store = "ram";
+        /** The pause between calls to sendQueuedEvents. */
+        public long sendIntervalMillis = 50;
+        /** The maximum number of attempts to send each event. */
+        public int maxAttempts = KeenConstants.DEFAULT_MAX_ATTEMPTS;
+        /** The simulated server latency per request. */
+        public long latencyMillis = 20;
+        /** The fraction of events which the server fails with a retryable error. */
+        public double failureRate = 0.01;
+        /** The fraction of requests which the server rejects with 429. */
+        public double throttleRate = 0.02;
+        /** An outage as "startMillis:durationMillis" after the start of the run, or null. */
+        public String outage;
+        /** How long to keep sending after the producers finish before giving up. */
+        public long drainTimeoutMillis = 60000;
+
+        static Options parse(String[] args) {
+            Options options = new Options();
+            for (String arg : args) {
+                int equals = arg.indexOf('=');
+                if (equals < 0) {
+                    throw new IllegalArgumentException("Expected name=value but got: " + arg);
+                }
+                String name = arg.substring(0, equals);
+                String value = arg.substring(equals + 1);
+                try {
+                    java.lang.reflect.Field field = Options.class.getField(name);
+                    if (field.getType() == int.class) {
+                        field.setInt(options, Integer.parseInt(value));
+                    } else if (field.getType() == long.class) {
+                        field.setLong(options, Long.parseLong(value));
+                    } else if (field.getType() == double.class) {
+                        field.setDouble(options, Double.parseDouble(value));
+                    } else {
+                        field.set(options, value);
+                    }
+                } catch (NoSuchFieldException e) {
+                    throw new IllegalArgumentException("Unknown option: " + name);
+                } catch (IllegalAccessException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+            return options;
+        }
+
+        void print(PrintStream out) {
+            out.printf(Locale.US, "producers=%d eventsPerProducer=%d shape=%s store=%s "
+                            + "sendIntervalMillis=%d maxAttempts=%d%n",
+                    producers, eventsPerProducer, shape, store, sendIntervalMillis, maxAttempts);
+            out.printf(Locale.US, "latencyMillis=%d failureRate=%.3f throttleRate=%.3f outage=%s%n",
+                    latencyMillis, failureRate, throttleRate, outage);
+        }
+    }
+
+    /**
+     * The results of a load test run.
+     */
+    public static class Result {
+        public long queued;
+        public long acked;
+        public long duplicateAcks;
+        public long dropped;
+        public long attemptsExhausted;
+        public long elapsedNanos;
+        public long[] latencyNanos;
+        public long requests;
+        public long throttledRequests;
+        public long refusedRequests;
+        public long peakHeapBytes;
+        public long gcCount;
+        public long gcMillis;
+
+        public double getEventsPerSecond() {
+            return elapsedNanos == 0 ? 0.0 : acked / (elapsedNanos / 1e9);
+        }
+
+        /**
+         * @param percentile The percentile, between 0 and 100.
+         * @return The queue-to-ack latency at the percentile, in milliseconds.
+         */
+        public double getLatencyMillis(double percentile) {
+            if (latencyNanos.length == 0) {
+                return 0.0;
+            }
+            int index = (int) Math.ceil(percentile / 100.0 * latencyNanos.length) - 1;
+            return latencyNanos[Math.max(0, Math.min(latencyNanos.length - 1, index))] / 1e6;
+        }
+
+        void print(PrintStream out) {
+            out.printf(Locale.US, "events: queued=%d acked=%d duplicateAcks=%d dropped=%d "
+                            + "attemptsExhausted=%d%n",
+                    queued, acked, duplicateAcks, dropped, attemptsExhausted);
+            out.printf(Locale.US, "throughput: %.0f events/sec over %.2f sec%n",
+                    getEventsPerSecond(), elapsedNanos / 1e9);
+            out.printf(Locale.US, "queue-to-ack latency: p50=%.1fms p90=%.1fms p99=%.1fms max=%.1fms%n",
+                    getLatencyMillis(50), getLatencyMillis(90), getLatencyMillis(99),
+                    getLatencyMillis(100));
+            out.printf(Locale.US, "requests: total=%d throttled=%d refused=%d%n",
+                    requests, throttledRequests, refusedRequests);
+            out.printf(Locale.US, "heap: peak=%.1fMB gc: count=%d time=%dms%n",
+                    peakHeapBytes / (1024.0 * 1024.0), gcCount, gcMillis);
+        }
+    }
+
+    ///// PUBLIC CONSTRUCTORS /////
+
+    public LoadTest(Options options) {
+        this.options = options;
+    }
+
+    ///// PUBLIC METHODS /////
+
+    /**
+     * Runs the load test.
+     *
+     * @return The results.
+     * @throws IOException If the event store can't be created.
+     * @throws InterruptedException If the calling thread is interrupted.
+     */
+    public Result run() throws IOException, InterruptedException {
+        StubKeenServer server = new StubKeenServer();
+        server.setLatencyMillis(options.latencyMillis);
+        server.setEventFailureRate(options.failureRate);
+        server.setThrottleRate(options.throttleRate);
+        AckRecorder acks = new AckRecorder(options.producers * options.eventsPerProducer);
+        server.setAckListener(acks);
+
+        File root = null;
+        KeenEventStore store;
+        if ("ram".equals(options.store)) {
+            store = new RamEventStore();
+        } else {
+            root = File.createTempFile("keen-load-test", "");
+            if (!root.delete() || !root.mkdir()) {
+                throw new IOException("Couldn't create " + root);
+            }
+            store = EventStoreBenchmark.createFileStore(options.store, root);
+        }
+
+        InMemoryKeenMetrics metrics = new InMemoryKeenMetrics();
+        final KeenClient client = new JavaKeenClientBuilder()
+                .withHttpHandler(server)
+                .withEventStore(store)
+                .withMetrics(metrics)
+                .build();
+        client.setDefaultProject(BenchmarkEvents.PROJECT);
+        client.setMaxAttempts(options.maxAttempts);
+
+        long outageStart = Long.MAX_VALUE;
+        long outageEnd = Long.MAX_VALUE;
+        if (options.outage != null) {
+            String[] parts = options.outage.split(":");
+            outageStart = TimeUnit.MILLISECONDS.toNanos(Long.parseLong(parts[0]));
+            outageEnd = outageStart + TimeUnit.MILLISECONDS.toNanos(Long.parseLong(parts[1]));
+        }
+
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long gcCountBefore = gcCount();
+        long gcMillisBefore = gcMillis();
+        long peakHeap = 0;
+
+        final long start = System.nanoTime();
+        final CountDownLatch producersDone = new CountDownLatch(options.producers);
+        for (int p = 0; p < options.producers; p++) {
+            final int producer = p;
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        produce(client, producer);
+                    } finally {
+                        producersDone.countDown();
+                    }
+                }
+            }, "producer-" + p);
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        // Send on this thread until the producers are done and the store is drained.
+        long drainDeadline = Long.MAX_VALUE;
+        while (true) {
+            long elapsed = System.nanoTime() - start;
+            server.setDown(elapsed >= outageStart && elapsed < outageEnd);
+
+            client.sendQueuedEvents();
+            peakHeap = Math.max(peakHeap, memory.getHeapMemoryUsage().getUsed());
+
+            if (producersDone.getCount() == 0) {
+                if (drainDeadline == Long.MAX_VALUE) {
+                    drainDeadline = System.nanoTime()
+                            + TimeUnit.MILLISECONDS.toNanos(options.drainTimeoutMillis);
+                }
+                if (store.getHandles(BenchmarkEvents.PROJECT_ID).isEmpty()
+                        || System.nanoTime() > drainDeadline) {
+                    break;
+                }
+            }
+            Thread.sleep(options.sendIntervalMillis);
+        }
+
+        Result result = new Result();
+        result.queued = metrics.getCount(KeenMetrics.Counter.EVENTS_QUEUED);
+        result.acked = acks.getAcked();
+        result.duplicateAcks = acks.getDuplicates();
+        result.dropped = metrics.getCount(KeenMetrics.Counter.EVENTS_DROPPED);
+        result.attemptsExhausted = metrics.getCount(KeenMetrics.Counter.ATTEMPTS_EXHAUSTED);
+        result.elapsedNanos = acks.getLastAckNanos() - start;
+        result.latencyNanos = acks.getSortedLatencies();
+        result.requests = server.getRequestCount();
+        result.throttledRequests = server.getThrottledCount();
+        result.refusedRequests = server.getRefusedCount();
+        result.peakHeapBytes = peakHeap;
+        result.gcCount = gcCount() - gcCountBefore;
+        result.gcMillis = gcMillis() - gcMillisBefore;
+
+        if (store instanceof JournaledFileEventStore) {
+            ((JournaledFileEventStore) store).close();
+        }
+        if (root != null) {
+            EventStoreBenchmark.delete(root);
+        }
+        return result;
+    }
+
+    ///// PRIVATE METHODS /////
+
+    private void produce(KeenClient client, int producer) {
+        for (int i = 0; i < options.eventsPerProducer; i++) {
+            int id = producer * options.eventsPerProducer + i;
+            Map<String, Object> event = BenchmarkEvents.event(options.shape, id);
+            Map<String, Object> loadTest = new HashMap<String, Object>();
+            loadTest.put("id", id);
+            loadTest.put("queued_nanos", System.nanoTime());
+            event.put("load_test", loadTest);
+            client.queueEvent(BenchmarkEvents.COLLECTION, event);
+        }
+    }
+
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gc.getCollectionCount());
+        }
+        return count;
+    }
+
+    private static long gcMillis() {
+        long millis = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            millis += Math.max(0, gc.getCollectionTime());
+        }
+        return millis;
+    }
+
+    ///// PRIVATE TYPES /////
+
+    /**
+     * Records the first ack of each event and its queue-to-ack latency.
+     */
+    private static class AckRecorder implements StubKeenServer.AckListener {
+        private final BitSet acked;
+        private long[] latencies = new long[1024];
+        private int latencyCount;
+        private long duplicates;
+        private long lastAckNanos;
+
+        AckRecorder(int expectedEvents) {
+            acked = new BitSet(expectedEvents);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public synchronized void onAck(String eventCollection, Map<String, Object> event) {
+            long now = System.nanoTime();
+            Map<String, Object> loadTest = (Map<String, Object>) event.get("load_test");
+            if (loadTest == null) {
+                return;
+            }
+            int id = ((Number) loadTest.get("id")).intValue();
+            if (acked.get(id)) {
+                duplicates++;
+                return;
+            }
+            acked.set(id);
+            if (latencyCount == latencies.length) {
+                latencies = Arrays.copyOf(latencies, latencies.length * 2);
+            }
+            latencies[latencyCount++] = now - ((Number) loadTest.get("queued_nanos")).longValue();
+            lastAckNanos = now;
+        }
+
+        synchronized long getAcked() {
+            return latencyCount;
+        }
+
+        synchronized long getDuplicates() {
+            return duplicates;
+        }
+
+        synchronized long getLastAckNanos() {
+            return lastAckNanos;
+        }
+
+        synchronized long[] getSortedLatencies() {
+            long[] sorted = Arrays.copyOf(latencies, latencyCount);
+            Arrays.sort(sorted);
+            return sorted;
+        }
+    }
+
+    ///// PRIVATE FIELDS /////
+
+    private final Options options;
+
+}
@@ -0,0 +1,226 @@
+package io.keen.client.java;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+
+import io.keen.client.java.http.HttpHandler;
+import io.keen.client.java.http.Request;
+import io.keen.client.java.http.Response;
+
+/**
+ * Query responses in the form returned by the Keen API, and helpers shared by the query
+ * benchmarks.
+ *
+ * @author Keen IO
+ * @since 5.1.0
+ */
+final class QueryResponses {
+
+    /**
+     * The JSON handlers the query benchmarks can run with. {@link #JACKSON} is a
+     * {@link KeenStreamingJsonHandler}; {@link #JACKSON_TREE} hides the streaming interface so
+     * that the client parses every response into a tree of maps and lists first.
+     */
+    static final String JACKSON = "jackson";
+    static final String JACKSON_TREE = "jackson-tree";
+
+    private static final long HOUR_MILLIS = 60 * 60 * 1000L;
+
+    /**
+     * The start of the first interval: 2016-03-01T00:00:00Z.
+     */
+    private static final long START_MILLIS = 1456790400000L;
+
+    private QueryResponses() {
+    }
+
+    /**
+     * Gets a JSON handler by name.
+     *
+     * @param name {@link #JACKSON} or {@link #JACKSON_TREE}.
+     * @return The handler.
+     */
+    static KeenJsonHandler jsonHandler(String name) {
+        if (JACKSON.equals(name)) {
+            return new JacksonJsonHandler();
+        } else if (JACKSON_TREE.equals(name)) {
+            return new TreeJsonHandler(new JacksonJsonHandler());
+        }
+        throw new IllegalArgumentException("Unknown JSON handler: " + name);
+    }
+
+    /**
+     * Builds a query client whose HTTP handler always returns the given response body without
+     * touching the network.
+     *
+     * @param jsonHandler The JSON handler.
+     * @param body        The body of every response.
+     * @return The client.
+     */
+    static KeenQueryClient client(KeenJsonHandler jsonHandler, String body) {
+        final Response response = new Response(200, body);
+        return new KeenQueryClient.Builder(BenchmarkEvents.PROJECT)
+                .withJsonHandler(jsonHandler)
+                .withHttpHandler(new HttpHandler() {
+                    @Override
+                    public Response execute(Request request) throws IOException {
+                        return response;
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * @param value The result.
+     * @return The response to a Count query.
+     */
+    static String scalar(long value) {
+        return response(String.valueOf(value), "count", false, false);
+    }
+
+    /**
+     * @param size The number of unique values.
+     * @return The response to a Select Unique query.
+     */
+    static String selectUnique(int size) {
+        StringBuilder result = new StringBuilder("[");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                result.append(',');
+            }
+            result.append("\"user-").append(i).append("@example.com\"");
+        }
+        return response(result.append(']').toString(), "select_unique", false, false);
+    }
+
+    /**
+     * @param groups The number of groups.
+     * @return The response to a Sum query grouped by item.
+     */
+    static String groupBy(int groups) {
+        return response(groups(groups, 0), "sum", true, false);
+    }
+
+    /**
+     * @param intervals The number of hourly intervals.
+     * @param groups    The number of groups in each interval, or 0 for no Group By.
+     * @return The response to a Sum query with an hourly interval, grouped by item if there
+     * are any groups.
+     */
+    static String interval(int intervals, int groups) {
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", Locale.US);
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+
+        StringBuilder result = new StringBuilder("[");
+        for (int i = 0; i < intervals; i++) {
+            if (i > 0) {
+                result.append(',');
+            }
+            long start = START_MILLIS + i * HOUR_MILLIS;
+            result.append("{\"value\":");
+            if (groups > 0) {
+                result.append(groups(groups, i));
+            } else {
+                result.append(value(i, 0));
+            }
+            result.append(",\"timeframe\":{\"start\":\"").append(format.format(new Date(start)))
+                    .append("\",\"end\":\"").append(format.format(new Date(start + HOUR_MILLIS)))
+                    .append("\"}}");
+        }
+        return response(result.append(']').toString(), "sum", groups > 0, true);
+    }
+
+    /**
+     * Builds a query for one of the responses above.
+     *
+     * @param queryType  The query type.
+     * @param isGroupBy  Whether the query is grouped by item.
+     * @param isInterval Whether the query has an hourly interval.
+     * @return The query.
+     */
+    static Query query(QueryType queryType, boolean isGroupBy, boolean isInterval) {
+        Query.Builder builder = new Query.Builder(queryType)
+                .withEventCollection(BenchmarkEvents.COLLECTION)
+                .withTimeframe(new RelativeTimeframe("this_30_days"));
+        if (queryType != QueryType.COUNT) {
+            builder.withTargetProperty(queryType == QueryType.SELECT_UNIQUE ? "user.email" : "price");
+        }
+        if (isGroupBy) {
+            builder.withGroupBy("item");
+        }
+        if (isInterval) {
+            builder.withInterval("hourly");
+        }
+        return builder.build();
+    }
+
+    ///// PRIVATE METHODS /////
+
+    private static String groups(int groups, int interval) {
+        StringBuilder result = new StringBuilder("[");
+        for (int g = 0; g < groups; g++) {
+            if (g > 0) {
+                result.append(',');
+            }
+            result.append("{\"item\":\"item-").append(g).append("\",\"result\":")
+                    .append(value(interval, g)).append('}');
+        }
+        return result.append(']').toString();
+    }
+
+    /**
+     * Alternates between integral and fractional values, as sums of prices do.
+     */
+    private static String value(int interval, int group) {
+        int seed = interval * 31 + group;
+        return seed % 3 == 0 ? String.valueOf(seed * 7) : String.valueOf(seed * 7 + 0.25);
+    }
+
+    /**
+     * Wraps a result in a response, including the echo of the query which the API returns.
+     */
+    private static String response(String result, String analysisType, boolean isGroupBy,
+                                   boolean isInterval) {
+        StringBuilder response = new StringBuilder("{\"query\":{\"analysis_type\":\"")
+                .append(analysisType)
+                .append("\",\"event_collection\":\"").append(BenchmarkEvents.COLLECTION)
+                .append("\",\"timeframe\":\"this_30_days\",\"timezone\":null,\"filters\":[]");
+        if (isGroupBy) {
+            response.append(",\"group_by\":[\"item\"]");
+        }
+        if (isInterval) {
+            response.append(",\"interval\":\"hourly\"");
+        }
+        return response.append("},\"result\":").append(result).append('}').toString();
+    }
+
+    ///// PRIVATE TYPES /////
+
+    /**
+     * Delegates to another JSON handler without exposing any streaming interface it implements.
+     */
+    private static final class TreeJsonHandler implements KeenJsonHandler {
+        private final KeenJsonHandler delegate;
+
+        TreeJsonHandler(KeenJsonHandler delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Map<String, Object> readJson(Reader reader) throws IOException {
+            return delegate.readJson(reader);
+        }
+
+        @Override
+        public void writeJson(Writer writer, Map<String, ?> value) throws IOException {
+            delegate.writeJson(writer, value);
+        }
+    }
+
+}
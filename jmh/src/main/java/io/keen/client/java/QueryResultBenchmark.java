@@ -0,0 +1,121 @@
+package io.keen.client.java;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.keen.client.java.result.Group;
+import io.keen.client.java.result.QueryResult;
+
+/**
+ * Benchmarks parsing query responses and constructing {@link QueryResult}s in
+ * {@link KeenQueryClient}, for a scalar Count, a long Select Unique list and a Group By with
+ * many groups. The HTTP handler replays a canned response, so only the client's own work is
+ * measured. Run with {@code -prof gc} to see the allocation per result.
+ *
+ * @author Keen IO
+ * @since 5.1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class QueryResultBenchmark {
+
+    public static final String SCALAR = "scalar";
+    public static final String SELECT_UNIQUE = "select_unique";
+    public static final String GROUP_BY = "group_by";
+
+    @Param({SCALAR, SELECT_UNIQUE, GROUP_BY})
+    public String shape;
+
+    /**
+     * The number of unique values or groups; ignored for scalar results.
+     */
+    @Param({"10000"})
+    public int size;
+
+    @Param({QueryResponses.JACKSON, QueryResponses.JACKSON_TREE})
+    public String jsonHandler;
+
+    private KeenJsonHandler handler;
+    private String body;
+    private Query query;
+    private KeenQueryClient client;
+
+    @Setup
+    public void setup() {
+        if (SCALAR.equals(shape)) {
+            body = QueryResponses.scalar(1234567);
+            query = QueryResponses.query(QueryType.COUNT, false, false);
+        } else if (SELECT_UNIQUE.equals(shape)) {
+            body = QueryResponses.selectUnique(size);
+            query = QueryResponses.query(QueryType.SELECT_UNIQUE, false, false);
+        } else if (GROUP_BY.equals(shape)) {
+            body = QueryResponses.groupBy(size);
+            query = QueryResponses.query(QueryType.SUM, true, false);
+        } else {
+            throw new IllegalArgumentException("Unknown result shape: " + shape);
+        }
+        handler = QueryResponses.jsonHandler(jsonHandler);
+        client = QueryResponses.client(handler, body);
+    }
+
+    @TearDown
+    public void tearDown() {
+        client.getQueryExecutor().shutdown();
+    }
+
+    /**
+     * Only the parse of the response into maps and lists which {@link #execute()} starts with.
+     */
+    @Benchmark
+    public Map<String, Object> parseResponse() throws IOException {
+        return handler.readJson(new StringReader(body));
+    }
+
+    @Benchmark
+    public QueryResult execute() throws IOException {
+        return client.execute(query);
+    }
+
+    @Benchmark
+    public int executeStreaming() throws IOException {
+        CountingVisitor visitor = new CountingVisitor();
+        client.executeStreaming(query, visitor);
+        return visitor.count;
+    }
+
+    ///// PRIVATE TYPES /////
+
+    private static final class CountingVisitor implements QueryResultVisitor {
+        int count;
+
+        @Override
+        public void visitValue(QueryResult value) {
+            count++;
+        }
+
+        @Override
+        public void visitGroup(Group group, QueryResult result) {
+            count++;
+        }
+    }
+
+}
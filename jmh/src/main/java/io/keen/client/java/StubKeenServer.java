@@ -0,0 +1,236 @@
+package io.keen.client.java;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.ConnectException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import io.keen.client.java.http.HttpHandler;
+import io.keen.client.java.http.Request;
+import io.keen.client.java.http.Response;
+
+/**
+ * An in-process stand-in for the Keen events API, for load testing {@link KeenClient} without a
+ * network. It answers batch posts to {@code /3.0/projects/{id}/events} with a per-event
+ * success/failure array, and single-event posts with {@code {"created": true}}, after a
+ * configurable latency. Individual events can be failed with a retryable error at a given rate,
+ * whole requests can be throttled with 429 responses, and the server can be taken down entirely,
+ * in which case requests fail as if the connection was refused.
+ * <p>
+ * All settings may be changed while requests are in flight.
+ * </p>
+ *
+ * @author Keen IO
+ * @since 5.1.0
+ */
+public class StubKeenServer implements HttpHandler {
+
+    /**
+     * Notified of every event which the server accepts.
+     */
+    public interface AckListener {
+
+        /**
+         * Called when an event is accepted, after the simulated latency.
+         *
+         * @param eventCollection The collection the event was posted to.
+         * @param event           The event as received.
+         */
+        void onAck(String eventCollection, Map<String, Object> event);
+
+    }
+
+    private static final Pattern BATCH_PATH = Pattern.compile("/[^/]+/projects/[^/]+/events/?");
+    private static final Pattern SINGLE_PATH = Pattern.compile("/[^/]+/projects/[^/]+/events/([^/]+)");
+
+    private static final String EVENT_FAILURE = "{\"success\":false,\"error\":{\"name\":"
+            + "\"InternalServerError\",\"description\":\"Injected failure; please retry.\"}}";
+
+    private final KeenJsonHandler jsonHandler = new JacksonJsonHandler();
+
+    private volatile long latencyMillis;
+    private volatile double eventFailureRate;
+    private volatile double throttleRate;
+    private volatile boolean isDown;
+    private volatile AckListener ackListener;
+
+    private final AtomicLong requestCount = new AtomicLong();
+    private final AtomicLong throttledCount = new AtomicLong();
+    private final AtomicLong refusedCount = new AtomicLong();
+    private final AtomicLong acceptedEventCount = new AtomicLong();
+    private final AtomicLong failedEventCount = new AtomicLong();
+
+    ///// HttpHandler METHODS /////
+
+    @Override
+    public Response execute(Request request) throws IOException {
+        requestCount.incrementAndGet();
+        if (isDown) {
+            refusedCount.incrementAndGet();
+            throw new ConnectException("Connection refused (stub server is down)");
+        }
+        sleep(latencyMillis);
+
+        if (throttleRate > 0 && ThreadLocalRandom.current().nextDouble() < throttleRate) {
+            throttledCount.incrementAndGet();
+            return new Response(429, "{\"message\":\"Too many requests\",\"error_code\":\"TooManyRequestsError\"}");
+        }
+        if (!"POST".equals(request.method)) {
+            return new Response(405, "{\"message\":\"Method not allowed\"}");
+        }
+
+        String path = request.url.getPath();
+        if (BATCH_PATH.matcher(path).matches()) {
+            return handleBatch(readBody(request));
+        }
+        Matcher single = SINGLE_PATH.matcher(path);
+        if (single.matches()) {
+            return handleSingle(single.group(1), readBody(request));
+        }
+        return new Response(404, "{\"message\":\"Not found\"}");
+    }
+
+    ///// PUBLIC METHODS /////
+
+    /**
+     * Sets how long each request takes before it's answered.
+     *
+     * @param latencyMillis The latency in milliseconds.
+     */
+    public void setLatencyMillis(long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+    }
+
+    /**
+     * Sets the fraction of events in a batch which fail with a retryable error.
+     *
+     * @param eventFailureRate The rate, between 0 and 1.
+     */
+    public void setEventFailureRate(double eventFailureRate) {
+        this.eventFailureRate = eventFailureRate;
+    }
+
+    /**
+     * Sets the fraction of requests which are rejected with 429 Too Many Requests.
+     *
+     * @param throttleRate The rate, between 0 and 1.
+     */
+    public void setThrottleRate(double throttleRate) {
+        this.throttleRate = throttleRate;
+    }
+
+    /**
+     * Takes the server down or brings it back up. While it's down every request fails with a
+     * {@link ConnectException}.
+     *
+     * @param isDown Whether the server is down.
+     */
+    public void setDown(boolean isDown) {
+        this.isDown = isDown;
+    }
+
+    /**
+     * Sets the listener to notify of accepted events.
+     *
+     * @param ackListener The listener, or null.
+     */
+    public void setAckListener(AckListener ackListener) {
+        this.ackListener = ackListener;
+    }
+
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    public long getThrottledCount() {
+        return throttledCount.get();
+    }
+
+    public long getRefusedCount() {
+        return refusedCount.get();
+    }
+
+    public long getAcceptedEventCount() {
+        return acceptedEventCount.get();
+    }
+
+    public long getFailedEventCount() {
+        return failedEventCount.get();
+    }
+
+    ///// PRIVATE METHODS /////
+
+    @SuppressWarnings("unchecked")
+    private Response handleBatch(Map<String, Object> body) {
+        AckListener listener = ackListener;
+        StringBuilder response = new StringBuilder("{");
+        boolean firstCollection = true;
+        for (Map.Entry<String, Object> entry : body.entrySet()) {
+            if (!firstCollection) {
+                response.append(',');
+            }
+            firstCollection = false;
+            response.append('"').append(entry.getKey()).append("\":[");
+
+            List<Map<String, Object>> events = (List<Map<String, Object>>) entry.getValue();
+            for (int i = 0; i < events.size(); i++) {
+                if (i > 0) {
+                    response.append(',');
+                }
+                if (eventFailureRate > 0 && ThreadLocalRandom.current().nextDouble() < eventFailureRate) {
+                    failedEventCount.incrementAndGet();
+                    response.append(EVENT_FAILURE);
+                } else {
+                    acceptedEventCount.incrementAndGet();
+                    response.append("{\"success\":true}");
+                    if (listener != null) {
+                        listener.onAck(entry.getKey(), events.get(i));
+                    }
+                }
+            }
+            response.append(']');
+        }
+        return new Response(200, response.append('}').toString());
+    }
+
+    private Response handleSingle(String eventCollection, Map<String, Object> event) {
+        acceptedEventCount.incrementAndGet();
+        AckListener listener = ackListener;
+        if (listener != null) {
+            listener.onAck(eventCollection, event);
+        }
+        return new Response(201, "{\"created\":true}");
+    }
+
+    private Map<String, Object> readBody(Request request) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        request.body.writeTo(out);
+        InputStreamReader reader = new InputStreamReader(
+                new ByteArrayInputStream(out.toByteArray()), "UTF-8");
+        try {
+            return jsonHandler.readJson(reader);
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static void sleep(long millis) throws IOException {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while simulating latency");
+        }
+    }
+
+}
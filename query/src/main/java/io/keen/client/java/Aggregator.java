@@ -0,0 +1,261 @@
+package io.keen.client.java;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import io.keen.client.java.result.DoubleResult;
+import io.keen.client.java.result.ListResult;
+import io.keen.client.java.result.LongResult;
+import io.keen.client.java.result.QueryResult;
+
+/**
+ * A partial aggregation for one analysis over one interval and group, used by
+ * {@link LocalQueryEngine}. Each partition of the events is aggregated independently and the
+ * partial aggregations are then merged, so an aggregator only holds what its analysis needs:
+ * a running count, sum or extreme for the simple analyses, a {@link HyperLogLog} sketch for
+ * Count Unique and a {@link QuantileSketch} for Median and Percentile.
+ *
+ * @author Keen IO
+ * @since 5.1.0
+ */
+abstract class Aggregator {
+
+    /**
+     * Creates an empty aggregator for the given analysis.
+     *
+     * @param queryType The analysis type.
+     * @param percentile The percentile to compute, for Percentile analyses.
+     * @return The aggregator.
+     */
+    static Aggregator create(QueryType queryType, double percentile) {
+        switch (queryType) {
+            case COUNT:
+                return new Count();
+            case COUNT_UNIQUE:
+                return new CountUnique();
+            case MINIMUM:
+                return new Minimum();
+            case MAXIMUM:
+                return new Maximum();
+            case SUM:
+                return new Sum();
+            case AVERAGE:
+                return new Average();
+            case MEDIAN:
+                return new Quantile(0.5);
+            case PERCENTILE:
+                return new Quantile(percentile / 100.0);
+            case SELECT_UNIQUE:
+                return new SelectUnique();
+            default:
+                throw new IllegalArgumentException("Unsupported analysis type: " + queryType);
+        }
+    }
+
+    /**
+     * Adds an event's target property value, which has already been normalized. For Count the
+     * value is null.
+     *
+     * @param value The value.
+     */
+    abstract void add(Object value);
+
+    /**
+     * Merges another partial aggregation of the same analysis into this one.
+     *
+     * @param other The aggregator to merge.
+     */
+    abstract void merge(Aggregator other);
+
+    /**
+     * @return The result of the analysis over the values added so far.
+     */
+    abstract QueryResult result();
+
+    ///// IMPLEMENTATIONS /////
+
+    private static final class Count extends Aggregator {
+        private long count;
+
+        @Override
+        void add(Object value) {
+            count++;
+        }
+
+        @Override
+        void merge(Aggregator other) {
+            count += ((Count) other).count;
+        }
+
+        @Override
+        QueryResult result() {
+            return new LongResult(count);
+        }
+    }
+
+    private static final class CountUnique extends Aggregator {
+        private final HyperLogLog sketch = new HyperLogLog();
+
+        @Override
+        void add(Object value) {
+            sketch.add(value);
+        }
+
+        @Override
+        void merge(Aggregator other) {
+            sketch.merge(((CountUnique) other).sketch);
+        }
+
+        @Override
+        QueryResult result() {
+            return new LongResult(sketch.estimate());
+        }
+    }
+
+    private static final class Minimum extends Aggregator {
+        private double min = Double.NaN;
+
+        @Override
+        void add(Object value) {
+            if (value instanceof Number) {
+                double number = ((Number) value).doubleValue();
+                min = Double.isNaN(min) ? number : Math.min(min, number);
+            }
+        }
+
+        @Override
+        void merge(Aggregator other) {
+            double otherMin = ((Minimum) other).min;
+            if (!Double.isNaN(otherMin)) {
+                min = Double.isNaN(min) ? otherMin : Math.min(min, otherMin);
+            }
+        }
+
+        @Override
+        QueryResult result() {
+            return Double.isNaN(min) ? null : new DoubleResult(min);
+        }
+    }
+
+    private static final class Maximum extends Aggregator {
+        private double max = Double.NaN;
+
+        @Override
+        void add(Object value) {
+            if (value instanceof Number) {
+                double number = ((Number) value).doubleValue();
+                max = Double.isNaN(max) ? number : Math.max(max, number);
+            }
+        }
+
+        @Override
+        void merge(Aggregator other) {
+            double otherMax = ((Maximum) other).max;
+            if (!Double.isNaN(otherMax)) {
+                max = Double.isNaN(max) ? otherMax : Math.max(max, otherMax);
+            }
+        }
+
+        @Override
+        QueryResult result() {
+            return Double.isNaN(max) ? null : new DoubleResult(max);
+        }
+    }
+
+    private static final class Sum extends Aggregator {
+        private double sum;
+
+        @Override
+        void add(Object value) {
+            if (value instanceof Number) {
+                sum += ((Number) value).doubleValue();
+            }
+        }
+
+        @Override
+        void merge(Aggregator other) {
+            sum += ((Sum) other).sum;
+        }
+
+        @Override
+        QueryResult result() {
+            return new DoubleResult(sum);
+        }
+    }
+
+    private static final class Average extends Aggregator {
+        private double sum;
+        private long count;
+
+        @Override
+        void add(Object value) {
+            if (value instanceof Number) {
+                sum += ((Number) value).doubleValue();
+                count++;
+            }
+        }
+
+        @Override
+        void merge(Aggregator other) {
+            sum += ((Average) other).sum;
+            count += ((Average) other).count;
+        }
+
+        @Override
+        QueryResult result() {
+            return count == 0 ? null : new DoubleResult(sum / count);
+        }
+    }
+
+    private static final class Quantile extends Aggregator {
+        private final double quantile;
+        private final QuantileSketch sketch = new QuantileSketch();
+
+        Quantile(double quantile) {
+            this.quantile = quantile;
+        }
+
+        @Override
+        void add(Object value) {
+            if (value instanceof Number) {
+                sketch.add(((Number) value).doubleValue());
+            }
+        }
+
+        @Override
+        void merge(Aggregator other) {
+            sketch.merge(((Quantile) other).sketch);
+        }
+
+        @Override
+        QueryResult result() {
+            return sketch.getCount() == 0 ? null : new DoubleResult(sketch.quantile(quantile));
+        }
+    }
+
+    private static final class SelectUnique extends Aggregator {
+        private final Set<Object> values = new LinkedHashSet<Object>();
+
+        @Override
+        void add(Object value) {
+            values.add(value);
+        }
+
+        @Override
+        void merge(Aggregator other) {
+            values.addAll(((SelectUnique) other).values);
+        }
+
+        @Override
+        QueryResult result() {
+            List<QueryResult> results = new ArrayList<QueryResult>(values.size());
+            for (Object value : values) {
+                results.add(LocalQueryEngine.toQueryResult(value));
+            }
+            return new ListResult(results);
+        }
+    }
+
+}
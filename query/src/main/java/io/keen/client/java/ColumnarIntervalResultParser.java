@@ -0,0 +1,314 @@
+package io.keen.client.java;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.keen.client.java.result.ColumnarIntervalResult;
+import io.keen.client.java.result.Group;
+
+/**
+ * Builds {@link ColumnarIntervalResult}s, either directly from a streaming JSON reader or from an
+ * already-parsed interval result list. Values and timestamps are accumulated into growable
+ * primitive arrays; group keys are dictionary-encoded as they are first seen. Values are kept as
+ * longs, so that integral results keep their full precision, until the first value which isn't
+ * integral widens them all to doubles.
+ *
+ * @author Keen IO
+ * @since 5.1.0
+ */
+final class ColumnarIntervalResultParser {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final boolean isGroupBy;
+
+    private long[] starts = new long[INITIAL_CAPACITY];
+    private long[] ends = new long[INITIAL_CAPACITY];
+    private int intervalCount;
+
+    private int[] rowIntervals = new int[INITIAL_CAPACITY];
+    private int[] rowGroups;
+    private long[] longValues = new long[INITIAL_CAPACITY];
+    private double[] doubleValues;
+    private int rowCount;
+
+    private final Map<Map<String, Object>, Integer> groupIndexes;
+    private final List<Group> groups;
+
+    ColumnarIntervalResultParser(boolean isGroupBy) {
+        this.isGroupBy = isGroupBy;
+        if (isGroupBy) {
+            rowGroups = new int[INITIAL_CAPACITY];
+            groupIndexes = new HashMap<Map<String, Object>, Integer>();
+            groups = new ArrayList<Group>();
+        } else {
+            groupIndexes = null;
+            groups = null;
+        }
+    }
+
+    ///// STREAMING PARSING /////
+
+    /**
+     * Reads the value of the "result" key of an interval query response.
+     *
+     * @param reader The reader, positioned at the result value.
+     * @throws IOException If the result could not be read.
+     */
+    void read(KeenJsonReader reader) throws IOException {
+        if (reader.peek() == KeenJsonToken.NULL) {
+            reader.nextNull();
+            return;
+        }
+
+        reader.beginArray();
+        while (reader.hasNext()) {
+            readInterval(reader);
+        }
+        reader.endArray();
+    }
+
+    private void readInterval(KeenJsonReader reader) throws IOException {
+        if (reader.peek() != KeenJsonToken.BEGIN_OBJECT) {
+            throw new IllegalStateException("IntervalResult should be an object. Instead, it is " + reader.peek() + ".");
+        }
+
+        // The timeframe and value may appear in either order, so claim the interval's slot first.
+        int interval = addInterval();
+        boolean hasTimeframe = false;
+        boolean hasValue = false;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (KeenQueryConstants.TIMEFRAME.equals(name)) {
+                hasTimeframe = true;
+                readTimeframe(reader, interval);
+            } else if (KeenQueryConstants.VALUE.equals(name)) {
+                hasValue = true;
+                if (isGroupBy) {
+                    readGroups(reader, interval);
+                } else {
+                    addRow(interval, -1, readNumber(reader));
+                }
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        if (!hasTimeframe || !hasValue) {
+            throw new IllegalStateException("IntervalResult is missing \"" + KeenQueryConstants.TIMEFRAME + "\" and \"" + KeenQueryConstants.VALUE + "\" keys.");
+        }
+    }
+
+    private void readTimeframe(KeenJsonReader reader, int interval) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (KeenQueryConstants.START.equals(name)) {
+                starts[interval] = QueryTimestamps.parse(reader.nextString());
+            } else if (KeenQueryConstants.END.equals(name)) {
+                ends[interval] = QueryTimestamps.parse(reader.nextString());
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+    }
+
+    private void readGroups(KeenJsonReader reader, int interval) throws IOException {
+        reader.beginArray();
+        while (reader.hasNext()) {
+            Map<String, Object> properties = new HashMap<String, Object>();
+            Object value = null;
+            boolean hasResult = false;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if (KeenQueryConstants.RESULT.equals(name)) {
+                    hasResult = true;
+                    value = readNumber(reader);
+                } else {
+                    properties.put(name, reader.nextValue());
+                }
+            }
+            reader.endObject();
+
+            if (!hasResult) {
+                throw new IllegalStateException("GroupBy result is missing \"" + KeenQueryConstants.RESULT + "\" key.");
+            }
+            addRow(interval, groupIndex(properties), value);
+        }
+        reader.endArray();
+    }
+
+    private static Object readNumber(KeenJsonReader reader) throws IOException {
+        KeenJsonToken token = reader.peek();
+        if (token == KeenJsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        } else if (token != KeenJsonToken.NUMBER) {
+            throw new IllegalStateException("Columnar interval results require numeric values. Instead, found " + token + ".");
+        }
+        // Read the number as whichever type the reader parses it to, rather than as a double,
+        // so that large integral values aren't rounded.
+        return reader.nextValue();
+    }
+
+    ///// TREE PARSING /////
+
+    /**
+     * Adds the intervals of an already-parsed interval query result.
+     *
+     * @param intervals The "result" value of the response.
+     */
+    void add(List<?> intervals) {
+        for (Object child : intervals) {
+            if (!(child instanceof Map)) {
+                throw new IllegalStateException("IntervalResult should be instanceof Map. Instead, it is " + child.getClass().getCanonicalName() + ".");
+            }
+            Map<?, ?> inputMap = (Map<?, ?>) child;
+            Object timeframe = inputMap.get(KeenQueryConstants.TIMEFRAME);
+            if (!(timeframe instanceof Map) || !inputMap.containsKey(KeenQueryConstants.VALUE)) {
+                throw new IllegalStateException("IntervalResult is missing \"" + KeenQueryConstants.TIMEFRAME + "\" and \"" + KeenQueryConstants.VALUE + "\" keys.");
+            }
+
+            int interval = addInterval();
+            Map<?, ?> timeframeMap = (Map<?, ?>) timeframe;
+            starts[interval] = QueryTimestamps.parse((String) timeframeMap.get(KeenQueryConstants.START));
+            ends[interval] = QueryTimestamps.parse((String) timeframeMap.get(KeenQueryConstants.END));
+
+            Object value = inputMap.get(KeenQueryConstants.VALUE);
+            if (isGroupBy) {
+                if (!(value instanceof List)) {
+                    throw new IllegalStateException("GroupBy result should be instanceof List. Instead, it is " + (value == null ? "null" : value.getClass().getCanonicalName()) + ".");
+                }
+                for (Object group : (List<?>) value) {
+                    addGroup(interval, group);
+                }
+            } else {
+                addRow(interval, -1, value);
+            }
+        }
+    }
+
+    private void addGroup(int interval, Object group) {
+        if (!(group instanceof Map)) {
+            throw new IllegalStateException("GroupBy result should be instanceof Map. Instead, it is " + (group == null ? "null" : group.getClass().getCanonicalName()) + ".");
+        }
+        Map<String, Object> properties = new HashMap<String, Object>();
+        Object result = null;
+        for (Map.Entry<?, ?> entry : ((Map<?, ?>) group).entrySet()) {
+            if (KeenQueryConstants.RESULT.equals(entry.getKey())) {
+                result = entry.getValue();
+            } else {
+                properties.put((String) entry.getKey(), entry.getValue());
+            }
+        }
+        addRow(interval, groupIndex(properties), result);
+    }
+
+    private static boolean isIntegralType(Object value) {
+        return value instanceof Long || value instanceof Integer
+                || value instanceof Short || value instanceof Byte;
+    }
+
+    private static boolean isIntegral(double value) {
+        // NaN fails the rint comparison, so null values force double storage.
+        return value == Math.rint(value) && value >= Long.MIN_VALUE && value < Long.MAX_VALUE;
+    }
+
+    private static double toDouble(Object value) {
+        if (value == null) {
+            return Double.NaN;
+        } else if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        throw new IllegalStateException("Columnar interval results require numeric values. Instead, found " + value.getClass().getCanonicalName() + ".");
+    }
+
+    ///// RESULT /////
+
+    /**
+     * @return The result built from the intervals read so far.
+     */
+    ColumnarIntervalResult build() {
+        return new ColumnarIntervalResult(
+                Arrays.copyOf(starts, intervalCount),
+                Arrays.copyOf(ends, intervalCount),
+                Arrays.copyOf(rowIntervals, rowCount),
+                isGroupBy ? Arrays.copyOf(rowGroups, rowCount) : null,
+                groups,
+                doubleValues == null ? Arrays.copyOf(longValues, rowCount) : null,
+                doubleValues == null ? null : Arrays.copyOf(doubleValues, rowCount));
+    }
+
+    ///// PRIVATE METHODS /////
+
+    private int addInterval() {
+        if (intervalCount == starts.length) {
+            starts = Arrays.copyOf(starts, intervalCount * 2);
+            ends = Arrays.copyOf(ends, intervalCount * 2);
+        }
+        return intervalCount++;
+    }
+
+    private void addRow(int interval, int group, Object value) {
+        if (rowCount == rowIntervals.length) {
+            rowIntervals = Arrays.copyOf(rowIntervals, rowCount * 2);
+            if (doubleValues == null) {
+                longValues = Arrays.copyOf(longValues, rowCount * 2);
+            } else {
+                doubleValues = Arrays.copyOf(doubleValues, rowCount * 2);
+            }
+            if (rowGroups != null) {
+                rowGroups = Arrays.copyOf(rowGroups, rowCount * 2);
+            }
+        }
+        rowIntervals[rowCount] = interval;
+        if (rowGroups != null) {
+            rowGroups[rowCount] = group;
+        }
+
+        if (doubleValues == null && isIntegralType(value)) {
+            longValues[rowCount] = ((Number) value).longValue();
+        } else {
+            double doubleValue = toDouble(value);
+            if (doubleValues == null && isIntegral(doubleValue)) {
+                longValues[rowCount] = (long) doubleValue;
+            } else {
+                if (doubleValues == null) {
+                    widenValues();
+                }
+                doubleValues[rowCount] = doubleValue;
+            }
+        }
+        rowCount++;
+    }
+
+    /**
+     * Converts the values added so far to doubles, once a value which isn't integral is added.
+     */
+    private void widenValues() {
+        doubleValues = new double[longValues.length];
+        for (int i = 0; i < rowCount; i++) {
+            doubleValues[i] = longValues[i];
+        }
+        longValues = null;
+    }
+
+    private int groupIndex(Map<String, Object> properties) {
+        Integer index = groupIndexes.get(properties);
+        if (index == null) {
+            index = groups.size();
+            groupIndexes.put(properties, index);
+            groups.add(new Group(properties));
+        }
+        return index;
+    }
+
+}
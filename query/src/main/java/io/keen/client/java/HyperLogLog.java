@@ -0,0 +1,213 @@
+package io.keen.client.java;
+
+import java.util.Arrays;
+
+/**
+ * A mergeable HyperLogLog sketch, used by {@link LocalQueryEngine} to estimate Count Unique
+ * results. Small sketches are held sparsely as (register, rank) pairs and switch to a dense
+ * register array once that would be smaller, so that queries with many groups or intervals
+ * don't allocate a full register array per bucket.
+ *
+ * @author Keen IO
+ * @since 5.1.0
+ */
+final class HyperLogLog {
+
+    /**
+     * The default precision: 2^14 registers, for a standard error of about 0.8%.
+     */
+    static final int DEFAULT_PRECISION = 14;
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final long DOUBLE_SEED = 0x9e3779b97f4a7c15L;
+
+    private final int precision;
+    private final int registerCount;
+
+    private byte[] registers;
+    private int[] sparse = new int[8];
+    private int sparseSize;
+
+    HyperLogLog() {
+        this(DEFAULT_PRECISION);
+    }
+
+    HyperLogLog(int precision) {
+        if (precision < 4 || precision > 18) {
+            throw new IllegalArgumentException("Precision must be between 4 and 18");
+        }
+        this.precision = precision;
+        this.registerCount = 1 << precision;
+    }
+
+    /**
+     * Adds a value, which should already have been normalized so that equal values of different
+     * boxed types hash identically.
+     *
+     * @param value The value to add.
+     */
+    void add(Object value) {
+        addHash(hash(value));
+    }
+
+    void addHash(long hash) {
+        int index = (int) (hash >>> (64 - precision));
+        // The guard bit bounds the rank when the remaining bits are all zero.
+        int rank = Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1;
+        set(index, rank);
+    }
+
+    /**
+     * Merges another sketch of the same precision into this one.
+     *
+     * @param other The sketch to merge.
+     */
+    void merge(HyperLogLog other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("Cannot merge sketches of different precision");
+        }
+        if (other.registers != null) {
+            toDense();
+            for (int i = 0; i < registerCount; i++) {
+                if (other.registers[i] > registers[i]) {
+                    registers[i] = other.registers[i];
+                }
+            }
+        } else {
+            for (int i = 0; i < other.sparseSize; i++) {
+                set(other.sparse[i] >>> 6, other.sparse[i] & 0x3f);
+            }
+        }
+    }
+
+    /**
+     * @return The estimated number of distinct values added.
+     */
+    long estimate() {
+        int zeros;
+        double sum;
+        if (registers == null) {
+            compact();
+            zeros = registerCount - sparseSize;
+            sum = zeros;
+            for (int i = 0; i < sparseSize; i++) {
+                sum += Math.pow(2, -(sparse[i] & 0x3f));
+            }
+        } else {
+            zeros = 0;
+            sum = 0;
+            for (byte register : registers) {
+                if (register == 0) {
+                    zeros++;
+                }
+                sum += Math.pow(2, -register);
+            }
+        }
+
+        double alpha = 0.7213 / (1 + 1.079 / registerCount);
+        double estimate = alpha * registerCount * registerCount / sum;
+        if (estimate <= 2.5 * registerCount && zeros > 0) {
+            // Linear counting is more accurate for small cardinalities.
+            estimate = registerCount * Math.log((double) registerCount / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    /**
+     * Hashes a normalized value to 64 bits.
+     */
+    static long hash(Object value) {
+        if (value instanceof Long) {
+            return mix((Long) value);
+        } else if (value instanceof Double) {
+            return mix(Double.doubleToLongBits((Double) value) ^ DOUBLE_SEED);
+        } else if (value instanceof String) {
+            return mix(fnv1a((String) value));
+        } else if (value == null) {
+            return 0;
+        }
+        // Include the type so that e.g. the boolean true and the string "true" differ.
+        return mix(fnv1a(value.getClass().getName()) ^ fnv1a(value.toString()));
+    }
+
+    ///// PRIVATE METHODS /////
+
+    private void set(int index, int rank) {
+        if (registers != null) {
+            if (rank > registers[index]) {
+                registers[index] = (byte) rank;
+            }
+            return;
+        }
+
+        if (sparseSize == sparse.length) {
+            compact();
+            if (sparseSize > sparse.length / 2) {
+                if (sparse.length * 2 > registerCount / 4) {
+                    toDense();
+                    set(index, rank);
+                    return;
+                }
+                sparse = Arrays.copyOf(sparse, sparse.length * 2);
+            }
+        }
+        sparse[sparseSize++] = index << 6 | rank;
+    }
+
+    /**
+     * Sorts the sparse entries and keeps only the highest rank for each register.
+     */
+    private void compact() {
+        Arrays.sort(sparse, 0, sparseSize);
+        int kept = 0;
+        for (int i = 0; i < sparseSize; i++) {
+            if (kept > 0 && (sparse[kept - 1] >>> 6) == (sparse[i] >>> 6)) {
+                // Entries for the same register sort by rank, so the later one is higher.
+                sparse[kept - 1] = sparse[i];
+            } else {
+                sparse[kept++] = sparse[i];
+            }
+        }
+        sparseSize = kept;
+    }
+
+    private void toDense() {
+        if (registers != null) {
+            return;
+        }
+        registers = new byte[registerCount];
+        for (int i = 0; i < sparseSize; i++) {
+            int index = sparse[i] >>> 6;
+            int rank = sparse[i] & 0x3f;
+            if (rank > registers[index]) {
+                registers[index] = (byte) rank;
+            }
+        }
+        sparse = null;
+        sparseSize = 0;
+    }
+
+    private static long fnv1a(String value) {
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            hash = (hash ^ (c & 0xff)) * FNV_PRIME;
+            hash = (hash ^ (c >>> 8)) * FNV_PRIME;
+        }
+        return hash;
+    }
+
+    /**
+     * The MurmurHash3 64-bit finalizer, which spreads the input bits across the whole hash.
+     */
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+}
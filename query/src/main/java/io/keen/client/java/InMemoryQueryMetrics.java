@@ -0,0 +1,224 @@
+package io.keen.client.java;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * {@link QueryMetricsListener} which aggregates metrics in memory, per {@link QueryType}: the
+ * count, total and maximum duration of each {@link QueryPhase}, request and response sizes,
+ * failures by exception type, and cache hits and misses. This makes it easy to see which
+ * analyses dominate overall query latency, e.g. by comparing
+ * {@link #getTotalNanos(QueryType, QueryPhase)} across query types.
+ * <p>
+ * NOTE: This implementation synchronizes all operations in order to ensure thread safety.
+ * </p>
+ *
+ * @author Keen IO
+ * @since 5.1.0
+ */
+public class InMemoryQueryMetrics implements QueryMetricsListener {
+
+    ///// QueryMetricsListener METHODS /////
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void onPhaseCompleted(QueryType queryType, QueryPhase phase, long durationNanos) {
+        Stats stats = getOrCreateStats(queryType);
+        int index = phase.ordinal();
+        stats.phaseCounts[index]++;
+        stats.phaseTotalNanos[index] += durationNanos;
+        stats.phaseMaxNanos[index] = Math.max(stats.phaseMaxNanos[index], durationNanos);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void onRequestCompleted(QueryType queryType, long requestBytes, long responseBytes) {
+        Stats stats = getOrCreateStats(queryType);
+        stats.requestCount++;
+        stats.requestBytes += requestBytes;
+        stats.responseBytes += responseBytes;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void onQueryFailed(QueryType queryType, Exception error) {
+        Map<Class<?>, Long> errorCounts = getOrCreateStats(queryType).errorCounts;
+        Long count = errorCounts.get(error.getClass());
+        errorCounts.put(error.getClass(), count == null ? 1 : count + 1);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void onCacheLookup(QueryType queryType, boolean hit) {
+        Stats stats = getOrCreateStats(queryType);
+        if (hit) {
+            stats.cacheHits++;
+        } else {
+            stats.cacheMisses++;
+        }
+    }
+
+    ///// PUBLIC METHODS /////
+
+    /**
+     * @param queryType The type of query.
+     * @param phase The phase.
+     * @return The number of times the phase has completed for queries of the given type.
+     */
+    public synchronized long getCount(QueryType queryType, QueryPhase phase) {
+        Stats stats = stats(queryType);
+        return stats == null ? 0 : stats.phaseCounts[phase.ordinal()];
+    }
+
+    /**
+     * @param queryType The type of query.
+     * @param phase The phase.
+     * @return The total time spent in the phase for queries of the given type, in nanoseconds.
+     */
+    public synchronized long getTotalNanos(QueryType queryType, QueryPhase phase) {
+        Stats stats = stats(queryType);
+        return stats == null ? 0 : stats.phaseTotalNanos[phase.ordinal()];
+    }
+
+    /**
+     * @param queryType The type of query.
+     * @param phase The phase.
+     * @return The longest time spent in the phase by a single query of the given type, in
+     * nanoseconds.
+     */
+    public synchronized long getMaxNanos(QueryType queryType, QueryPhase phase) {
+        Stats stats = stats(queryType);
+        return stats == null ? 0 : stats.phaseMaxNanos[phase.ordinal()];
+    }
+
+    /**
+     * @param queryType The type of query.
+     * @param phase The phase.
+     * @return The mean time spent in the phase by queries of the given type, in nanoseconds, or
+     * 0 if the phase has not completed.
+     */
+    public synchronized double getMeanNanos(QueryType queryType, QueryPhase phase) {
+        long count = getCount(queryType, phase);
+        return count == 0 ? 0.0 : (double) getTotalNanos(queryType, phase) / count;
+    }
+
+    /**
+     * @param queryType The type of query.
+     * @return The number of requests sent for queries of the given type.
+     */
+    public synchronized long getRequestCount(QueryType queryType) {
+        Stats stats = stats(queryType);
+        return stats == null ? 0 : stats.requestCount;
+    }
+
+    /**
+     * @param queryType The type of query.
+     * @return The total size of the request bodies sent for queries of the given type, in bytes.
+     */
+    public synchronized long getRequestBytes(QueryType queryType) {
+        Stats stats = stats(queryType);
+        return stats == null ? 0 : stats.requestBytes;
+    }
+
+    /**
+     * @param queryType The type of query.
+     * @return The total size of the response bodies received for queries of the given type, in
+     * bytes.
+     */
+    public synchronized long getResponseBytes(QueryType queryType) {
+        Stats stats = stats(queryType);
+        return stats == null ? 0 : stats.responseBytes;
+    }
+
+    /**
+     * @param queryType The type of query.
+     * @param errorType The type of exception, e.g.
+     *                  {@link io.keen.client.java.exceptions.ServerException}.
+     * @return The number of queries of the given type which failed with exactly the given type of
+     * exception.
+     */
+    public synchronized long getErrorCount(QueryType queryType, Class<? extends Exception> errorType) {
+        Stats stats = stats(queryType);
+        Long count = stats == null ? null : stats.errorCounts.get(errorType);
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * @param queryType The type of query.
+     * @return The number of cache lookups for queries of the given type which found a result.
+     */
+    public synchronized long getCacheHitCount(QueryType queryType) {
+        Stats stats = stats(queryType);
+        return stats == null ? 0 : stats.cacheHits;
+    }
+
+    /**
+     * @param queryType The type of query.
+     * @return The number of cache lookups for queries of the given type which found no result.
+     */
+    public synchronized long getCacheMissCount(QueryType queryType) {
+        Stats stats = stats(queryType);
+        return stats == null ? 0 : stats.cacheMisses;
+    }
+
+    /**
+     * @param queryType The type of query.
+     * @return The fraction of cache lookups for queries of the given type which were hits, or 0
+     * if there have been no lookups.
+     */
+    public synchronized double getCacheHitRate(QueryType queryType) {
+        long hits = getCacheHitCount(queryType);
+        long total = hits + getCacheMissCount(queryType);
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    /**
+     * Discards all metrics collected so far.
+     */
+    public synchronized void reset() {
+        statsByType.clear();
+    }
+
+    ///// PRIVATE TYPES /////
+
+    private static class Stats {
+        final long[] phaseCounts = new long[QueryPhase.values().length];
+        final long[] phaseTotalNanos = new long[QueryPhase.values().length];
+        final long[] phaseMaxNanos = new long[QueryPhase.values().length];
+        long requestCount;
+        long requestBytes;
+        long responseBytes;
+        final Map<Class<?>, Long> errorCounts = new HashMap<Class<?>, Long>();
+        long cacheHits;
+        long cacheMisses;
+    }
+
+    ///// PRIVATE FIELDS /////
+
+    private final Map<QueryType, Stats> statsByType = new EnumMap<QueryType, Stats>(QueryType.class);
+
+    ///// PRIVATE METHODS /////
+
+    private Stats stats(QueryType queryType) {
+        return statsByType.get(queryType);
+    }
+
+    private Stats getOrCreateStats(QueryType queryType) {
+        Stats stats = statsByType.get(queryType);
+        if (stats == null) {
+            stats = new Stats();
+            statsByType.put(queryType, stats);
+        }
+        return stats;
+    }
+
+}
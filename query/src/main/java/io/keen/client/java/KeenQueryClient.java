@@ -1,24 +1,34 @@
 package io.keen.client.java;
 
 import java.io.IOException;
-import java.io.OutputStream;
-import java.io.OutputStreamWriter;
+import java.io.InterruptedIOException;
 import java.io.StringReader;
-import java.io.StringWriter;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import io.keen.client.java.exceptions.KeenQueryClientException;
 import io.keen.client.java.exceptions.ServerException;
+import io.keen.client.java.http.ByteArrayOutputSource;
 import io.keen.client.java.http.HttpHandler;
-import io.keen.client.java.http.OutputSource;
 import io.keen.client.java.http.Request;
 import io.keen.client.java.http.Response;
 import io.keen.client.java.http.UrlConnectionHttpHandler;
+import io.keen.client.java.result.ColumnarIntervalResult;
 import io.keen.client.java.result.DoubleResult;
 import io.keen.client.java.result.Group;
 import io.keen.client.java.result.GroupByResult;
@@ -26,6 +36,7 @@ import io.keen.client.java.result.IntervalResult;
 import io.keen.client.java.result.IntervalResultValue;
 import io.keen.client.java.result.ListResult;
 import io.keen.client.java.result.LongResult;
+import io.keen.client.java.result.MultiAnalysisResult;
 import io.keen.client.java.result.QueryResult;
 import io.keen.client.java.result.StringResult;
 
@@ -34,7 +45,7 @@ import io.keen.client.java.result.StringResult;
  * KeenQueryClient provides all of the functionality required to execute the basic queries
  * supported by the Data Analysis API: https://keen.io/docs/data-analysis/
  * <p> This include Count, Count Unique, Sum, Average, Maxiumum, Minimum, Median,
- * Percentile, and Select Unique. It does not include Extractions, Multi-Analysis, and Funnels.
+ * Percentile, Select Unique and Multi-Analysis. It does not include Extractions and Funnels.
  *
  * @author claireyoung
  * @since 1.0.0
@@ -46,6 +57,13 @@ public class KeenQueryClient {
     private final String baseUrl;
     private final KeenProject project;
     private final HttpHandler httpHandler;
+    private final ExecutorService queryExecutor;
+    private final QueryResultCache queryResultCache;
+    private final boolean coalesceQueries;
+    private final QueryMetricsListener metricsListener;
+    private final ConcurrentMap<String, FutureTask<QueryResult>> inFlightQueries =
+            new ConcurrentHashMap<String, FutureTask<QueryResult>>();
+    private final ConcurrentMap<QueryType, URL> queryUrls = new ConcurrentHashMap<QueryType, URL>();
 
     /**
      * Gets the default project that this {@link KeenQueryClient} is using.
@@ -56,6 +74,34 @@ public class KeenQueryClient {
         return this.project;
     }
 
+    /**
+     * Gets the executor which runs this client's asynchronous queries.
+     *
+     * @return The {@link ExecutorService}.
+     */
+    public ExecutorService getQueryExecutor() {
+        return this.queryExecutor;
+    }
+
+    /**
+     * Gets the cache of query results used by this client, if any.
+     *
+     * @return The {@link QueryResultCache}, or null if results are not cached.
+     */
+    public QueryResultCache getQueryResultCache() {
+        return this.queryResultCache;
+    }
+
+    /**
+     * Gets the listener which receives this client's query metrics, if any.
+     *
+     * @return The {@link QueryMetricsListener}, or null if metrics are not reported.
+     * @since 5.1.0
+     */
+    public QueryMetricsListener getQueryMetricsListener() {
+        return this.metricsListener;
+    }
+
     /**
      * Count query with only the required arguments.
      * Query API info here: https://keen.io/docs/api/#count
@@ -254,21 +300,523 @@ public class KeenQueryClient {
      * @throws IOException If there was an error communicating with the server or
      * an error message received from the server.
      */
-    public QueryResult execute(Query params) throws IOException {
+    public QueryResult execute(final Query params) throws IOException {
+
+        // check parameters are valid
+        if (!params.areParamsValid()) {
+            throw new IllegalArgumentException("Keen Query parameters are insufficient. Please check Query API docs for required arguments.");
+        }
+
+        final QueryType queryType = params.getQueryType();
+        try {
+            // Get the serialized Query parameter args and URL, both of which are memoized.
+            long start = startTimer();
+            final Query.SerializedArgs queryArgs = params.getSerializedArgs(jsonHandler);
+            final URL url = getQueryUrl(queryType);
+            stopTimer(queryType, QueryPhase.SERIALIZATION, start);
+
+            // The canonical key is only needed if results are cached or concurrent queries coalesced.
+            String queryKey = null;
+            if (queryResultCache != null || coalesceQueries) {
+                queryKey = constructCacheKey(queryType, queryArgs);
+            }
+
+            // If caching is enabled, return a previous result for the same query if there is one.
+            if (queryResultCache != null) {
+                QueryResult cachedResult = queryResultCache.get(queryKey);
+                if (metricsListener != null) {
+                    metricsListener.onCacheLookup(queryType, cachedResult != null);
+                }
+                if (cachedResult != null) {
+                    return cachedResult;
+                }
+            }
+
+            // post request and construct QueryResult.
+            QueryResult result;
+            if (coalesceQueries) {
+                result = executeCoalesced(queryKey, new Callable<QueryResult>() {
+                    @Override
+                    public QueryResult call() throws Exception {
+                        Object postResult = postRequest(project, queryType, url, queryArgs.body);
+                        return constructQueryResult(postResult, params);
+                    }
+                });
+            } else {
+                Object postResult = postRequest(project, queryType, url, queryArgs.body);
+                result = constructQueryResult(postResult, params);
+            }
+
+            if (queryResultCache != null) {
+                queryResultCache.put(queryKey, params, result);
+            }
+            return result;
+        } catch (IOException e) {
+            reportFailure(queryType, e);
+            throw e;
+        } catch (RuntimeException e) {
+            reportFailure(queryType, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Runs a query and delivers its result to a visitor as the response is parsed, rather than
+     * building the complete {@link QueryResult}. This is intended for queries with very large
+     * results, such as a Select Unique over a high-cardinality property or a Group By with many
+     * groups: each unique value is passed to {@link QueryResultVisitor#visitValue(QueryResult)} and
+     * each group to {@link QueryResultVisitor#visitGroup(io.keen.client.java.result.Group, QueryResult)}.
+     * <p>
+     * Streaming requires a {@link KeenStreamingJsonHandler}; with any other JSON handler the
+     * result is built in full and then visited. Results delivered this way are never cached or
+     * shared between concurrent queries. Interval and Multi-Analysis queries are not supported.
+     * </p>
+     *
+     * @param params     The {@link Query} information, including {@link QueryType}, required args, and any optional args.
+     * @param visitor     The visitor which will receive the result values.
+     * @throws IOException If there was an error communicating with the server or
+     * an error message received from the server.
+     * @since 5.1.0
+     */
+    public void executeStreaming(Query params, final QueryResultVisitor visitor) throws IOException {
+
+        // check parameters are valid
+        if (!params.areParamsValid()) {
+            throw new IllegalArgumentException("Keen Query parameters are insufficient. Please check Query API docs for required arguments.");
+        }
+        if (params.hasInterval() || params.getQueryType() == QueryType.MULTI_ANALYSIS) {
+            throw new IllegalArgumentException("Streaming is not supported for Interval or Multi-Analysis queries.");
+        }
+
+        QueryType queryType = params.getQueryType();
+        QueryResult result;
+        try {
+            long start = startTimer();
+            byte[] body = params.getSerializedArgs(jsonHandler).body;
+            URL url = getQueryUrl(queryType);
+            stopTimer(queryType, QueryPhase.SERIALIZATION, start);
+
+            if (jsonHandler instanceof KeenStreamingJsonHandler) {
+                final boolean isGroupBy = params.hasGroupBy();
+                streamRequest(queryType, url, body, new ResultStreamer() {
+                    @Override
+                    public void read(KeenJsonReader reader) throws IOException {
+                        streamResult(reader, isGroupBy, visitor);
+                    }
+                });
+                return;
+            }
+
+            // Without a streaming JSON handler, build the whole result and then visit it.
+            Object postResult = postRequest(project, queryType, url, body);
+            start = startTimer();
+            result = constructQueryResult(postResult, params.hasGroupBy(), false);
+            stopTimer(queryType, QueryPhase.CONSTRUCT_RESULT, start);
+        } catch (IOException e) {
+            reportFailure(queryType, e);
+            throw e;
+        } catch (RuntimeException e) {
+            reportFailure(queryType, e);
+            throw e;
+        }
+
+        if (result == null) {
+            return;
+        }
+        if (result.isGroupResult()) {
+            for (Map.Entry<Group, QueryResult> group : result.getGroupResults().entrySet()) {
+                visitor.visitGroup(group.getKey(), group.getValue());
+            }
+        } else if (result.isListResult()) {
+            for (QueryResult value : result.getListResults()) {
+                visitor.visitValue(value);
+            }
+        } else {
+            visitor.visitValue(result);
+        }
+    }
+
+    /**
+     * Runs an Interval query with a numeric analysis and returns the result in a compact
+     * columnar form, with interval timestamps and values held in primitive arrays and any Group
+     * By groups dictionary-encoded. For long timeframes with fine intervals this uses far less
+     * memory than the {@link io.keen.client.java.result.IntervalResult} returned by
+     * {@link #execute(Query)}.
+     * <p>
+     * With a {@link KeenStreamingJsonHandler} the columns are filled directly as the response is
+     * parsed. Results are never cached or shared between concurrent queries.
+     * </p>
+     *
+     * @param params     The {@link Query}, which must specify an Interval.
+     * @return The {@link ColumnarIntervalResult}.
+     * @throws IOException If there was an error communicating with the server or
+     * an error message received from the server.
+     * @throws IllegalArgumentException If the query has no Interval, or is a Select Unique or
+     * Multi-Analysis query.
+     * @since 5.1.0
+     */
+    public ColumnarIntervalResult executeColumnarInterval(Query params) throws IOException {
 
         // check parameters are valid
         if (!params.areParamsValid()) {
             throw new IllegalArgumentException("Keen Query parameters are insufficient. Please check Query API docs for required arguments.");
         }
+        if (!params.hasInterval() || params.getQueryType() == QueryType.SELECT_UNIQUE
+                || params.getQueryType() == QueryType.MULTI_ANALYSIS) {
+            throw new IllegalArgumentException("Columnar results require an Interval query with a numeric analysis.");
+        }
+
+        QueryType queryType = params.getQueryType();
+        try {
+            long start = startTimer();
+            byte[] body = params.getSerializedArgs(jsonHandler).body;
+            URL url = getQueryUrl(queryType);
+            stopTimer(queryType, QueryPhase.SERIALIZATION, start);
+            final ColumnarIntervalResultParser parser = new ColumnarIntervalResultParser(params.hasGroupBy());
+
+            if (jsonHandler instanceof KeenStreamingJsonHandler) {
+                streamRequest(queryType, url, body, new ResultStreamer() {
+                    @Override
+                    public void read(KeenJsonReader reader) throws IOException {
+                        parser.read(reader);
+                    }
+                });
+            } else {
+                Object postResult = postRequest(project, queryType, url, body);
+                start = startTimer();
+                if (postResult instanceof List) {
+                    parser.add((List<?>) postResult);
+                } else if (postResult != null) {
+                    throw new IllegalStateException("IntervalResult should be instanceof List. Instead, it is " + postResult.getClass().getCanonicalName() + ".");
+                }
+                stopTimer(queryType, QueryPhase.CONSTRUCT_RESULT, start);
+            }
+            return parser.build();
+        } catch (IOException e) {
+            reportFailure(queryType, e);
+            throw e;
+        } catch (RuntimeException e) {
+            reportFailure(queryType, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Asynchronous version of {@link #execute(Query)}. The query is run on the client's query
+     * executor, so independent queries issued in quick succession overlap their network latency
+     * rather than running one after another.
+     *
+     * @param params     The {@link Query} information, including {@link QueryType}, required args, and any optional args.
+     * @return A {@link Future} which will hold the {@link QueryResult}. If the query fails,
+     * {@link Future#get()} throws an {@link java.util.concurrent.ExecutionException} whose cause
+     * is the exception {@link #execute(Query)} would have thrown.
+     * @throws IllegalArgumentException If the query parameters are insufficient.
+     * @since 5.1.0
+     */
+    public Future<QueryResult> executeAsync(final Query params) {
+        // Check parameters up front so that obviously invalid queries fail on the calling thread.
+        if (!params.areParamsValid()) {
+            throw new IllegalArgumentException("Keen Query parameters are insufficient. Please check Query API docs for required arguments.");
+        }
+
+        return queryExecutor.submit(new Callable<QueryResult>() {
+            @Override
+            public QueryResult call() throws Exception {
+                return execute(params);
+            }
+        });
+    }
+
+    /**
+     * Executes a batch of queries concurrently on the client's query executor, running at most
+     * {@code maxParallelism} of them at any one time. Queries are started in list order.
+     * <p>
+     * The queries only run once the executor has threads free for them. A task which is itself
+     * running on the query executor must not block waiting for the returned futures, since with
+     * a bounded executor that can deadlock; use {@link #executeBatch(List, int)} instead, which
+     * also runs queries on the calling thread.
+     * </p>
+     *
+     * @param queries     The queries to run.
+     * @param maxParallelism     The maximum number of queries to run at the same time.
+     * @return A list of {@link Future}s holding the result of each query, in the same order as
+     * the queries. Each future completes (or fails) independently of the others.
+     * @throws IllegalArgumentException If maxParallelism is not positive, or the parameters of
+     * any of the queries are insufficient.
+     * @since 5.1.0
+     */
+    public List<Future<QueryResult>> executeBatchAsync(List<Query> queries, int maxParallelism) {
+        List<FutureTask<QueryResult>> tasks = createBatchTasks(queries, maxParallelism);
+        Runnable worker = createBatchWorker(tasks);
+        int workerCount = Math.min(maxParallelism, tasks.size());
+        for (int i = 0; i < workerCount; i++) {
+            queryExecutor.execute(worker);
+        }
 
-        // Construct Query parameter args and URL string.
-        Map<String, Object> allQueryArgs = params.constructQueryArgs();
-        String urlString = formatBaseURL(params.getQueryType().toString());
-        URL url = new URL(urlString);
+        return new ArrayList<Future<QueryResult>>(tasks);
+    }
 
-        // post request and construct QueryResult.
-        Object postResult = postRequest(project, url, allQueryArgs);
-        return constructQueryResult(postResult, params.hasGroupBy(), params.hasInterval());
+    /**
+     * Executes a batch of queries concurrently and waits for all of them to complete. See
+     * {@link #executeBatchAsync(List, int)}.
+     * <p>
+     * The calling thread runs queries alongside the query executor, so the batch completes even
+     * if the executor has no threads free, e.g. when this is called from a task running on it.
+     * </p>
+     *
+     * @param queries     The queries to run.
+     * @param maxParallelism     The maximum number of queries to run at the same time, including
+     *                           the one on the calling thread.
+     * @return The {@link QueryResult} of each query, in the same order as the queries.
+     * @throws IOException If there was an error communicating with the server or an error
+     * message received from the server for any of the queries, or the calling thread was
+     * interrupted while waiting.
+     * @since 5.1.0
+     */
+    public List<QueryResult> executeBatch(List<Query> queries, int maxParallelism) throws IOException {
+        List<FutureTask<QueryResult>> tasks = createBatchTasks(queries, maxParallelism);
+        Runnable worker = createBatchWorker(tasks);
+        int workerCount = Math.min(maxParallelism, tasks.size());
+        for (int i = 1; i < workerCount; i++) {
+            try {
+                queryExecutor.execute(worker);
+            } catch (RejectedExecutionException e) {
+                // The executor is saturated; the calling thread runs the rest.
+                break;
+            }
+        }
+
+        // Run queries on this thread until none are left unclaimed. Any still running have been
+        // claimed by executor threads which are already running them, so waiting is safe.
+        worker.run();
+
+        List<QueryResult> results = new ArrayList<QueryResult>(tasks.size());
+        for (Future<QueryResult> future : tasks) {
+            results.add(getResult(future));
+        }
+        return results;
+    }
+
+    private List<FutureTask<QueryResult>> createBatchTasks(List<Query> queries, int maxParallelism) {
+        if (maxParallelism <= 0) {
+            throw new IllegalArgumentException("Max parallelism must be positive.");
+        }
+
+        List<FutureTask<QueryResult>> tasks = new ArrayList<FutureTask<QueryResult>>(queries.size());
+        for (final Query query : queries) {
+            if (!query.areParamsValid()) {
+                throw new IllegalArgumentException("Keen Query parameters are insufficient. Please check Query API docs for required arguments.");
+            }
+            tasks.add(new FutureTask<QueryResult>(new Callable<QueryResult>() {
+                @Override
+                public QueryResult call() throws Exception {
+                    return execute(query);
+                }
+            }));
+        }
+
+        return tasks;
+    }
+
+    /**
+     * Creates a worker which runs the next unclaimed query in a batch until all of them have
+     * been claimed. One worker is started per allowed concurrent query.
+     */
+    private static Runnable createBatchWorker(final List<FutureTask<QueryResult>> tasks) {
+        final AtomicInteger nextTask = new AtomicInteger();
+        return new Runnable() {
+            @Override
+            public void run() {
+                int index;
+                while ((index = nextTask.getAndIncrement()) < tasks.size()) {
+                    tasks.get(index).run();
+                }
+            }
+        };
+    }
+
+    /**
+     * Asynchronous version of {@link #count(String, Timeframe)}.
+     *
+     * @param eventCollection     The name of the event collection you are analyzing.
+     * @param timeframe     The {@link RelativeTimeframe} or {@link AbsoluteTimeframe}.
+     * @return A {@link Future} which will hold the count query response.
+     * @since 5.1.0
+     */
+    public Future<Long> countAsync(final String eventCollection, final Timeframe timeframe) {
+        return queryExecutor.submit(new Callable<Long>() {
+            @Override
+            public Long call() throws Exception {
+                return count(eventCollection, timeframe);
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link #countUnique(String, String, Timeframe)}.
+     *
+     * @param eventCollection     The name of the event collection you are analyzing.
+     * @param targetProperty     The name of the property you are analyzing.
+     * @param timeframe     The {@link RelativeTimeframe} or {@link AbsoluteTimeframe}.
+     * @return A {@link Future} which will hold the count unique query response.
+     * @since 5.1.0
+     */
+    public Future<Long> countUniqueAsync(final String eventCollection, final String targetProperty,
+                                         final Timeframe timeframe) {
+        return queryExecutor.submit(new Callable<Long>() {
+            @Override
+            public Long call() throws Exception {
+                return countUnique(eventCollection, targetProperty, timeframe);
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link #minimum(String, String, Timeframe)}.
+     *
+     * @param eventCollection     The name of the event collection you are analyzing.
+     * @param targetProperty     The name of the property you are analyzing.
+     * @param timeframe     The {@link RelativeTimeframe} or {@link AbsoluteTimeframe}.
+     * @return A {@link Future} which will hold the minimum query response.
+     * @since 5.1.0
+     */
+    public Future<Double> minimumAsync(final String eventCollection, final String targetProperty,
+                                       final Timeframe timeframe) {
+        return queryExecutor.submit(new Callable<Double>() {
+            @Override
+            public Double call() throws Exception {
+                return minimum(eventCollection, targetProperty, timeframe);
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link #maximum(String, String, Timeframe)}.
+     *
+     * @param eventCollection     The name of the event collection you are analyzing.
+     * @param targetProperty     The name of the property you are analyzing.
+     * @param timeframe     The {@link RelativeTimeframe} or {@link AbsoluteTimeframe}.
+     * @return A {@link Future} which will hold the maximum query response.
+     * @since 5.1.0
+     */
+    public Future<Double> maximumAsync(final String eventCollection, final String targetProperty,
+                                       final Timeframe timeframe) {
+        return queryExecutor.submit(new Callable<Double>() {
+            @Override
+            public Double call() throws Exception {
+                return maximum(eventCollection, targetProperty, timeframe);
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link #average(String, String, Timeframe)}.
+     *
+     * @param eventCollection     The name of the event collection you are analyzing.
+     * @param targetProperty     The name of the property you are analyzing.
+     * @param timeframe     The {@link RelativeTimeframe} or {@link AbsoluteTimeframe}.
+     * @return A {@link Future} which will hold the average query response.
+     * @since 5.1.0
+     */
+    public Future<Double> averageAsync(final String eventCollection, final String targetProperty,
+                                       final Timeframe timeframe) {
+        return queryExecutor.submit(new Callable<Double>() {
+            @Override
+            public Double call() throws Exception {
+                return average(eventCollection, targetProperty, timeframe);
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link #median(String, String, Timeframe)}.
+     *
+     * @param eventCollection     The name of the event collection you are analyzing.
+     * @param targetProperty     The name of the property you are analyzing.
+     * @param timeframe     The {@link RelativeTimeframe} or {@link AbsoluteTimeframe}.
+     * @return A {@link Future} which will hold the median query response.
+     * @since 5.1.0
+     */
+    public Future<Double> medianAsync(final String eventCollection, final String targetProperty,
+                                      final Timeframe timeframe) {
+        return queryExecutor.submit(new Callable<Double>() {
+            @Override
+            public Double call() throws Exception {
+                return median(eventCollection, targetProperty, timeframe);
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link #percentile(String, String, Double, Timeframe)}.
+     *
+     * @param eventCollection     The name of the event collection you are analyzing.
+     * @param targetProperty     The name of the property you are analyzing.
+     * @param percentile     The percentile.
+     * @param timeframe     The {@link RelativeTimeframe} or {@link AbsoluteTimeframe}.
+     * @return A {@link Future} which will hold the percentile query response.
+     * @since 5.1.0
+     */
+    public Future<Double> percentileAsync(final String eventCollection, final String targetProperty,
+                                          final Double percentile, final Timeframe timeframe) {
+        return queryExecutor.submit(new Callable<Double>() {
+            @Override
+            public Double call() throws Exception {
+                return percentile(eventCollection, targetProperty, percentile, timeframe);
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link #sum(String, String, Timeframe)}.
+     *
+     * @param eventCollection     The name of the event collection you are analyzing.
+     * @param targetProperty     The name of the property you are analyzing.
+     * @param timeframe     The {@link RelativeTimeframe} or {@link AbsoluteTimeframe}.
+     * @return A {@link Future} which will hold the sum query response.
+     * @since 5.1.0
+     */
+    public Future<Double> sumAsync(final String eventCollection, final String targetProperty,
+                                   final Timeframe timeframe) {
+        return queryExecutor.submit(new Callable<Double>() {
+            @Override
+            public Double call() throws Exception {
+                return sum(eventCollection, targetProperty, timeframe);
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link #selectUnique(String, String, Timeframe)}.
+     *
+     * @param eventCollection     The name of the event collection you are analyzing.
+     * @param targetProperty     The name of the property you are analyzing.
+     * @param timeframe     The {@link RelativeTimeframe} or {@link AbsoluteTimeframe}.
+     * @return A {@link Future} which will hold the select unique query response.
+     * @since 5.1.0
+     */
+    public Future<QueryResult> selectUniqueAsync(final String eventCollection,
+                                                 final String targetProperty,
+                                                 final Timeframe timeframe) {
+        return queryExecutor.submit(new Callable<QueryResult>() {
+            @Override
+            public QueryResult call() throws Exception {
+                return selectUnique(eventCollection, targetProperty, timeframe);
+            }
+        });
+    }
+
+    private QueryResult constructQueryResult(Object input, Query params) {
+        long start = startTimer();
+        QueryResult result;
+        if (params.getQueryType() == QueryType.MULTI_ANALYSIS) {
+            result = constructMultiAnalysisResult(input, params.getAnalysisNames(),
+                    params.hasGroupBy(), params.hasInterval());
+        } else {
+            result = constructQueryResult(input, params.hasGroupBy(), params.hasInterval());
+        }
+        stopTimer(params.getQueryType(), QueryPhase.CONSTRUCT_RESULT, start);
+        return result;
     }
 
     private static QueryResult constructQueryResult(Object input, boolean isGroupBy, boolean isInterval) {
@@ -321,16 +869,7 @@ public class KeenQueryClient {
                 Map<String, Object> inputMap = (HashMap<String, Object>) child;
                 // If this is an interval, it should have keys "timeframe" and "value"
                 if (inputMap.containsKey(KeenQueryConstants.TIMEFRAME) && (inputMap.containsKey(KeenQueryConstants.VALUE))) {
-                    AbsoluteTimeframe absoluteTimeframe;
-                    Object timeframe = inputMap.get(KeenQueryConstants.TIMEFRAME);
-                    if (timeframe instanceof Map) {
-                        Map<String, String> hashTimeframe = (HashMap<String, String>) timeframe;
-                        String start = hashTimeframe.get(KeenQueryConstants.START);
-                        String end = hashTimeframe.get(KeenQueryConstants.END);
-                        absoluteTimeframe = new AbsoluteTimeframe(start, end);
-                    } else {
-                        throw new IllegalStateException("IntervalResult Timeframe should be instanceof Map. Instead, it is " + timeframe.getClass().getCanonicalName() + ".");
-                    }
+                    AbsoluteTimeframe absoluteTimeframe = constructIntervalTimeframe(inputMap.get(KeenQueryConstants.TIMEFRAME));
 
                     Object value = inputMap.get(KeenQueryConstants.VALUE);
                     QueryResult queryResultValue = constructQueryResult(value, isGroupBy, false);
@@ -347,6 +886,78 @@ public class KeenQueryClient {
         return new IntervalResult(intervalResult);
     }
 
+    private static AbsoluteTimeframe constructIntervalTimeframe(Object timeframe) {
+        if (timeframe instanceof Map) {
+            Map<String, String> hashTimeframe = (HashMap<String, String>) timeframe;
+            String start = hashTimeframe.get(KeenQueryConstants.START);
+            String end = hashTimeframe.get(KeenQueryConstants.END);
+            return new AbsoluteTimeframe(start, end);
+        } else {
+            throw new IllegalStateException("IntervalResult Timeframe should be instanceof Map. Instead, it is " + timeframe.getClass().getCanonicalName() + ".");
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static QueryResult constructMultiAnalysisResult(Object input, Set<String> analysisNames,
+                                                            boolean isGroupBy, boolean isInterval) {
+        if (input == null) {
+            return null;
+        }
+
+        if (isInterval) {
+            // an interval result holds a multi-analysis (or grouped multi-analysis) per interval.
+            if (!(input instanceof List)) {
+                throw new IllegalStateException("IntervalResult should be instanceof List. Instead, it is " + input.getClass().getCanonicalName() + ".");
+            }
+            List<IntervalResultValue> intervalResult = new ArrayList<IntervalResultValue>();
+            for (Object child : (List<Object>) input) {
+                if (!(child instanceof Map)) {
+                    throw new IllegalStateException("IntervalResult should be instanceof Map. Instead, it is " + child.getClass().getCanonicalName() + ".");
+                }
+                Map<String, Object> inputMap = (Map<String, Object>) child;
+                AbsoluteTimeframe absoluteTimeframe = constructIntervalTimeframe(inputMap.get(KeenQueryConstants.TIMEFRAME));
+                QueryResult value = constructMultiAnalysisResult(inputMap.get(KeenQueryConstants.VALUE),
+                        analysisNames, isGroupBy, false);
+                intervalResult.add(new IntervalResultValue(absoluteTimeframe, value));
+            }
+            return new IntervalResult(intervalResult);
+        }
+
+        if (isGroupBy) {
+            // each group holds its group-by properties alongside one key per analysis.
+            if (!(input instanceof List)) {
+                throw new IllegalStateException("GroupBy result should be instanceof List. Instead, it is " + input.getClass().getCanonicalName() + ".");
+            }
+            Map<Group, QueryResult> groupByResult = new HashMap<Group, QueryResult>();
+            for (Object child : (List<Object>) input) {
+                if (!(child instanceof Map)) {
+                    throw new IllegalStateException("GroupBy result should be instanceof Map. Instead, it is " + child.getClass().getCanonicalName() + ".");
+                }
+                Map<String, Object> inputMap = (Map<String, Object>) child;
+                Map<String, QueryResult> analysisResults = new HashMap<String, QueryResult>();
+                Map<String, Object> properties = new HashMap<String, Object>();
+                for (Map.Entry<String, Object> entry : inputMap.entrySet()) {
+                    if (analysisNames.contains(entry.getKey())) {
+                        analysisResults.put(entry.getKey(), constructQueryResult(entry.getValue(), false, false));
+                    } else {
+                        properties.put(entry.getKey(), entry.getValue());
+                    }
+                }
+                groupByResult.put(new Group(properties), new MultiAnalysisResult(analysisResults));
+            }
+            return new GroupByResult(groupByResult);
+        }
+
+        if (!(input instanceof Map)) {
+            throw new IllegalStateException("Multi-Analysis result should be instanceof Map. Instead, it is " + input.getClass().getCanonicalName() + ".");
+        }
+        Map<String, QueryResult> analysisResults = new HashMap<String, QueryResult>();
+        for (Map.Entry<String, Object> entry : ((Map<String, Object>) input).entrySet()) {
+            analysisResults.put(entry.getKey(), constructQueryResult(entry.getValue(), false, false));
+        }
+        return new MultiAnalysisResult(analysisResults);
+    }
+
     private static GroupByResult constructGroupByResult(List<Object> groups) {
         Map<Group, QueryResult> groupByResult = new HashMap<Group, QueryResult>();
 
@@ -388,77 +999,301 @@ public class KeenQueryClient {
      *
      * @param project     The project in which the event(s) will be published; this is used to
      *                    determine the read key to use for authentication.
+     * @param queryType   The type of the query, for reporting metrics.
      * @param url         The URL to which the POST should be sent.
-     * @param requestData The request data, which will be serialized into JSON and sent in the
-     *                    request body.
+     * @param body        The serialized request body.
      * @return The response from the server in the "result" map.
      * @throws IOException If there was an error communicating with the server.
      */
-    private Object postRequest(KeenProject project, URL url,
-                               final Map<String, ?> requestData) throws IOException {
+    private Object postRequest(KeenProject project, QueryType queryType, URL url,
+                               byte[] body) throws IOException {
 
-        // Build an output source which simply writes the serialized JSON to the output.
-        OutputSource source = new OutputSource() {
-            @Override
-            public void writeTo(OutputStream out) throws IOException {
-                OutputStreamWriter writer = new OutputStreamWriter(out, ENCODING);
+        Response response = sendRequest(project, queryType, url, body);
 
-                // in queries, requestData may be null.
-                if (requestData != null && requestData.size() != 0) {
-                    jsonHandler.writeJson(writer, requestData);
-                }
+        // Parse the response into a map.
+        long start = startTimer();
+        StringReader reader = new StringReader(response.body);
+        Map<String, Object> responseMap;
+        responseMap = this.jsonHandler.readJson(reader);
+        stopTimer(queryType, QueryPhase.PARSE, start);
+
+        // Get the result object.
+        Object result = responseMap.get(KeenQueryConstants.RESULT);
+        if (result == null) {
+            // double check if result is null because there's an error (shouldn't happen but let's check)
+            if (responseMap.containsKey(KeenQueryConstants.ERROR_CODE)) {
+                throw constructErrorException(responseMap.get(KeenQueryConstants.ERROR_CODE),
+                        responseMap.get(KeenQueryConstants.MESSAGE));
             }
-        };
+        }
+
+        return result;
+    }
+
+    /**
+     * Sends a query request to the server and checks that it succeeded.
+     *
+     * @param project     The project in which the query will run; this is used to determine the
+     *                    read key to use for authentication.
+     * @param queryType   The type of the query, for reporting metrics.
+     * @param url         The URL to which the POST should be sent.
+     * @param body        The serialized request body.
+     * @return The successful response.
+     * @throws IOException If there was an error communicating with the server.
+     */
+    private Response sendRequest(KeenProject project, QueryType queryType, URL url,
+                                 byte[] body) throws IOException {
+
+        // The body is already serialized, so it can be sent with a fixed length.
+        ByteArrayOutputSource source = new ByteArrayOutputSource(body, body.length);
 
         // If logging is enabled, log the request being sent.
         if (KeenLogging.isLoggingEnabled()) {
-            try {
-                StringWriter writer = new StringWriter();
-                jsonHandler.writeJson(writer, requestData);
-                String request = writer.toString();
-                KeenLogging.log(String.format(Locale.US, "Sent request '%s' to URL '%s'",
-                        request, url.toString()));
-            } catch (IOException e) {
-                KeenLogging.log("Couldn't log event written to file: ");
-                e.printStackTrace();
-            }
+            KeenLogging.log(String.format(Locale.US, "Sent request '%s' to URL '%s'",
+                    source.toString(ENCODING), url.toString()));
         }
 
         // Send the request.
         String readkey = project.getReadKey();
         Request request = new Request(url, "POST", readkey, source, null);
+        long start = startTimer();
         Response response = httpHandler.execute(request);
+        if (metricsListener != null) {
+            stopTimer(queryType, QueryPhase.NETWORK, start);
+            metricsListener.onRequestCompleted(queryType, body.length,
+                    KeenUtils.utf8Length(response.body));
+        }
 
         if (!response.isSuccess()) {
             throw new ServerException(response.body);
         }
 
-        // Parse the response into a map.
-        StringReader reader = new StringReader(response.body);
-        Map<String, Object> responseMap;
-        responseMap = this.jsonHandler.readJson(reader);
+        return response;
+    }
 
-        // Get the result object.
-        Object result = responseMap.get(KeenQueryConstants.RESULT);
-        if (result == null) {
-            // double check if result is null because there's an error (shouldn't happen but let's check)
-            if (responseMap.containsKey(KeenQueryConstants.ERROR_CODE)) {
-                String errorCode = responseMap.get(KeenQueryConstants.ERROR_CODE).toString();
-                String message = responseMap.get(KeenQueryConstants.MESSAGE).toString();
+    /**
+     * Reads the "result" value of a query response from a streaming JSON reader.
+     */
+    private interface ResultStreamer {
+        void read(KeenJsonReader reader) throws IOException;
+    }
 
-                String errorMessage = "Error response received from server";
-                if (errorCode != null) {
-                    errorMessage += " " + errorCode;
+    /**
+     * Sends a query request and passes the result value of the response to a
+     * {@link ResultStreamer}, without parsing the response into a map first.
+     *
+     * @param queryType   The type of the query, for reporting metrics.
+     * @param url         The URL to which the POST should be sent.
+     * @param body        The serialized request body.
+     * @param streamer    The streamer which reads the result value.
+     * @throws IOException If there was an error communicating with the server or parsing the
+     * response.
+     */
+    private void streamRequest(QueryType queryType, URL url, byte[] body,
+                               ResultStreamer streamer) throws IOException {
+        Response response = sendRequest(project, queryType, url, body);
+
+        long start = startTimer();
+        KeenJsonReader reader = ((KeenStreamingJsonHandler) jsonHandler)
+                .createReader(new StringReader(response.body));
+        try {
+            boolean hasResult = false;
+            Object errorCode = null;
+            Object message = null;
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if (KeenQueryConstants.RESULT.equals(name)) {
+                    hasResult = reader.peek() != KeenJsonToken.NULL;
+                    streamer.read(reader);
+                } else if (KeenQueryConstants.ERROR_CODE.equals(name)) {
+                    errorCode = reader.nextValue();
+                } else if (KeenQueryConstants.MESSAGE.equals(name)) {
+                    message = reader.nextValue();
+                } else {
+                    reader.skipValue();
                 }
-                if (message != null) {
-                    errorMessage += ": " + message;
+            }
+            reader.endObject();
+
+            if (!hasResult && errorCode != null) {
+                throw constructErrorException(errorCode, message);
+            }
+        } finally {
+            reader.close();
+        }
+        stopTimer(queryType, QueryPhase.PARSE, start);
+    }
+
+    private static void streamResult(KeenJsonReader reader, boolean isGroupBy,
+                                     QueryResultVisitor visitor) throws IOException {
+        KeenJsonToken token = reader.peek();
+        if (token == KeenJsonToken.NULL) {
+            reader.nextNull();
+        } else if (token != KeenJsonToken.BEGIN_ARRAY) {
+            visitor.visitValue(constructQueryResult(reader.nextValue(), false, false));
+        } else {
+            reader.beginArray();
+            while (reader.hasNext()) {
+                if (isGroupBy) {
+                    streamGroup(reader, visitor);
+                } else {
+                    visitor.visitValue(constructQueryResult(reader.nextValue(), false, false));
                 }
+            }
+            reader.endArray();
+        }
+    }
+
+    private static void streamGroup(KeenJsonReader reader, QueryResultVisitor visitor)
+            throws IOException {
+        if (reader.peek() != KeenJsonToken.BEGIN_OBJECT) {
+            throw new IllegalStateException("GroupBy result should be an object. Instead, it is " + reader.peek() + ".");
+        }
 
-                throw new KeenQueryClientException(errorMessage);
+        boolean hasResult = false;
+        QueryResult result = null;
+        Map<String, Object> properties = new HashMap<String, Object>();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String key = reader.nextName();
+            if (key.equals(KeenQueryConstants.RESULT)) {
+                hasResult = true;
+                result = constructQueryResult(reader.nextValue(), false, false);
+            } else {
+                properties.put(key, reader.nextValue());
             }
         }
+        reader.endObject();
 
-        return result;
+        if (!hasResult) {
+            throw new IllegalStateException("GroupBy result is missing \"" + KeenQueryConstants.RESULT + "\" key.");
+        }
+        visitor.visitGroup(new Group(properties), result);
+    }
+
+    private static KeenQueryClientException constructErrorException(Object errorCode, Object message) {
+        String errorMessage = "Error response received from server";
+        if (errorCode != null) {
+            errorMessage += " " + errorCode;
+        }
+        if (message != null) {
+            errorMessage += ": " + message;
+        }
+        return new KeenQueryClientException(errorMessage);
+    }
+
+    /**
+     * Runs a query, sharing a single request with any other thread that is concurrently running
+     * a query with the same key. The first thread to arrive sends the request; any threads that
+     * arrive while it is in flight wait for and receive the same result (or exception).
+     *
+     * @param queryKey The canonical key of the query.
+     * @param query The operation which sends the request and constructs the result.
+     * @return The {@link QueryResult} result.
+     * @throws IOException If there was an error communicating with the server, or the waiting
+     * thread was interrupted.
+     */
+    private QueryResult executeCoalesced(String queryKey, Callable<QueryResult> query)
+            throws IOException {
+        FutureTask<QueryResult> task = new FutureTask<QueryResult>(query);
+        FutureTask<QueryResult> inFlight = inFlightQueries.putIfAbsent(queryKey, task);
+        if (inFlight == null) {
+            // This thread is the leader; run the request and stop sharing it once it completes.
+            inFlight = task;
+            try {
+                task.run();
+            } finally {
+                inFlightQueries.remove(queryKey, task);
+            }
+        }
+
+        return getResult(inFlight);
+    }
+
+    /**
+     * Waits for a query result, rethrowing the exception the query failed with, if any.
+     *
+     * @param future The future holding the result.
+     * @return The {@link QueryResult} result.
+     * @throws IOException If the query failed with an IOException, or the waiting thread was
+     * interrupted.
+     */
+    private static QueryResult getResult(Future<QueryResult> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for query result");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new KeenQueryClientException(cause);
+        }
+    }
+
+    /**
+     * Constructs the key under which results of a query are cached or coalesced. The key combines the project,
+     * the query type and the canonical form of the query arguments, so that equal queries
+     * produce equal keys regardless of map iteration order.
+     *
+     * @param queryType The type of the query.
+     * @param queryArgs The serialized query arguments.
+     * @return The cache key.
+     */
+    private String constructCacheKey(QueryType queryType, Query.SerializedArgs queryArgs) {
+        return project.getProjectId() + "/" + queryType.toString() + "/" + queryArgs.canonicalJson;
+    }
+
+    /**
+     * Gets the URL for queries of the given type, constructing it on first use.
+     *
+     * @param queryType The type of the query.
+     * @return The query URL.
+     * @throws IOException If the URL is malformed.
+     */
+    private URL getQueryUrl(QueryType queryType) throws IOException {
+        URL url = queryUrls.get(queryType);
+        if (url == null) {
+            url = new URL(formatBaseURL(queryType.toString()));
+            queryUrls.put(queryType, url);
+        }
+        return url;
+    }
+
+    /**
+     * Starts timing a query phase, if metrics are being reported.
+     *
+     * @return The start time, in nanoseconds.
+     */
+    private long startTimer() {
+        return metricsListener == null ? 0 : System.nanoTime();
+    }
+
+    /**
+     * Reports the duration of a query phase, if metrics are being reported.
+     *
+     * @param queryType The type of the query.
+     * @param phase The phase which completed.
+     * @param start The start time returned by {@link #startTimer()}.
+     */
+    private void stopTimer(QueryType queryType, QueryPhase phase, long start) {
+        if (metricsListener != null) {
+            metricsListener.onPhaseCompleted(queryType, phase, System.nanoTime() - start);
+        }
+    }
+
+    private void reportFailure(QueryType queryType, Exception error) {
+        if (metricsListener != null) {
+            metricsListener.onQueryFailed(queryType, error);
+        }
     }
 
     private String formatBaseURL(String queryName) {
@@ -507,6 +1342,10 @@ public class KeenQueryClient {
         this.jsonHandler = builder.jsonHandler;
         this.baseUrl = builder.baseUrl;
         this.project = builder.project;
+        this.queryExecutor = builder.queryExecutor;
+        this.queryResultCache = builder.queryResultCache;
+        this.coalesceQueries = builder.coalesceQueries;
+        this.metricsListener = builder.metricsListener;
     }
 
     /**
@@ -516,6 +1355,8 @@ public class KeenQueryClient {
      * <p> This builder defaults to using HttpURLConnection to handle HTTP requests.
      * <p> This builder defaults to using JacksonJsonHandler for JSON handler.
      * <p> This builder defaults to using KeenConstants.SERVER_ADDRESS for base URL.
+     * <p> This builder defaults to using a fixed thread pool (via
+     * {@link java.util.concurrent.Executors#newFixedThreadPool(int)}) to run asynchronous queries.
      *
      * @author claireyoung
      * @since 1.0.0
@@ -526,6 +1367,10 @@ public class KeenQueryClient {
         private KeenJsonHandler jsonHandler;
         private String baseUrl;
         private KeenProject project;
+        private ExecutorService queryExecutor;
+        private QueryResultCache queryResultCache;
+        private boolean coalesceQueries;
+        private QueryMetricsListener metricsListener;
 
         /**
          * Builder to create a KeenQueryClient with {@link KeenProject} .
@@ -662,6 +1507,164 @@ public class KeenQueryClient {
          */
         public void setKeenProject(KeenProject project) { this.project = project; }
 
+        /**
+         * Gets the default {@link ExecutorService} to use if none is explicitly set for this
+         * builder.
+         *
+         * This implementation returns a fixed thread pool with a number of threads equal to the
+         * number of available processors. Threads are only started once asynchronous queries are
+         * submitted.
+         *
+         * Subclasses should override this to provide an alternative default
+         * {@link ExecutorService}.
+         *
+         * @return The default {@link ExecutorService}.
+         * @throws Exception If there is an error creating the {@link ExecutorService}.
+         * @since 5.1.0
+         */
+        protected ExecutorService getDefaultQueryExecutor() throws Exception {
+            int procCount = Runtime.getRuntime().availableProcessors();
+            return Executors.newFixedThreadPool(procCount);
+        }
+
+        /**
+         * Gets the {@link ExecutorService} that this builder is currently configured to use for
+         * asynchronous queries. If null, a default will be used instead.
+         *
+         * @return The {@link ExecutorService} to use.
+         * @since 5.1.0
+         */
+        public ExecutorService getQueryExecutor() {
+            return queryExecutor;
+        }
+
+        /**
+         * Sets the {@link ExecutorService} to use for asynchronous queries.
+         *
+         * @param queryExecutor The {@link ExecutorService} to use.
+         * @since 5.1.0
+         */
+        public void setQueryExecutor(ExecutorService queryExecutor) {
+            this.queryExecutor = queryExecutor;
+        }
+
+        /**
+         * Sets the {@link ExecutorService} to use for asynchronous queries.
+         *
+         * @param queryExecutor The {@link ExecutorService} to use.
+         * @return This instance (for method chaining).
+         * @since 5.1.0
+         */
+        public Builder withQueryExecutor(ExecutorService queryExecutor) {
+            setQueryExecutor(queryExecutor);
+            return this;
+        }
+
+        /**
+         * Gets the {@link QueryResultCache} that this builder is currently configured to use. If
+         * null, query results will not be cached.
+         *
+         * @return The {@link QueryResultCache} to use.
+         * @since 5.1.0
+         */
+        public QueryResultCache getQueryResultCache() {
+            return queryResultCache;
+        }
+
+        /**
+         * Sets the {@link QueryResultCache} to use for caching query results in-process. By
+         * default no cache is used and every query is sent to the server.
+         *
+         * @param queryResultCache The {@link QueryResultCache} to use.
+         * @since 5.1.0
+         */
+        public void setQueryResultCache(QueryResultCache queryResultCache) {
+            this.queryResultCache = queryResultCache;
+        }
+
+        /**
+         * Sets the {@link QueryResultCache} to use for caching query results in-process.
+         *
+         * @param queryResultCache The {@link QueryResultCache} to use.
+         * @return This instance (for method chaining).
+         * @since 5.1.0
+         */
+        public Builder withQueryResultCache(QueryResultCache queryResultCache) {
+            setQueryResultCache(queryResultCache);
+            return this;
+        }
+
+        /**
+         * Gets whether concurrent identical queries will share a single request.
+         *
+         * @return Whether queries are coalesced.
+         * @since 5.1.0
+         */
+        public boolean getCoalesceQueries() {
+            return coalesceQueries;
+        }
+
+        /**
+         * Sets whether concurrent identical queries should share a single request. When enabled,
+         * threads which execute a query while an identical one (same project, query type and
+         * arguments) is already in flight wait for that request and receive the same
+         * {@link QueryResult} instance, which should therefore be treated as read-only. Disabled
+         * by default.
+         *
+         * @param coalesceQueries Whether to coalesce queries.
+         * @since 5.1.0
+         */
+        public void setCoalesceQueries(boolean coalesceQueries) {
+            this.coalesceQueries = coalesceQueries;
+        }
+
+        /**
+         * Sets whether concurrent identical queries should share a single request.
+         *
+         * @param coalesceQueries Whether to coalesce queries.
+         * @return This instance (for method chaining).
+         * @since 5.1.0
+         */
+        public Builder withCoalesceQueries(boolean coalesceQueries) {
+            setCoalesceQueries(coalesceQueries);
+            return this;
+        }
+
+        /**
+         * Gets the {@link QueryMetricsListener} that this builder is currently configured to use.
+         * If null, no query metrics will be reported.
+         *
+         * @return The {@link QueryMetricsListener} to use.
+         * @since 5.1.0
+         */
+        public QueryMetricsListener getQueryMetricsListener() {
+            return metricsListener;
+        }
+
+        /**
+         * Sets the {@link QueryMetricsListener} to which the client will report per-phase query
+         * timings, request and response sizes, failures and cache lookups. By default no metrics
+         * are reported, and queries are not timed.
+         *
+         * @param metricsListener The {@link QueryMetricsListener} to use.
+         * @since 5.1.0
+         */
+        public void setQueryMetricsListener(QueryMetricsListener metricsListener) {
+            this.metricsListener = metricsListener;
+        }
+
+        /**
+         * Sets the {@link QueryMetricsListener} to which the client will report query metrics.
+         *
+         * @param metricsListener The {@link QueryMetricsListener} to use.
+         * @return This instance (for method chaining).
+         * @since 5.1.0
+         */
+        public Builder withQueryMetricsListener(QueryMetricsListener metricsListener) {
+            setQueryMetricsListener(metricsListener);
+            return this;
+        }
+
         /**
          * Builds a new Keen query client using the interfaces which have been specified explicitly on
          * this builder instance via the set* or with* methods, or the default interfaces if none
@@ -688,6 +1691,14 @@ public class KeenQueryClient {
                 KeenLogging.log("Exception building JSON handler: " + e.getMessage());
             }
 
+            try {
+                if (queryExecutor == null) {
+                    queryExecutor = getDefaultQueryExecutor();
+                }
+            } catch (Exception e) {
+                KeenLogging.log("Exception building query executor: " + e.getMessage());
+            }
+
             if (project == null) {
                 throw new IllegalStateException("Cannot build KeenQueryClient with null project.");
             }
@@ -18,6 +18,7 @@ public class KeenQueryConstants {
     static final String PERCENTILE_RESOURCE = "percentile";
     static final String SUM = "sum";
     static final String SELECT_UNIQUE = "select_unique";
+    static final String MULTI_ANALYSIS = "multi_analysis";
 
     // Query parameters
     static final String EVENT_COLLECTION = "event_collection";
@@ -29,6 +30,8 @@ public class KeenQueryConstants {
     static final String GROUP_BY = "group_by";
     static final String MAX_AGE = "max_age";
     static final String PERCENTILE = "percentile";
+    static final String ANALYSES = "analyses";
+    static final String ANALYSIS_TYPE = "analysis_type";
 
     // filter property names
     static final String PROPERTY_NAME = "property_name";
@@ -0,0 +1,709 @@
+package io.keen.client.java;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SimpleTimeZone;
+import java.util.TimeZone;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import io.keen.client.java.result.DoubleResult;
+import io.keen.client.java.result.Group;
+import io.keen.client.java.result.GroupByResult;
+import io.keen.client.java.result.IntervalResult;
+import io.keen.client.java.result.IntervalResultValue;
+import io.keen.client.java.result.ListResult;
+import io.keen.client.java.result.LongResult;
+import io.keen.client.java.result.QueryResult;
+import io.keen.client.java.result.StringResult;
+
+/**
+ * <p>
+ * LocalQueryEngine runs {@link Query} objects against events held locally, rather than sending
+ * them to the Data Analysis API. Events may be supplied as any {@link Iterable} of event maps (for
+ * example, events loaded from an export), or read from a {@link KeenEventStore} which holds
+ * events that have been queued but not yet uploaded.
+ * </p>
+ * <p>
+ * All query types other than Multi-Analysis are supported, along with filters (other than
+ * {@code within}), absolute and relative timeframes, timezones, Group By and Interval. Results
+ * have the same shape as those returned by {@link KeenQueryClient#execute(Query)}. Events are
+ * placed in timeframes and intervals using their {@code keen.timestamp} property.
+ * </p>
+ * <p>
+ * Each partition of the events is aggregated separately per interval and group, and the partial
+ * aggregations are then merged. If an {@link ExecutorService} is provided, the partitions are
+ * aggregated in parallel across the available processors. Count Unique results are estimated
+ * with a HyperLogLog sketch, and Median and Percentile results with a quantile sketch accurate
+ * to within 1% of the true value; all other analyses are exact.
+ * </p>
+ *
+ * @author Keen IO
+ * @since 5.1.0
+ */
+public class LocalQueryEngine {
+
+    ///// PUBLIC CONSTRUCTORS /////
+
+    /**
+     * Constructs an engine which scans events on the calling thread.
+     */
+    public LocalQueryEngine() {
+        this(null);
+    }
+
+    /**
+     * Constructs an engine which scans events in parallel using the given executor.
+     *
+     * @param executor The executor on which to scan partitions of the events, or null to scan
+     *                 them on the calling thread.
+     */
+    public LocalQueryEngine(ExecutorService executor) {
+        this.executor = executor;
+        this.parallelism = Runtime.getRuntime().availableProcessors();
+    }
+
+    ///// PUBLIC METHODS /////
+
+    /**
+     * Runs a query against the given events. The query's event collection is not used; all of
+     * the given events are considered part of the collection.
+     *
+     * @param query The query to run.
+     * @param events The events to query.
+     * @return The {@link QueryResult} result.
+     * @throws IllegalArgumentException If the query parameters are insufficient or use a feature
+     * which is not supported locally.
+     */
+    public QueryResult execute(Query query, Iterable<? extends Map<String, ?>> events) {
+        if (!query.areParamsValid()) {
+            throw new IllegalArgumentException("Keen Query parameters are insufficient. Please check Query API docs for required arguments.");
+        }
+        if (query.getQueryType() == QueryType.MULTI_ANALYSIS) {
+            throw new IllegalArgumentException("Multi-Analysis queries are not supported locally.");
+        }
+
+        QueryPlan plan = new QueryPlan(query, currentTimeMillis());
+        List<Map<String, ?>> eventList = new ArrayList<Map<String, ?>>();
+        for (Map<String, ?> event : events) {
+            eventList.add(event);
+        }
+        return plan.buildResult(scan(plan, eventList));
+    }
+
+    /**
+     * Runs a query against the events for the query's event collection which are held in an
+     * event store.
+     *
+     * @param query The query to run.
+     * @param store The event store.
+     * @param projectId The ID of the project whose events should be queried.
+     * @param jsonHandler The JSON handler with which to parse the stored events.
+     * @return The {@link QueryResult} result.
+     * @throws IOException If the events could not be read from the store.
+     */
+    public QueryResult execute(Query query, KeenEventStore store, String projectId,
+                               KeenJsonHandler jsonHandler) throws IOException {
+        Object eventCollection = query.getQueryArgs().get(KeenQueryConstants.EVENT_COLLECTION);
+        List<Map<String, ?>> events = new ArrayList<Map<String, ?>>();
+        List<Object> handles = store.getHandles(projectId).get(eventCollection);
+        if (handles != null) {
+            for (Object handle : handles) {
+                String event = store.get(handle);
+                if (event != null) {
+                    events.add(jsonHandler.readJson(new StringReader(event)));
+                }
+            }
+        }
+        return execute(query, events);
+    }
+
+    ///// PROTECTED METHODS /////
+
+    /**
+     * Gets the current time, against which relative timeframes are resolved. Subclasses may
+     * override this, e.g. in tests.
+     *
+     * @return The current time in milliseconds.
+     */
+    protected long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    ///// PRIVATE FIELDS /////
+
+    private static final Object MISSING = new Object();
+    private static final String TIMESTAMP_PROPERTY = "keen.timestamp";
+    private static final Pattern RELATIVE_TIMEFRAME =
+            Pattern.compile("(this|previous)_(?:(\\d+)_)?(minute|hour|day|week|month|year)s?");
+    private static final Pattern INTERVAL =
+            Pattern.compile("every_(\\d+)_(minute|hour|day|week|month|year)s?");
+
+    private final ExecutorService executor;
+    private final int parallelism;
+
+    ///// PRIVATE METHODS /////
+
+    /**
+     * Scans the events, in parallel if an executor was provided, and aggregates the matching
+     * events by interval and group.
+     */
+    private Map<BucketKey, Aggregator> scan(final QueryPlan plan, final List<Map<String, ?>> events) {
+        if (executor == null || events.size() < 2 * parallelism) {
+            return plan.scan(events);
+        }
+
+        int chunkSize = (events.size() + parallelism - 1) / parallelism;
+        List<Future<Map<BucketKey, Aggregator>>> partials = new ArrayList<Future<Map<BucketKey, Aggregator>>>();
+        for (int start = 0; start < events.size(); start += chunkSize) {
+            final List<Map<String, ?>> chunk = events.subList(start, Math.min(start + chunkSize, events.size()));
+            partials.add(executor.submit(new Callable<Map<BucketKey, Aggregator>>() {
+                @Override
+                public Map<BucketKey, Aggregator> call() {
+                    return plan.scan(chunk);
+                }
+            }));
+        }
+
+        // Merge the partitions in order, so that first-seen ordering matches a sequential scan.
+        Map<BucketKey, Aggregator> merged = new LinkedHashMap<BucketKey, Aggregator>();
+        for (Future<Map<BucketKey, Aggregator>> partial : partials) {
+            Map<BucketKey, Aggregator> buckets;
+            try {
+                buckets = partial.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while running local query", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new IllegalStateException("Local query failed", e.getCause());
+            }
+            for (Map.Entry<BucketKey, Aggregator> entry : buckets.entrySet()) {
+                Aggregator aggregator = merged.get(entry.getKey());
+                if (aggregator == null) {
+                    merged.put(entry.getKey(), entry.getValue());
+                } else {
+                    aggregator.merge(entry.getValue());
+                }
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Looks up a property by its (possibly dotted) name, e.g. "keen.timestamp".
+     *
+     * @return The property value, or {@link #MISSING} if the event has no such property.
+     */
+    private static Object getProperty(Map<String, ?> event, String name) {
+        Object current = event;
+        int start = 0;
+        while (true) {
+            if (!(current instanceof Map)) {
+                return MISSING;
+            }
+            Map<?, ?> map = (Map<?, ?>) current;
+            int dot = name.indexOf('.', start);
+            String key = dot < 0 ? name.substring(start) : name.substring(start, dot);
+            if (!map.containsKey(key)) {
+                // Property names may themselves contain dots.
+                if (dot >= 0 && map.containsKey(name.substring(start))) {
+                    return map.get(name.substring(start));
+                }
+                return MISSING;
+            }
+            current = map.get(key);
+            if (dot < 0) {
+                return current;
+            }
+            start = dot + 1;
+        }
+    }
+
+    /**
+     * Normalizes numbers so that equal values of different boxed types compare as equal.
+     */
+    private static Object normalize(Object value) {
+        if (value instanceof Number && !(value instanceof Double) && !(value instanceof Float)) {
+            return ((Number) value).longValue();
+        } else if (value instanceof Number) {
+            double d = ((Number) value).doubleValue();
+            if (d == Math.rint(d) && !Double.isInfinite(d) && Math.abs(d) < 9.007199254740992E15) {
+                return (long) d;
+            }
+            return d;
+        }
+        return value;
+    }
+
+    private static boolean valuesEqual(Object actual, Object expected) {
+        if (actual == null || expected == null) {
+            return actual == expected;
+        }
+        return normalize(actual).equals(normalize(expected));
+    }
+
+    /**
+     * Compares two values if they are both numbers or both strings.
+     *
+     * @return The comparison, or null if the values are not comparable.
+     */
+    private static Integer compare(Object actual, Object expected) {
+        if (actual instanceof Number && expected instanceof Number) {
+            return Double.compare(((Number) actual).doubleValue(), ((Number) expected).doubleValue());
+        } else if (actual instanceof String && expected instanceof String) {
+            return ((String) actual).compareTo((String) expected);
+        }
+        return null;
+    }
+
+    private static TimeZone parseTimeZone(Object timezone) {
+        if (timezone == null) {
+            return TimeZone.getTimeZone("UTC");
+        }
+        String text = timezone.toString();
+        try {
+            // Numeric timezones are offsets from UTC in seconds.
+            return new SimpleTimeZone(Integer.parseInt(text) * 1000, text);
+        } catch (NumberFormatException e) {
+            return TimeZone.getTimeZone(text);
+        }
+    }
+
+    private static int calendarField(String unit) {
+        if ("minute".equals(unit)) {
+            return Calendar.MINUTE;
+        } else if ("hour".equals(unit)) {
+            return Calendar.HOUR_OF_DAY;
+        } else if ("day".equals(unit)) {
+            return Calendar.DAY_OF_MONTH;
+        } else if ("week".equals(unit)) {
+            return Calendar.WEEK_OF_YEAR;
+        } else if ("month".equals(unit)) {
+            return Calendar.MONTH;
+        } else {
+            return Calendar.YEAR;
+        }
+    }
+
+    /**
+     * Truncates a calendar to the start of the unit which contains it.
+     */
+    private static void truncate(Calendar calendar, int field) {
+        calendar.set(Calendar.MILLISECOND, 0);
+        calendar.set(Calendar.SECOND, 0);
+        if (field == Calendar.MINUTE) {
+            return;
+        }
+        calendar.set(Calendar.MINUTE, 0);
+        if (field == Calendar.HOUR_OF_DAY) {
+            return;
+        }
+        calendar.set(Calendar.HOUR_OF_DAY, 0);
+        if (field == Calendar.WEEK_OF_YEAR) {
+            calendar.set(Calendar.DAY_OF_WEEK, calendar.getFirstDayOfWeek());
+        } else if (field == Calendar.MONTH) {
+            calendar.set(Calendar.DAY_OF_MONTH, 1);
+        } else if (field == Calendar.YEAR) {
+            calendar.set(Calendar.DAY_OF_YEAR, 1);
+        }
+    }
+
+    static QueryResult toQueryResult(Object value) {
+        value = normalize(value);
+        if (value instanceof Long) {
+            return new LongResult((Long) value);
+        } else if (value instanceof Double) {
+            return new DoubleResult((Double) value);
+        } else if (value instanceof String) {
+            return new StringResult((String) value);
+        } else if (value instanceof List) {
+            List<QueryResult> list = new ArrayList<QueryResult>();
+            for (Object element : (List<?>) value) {
+                list.add(toQueryResult(element));
+            }
+            return new ListResult(list);
+        } else if (value == null) {
+            return null;
+        }
+        return new StringResult(value.toString());
+    }
+
+    ///// PRIVATE TYPES /////
+
+    /**
+     * A single filter from the query's "filters" argument.
+     */
+    private static final class Filter {
+        final String propertyName;
+        final String operator;
+        final Object propertyValue;
+
+        Filter(Map<?, ?> filter) {
+            this.propertyName = (String) filter.get(KeenQueryConstants.PROPERTY_NAME);
+            this.operator = (String) filter.get(KeenQueryConstants.OPERATOR);
+            this.propertyValue = filter.get(KeenQueryConstants.PROPERTY_VALUE);
+            if (KeenQueryConstants.WITHIN.equals(operator)) {
+                throw new IllegalArgumentException("The \"within\" filter is not supported locally.");
+            }
+        }
+
+        boolean matches(Map<String, ?> event) {
+            Object actual = getProperty(event, propertyName);
+            if (KeenQueryConstants.EXISTS.equals(operator)) {
+                return (actual != MISSING) == Boolean.TRUE.equals(propertyValue);
+            } else if (KeenQueryConstants.NOT_EQUAL.equals(operator)) {
+                return actual == MISSING || !valuesEqual(actual, propertyValue);
+            } else if (KeenQueryConstants.NOT_CONTAINS.equals(operator)) {
+                return actual == MISSING || !contains(actual);
+            } else if (actual == MISSING) {
+                return false;
+            }
+
+            if (KeenQueryConstants.EQUAL_TO.equals(operator)) {
+                return valuesEqual(actual, propertyValue);
+            } else if (KeenQueryConstants.IN.equals(operator)) {
+                if (propertyValue instanceof List) {
+                    for (Object candidate : (List<?>) propertyValue) {
+                        if (valuesEqual(actual, candidate)) {
+                            return true;
+                        }
+                    }
+                }
+                return false;
+            } else if (KeenQueryConstants.CONTAINS.equals(operator)) {
+                return contains(actual);
+            }
+
+            Integer comparison = compare(actual, propertyValue);
+            if (comparison == null) {
+                return false;
+            } else if (KeenQueryConstants.LESS_THAN.equals(operator)) {
+                return comparison < 0;
+            } else if (KeenQueryConstants.LESS_THAN_EQUAL.equals(operator)) {
+                return comparison <= 0;
+            } else if (KeenQueryConstants.GREATER_THAN.equals(operator)) {
+                return comparison > 0;
+            } else if (KeenQueryConstants.GREATER_THAN_EQUAL.equals(operator)) {
+                return comparison >= 0;
+            }
+            throw new IllegalArgumentException("Unsupported filter operator: " + operator);
+        }
+
+        private boolean contains(Object actual) {
+            if (actual instanceof String && propertyValue instanceof String) {
+                return ((String) actual).contains((String) propertyValue);
+            } else if (actual instanceof List) {
+                for (Object element : (List<?>) actual) {
+                    if (valuesEqual(element, propertyValue)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Identifies the interval and group into which an event falls.
+     */
+    private static final class BucketKey {
+        final int interval;
+        final List<Object> group;
+
+        BucketKey(int interval, List<Object> group) {
+            this.interval = interval;
+            this.group = group;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof BucketKey)) {
+                return false;
+            }
+            BucketKey other = (BucketKey) o;
+            return interval == other.interval
+                    && (group == null ? other.group == null : group.equals(other.group));
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * interval + (group == null ? 0 : group.hashCode());
+        }
+    }
+
+    /**
+     * The query arguments, resolved into the form needed to scan events.
+     */
+    private static final class QueryPlan {
+        final QueryType queryType;
+        final String targetProperty;
+        final double percentile;
+        final List<Filter> filters = new ArrayList<Filter>();
+        final List<String> groupBy;
+        final TimeZone timeZone;
+        final long start;
+        final long end;
+        final boolean hasTimeframe;
+        final long[] intervalBoundaries;
+
+        QueryPlan(Query query, long now) {
+            Map<String, Object> args = query.getQueryArgs();
+            this.queryType = query.getQueryType();
+            this.targetProperty = (String) args.get(KeenQueryConstants.TARGET_PROPERTY);
+            Object percentileArg = args.get(KeenQueryConstants.PERCENTILE);
+            this.percentile = queryType == QueryType.MEDIAN ? 50.0
+                    : percentileArg == null ? Double.NaN : ((Number) percentileArg).doubleValue();
+
+            Object filterArgs = args.get(KeenQueryConstants.FILTERS);
+            if (filterArgs != null) {
+                for (Object filter : (List<?>) filterArgs) {
+                    filters.add(new Filter((Map<?, ?>) filter));
+                }
+            }
+
+            Object groupByArg = args.get(KeenQueryConstants.GROUP_BY);
+            if (groupByArg == null) {
+                this.groupBy = null;
+            } else {
+                List<String> groupByNames = new ArrayList<String>();
+                for (Object name : (List<?>) groupByArg) {
+                    groupByNames.add((String) name);
+                }
+                this.groupBy = groupByNames;
+            }
+            this.timeZone = parseTimeZone(args.get(KeenQueryConstants.TIMEZONE));
+
+            // Resolve the timeframe into absolute start and end times.
+            Object timeframe = args.get(KeenQueryConstants.TIMEFRAME);
+            if (timeframe instanceof Map) {
+                Map<?, ?> absolute = (Map<?, ?>) timeframe;
+                this.start = QueryTimestamps.parse((String) absolute.get(KeenQueryConstants.START));
+                this.end = QueryTimestamps.parse((String) absolute.get(KeenQueryConstants.END));
+                this.hasTimeframe = true;
+            } else if (timeframe instanceof String) {
+                long[] range = resolveRelativeTimeframe((String) timeframe, now);
+                this.start = range[0];
+                this.end = range[1];
+                this.hasTimeframe = true;
+            } else {
+                this.start = Long.MIN_VALUE;
+                this.end = Long.MAX_VALUE;
+                this.hasTimeframe = false;
+            }
+
+            Object interval = args.get(KeenQueryConstants.INTERVAL);
+            if (interval != null) {
+                if (!hasTimeframe) {
+                    throw new IllegalArgumentException("Interval queries require a timeframe.");
+                }
+                this.intervalBoundaries = computeIntervalBoundaries((String) interval);
+            } else {
+                this.intervalBoundaries = null;
+            }
+        }
+
+        private long[] resolveRelativeTimeframe(String timeframe, long now) {
+            Matcher matcher = RELATIVE_TIMEFRAME.matcher(timeframe);
+            if (!matcher.matches()) {
+                throw new IllegalArgumentException("Unsupported relative timeframe: " + timeframe);
+            }
+            int units = matcher.group(2) == null ? 1 : Integer.parseInt(matcher.group(2));
+            int field = calendarField(matcher.group(3));
+
+            Calendar calendar = Calendar.getInstance(timeZone, Locale.US);
+            calendar.setTimeInMillis(now);
+            truncate(calendar, field);
+            if ("this".equals(matcher.group(1))) {
+                // The current (partial) unit and the units before it, up until now.
+                calendar.add(field, -(units - 1));
+                return new long[] { calendar.getTimeInMillis(), now };
+            }
+            long currentUnitStart = calendar.getTimeInMillis();
+            calendar.add(field, -units);
+            return new long[] { calendar.getTimeInMillis(), currentUnitStart };
+        }
+
+        private long[] computeIntervalBoundaries(String interval) {
+            int units = 1;
+            String unit;
+            Matcher matcher = INTERVAL.matcher(interval);
+            if (matcher.matches()) {
+                units = Integer.parseInt(matcher.group(1));
+                unit = matcher.group(2);
+            } else if ("minutely".equals(interval)) {
+                unit = "minute";
+            } else if ("hourly".equals(interval)) {
+                unit = "hour";
+            } else if ("daily".equals(interval)) {
+                unit = "day";
+            } else if ("weekly".equals(interval)) {
+                unit = "week";
+            } else if ("monthly".equals(interval)) {
+                unit = "month";
+            } else if ("yearly".equals(interval)) {
+                unit = "year";
+            } else {
+                throw new IllegalArgumentException("Unsupported interval: " + interval);
+            }
+            if (units <= 0) {
+                throw new IllegalArgumentException("Unsupported interval: " + interval);
+            }
+
+            int field = calendarField(unit);
+            Calendar calendar = Calendar.getInstance(timeZone, Locale.US);
+            calendar.setTimeInMillis(start);
+            List<Long> boundaries = new ArrayList<Long>();
+            boundaries.add(start);
+            while (calendar.getTimeInMillis() < end) {
+                calendar.add(field, units);
+                boundaries.add(Math.min(calendar.getTimeInMillis(), end));
+            }
+
+            long[] result = new long[boundaries.size()];
+            for (int i = 0; i < result.length; i++) {
+                result[i] = boundaries.get(i);
+            }
+            return result;
+        }
+
+        /**
+         * Aggregates the matching events by interval and group.
+         */
+        Map<BucketKey, Aggregator> scan(List<Map<String, ?>> events) {
+            Map<BucketKey, Aggregator> buckets = new LinkedHashMap<BucketKey, Aggregator>();
+            for (Map<String, ?> event : events) {
+                if (!matches(event)) {
+                    continue;
+                }
+
+                int interval = -1;
+                if (hasTimeframe) {
+                    Object timestamp = getProperty(event, TIMESTAMP_PROPERTY);
+                    if (!(timestamp instanceof String)) {
+                        continue;
+                    }
+                    long time = QueryTimestamps.parse((String) timestamp);
+                    if (time < start || time >= end) {
+                        continue;
+                    }
+                    if (intervalBoundaries != null) {
+                        interval = Arrays.binarySearch(intervalBoundaries, time);
+                        if (interval < 0) {
+                            interval = -interval - 2;
+                        }
+                    }
+                }
+
+                Object value = null;
+                if (queryType != QueryType.COUNT) {
+                    value = getProperty(event, targetProperty);
+                    if (value == MISSING || value == null) {
+                        continue;
+                    }
+                }
+
+                List<Object> group = null;
+                if (groupBy != null) {
+                    group = new ArrayList<Object>(groupBy.size());
+                    for (String property : groupBy) {
+                        Object groupValue = getProperty(event, property);
+                        group.add(groupValue == MISSING ? null : normalize(groupValue));
+                    }
+                }
+
+                BucketKey key = new BucketKey(interval, group);
+                Aggregator aggregator = buckets.get(key);
+                if (aggregator == null) {
+                    aggregator = Aggregator.create(queryType, percentile);
+                    buckets.put(key, aggregator);
+                }
+                aggregator.add(normalize(value));
+            }
+            return buckets;
+        }
+
+        private boolean matches(Map<String, ?> event) {
+            for (Filter filter : filters) {
+                if (!filter.matches(event)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Aggregates the buckets into a result of the same shape the server would return.
+         */
+        QueryResult buildResult(Map<BucketKey, Aggregator> buckets) {
+            // Index the buckets by interval once, so that each interval's result is built from
+            // its own groups rather than by scanning every bucket.
+            Map<Integer, Map<List<Object>, Aggregator>> intervalBuckets =
+                    new HashMap<Integer, Map<List<Object>, Aggregator>>();
+            for (Map.Entry<BucketKey, Aggregator> entry : buckets.entrySet()) {
+                Map<List<Object>, Aggregator> groupBuckets =
+                        intervalBuckets.get(entry.getKey().interval);
+                if (groupBuckets == null) {
+                    groupBuckets = new LinkedHashMap<List<Object>, Aggregator>();
+                    intervalBuckets.put(entry.getKey().interval, groupBuckets);
+                }
+                groupBuckets.put(entry.getKey().group, entry.getValue());
+            }
+
+            if (intervalBoundaries == null) {
+                return buildGroupResult(intervalBuckets.get(-1));
+            }
+
+            List<IntervalResultValue> intervals = new ArrayList<IntervalResultValue>();
+            for (int i = 0; i < intervalBoundaries.length - 1; i++) {
+                AbsoluteTimeframe timeframe = new AbsoluteTimeframe(
+                        QueryTimestamps.format(intervalBoundaries[i], timeZone),
+                        QueryTimestamps.format(intervalBoundaries[i + 1], timeZone));
+                intervals.add(new IntervalResultValue(timeframe,
+                        buildGroupResult(intervalBuckets.get(i))));
+            }
+            return new IntervalResult(intervals);
+        }
+
+        /**
+         * Builds the result for one interval (or the whole timeframe) from its buckets, keyed by
+         * group, or null if no events fell into it.
+         */
+        private QueryResult buildGroupResult(Map<List<Object>, Aggregator> groupBuckets) {
+            if (groupBy == null) {
+                Aggregator aggregator = groupBuckets == null ? null : groupBuckets.get(null);
+                if (aggregator == null) {
+                    aggregator = Aggregator.create(queryType, percentile);
+                }
+                return aggregator.result();
+            }
+
+            Map<Group, QueryResult> groups = new LinkedHashMap<Group, QueryResult>();
+            if (groupBuckets != null) {
+                for (Map.Entry<List<Object>, Aggregator> entry : groupBuckets.entrySet()) {
+                    Map<String, Object> properties = new HashMap<String, Object>();
+                    for (int i = 0; i < groupBy.size(); i++) {
+                        properties.put(groupBy.get(i), entry.getKey().get(i));
+                    }
+                    groups.put(new Group(properties), entry.getValue().result());
+                }
+            }
+            return new GroupByResult(groups);
+        }
+    }
+
+}
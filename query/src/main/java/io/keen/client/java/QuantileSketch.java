@@ -0,0 +1,203 @@
+package io.keen.client.java;
+
+/**
+ * A mergeable quantile sketch with relative-error guarantees, used by {@link LocalQueryEngine}
+ * for Median and Percentile results. Values are counted in logarithmically sized buckets, so any
+ * quantile is estimated to within the sketch's relative accuracy of a value at that rank; the
+ * minimum and maximum are tracked exactly. Merging two sketches adds their bucket counts, so the
+ * result doesn't depend on how the values were partitioned.
+ *
+ * @author Keen IO
+ * @since 5.1.0
+ */
+final class QuantileSketch {
+
+    /**
+     * The default relative accuracy of estimated quantiles.
+     */
+    static final double DEFAULT_RELATIVE_ACCURACY = 0.01;
+
+    /**
+     * The maximum number of buckets per sign. Beyond this the lowest-magnitude buckets are
+     * collapsed together, which only affects the accuracy of the most extreme quantiles.
+     */
+    private static final int MAX_BUCKETS = 2048;
+
+    /**
+     * Values with a smaller magnitude than this are counted as zero.
+     */
+    private static final double MIN_INDEXABLE_VALUE = 1e-300;
+
+    private final double relativeAccuracy;
+    private final double gamma;
+    private final double logGamma;
+
+    private final Store positives = new Store();
+    private final Store negatives = new Store();
+    private long zeroCount;
+    private long count;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    QuantileSketch() {
+        this(DEFAULT_RELATIVE_ACCURACY);
+    }
+
+    QuantileSketch(double relativeAccuracy) {
+        if (relativeAccuracy <= 0 || relativeAccuracy >= 1) {
+            throw new IllegalArgumentException("Relative accuracy must be between 0 and 1");
+        }
+        this.relativeAccuracy = relativeAccuracy;
+        this.gamma = (1 + relativeAccuracy) / (1 - relativeAccuracy);
+        this.logGamma = Math.log(gamma);
+    }
+
+    void add(double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        if (value > MIN_INDEXABLE_VALUE) {
+            positives.add(index(value), 1);
+        } else if (value < -MIN_INDEXABLE_VALUE) {
+            negatives.add(index(-value), 1);
+        } else {
+            zeroCount++;
+        }
+        count++;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Merges another sketch with the same relative accuracy into this one.
+     *
+     * @param other The sketch to merge.
+     */
+    void merge(QuantileSketch other) {
+        if (other.relativeAccuracy != relativeAccuracy) {
+            throw new IllegalArgumentException("Cannot merge sketches of different accuracy");
+        }
+        positives.merge(other.positives);
+        negatives.merge(other.negatives);
+        zeroCount += other.zeroCount;
+        count += other.count;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    long getCount() {
+        return count;
+    }
+
+    /**
+     * Estimates the value at the given quantile.
+     *
+     * @param quantile The quantile, between 0 and 1.
+     * @return The estimated value, or {@link Double#NaN} if no values have been added.
+     */
+    double quantile(double quantile) {
+        if (count == 0) {
+            return Double.NaN;
+        } else if (quantile <= 0) {
+            return min;
+        } else if (quantile >= 1) {
+            return max;
+        }
+
+        long rank = (long) (quantile * (count - 1));
+        double value;
+        if (rank < negatives.total) {
+            // Negative buckets are ordered by magnitude, so walk them from the largest.
+            value = -value(negatives.indexAtRank(negatives.total - 1 - rank));
+        } else if (rank < negatives.total + zeroCount) {
+            value = 0;
+        } else {
+            value = value(positives.indexAtRank(rank - negatives.total - zeroCount));
+        }
+        return Math.max(min, Math.min(max, value));
+    }
+
+    ///// PRIVATE METHODS /////
+
+    private int index(double magnitude) {
+        return (int) Math.ceil(Math.log(magnitude) / logGamma);
+    }
+
+    /**
+     * @return The value which best represents the bucket, i.e. whose relative error is at most
+     * the relative accuracy for every value in it.
+     */
+    private double value(int index) {
+        return 2 * Math.pow(gamma, index) / (gamma + 1);
+    }
+
+    ///// PRIVATE TYPES /////
+
+    /**
+     * Bucket counts for one sign, held in a growable array indexed from an offset.
+     */
+    private static final class Store {
+        long[] counts;
+        int offset;
+        long total;
+
+        void add(int index, long n) {
+            if (counts == null) {
+                counts = new long[8];
+                offset = index - 4;
+            }
+            if (index < offset || index >= offset + counts.length) {
+                grow(index);
+            }
+            if (index < offset) {
+                // Collapsed: fold into the lowest remaining bucket.
+                index = offset;
+            }
+            counts[index - offset] += n;
+            total += n;
+        }
+
+        void merge(Store other) {
+            if (other.counts == null) {
+                return;
+            }
+            for (int i = 0; i < other.counts.length; i++) {
+                if (other.counts[i] != 0) {
+                    add(other.offset + i, other.counts[i]);
+                }
+            }
+        }
+
+        int indexAtRank(long rank) {
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen > rank) {
+                    return offset + i;
+                }
+            }
+            return offset + counts.length - 1;
+        }
+
+        private void grow(int index) {
+            int high = Math.max(offset + counts.length - 1, index);
+            int needed = high - Math.min(offset, index) + 1;
+            int length = Math.min(MAX_BUCKETS, Math.max(needed, counts.length * 2));
+            int low;
+            if (needed > MAX_BUCKETS || index < offset) {
+                // Either collapse the lowest buckets, or leave spare room below for further growth.
+                low = high - length + 1;
+            } else {
+                low = offset;
+            }
+
+            long[] grown = new long[length];
+            for (int i = 0; i < counts.length; i++) {
+                grown[Math.max(offset + i, low) - low] += counts[i];
+            }
+            counts = grown;
+            offset = low;
+        }
+    }
+
+}
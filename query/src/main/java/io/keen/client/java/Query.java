@@ -1,9 +1,17 @@
 package io.keen.client.java;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.util.Collections;
 import java.util.Map;
 import java.util.List;
 import java.util.HashMap;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Set;
+import java.util.TreeMap;
 
 /**
  * Query represents all the details of the query to be run, including required
@@ -30,6 +38,16 @@ public class Query {
     // required by the Percentile query
     private final Double percentile;  // 0-100 with two decimal places of precision for example, 99.99
 
+    // required by the Multi-Analysis query; analysis name to analysis arguments.
+    private final Map<String, Map<String, Object>> analyses;
+
+    // Memoized forms of the arguments. The query is immutable, so these never change once
+    // computed; threads which race to compute them just do the work more than once.
+    private volatile Map<String, Object> queryArgs;
+    private volatile SerializedArgs serializedArgs;
+
+    private static final String ENCODING = "UTF-8";
+
     /**
      * Constructs the map to pass to the JSON handler, so that the proper required
      * and optional Query arguments can be sent out to the server.
@@ -76,9 +94,45 @@ public class Query {
             queryArgs.putAll(timeframe.constructTimeframeArgs());
         }
 
+        if (analyses != null) {
+            queryArgs.put(KeenQueryConstants.ANALYSES, analyses);
+        }
+
         return queryArgs;
     }
 
+    /**
+     * Gets the query arguments, constructing them on first use. Unlike
+     * {@link #constructQueryArgs()}, the same unmodifiable map is returned on every call.
+     *
+     * @return The JSON object map.
+     */
+    Map<String, Object> getQueryArgs() {
+        Map<String, Object> args = queryArgs;
+        if (args == null) {
+            args = Collections.unmodifiableMap(constructQueryArgs());
+            queryArgs = args;
+        }
+        return args;
+    }
+
+    /**
+     * Gets the query arguments serialized by the given JSON handler, serializing them on first
+     * use. Repeated executions of the same query with the same handler do no serialization work.
+     *
+     * @param jsonHandler The JSON handler with which to serialize the arguments.
+     * @return The serialized arguments.
+     * @throws IOException If the arguments could not be serialized.
+     */
+    SerializedArgs getSerializedArgs(KeenJsonHandler jsonHandler) throws IOException {
+        SerializedArgs args = serializedArgs;
+        if (args == null || args.jsonHandler != jsonHandler) {
+            args = new SerializedArgs(jsonHandler, getQueryArgs());
+            serializedArgs = args;
+        }
+        return args;
+    }
+
     /**
      * @return the query type
      */
@@ -94,6 +148,16 @@ public class Query {
      */
     public boolean hasInterval() { return interval != null; }
 
+    /**
+     * @return the max age, in seconds, or null if none was specified.
+     */
+    public Integer getMaxAge() { return maxAge; }
+
+    /**
+     * @return the names of the analyses in a Multi-Analysis query, or null if there are none.
+     */
+    Set<String> getAnalysisNames() { return analyses == null ? null : analyses.keySet(); }
+
     /**
      * Verifies whether the parameters are valid, based on the input query name.
      *
@@ -124,6 +188,12 @@ public class Query {
             }
         }
 
+        if (queryType == QueryType.MULTI_ANALYSIS) {
+            if (eventCollection == null || eventCollection.isEmpty() || analyses == null || analyses.isEmpty()) {
+                return false;
+            }
+        }
+
         return true;
     }
 
@@ -137,12 +207,84 @@ public class Query {
         this.targetProperty = builder.targetProperty;
         this.interval = builder.interval;
         this.timezone = builder.timezone;
-        this.groupBy = builder.groupBy;
         this.maxAge = builder.maxAge;
         this.percentile = builder.percentile;
         this.queryType = builder.queryType;
         this.timeframe = builder.timeframe;
-        this.filters = builder.filters;
+
+        // Copy the builder's collections, so that reusing the builder can't change this query.
+        this.groupBy = builder.groupBy == null ? null
+                : Collections.unmodifiableList(new ArrayList<String>(builder.groupBy));
+        this.filters = builder.filters == null ? null : copyMaps(builder.filters);
+        if (builder.analyses == null) {
+            this.analyses = null;
+        } else {
+            Map<String, Map<String, Object>> analyses = new LinkedHashMap<String, Map<String, Object>>();
+            for (Map.Entry<String, Map<String, Object>> analysis : builder.analyses.entrySet()) {
+                analyses.put(analysis.getKey(), Collections.unmodifiableMap(new HashMap<String, Object>(analysis.getValue())));
+            }
+            this.analyses = Collections.unmodifiableMap(analyses);
+        }
+    }
+
+    private static List<Map<String, Object>> copyMaps(List<Map<String, Object>> maps) {
+        List<Map<String, Object>> copy = new ArrayList<Map<String, Object>>(maps.size());
+        for (Map<String, Object> map : maps) {
+            copy.add(Collections.unmodifiableMap(new HashMap<String, Object>(map)));
+        }
+        return Collections.unmodifiableList(copy);
+    }
+
+    /**
+     * The query arguments serialized by a particular JSON handler: the request body, and a
+     * canonical form with all map keys sorted, so that equal queries have equal canonical forms
+     * regardless of map iteration order.
+     */
+    static final class SerializedArgs {
+        final KeenJsonHandler jsonHandler;
+        final byte[] body;
+        final String canonicalJson;
+
+        SerializedArgs(KeenJsonHandler jsonHandler, Map<String, Object> queryArgs) throws IOException {
+            this.jsonHandler = jsonHandler;
+
+            // In queries, the arguments may be empty, in which case no body is sent.
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            if (!queryArgs.isEmpty()) {
+                OutputStreamWriter writer = new OutputStreamWriter(out, ENCODING);
+                jsonHandler.writeJson(writer, queryArgs);
+                writer.close();
+            }
+            this.body = out.toByteArray();
+
+            StringWriter canonicalWriter = new StringWriter();
+            jsonHandler.writeJson(canonicalWriter, canonicalize(queryArgs));
+            this.canonicalJson = canonicalWriter.toString();
+        }
+
+        /**
+         * Recursively copies maps into sorted maps so that they serialize in a stable order.
+         */
+        private static Map<String, Object> canonicalize(Map<?, ?> map) {
+            Map<String, Object> sorted = new TreeMap<String, Object>();
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                sorted.put(String.valueOf(entry.getKey()), canonicalizeValue(entry.getValue()));
+            }
+            return sorted;
+        }
+
+        private static Object canonicalizeValue(Object value) {
+            if (value instanceof Map) {
+                return canonicalize((Map<?, ?>) value);
+            } else if (value instanceof List) {
+                List<Object> list = new ArrayList<Object>();
+                for (Object element : (List<?>) value) {
+                    list.add(canonicalizeValue(element));
+                }
+                return list;
+            }
+            return value;
+        }
     }
 
     /**
@@ -166,6 +308,9 @@ public class Query {
         private ArrayList<String> groupBy;
         private Integer maxAge;
 
+        // required by the Multi-Analysis query
+        private LinkedHashMap<String, Map<String, Object>> analyses;
+
         public Builder(QueryType queryType) {
             this.queryType = queryType;
         }
@@ -420,6 +565,73 @@ public class Query {
             return this;
         }
 
+        /**
+         * Adds a Count analysis to a Multi-Analysis query.
+         * Refer to API documentation: https://keen.io/docs/api/#multi-analysis
+         *
+         * @param analysisName     The name under which the analysis result is returned.
+         * @param analysisType     The type of the analysis; must be {@link QueryType#COUNT}.
+         * @return This instance (for method chaining).
+         */
+        public Builder withAnalysis(String analysisName, QueryType analysisType) {
+            return withAnalysis(analysisName, analysisType, null, null);
+        }
+
+        /**
+         * Adds an analysis of a target property to a Multi-Analysis query.
+         *
+         * @param analysisName     The name under which the analysis result is returned.
+         * @param analysisType     The type of the analysis, such as {@link QueryType#SUM}.
+         * @param targetProperty   The name of the property to analyze.
+         * @return This instance (for method chaining).
+         */
+        public Builder withAnalysis(String analysisName, QueryType analysisType, String targetProperty) {
+            return withAnalysis(analysisName, analysisType, targetProperty, null);
+        }
+
+        /**
+         * Adds an analysis to a Multi-Analysis query. Analyses are sent and returned in the order
+         * in which they are added.
+         *
+         * @param analysisName     The name under which the analysis result is returned.
+         * @param analysisType     The type of the analysis, such as {@link QueryType#PERCENTILE}.
+         * @param targetProperty   The name of the property to analyze; required for all analysis
+         *                         types other than {@link QueryType#COUNT}.
+         * @param percentile       The percentile; required for {@link QueryType#PERCENTILE}.
+         * @return This instance (for method chaining).
+         * @throws IllegalArgumentException if the analysis arguments are insufficient.
+         */
+        public Builder withAnalysis(String analysisName, QueryType analysisType,
+                                    String targetProperty, Double percentile) {
+            if (analysisName == null || analysisName.isEmpty()) {
+                throw new IllegalArgumentException("Analysis name must not be empty.");
+            }
+            if (analysisType == null || analysisType == QueryType.MULTI_ANALYSIS) {
+                throw new IllegalArgumentException("Invalid analysis type: " + analysisType);
+            }
+            if (analysisType != QueryType.COUNT && (targetProperty == null || targetProperty.isEmpty())) {
+                throw new IllegalArgumentException("Analysis type " + analysisType + " requires a target property.");
+            }
+            if (analysisType == QueryType.PERCENTILE && percentile == null) {
+                throw new IllegalArgumentException("Percentile analysis requires a percentile.");
+            }
+
+            Map<String, Object> analysis = new HashMap<String, Object>();
+            analysis.put(KeenQueryConstants.ANALYSIS_TYPE, analysisType.toString());
+            if (targetProperty != null) {
+                analysis.put(KeenQueryConstants.TARGET_PROPERTY, targetProperty);
+            }
+            if (percentile != null) {
+                analysis.put(KeenQueryConstants.PERCENTILE, percentile);
+            }
+
+            if (analyses == null) {
+                analyses = new LinkedHashMap<String, Map<String, Object>>();
+            }
+            analyses.put(analysisName, analysis);
+            return this;
+        }
+
         /**
          * Build the Query after the method chaining arguments.
          * */
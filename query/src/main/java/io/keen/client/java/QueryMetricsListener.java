@@ -0,0 +1,58 @@
+package io.keen.client.java;
+
+/**
+ * Interface which receives performance metrics from a {@link KeenQueryClient}: how long each
+ * phase of a query took, how large its request and response were, which queries failed, and
+ * whether cached results were found.
+ * <p>
+ * All of a query's callbacks are made on the thread running it: the caller's thread for
+ * {@code execute}, and a query executor thread for asynchronous queries. A batch runs its
+ * queries on both, so callbacks for different queries may interleave. Callbacks are made
+ * between the phases of the query, which waits for them.
+ * {@link InMemoryQueryMetrics} is a simple implementation which aggregates the metrics per
+ * {@link QueryType}.
+ * </p>
+ *
+ * @author Keen IO
+ * @since 5.1.0
+ */
+public interface QueryMetricsListener {
+
+    /**
+     * Called when a phase of a query has completed.
+     *
+     * @param queryType The type of the query.
+     * @param phase The phase which completed.
+     * @param durationNanos How long the phase took, in nanoseconds.
+     */
+    void onPhaseCompleted(QueryType queryType, QueryPhase phase, long durationNanos);
+
+    /**
+     * Called when a response has been received from the server, whether or not it indicates
+     * success.
+     *
+     * @param queryType The type of the query.
+     * @param requestBytes The size of the request body, in bytes.
+     * @param responseBytes The size of the response body, in bytes, when encoded as UTF-8.
+     */
+    void onRequestCompleted(QueryType queryType, long requestBytes, long responseBytes);
+
+    /**
+     * Called when a query fails, for example with a
+     * {@link io.keen.client.java.exceptions.ServerException} or a
+     * {@link io.keen.client.java.exceptions.KeenQueryClientException}.
+     *
+     * @param queryType The type of the query.
+     * @param error The exception which the query will throw.
+     */
+    void onQueryFailed(QueryType queryType, Exception error);
+
+    /**
+     * Called after each lookup in the client's {@link QueryResultCache}, if it has one.
+     *
+     * @param queryType The type of the query.
+     * @param hit Whether an unexpired result was found.
+     */
+    void onCacheLookup(QueryType queryType, boolean hit);
+
+}
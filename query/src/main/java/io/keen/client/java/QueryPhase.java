@@ -0,0 +1,35 @@
+package io.keen.client.java;
+
+/**
+ * QueryPhase identifies the phases of running a query which are timed and reported to a
+ * {@link QueryMetricsListener}.
+ *
+ * @author Keen IO
+ * @since 5.1.0
+ */
+public enum QueryPhase {
+
+    /**
+     * Serializing the query arguments into the request body. Repeated executions of the same
+     * {@link Query} reuse the serialized body, so this is usually negligible after the first.
+     */
+    SERIALIZATION,
+
+    /**
+     * Sending the request and receiving the response, including any time spent waiting for the
+     * server to run the query.
+     */
+    NETWORK,
+
+    /**
+     * Parsing the JSON response. For streaming and columnar queries this also includes building
+     * the result, since the two are interleaved.
+     */
+    PARSE,
+
+    /**
+     * Building the {@link io.keen.client.java.result.QueryResult} from the parsed response.
+     */
+    CONSTRUCT_RESULT
+
+}
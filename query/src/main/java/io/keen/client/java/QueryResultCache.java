@@ -0,0 +1,219 @@
+package io.keen.client.java;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import io.keen.client.java.result.QueryResult;
+
+/**
+ * In-process cache of {@link QueryResult}s, used by {@link KeenQueryClient} to avoid re-sending
+ * identical queries to the server.
+ * <p>
+ * Entries are keyed by the project, the {@link QueryType} and a canonical form of the query
+ * arguments. Each entry expires after the query's max_age (if one was specified) or after the
+ * cache's default time-to-live. Once the cache holds its maximum number of entries, the least
+ * recently used entry is evicted to make room for a new one.
+ * </p>
+ * <p>
+ * Cached {@link QueryResult} instances are shared between callers, so they should be treated as
+ * read-only.
+ * </p>
+ * <p>
+ * NOTE: This implementation synchronizes all operations in order to ensure thread safety.
+ * </p>
+ *
+ * @author Keen IO
+ * @since 5.1.0
+ */
+public class QueryResultCache {
+
+    ///// PUBLIC CONSTANTS /////
+
+    /**
+     * The default maximum number of results held by the cache.
+     */
+    public static final int DEFAULT_MAX_ENTRIES = 1000;
+
+    /**
+     * The default time-to-live for results of queries which don't specify a max_age, in
+     * milliseconds.
+     */
+    public static final long DEFAULT_TTL_MILLIS = 60 * 1000;
+
+    ///// PUBLIC CONSTRUCTORS /////
+
+    /**
+     * Constructs a new cache using {@link #DEFAULT_MAX_ENTRIES} and {@link #DEFAULT_TTL_MILLIS}.
+     */
+    public QueryResultCache() {
+        this(DEFAULT_MAX_ENTRIES, DEFAULT_TTL_MILLIS);
+    }
+
+    /**
+     * Constructs a new cache.
+     *
+     * @param maxEntries The maximum number of results to hold before evicting the least recently
+     *                   used one.
+     * @param defaultTtlMillis The time-to-live, in milliseconds, of results for queries which
+     *                         don't specify a max_age.
+     */
+    public QueryResultCache(final int maxEntries, long defaultTtlMillis) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("Max entries must be positive");
+        }
+        if (defaultTtlMillis < 0) {
+            throw new IllegalArgumentException("Default TTL must not be negative");
+        }
+        this.maxEntries = maxEntries;
+        this.defaultTtlMillis = defaultTtlMillis;
+        this.entries = new LinkedHashMap<String, CacheEntry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CacheEntry> eldest) {
+                if (size() > QueryResultCache.this.maxEntries) {
+                    evictionCount++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    ///// PUBLIC METHODS /////
+
+    /**
+     * Gets the cached result for the given key, if one exists and has not expired.
+     *
+     * @param key The canonical query key.
+     * @return The cached result, or null if there is none.
+     */
+    public synchronized QueryResult get(String key) {
+        CacheEntry entry = entries.get(key);
+        if (entry != null && entry.expiresAt <= currentTimeMillis()) {
+            entries.remove(key);
+            entry = null;
+        }
+
+        if (entry == null) {
+            missCount++;
+            return null;
+        }
+        hitCount++;
+        return entry.result;
+    }
+
+    /**
+     * Stores a result in the cache.
+     *
+     * @param key The canonical query key.
+     * @param query The query which produced the result; its max_age, if any, determines how long
+     *              the result is kept.
+     * @param result The result to cache. Null results are not cached.
+     */
+    public synchronized void put(String key, Query query, QueryResult result) {
+        if (result == null) {
+            return;
+        }
+
+        long ttlMillis = defaultTtlMillis;
+        Integer maxAge = query.getMaxAge();
+        if (maxAge != null) {
+            ttlMillis = maxAge * 1000L;
+        }
+        if (ttlMillis <= 0) {
+            return;
+        }
+
+        entries.put(key, new CacheEntry(result, currentTimeMillis() + ttlMillis));
+    }
+
+    /**
+     * Removes all entries from the cache. Hit and miss counts are not reset.
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Removes all expired entries from the cache.
+     */
+    public synchronized void purgeExpired() {
+        long now = currentTimeMillis();
+        Iterator<CacheEntry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().expiresAt <= now) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * @return The number of entries currently held, including any which have expired but not yet
+     * been purged.
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return The number of lookups which found an unexpired result.
+     */
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * @return The number of lookups which found no result, or only an expired one.
+     */
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * @return The number of entries evicted to keep the cache within its maximum size.
+     */
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * @return The fraction of lookups which were hits, or 0 if there have been no lookups.
+     */
+    public synchronized double getHitRate() {
+        long total = hitCount + missCount;
+        return total == 0 ? 0.0 : (double) hitCount / total;
+    }
+
+    ///// PROTECTED METHODS /////
+
+    /**
+     * Gets the current time. Subclasses may override this to control expiry, e.g. in tests.
+     *
+     * @return The current time in milliseconds.
+     */
+    protected long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    ///// PRIVATE TYPES /////
+
+    private static class CacheEntry {
+        final QueryResult result;
+        final long expiresAt;
+
+        CacheEntry(QueryResult result, long expiresAt) {
+            this.result = result;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    ///// PRIVATE FIELDS /////
+
+    private final int maxEntries;
+    private final long defaultTtlMillis;
+    private final LinkedHashMap<String, CacheEntry> entries;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+}
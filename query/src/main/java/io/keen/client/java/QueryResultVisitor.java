@@ -0,0 +1,33 @@
+package io.keen.client.java;
+
+import io.keen.client.java.result.Group;
+import io.keen.client.java.result.QueryResult;
+
+/**
+ * Callback interface used by {@link KeenQueryClient#executeStreaming(Query, QueryResultVisitor)}
+ * to deliver the values of a query result one at a time, as they are parsed from the response.
+ * This allows very large results (for example a Select Unique over a high-cardinality property)
+ * to be processed without first building the complete {@link QueryResult} tree.
+ *
+ * @author Keen IO
+ * @since 5.1.0
+ */
+public interface QueryResultVisitor {
+
+    /**
+     * Called for each element of a list result, such as the unique values of a Select Unique
+     * query. For queries which return a single value, this is called once with that value.
+     *
+     * @param value The value.
+     */
+    void visitValue(QueryResult value);
+
+    /**
+     * Called for each group of a Group By result.
+     *
+     * @param group The unique property/value pairs of the group.
+     * @param result The result for the group.
+     */
+    void visitGroup(Group group, QueryResult result);
+
+}
@@ -0,0 +1,132 @@
+package io.keen.client.java;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+
+/**
+ * Conversion between the ISO-8601 timestamps used by the Keen API and milliseconds since the
+ * epoch.
+ *
+ * @author Keen IO
+ * @since 5.1.0
+ */
+final class QueryTimestamps {
+
+    private QueryTimestamps() {
+    }
+
+    /**
+     * Parses an ISO-8601 timestamp of the form returned by the server
+     * ({@code yyyy-MM-ddTHH:mm:ss[.SSS][Z|+HH:mm|+HHmm]}) without allocating a date formatter.
+     * A missing offset is treated as UTC.
+     *
+     * @param timestamp The timestamp.
+     * @return The timestamp in milliseconds since the epoch.
+     */
+    static long parse(String timestamp) {
+        if (timestamp == null || timestamp.length() < 19 || timestamp.charAt(4) != '-'
+                || timestamp.charAt(7) != '-' || timestamp.charAt(10) != 'T'
+                || timestamp.charAt(13) != ':' || timestamp.charAt(16) != ':') {
+            throw new IllegalStateException("Invalid timestamp: " + timestamp);
+        }
+
+        int year = parseDigits(timestamp, 0, 4);
+        int month = parseDigits(timestamp, 5, 7);
+        int day = parseDigits(timestamp, 8, 10);
+        int hour = parseDigits(timestamp, 11, 13);
+        int minute = parseDigits(timestamp, 14, 16);
+        int second = parseDigits(timestamp, 17, 19);
+
+        // Fractional seconds, of which only the first three digits (milliseconds) are kept.
+        int position = 19;
+        int millis = 0;
+        if (position < timestamp.length() && timestamp.charAt(position) == '.') {
+            position++;
+            int digits = 0;
+            while (position < timestamp.length() && Character.isDigit(timestamp.charAt(position))) {
+                if (digits < 3) {
+                    millis = millis * 10 + (timestamp.charAt(position) - '0');
+                }
+                digits++;
+                position++;
+            }
+            for (; digits < 3; digits++) {
+                millis *= 10;
+            }
+        }
+
+        // Offset from UTC, in minutes.
+        int offsetMinutes = 0;
+        if (position < timestamp.length()) {
+            char sign = timestamp.charAt(position);
+            if (sign == '+' || sign == '-') {
+                int offsetHours = parseDigits(timestamp, position + 1, position + 3);
+                int minutesStart = position + 3;
+                if (minutesStart < timestamp.length() && timestamp.charAt(minutesStart) == ':') {
+                    minutesStart++;
+                }
+                offsetMinutes = offsetHours * 60 + parseDigits(timestamp, minutesStart, minutesStart + 2);
+                if (sign == '-') {
+                    offsetMinutes = -offsetMinutes;
+                }
+            } else if (sign != 'Z') {
+                throw new IllegalStateException("Invalid timestamp: " + timestamp);
+            }
+        }
+
+        long days = daysFromCivil(year, month, day);
+        long seconds = days * 86400L + hour * 3600L + minute * 60L + second - offsetMinutes * 60L;
+        return seconds * 1000L + millis;
+    }
+
+    private static int parseDigits(String text, int start, int end) {
+        if (end > text.length()) {
+            throw new IllegalStateException("Invalid timestamp: " + text);
+        }
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                throw new IllegalStateException("Invalid timestamp: " + text);
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    /**
+     * Computes the number of days between the epoch and a date in the proleptic Gregorian
+     * calendar.
+     */
+    private static long daysFromCivil(int year, int month, int day) {
+        int y = month <= 2 ? year - 1 : year;
+        int era = (y >= 0 ? y : y - 399) / 400;
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097L + dayOfEra - 719468;
+    }
+
+    /**
+     * Formats a timestamp in the form used by the server for interval timeframes.
+     *
+     * @param millis The timestamp in milliseconds since the epoch.
+     * @param timeZone The time zone whose offset should be used.
+     * @return The formatted timestamp.
+     */
+    static String format(long millis, TimeZone timeZone) {
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS", Locale.US);
+        format.setTimeZone(timeZone);
+        int offsetMinutes = timeZone.getOffset(millis) / 60000;
+        if (offsetMinutes == 0) {
+            return format.format(new Date(millis)) + "Z";
+        }
+        char sign = offsetMinutes < 0 ? '-' : '+';
+        offsetMinutes = Math.abs(offsetMinutes);
+        return String.format(Locale.US, "%s%c%02d:%02d", format.format(new Date(millis)), sign,
+                offsetMinutes / 60, offsetMinutes % 60);
+    }
+
+}
@@ -0,0 +1,170 @@
+package io.keen.client.java.result;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * <p>ColumnarIntervalResult is a compact representation of the result of an Interval query with
+ * a numeric analysis (for example a minutely count over thirty days). Rather than one
+ * {@link IntervalResultValue} object per interval, it holds the results in primitive arrays:</p>
+ * <ul>
+ * <li>the start and end of each interval, as milliseconds since the epoch</li>
+ * <li>one value per row, held as a {@code long[]} if every value is integral and as a
+ * {@code double[]} otherwise</li>
+ * <li>for queries which also specify Group By, the interval and group of each row, where
+ * groups are dictionary-encoded as indexes into a list of distinct {@link Group}s</li>
+ * </ul>
+ * <p>Without Group By there is exactly one row per interval. None of the accessors box their
+ * results.</p>
+ *
+ * @author Keen IO
+ * @since 5.1.0
+ */
+public final class ColumnarIntervalResult {
+
+    private final long[] starts;
+    private final long[] ends;
+    private final int[] rowIntervals;
+    private final int[] rowGroups;
+    private final List<Group> groups;
+    private final long[] longValues;
+    private final double[] doubleValues;
+
+    /**
+     * Constructs a columnar interval result. The arrays are used directly, not copied.
+     *
+     * @param starts the start of each interval, in milliseconds since the epoch.
+     * @param ends the end of each interval, in milliseconds since the epoch.
+     * @param rowIntervals the index of the interval of each row.
+     * @param rowGroups the index into {@code groups} of the group of each row, or null if the
+     *                  query has no Group By.
+     * @param groups the distinct groups, or null if the query has no Group By.
+     * @param longValues the value of each row, if all values are integral; otherwise null.
+     * @param doubleValues the value of each row, if any value is not integral; otherwise null.
+     */
+    public ColumnarIntervalResult(long[] starts, long[] ends, int[] rowIntervals, int[] rowGroups,
+                                  List<Group> groups, long[] longValues, double[] doubleValues) {
+        if (starts.length != ends.length) {
+            throw new IllegalArgumentException("Interval starts and ends must have the same length");
+        }
+        if ((longValues == null) == (doubleValues == null)) {
+            throw new IllegalArgumentException("Exactly one of long or double values must be set");
+        }
+        int rowCount = longValues != null ? longValues.length : doubleValues.length;
+        if (rowIntervals.length != rowCount || (rowGroups != null && rowGroups.length != rowCount)) {
+            throw new IllegalArgumentException("All row arrays must have the same length");
+        }
+        if ((rowGroups == null) != (groups == null)) {
+            throw new IllegalArgumentException("Row groups and groups must both be set or both be null");
+        }
+
+        this.starts = starts;
+        this.ends = ends;
+        this.rowIntervals = rowIntervals;
+        this.rowGroups = rowGroups;
+        this.groups = groups == null ? null : Collections.unmodifiableList(new ArrayList<Group>(groups));
+        this.longValues = longValues;
+        this.doubleValues = doubleValues;
+    }
+
+    /**
+     * @return the number of intervals.
+     */
+    public int getIntervalCount() {
+        return starts.length;
+    }
+
+    /**
+     * @param interval the index of the interval.
+     * @return the start of the interval, in milliseconds since the epoch.
+     */
+    public long getStart(int interval) {
+        return starts[interval];
+    }
+
+    /**
+     * @param interval the index of the interval.
+     * @return the end of the interval, in milliseconds since the epoch.
+     */
+    public long getEnd(int interval) {
+        return ends[interval];
+    }
+
+    /**
+     * @return whether the query specified Group By.
+     */
+    public boolean isGrouped() {
+        return groups != null;
+    }
+
+    /**
+     * @return the number of distinct groups, or 0 if the query has no Group By.
+     */
+    public int getGroupCount() {
+        return groups == null ? 0 : groups.size();
+    }
+
+    /**
+     * @param group the index of the group.
+     * @return the group's unique property/value pairs.
+     */
+    public Group getGroup(int group) {
+        if (groups == null) {
+            throw new IllegalStateException("Result is not grouped");
+        }
+        return groups.get(group);
+    }
+
+    /**
+     * @return the number of rows; equal to the number of intervals if the query has no Group By.
+     */
+    public int getRowCount() {
+        return rowIntervals.length;
+    }
+
+    /**
+     * @param row the index of the row.
+     * @return the index of the row's interval.
+     */
+    public int getRowInterval(int row) {
+        return rowIntervals[row];
+    }
+
+    /**
+     * @param row the index of the row.
+     * @return the index of the row's group, or -1 if the query has no Group By.
+     */
+    public int getRowGroup(int row) {
+        return rowGroups == null ? -1 : rowGroups[row];
+    }
+
+    /**
+     * @return {@code true} if every value is integral, in which case
+     * {@link #getLongValue(int)} may be used.
+     */
+    public boolean isLongValued() {
+        return longValues != null;
+    }
+
+    /**
+     * @param row the index of the row.
+     * @return the row's value.
+     * @throws IllegalStateException if the values are not all integral.
+     */
+    public long getLongValue(int row) {
+        if (longValues == null) {
+            throw new IllegalStateException("Result values are not integral");
+        }
+        return longValues[row];
+    }
+
+    /**
+     * @param row the index of the row.
+     * @return the row's value; {@link Double#NaN} if the server returned null for the row.
+     */
+    public double getDoubleValue(int row) {
+        return longValues != null ? longValues[row] : doubleValues[row];
+    }
+
+}
@@ -0,0 +1,53 @@
+package io.keen.client.java.result;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * <p>MultiAnalysisResult is the result of a Multi-Analysis query, which runs several
+ * analyses over the same event collection in one request. This object contains a Map that
+ * consists of </p>
+ * <ul>
+ * <li>the name given to each analysis in the query</li>
+ * <li>QueryResult, which is the result of that analysis</li>
+ * </ul>
+ *
+ * @author Keen IO
+ * @since 5.1.0
+ */
+public class MultiAnalysisResult extends QueryResult {
+
+    private final Map<String, QueryResult> results;
+
+    /**
+     * @param results the result map of analysis name to QueryResult.
+     */
+    public MultiAnalysisResult(Map<String, QueryResult> results) {
+        this.results = Collections.unmodifiableMap(results);
+    }
+
+    /**
+     * @return  {@code true}
+     */
+    @Override
+    public boolean isMultiAnalysisResult() {
+        return true;
+    }
+
+    /**
+     * @return map of analysis name to QueryResult objects
+     */
+    @Override
+    public Map<String, QueryResult> getMultiAnalysisResults() {
+        return results;
+    }
+
+    /**
+     * @param analysisName the name of the analysis.
+     * @return the result of the named analysis, or null if there is no such analysis.
+     */
+    public QueryResult getResultFor(String analysisName) {
+        return results.get(analysisName);
+    }
+
+}
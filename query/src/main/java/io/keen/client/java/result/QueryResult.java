@@ -58,6 +58,11 @@ public abstract class QueryResult {
      */
     public boolean isGroupResult() { return false; }
 
+    /**
+     * @return {@code false}
+     */
+    public boolean isMultiAnalysisResult() { return false; }
+
     /**
      * @return doubleValue, which is IllegalStateException in abstract class.
      */
@@ -96,4 +101,9 @@ public abstract class QueryResult {
      */
     public Map<Group, QueryResult> getGroupResults() { throw new IllegalStateException(); }
 
+    /**
+     * @return map of analysis name to QueryResult's, which is IllegalStateException in abstract class.
+     */
+    public Map<String, QueryResult> getMultiAnalysisResults() { throw new IllegalStateException(); }
+
 }
@@ -0,0 +1,66 @@
+package io.keen.client.java;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the HyperLogLog class.
+ *
+ * @author Keen IO
+ * @since 5.1.0
+ */
+public class HyperLogLogTest {
+
+    @Test
+    public void smallCardinalitiesAreExact() {
+        HyperLogLog sketch = new HyperLogLog();
+        assertEquals(0, sketch.estimate());
+        for (int i = 0; i < 3; i++) {
+            sketch.add("alice");
+            sketch.add("bob");
+            sketch.add(42L);
+            sketch.add(42.5);
+        }
+        assertEquals(4, sketch.estimate());
+    }
+
+    @Test
+    public void largeCardinalityWithinError() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (long i = 0; i < 100000; i++) {
+            sketch.add("user" + i);
+        }
+        assertRelativeError(100000, sketch.estimate(), 0.03);
+    }
+
+    @Test
+    public void mergeMatchesSingleSketch() {
+        HyperLogLog single = new HyperLogLog();
+        HyperLogLog left = new HyperLogLog();
+        HyperLogLog right = new HyperLogLog();
+        for (long i = 0; i < 50000; i++) {
+            single.add(i);
+            (i % 3 == 0 ? left : right).add(i);
+        }
+        // Overlapping values must not be double counted.
+        for (long i = 0; i < 1000; i++) {
+            left.add(i);
+        }
+        left.merge(right);
+        assertEquals(single.estimate(), left.estimate());
+        assertRelativeError(50000, left.estimate(), 0.03);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void mergeRejectsDifferentPrecision() {
+        new HyperLogLog(12).merge(new HyperLogLog(14));
+    }
+
+    private static void assertRelativeError(long expected, long actual, double error) {
+        assertTrue("Estimate " + actual + " is not within " + error + " of " + expected,
+                Math.abs(actual - expected) <= expected * error);
+    }
+
+}
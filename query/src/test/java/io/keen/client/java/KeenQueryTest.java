@@ -9,11 +9,24 @@ import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 
 import java.io.IOException;
 import java.io.ByteArrayOutputStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import io.keen.client.java.exceptions.KeenQueryClientException;
 import io.keen.client.java.exceptions.ServerException;
@@ -22,13 +35,19 @@ import io.keen.client.java.http.Request;
 import io.keen.client.java.http.Response;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import io.keen.client.java.result.ColumnarIntervalResult;
 import io.keen.client.java.result.IntervalResultValue;
 import io.keen.client.java.result.QueryResult;
 import io.keen.client.java.result.Group;
@@ -74,6 +93,7 @@ public class KeenQueryTest {
 
     @After
     public void cleanUp() {
+        queryClient.getQueryExecutor().shutdown();
         queryClient = null;
     }
 
@@ -387,6 +407,621 @@ public class KeenQueryTest {
         queryClient.sum(TEST_EVENT_COLLECTION, TEST_TARGET_PROPERTY, null);
     }
 
+    // TEST ASYNCHRONOUS QUERIES
+    @Test
+    public void testCountAsync() throws Exception {
+        setMockResponse(200, "{\"result\": 21}");
+
+        Future<Long> result = queryClient.countAsync(TEST_EVENT_COLLECTION, new RelativeTimeframe("this_year"));
+        assertEquals(21L, result.get().longValue());
+        verify(mockHttpHandler).execute(any(Request.class));
+    }
+
+    @Test
+    public void testExecuteAsync() throws Exception {
+        setMockResponse(200, "{\"result\": 3.5}");
+
+        Query query = new Query.Builder(QueryType.AVERAGE)
+                .withEventCollection(TEST_EVENT_COLLECTION)
+                .withTargetProperty(TEST_TARGET_PROPERTY)
+                .build();
+        Future<QueryResult> first = queryClient.executeAsync(query);
+        Future<QueryResult> second = queryClient.executeAsync(query);
+        assertEquals(3.5, first.get().doubleValue(), 0);
+        assertEquals(3.5, second.get().doubleValue(), 0);
+    }
+
+    @Test
+    public void testExecuteAsyncServerFailure() throws Exception {
+        setMockResponse(500, "Injected server error");
+
+        Future<Double> result = queryClient.sumAsync(TEST_EVENT_COLLECTION, TEST_TARGET_PROPERTY, null);
+        try {
+            result.get();
+            fail("Expected ExecutionException");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof ServerException);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testExecuteAsyncInvalidParams() throws Exception {
+        Query query = new Query.Builder(QueryType.SUM)
+                .withEventCollection(TEST_EVENT_COLLECTION)
+                .build();
+        queryClient.executeAsync(query);
+    }
+
+    // TEST RESULT CACHING
+    @Test
+    public void testCachedResult() throws Exception {
+        setMockResponse(200, "{\"result\": 21}");
+        QueryResultCache cache = new QueryResultCache();
+        KeenQueryClient cachingClient = new KeenQueryClient.Builder(TEST_PROJECT)
+                .withJsonHandler(new TestJsonHandler())
+                .withHttpHandler(mockHttpHandler)
+                .withQueryResultCache(cache)
+                .build();
+
+        Query query = new Query.Builder(QueryType.COUNT)
+                .withEventCollection(TEST_EVENT_COLLECTION)
+                .withFilter(TEST_TARGET_PROPERTY, FilterOperator.GREATER_THAN, 1)
+                .withFilter(TEST_TARGET_PROPERTY, FilterOperator.LESS_THAN, 5)
+                .build();
+        assertEquals(21, cachingClient.execute(query).longValue());
+        assertEquals(21, cachingClient.execute(query).longValue());
+        assertEquals(21, cachingClient.count(TEST_EVENT_COLLECTION, null));
+
+        // The count() query differs (no filters), so only it and the first execute hit the server.
+        verify(mockHttpHandler, times(2)).execute(any(Request.class));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(2, cache.getMissCount());
+    }
+
+    // TEST MEMOIZED SERIALIZATION
+    @Test
+    public void testSerializedArgsMemoized() throws Exception {
+        TestJsonHandler jsonHandler = new TestJsonHandler();
+        Query.Builder builder = new Query.Builder(QueryType.COUNT)
+                .withEventCollection(TEST_EVENT_COLLECTION)
+                .withFilter(TEST_TARGET_PROPERTY, FilterOperator.GREATER_THAN, 1);
+        Query query = builder.build();
+        Query.SerializedArgs args = query.getSerializedArgs(jsonHandler);
+        assertSame(args, query.getSerializedArgs(jsonHandler));
+        assertSame(query.getQueryArgs(), query.getQueryArgs());
+
+        // Reusing the builder must not change the query which was already built.
+        builder.withFilter(TEST_TARGET_PROPERTY, FilterOperator.LESS_THAN, 5);
+        assertEquals(1, ((List<?>) query.getQueryArgs().get(KeenQueryConstants.FILTERS)).size());
+
+        // Equal queries have equal canonical forms, whatever order they were built in.
+        Query same = new Query.Builder(QueryType.COUNT)
+                .withFilter(TEST_TARGET_PROPERTY, FilterOperator.GREATER_THAN, 1)
+                .withEventCollection(TEST_EVENT_COLLECTION)
+                .build();
+        assertEquals(args.canonicalJson, same.getSerializedArgs(jsonHandler).canonicalJson);
+    }
+
+    @Test
+    public void testRepeatedQueryReusesBodyAndUrl() throws Exception {
+        setMockResponse(200, "{\"result\": 21}");
+        Query query = new Query.Builder(QueryType.COUNT)
+                .withEventCollection(TEST_EVENT_COLLECTION)
+                .build();
+        queryClient.execute(query);
+        queryClient.execute(query);
+
+        ArgumentCaptor<Request> capturedRequest = ArgumentCaptor.forClass(Request.class);
+        verify(mockHttpHandler, times(2)).execute(capturedRequest.capture());
+        List<Request> requests = capturedRequest.getAllValues();
+        assertSame(requests.get(0).url, requests.get(1).url);
+
+        ByteArrayOutputStream first = new ByteArrayOutputStream();
+        requests.get(0).body.writeTo(first);
+        ByteArrayOutputStream second = new ByteArrayOutputStream();
+        requests.get(1).body.writeTo(second);
+        assertEquals(first.toString(ENCODING), second.toString(ENCODING));
+        ObjectNode requestNode = (ObjectNode) OBJECT_MAPPER.readTree(first.toString(ENCODING));
+        assertEquals(TEST_EVENT_COLLECTION, requestNode.get(KeenQueryConstants.EVENT_COLLECTION).asText());
+    }
+
+    // TEST QUERY METRICS
+    @Test
+    public void testQueryMetrics() throws Exception {
+        InMemoryQueryMetrics metrics = new InMemoryQueryMetrics();
+        KeenQueryClient metricsClient = new KeenQueryClient.Builder(TEST_PROJECT)
+                .withJsonHandler(new TestJsonHandler())
+                .withHttpHandler(mockHttpHandler)
+                .withQueryResultCache(new QueryResultCache())
+                .withQueryMetricsListener(metrics)
+                .build();
+
+        setMockResponse(200, "{\"result\": 21}");
+        Query query = new Query.Builder(QueryType.COUNT)
+                .withEventCollection(TEST_EVENT_COLLECTION)
+                .build();
+        metricsClient.execute(query);
+        metricsClient.execute(query);
+
+        // The second execution is answered from the cache.
+        assertEquals(2, metrics.getCount(QueryType.COUNT, QueryPhase.SERIALIZATION));
+        assertEquals(1, metrics.getCount(QueryType.COUNT, QueryPhase.NETWORK));
+        assertEquals(1, metrics.getCount(QueryType.COUNT, QueryPhase.PARSE));
+        assertEquals(1, metrics.getCount(QueryType.COUNT, QueryPhase.CONSTRUCT_RESULT));
+        assertEquals(1, metrics.getRequestCount(QueryType.COUNT));
+        assertTrue(metrics.getRequestBytes(QueryType.COUNT) > 0);
+        assertEquals("{\"result\": 21}".length(), metrics.getResponseBytes(QueryType.COUNT));
+        assertEquals(0.5, metrics.getCacheHitRate(QueryType.COUNT), 0);
+
+        setMockResponse(500, "Internal server error");
+        try {
+            metricsClient.sum(TEST_EVENT_COLLECTION, TEST_TARGET_PROPERTY, null);
+            fail("Expected ServerException");
+        } catch (ServerException e) {
+            // expected
+        }
+        setMockResponse(200, "{\"message\": \"Bad query\", \"error_code\": \"InvalidQuery\"}");
+        try {
+            metricsClient.sum(TEST_EVENT_COLLECTION, TEST_TARGET_PROPERTY, null);
+            fail("Expected KeenQueryClientException");
+        } catch (KeenQueryClientException e) {
+            // expected
+        }
+        assertEquals(1, metrics.getErrorCount(QueryType.SUM, ServerException.class));
+        assertEquals(1, metrics.getErrorCount(QueryType.SUM, KeenQueryClientException.class));
+        assertEquals(0, metrics.getErrorCount(QueryType.COUNT, ServerException.class));
+        metricsClient.getQueryExecutor().shutdown();
+    }
+
+    // TEST QUERY COALESCING
+    @Test
+    public void testCoalescedQueries() throws Exception {
+        final CountDownLatch requestStarted = new CountDownLatch(1);
+        final CountDownLatch releaseResponse = new CountDownLatch(1);
+        when(mockHttpHandler.execute(any(Request.class))).thenAnswer(new Answer<Response>() {
+            @Override
+            public Response answer(InvocationOnMock invocation) throws Throwable {
+                requestStarted.countDown();
+                releaseResponse.await();
+                return new Response(200, "{\"result\": 21}");
+            }
+        });
+        final KeenQueryClient coalescingClient = new KeenQueryClient.Builder(TEST_PROJECT)
+                .withJsonHandler(new TestJsonHandler())
+                .withHttpHandler(mockHttpHandler)
+                .withCoalesceQueries(true)
+                .build();
+
+        final Query query = new Query.Builder(QueryType.COUNT)
+                .withEventCollection(TEST_EVENT_COLLECTION)
+                .build();
+        final QueryResult[] results = new QueryResult[4];
+        Thread[] threads = new Thread[results.length];
+        for (int i = 0; i < threads.length; i++) {
+            final int index = i;
+            threads[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        results[index] = coalescingClient.execute(query);
+                    } catch (IOException e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            });
+        }
+
+        // Start the leader and wait for its request to be in flight, then start the followers and
+        // wait until they are all blocked on the shared result before releasing the response.
+        threads[0].start();
+        requestStarted.await();
+        for (int i = 1; i < threads.length; i++) {
+            threads[i].start();
+        }
+        for (int i = 1; i < threads.length; i++) {
+            while (threads[i].getState() != Thread.State.WAITING) {
+                Thread.sleep(1);
+            }
+        }
+        releaseResponse.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        verify(mockHttpHandler, times(1)).execute(any(Request.class));
+        for (QueryResult result : results) {
+            assertSame(results[0], result);
+        }
+        assertEquals(21, results[0].longValue());
+
+        // Once the request completes, the next identical query is sent again.
+        coalescingClient.execute(query);
+        verify(mockHttpHandler, times(2)).execute(any(Request.class));
+    }
+
+    // TEST MULTI-ANALYSIS
+    @Test
+    public void testMultiAnalysis() throws Exception {
+        setMockResponse(200, "{\"result\": {\"total\": 12, \"sum\": 40.5, \"p99\": 3}}");
+
+        Query query = new Query.Builder(QueryType.MULTI_ANALYSIS)
+                .withEventCollection(TEST_EVENT_COLLECTION)
+                .withAnalysis("total", QueryType.COUNT)
+                .withAnalysis("sum", QueryType.SUM, TEST_TARGET_PROPERTY)
+                .withAnalysis("p99", QueryType.PERCENTILE, TEST_TARGET_PROPERTY, 99.0)
+                .build();
+        String requestString = mockCaptureCountQueryRequest(query);
+        ObjectNode requestNode = (ObjectNode) OBJECT_MAPPER.readTree(requestString);
+        ObjectNode analyses = (ObjectNode) requestNode.get("analyses");
+        assertEquals(3, analyses.size());
+        assertEquals("count", analyses.get("total").get("analysis_type").asText());
+        assertEquals("sum", analyses.get("sum").get("analysis_type").asText());
+        assertEquals(TEST_TARGET_PROPERTY, analyses.get("sum").get(KeenQueryConstants.TARGET_PROPERTY).asText());
+        assertEquals(99.0, analyses.get("p99").get(KeenQueryConstants.PERCENTILE).asDouble(), 0);
+
+        QueryResult result = queryClient.execute(query);
+        assertTrue(result.isMultiAnalysisResult());
+        Map<String, QueryResult> results = result.getMultiAnalysisResults();
+        assertEquals(12, results.get("total").longValue());
+        assertEquals(40.5, results.get("sum").doubleValue(), 0);
+        assertEquals(3, results.get("p99").longValue());
+    }
+
+    @Test
+    public void testMultiAnalysisGroupBy() throws Exception {
+        setMockResponse(200, "{\"result\": [{\"color\": \"red\", \"total\": 2, \"sum\": 5}, "
+                + "{\"color\": \"blue\", \"total\": 1, \"sum\": 7}]}");
+
+        Query query = new Query.Builder(QueryType.MULTI_ANALYSIS)
+                .withEventCollection(TEST_EVENT_COLLECTION)
+                .withAnalysis("total", QueryType.COUNT)
+                .withAnalysis("sum", QueryType.SUM, TEST_TARGET_PROPERTY)
+                .withGroupBy("color")
+                .build();
+        QueryResult result = queryClient.execute(query);
+        assertTrue(result.isGroupResult());
+        Map<Group, QueryResult> groups = result.getGroupResults();
+        assertEquals(2, groups.size());
+        for (Map.Entry<Group, QueryResult> entry : groups.entrySet()) {
+            assertTrue(entry.getValue().isMultiAnalysisResult());
+            assertEquals(2, entry.getValue().getMultiAnalysisResults().size());
+            assertEquals(1, entry.getKey().getProperties().size());
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testMultiAnalysisGroupByUnexpectedResult() throws Exception {
+        setMockResponse(200, "{\"result\": {\"total\": 2, \"sum\": 5}}");
+
+        Query query = new Query.Builder(QueryType.MULTI_ANALYSIS)
+                .withEventCollection(TEST_EVENT_COLLECTION)
+                .withAnalysis("total", QueryType.COUNT)
+                .withAnalysis("sum", QueryType.SUM, TEST_TARGET_PROPERTY)
+                .withGroupBy("color")
+                .build();
+        queryClient.execute(query);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMultiAnalysisMissingTargetProperty() throws Exception {
+        new Query.Builder(QueryType.MULTI_ANALYSIS)
+                .withAnalysis("sum", QueryType.SUM);
+    }
+
+    // TEST BATCH EXECUTION
+    @Test
+    public void testExecuteBatch() throws Exception {
+        setMockResponse(200, "{\"result\": 21}");
+
+        List<Query> queries = new ArrayList<Query>();
+        for (int i = 0; i < 5; i++) {
+            queries.add(new Query.Builder(QueryType.COUNT)
+                    .withEventCollection(TEST_EVENT_COLLECTION + i)
+                    .build());
+        }
+        List<QueryResult> results = queryClient.executeBatch(queries, 2);
+        assertEquals(5, results.size());
+        for (QueryResult result : results) {
+            assertEquals(21, result.longValue());
+        }
+        verify(mockHttpHandler, times(5)).execute(any(Request.class));
+    }
+
+    @Test
+    public void testExecuteBatchFromSaturatedExecutor() throws Exception {
+        setMockResponse(200, "{\"result\": 21}");
+
+        // Run the batch from the only thread of the client's query executor.
+        final KeenQueryClient singleThreadClient = new KeenQueryClient.Builder(TEST_PROJECT)
+                .withJsonHandler(new TestJsonHandler())
+                .withHttpHandler(mockHttpHandler)
+                .withQueryExecutor(Executors.newSingleThreadExecutor())
+                .build();
+        final List<Query> queries = new ArrayList<Query>();
+        for (int i = 0; i < 3; i++) {
+            queries.add(new Query.Builder(QueryType.COUNT)
+                    .withEventCollection(TEST_EVENT_COLLECTION + i)
+                    .build());
+        }
+        Future<List<QueryResult>> batch = singleThreadClient.getQueryExecutor().submit(
+                new Callable<List<QueryResult>>() {
+                    @Override
+                    public List<QueryResult> call() throws Exception {
+                        return singleThreadClient.executeBatch(queries, 2);
+                    }
+                });
+
+        List<QueryResult> results = batch.get(10, TimeUnit.SECONDS);
+        assertEquals(3, results.size());
+        for (QueryResult result : results) {
+            assertEquals(21, result.longValue());
+        }
+        singleThreadClient.getQueryExecutor().shutdown();
+    }
+
+    @Test
+    public void testExecuteBatchAsyncFailure() throws Exception {
+        setMockResponse(500, "Injected server error");
+
+        Query query = new Query.Builder(QueryType.COUNT)
+                .withEventCollection(TEST_EVENT_COLLECTION)
+                .build();
+        List<Future<QueryResult>> results = queryClient.executeBatchAsync(Arrays.asList(query, query), 1);
+        assertEquals(2, results.size());
+        for (Future<QueryResult> result : results) {
+            try {
+                result.get();
+                fail("Expected ExecutionException");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof ServerException);
+            }
+        }
+    }
+
+    // TEST STREAMING RESULTS
+    @Test
+    public void testStreamingSelectUnique() throws Exception {
+        setMockResponse(200, "{\"result\": [\"a\", 2, 3.5]}");
+
+        Query query = new Query.Builder(QueryType.SELECT_UNIQUE)
+                .withEventCollection(TEST_EVENT_COLLECTION)
+                .withTargetProperty(TEST_TARGET_PROPERTY)
+                .build();
+        for (KeenJsonHandler jsonHandler : new KeenJsonHandler[] { new JacksonJsonHandler(), new TestJsonHandler() }) {
+            KeenQueryClient client = new KeenQueryClient.Builder(TEST_PROJECT)
+                    .withJsonHandler(jsonHandler)
+                    .withHttpHandler(mockHttpHandler)
+                    .build();
+            RecordingVisitor visitor = new RecordingVisitor();
+            client.executeStreaming(query, visitor);
+
+            assertEquals(3, visitor.values.size());
+            assertEquals("a", visitor.values.get(0).stringValue());
+            assertEquals(2, visitor.values.get(1).longValue());
+            assertEquals(3.5, visitor.values.get(2).doubleValue(), 0);
+            assertTrue(visitor.groups.isEmpty());
+        }
+    }
+
+    @Test
+    public void testStreamingGroupBy() throws Exception {
+        setMockResponse(200, "{\"result\": [{\"result\": 4, \"color\": \"red\"}, {\"color\": \"blue\", \"result\": 6}]}");
+
+        Query query = new Query.Builder(QueryType.COUNT)
+                .withEventCollection(TEST_EVENT_COLLECTION)
+                .withGroupBy("color")
+                .build();
+        KeenQueryClient client = new KeenQueryClient.Builder(TEST_PROJECT)
+                .withJsonHandler(new JacksonJsonHandler())
+                .withHttpHandler(mockHttpHandler)
+                .build();
+        RecordingVisitor visitor = new RecordingVisitor();
+        client.executeStreaming(query, visitor);
+
+        assertEquals(2, visitor.groups.size());
+        long total = 0;
+        for (Map.Entry<Group, QueryResult> group : visitor.groups.entrySet()) {
+            assertTrue(group.getKey().getProperties().containsKey("color"));
+            total += group.getValue().longValue();
+        }
+        assertEquals(10, total);
+    }
+
+    @Test(expected = KeenQueryClientException.class)
+    public void testStreamingErrorResponse() throws Exception {
+        setMockResponse(200, "{\"error_code\": \"QueryError\", \"message\": \"bad query\"}");
+
+        Query query = new Query.Builder(QueryType.COUNT)
+                .withEventCollection(TEST_EVENT_COLLECTION)
+                .build();
+        KeenQueryClient client = new KeenQueryClient.Builder(TEST_PROJECT)
+                .withJsonHandler(new JacksonJsonHandler())
+                .withHttpHandler(mockHttpHandler)
+                .build();
+        client.executeStreaming(query, new RecordingVisitor());
+    }
+
+    private static class RecordingVisitor implements QueryResultVisitor {
+        final List<QueryResult> values = new ArrayList<QueryResult>();
+        final Map<Group, QueryResult> groups = new HashMap<Group, QueryResult>();
+
+        @Override
+        public void visitValue(QueryResult value) {
+            values.add(value);
+        }
+
+        @Override
+        public void visitGroup(Group group, QueryResult result) {
+            groups.put(group, result);
+        }
+    }
+
+    // TEST COLUMNAR INTERVAL RESULTS
+    @Test
+    public void testColumnarInterval() throws Exception {
+        setMockResponse(200, "{\"result\": ["
+                + "{\"value\": 3, \"timeframe\": {\"start\": \"2015-01-01T00:00:00.000Z\", \"end\": \"2015-01-02T00:00:00.000Z\"}}, "
+                + "{\"timeframe\": {\"start\": \"2015-01-02T00:00:00.000-08:00\", \"end\": \"2015-01-03T00:00:00.000-08:00\"}, \"value\": 5}]}");
+
+        Query query = new Query.Builder(QueryType.COUNT)
+                .withEventCollection(TEST_EVENT_COLLECTION)
+                .withInterval("daily")
+                .withTimeframe(new RelativeTimeframe("this_2_days"))
+                .build();
+        for (KeenJsonHandler jsonHandler : new KeenJsonHandler[] { new JacksonJsonHandler(), new TestJsonHandler() }) {
+            KeenQueryClient client = new KeenQueryClient.Builder(TEST_PROJECT)
+                    .withJsonHandler(jsonHandler)
+                    .withHttpHandler(mockHttpHandler)
+                    .build();
+            ColumnarIntervalResult result = client.executeColumnarInterval(query);
+
+            assertEquals(2, result.getIntervalCount());
+            assertEquals(2, result.getRowCount());
+            assertEquals(1420070400000L, result.getStart(0));
+            assertEquals(1420156800000L, result.getEnd(0));
+            assertEquals(1420185600000L, result.getStart(1));
+            assertTrue(result.isLongValued());
+            assertEquals(3, result.getLongValue(0));
+            assertEquals(5, result.getLongValue(1));
+            assertEquals(-1, result.getRowGroup(0));
+        }
+    }
+
+    @Test
+    public void testColumnarIntervalKeepsLongPrecision() throws Exception {
+        // 2^53 + 1 can't be represented exactly as a double.
+        setMockResponse(200, "{\"result\": ["
+                + "{\"timeframe\": {\"start\": \"2015-01-01T00:00:00.000Z\", \"end\": \"2015-01-02T00:00:00.000Z\"}, \"value\": 9007199254740993}, "
+                + "{\"timeframe\": {\"start\": \"2015-01-02T00:00:00.000Z\", \"end\": \"2015-01-03T00:00:00.000Z\"}, \"value\": 2.0}]}");
+
+        Query query = new Query.Builder(QueryType.SUM)
+                .withEventCollection(TEST_EVENT_COLLECTION)
+                .withTargetProperty(TEST_TARGET_PROPERTY)
+                .withInterval("daily")
+                .withTimeframe(new RelativeTimeframe("this_2_days"))
+                .build();
+        for (KeenJsonHandler jsonHandler : new KeenJsonHandler[] { new JacksonJsonHandler(), new TestJsonHandler() }) {
+            KeenQueryClient client = new KeenQueryClient.Builder(TEST_PROJECT)
+                    .withJsonHandler(jsonHandler)
+                    .withHttpHandler(mockHttpHandler)
+                    .build();
+            ColumnarIntervalResult result = client.executeColumnarInterval(query);
+
+            assertTrue(result.isLongValued());
+            assertEquals(9007199254740993L, result.getLongValue(0));
+            assertEquals(2L, result.getLongValue(1));
+        }
+    }
+
+    @Test
+    public void testColumnarIntervalWidensToDouble() throws Exception {
+        setMockResponse(200, "{\"result\": ["
+                + "{\"timeframe\": {\"start\": \"2015-01-01T00:00:00.000Z\", \"end\": \"2015-01-02T00:00:00.000Z\"}, \"value\": 3}, "
+                + "{\"timeframe\": {\"start\": \"2015-01-02T00:00:00.000Z\", \"end\": \"2015-01-03T00:00:00.000Z\"}, \"value\": 1.5}]}");
+
+        Query query = new Query.Builder(QueryType.AVERAGE)
+                .withEventCollection(TEST_EVENT_COLLECTION)
+                .withTargetProperty(TEST_TARGET_PROPERTY)
+                .withInterval("daily")
+                .withTimeframe(new RelativeTimeframe("this_2_days"))
+                .build();
+        for (KeenJsonHandler jsonHandler : new KeenJsonHandler[] { new JacksonJsonHandler(), new TestJsonHandler() }) {
+            KeenQueryClient client = new KeenQueryClient.Builder(TEST_PROJECT)
+                    .withJsonHandler(jsonHandler)
+                    .withHttpHandler(mockHttpHandler)
+                    .build();
+            ColumnarIntervalResult result = client.executeColumnarInterval(query);
+
+            assertFalse(result.isLongValued());
+            assertEquals(3.0, result.getDoubleValue(0), 0.0);
+            assertEquals(1.5, result.getDoubleValue(1), 0.0);
+        }
+    }
+
+    @Test
+    public void testColumnarIntervalGroupBy() throws Exception {
+        setMockResponse(200, "{\"result\": ["
+                + "{\"timeframe\": {\"start\": \"2015-01-01T00:00:00.000Z\", \"end\": \"2015-01-02T00:00:00.000Z\"}, "
+                + "\"value\": [{\"color\": \"red\", \"result\": 1.5}, {\"color\": \"blue\", \"result\": null}]}, "
+                + "{\"timeframe\": {\"start\": \"2015-01-02T00:00:00.000Z\", \"end\": \"2015-01-03T00:00:00.000Z\"}, "
+                + "\"value\": [{\"color\": \"red\", \"result\": 2}]}]}");
+
+        Query query = new Query.Builder(QueryType.AVERAGE)
+                .withEventCollection(TEST_EVENT_COLLECTION)
+                .withTargetProperty(TEST_TARGET_PROPERTY)
+                .withInterval("daily")
+                .withGroupBy("color")
+                .withTimeframe(new RelativeTimeframe("this_2_days"))
+                .build();
+        KeenQueryClient client = new KeenQueryClient.Builder(TEST_PROJECT)
+                .withJsonHandler(new JacksonJsonHandler())
+                .withHttpHandler(mockHttpHandler)
+                .build();
+        ColumnarIntervalResult result = client.executeColumnarInterval(query);
+
+        assertTrue(result.isGrouped());
+        assertEquals(2, result.getIntervalCount());
+        assertEquals(3, result.getRowCount());
+        assertEquals(2, result.getGroupCount());
+        assertFalse(result.isLongValued());
+        assertEquals(1.5, result.getDoubleValue(0), 0);
+        assertTrue(Double.isNaN(result.getDoubleValue(1)));
+        assertEquals(2.0, result.getDoubleValue(2), 0);
+        assertEquals(result.getRowGroup(0), result.getRowGroup(2));
+        assertEquals("red", result.getGroup(result.getRowGroup(0)).getProperties().get("color"));
+        assertEquals(1, result.getRowInterval(2));
+    }
+
+    @Test
+    public void testColumnarIntervalAllocatesLessThanIntervalResult() throws Exception {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        final com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(allocationBean.isThreadAllocatedMemorySupported());
+
+        // A minutely interval over one day.
+        StringBuilder body = new StringBuilder("{\"result\": [");
+        for (int i = 0; i < 1440; i++) {
+            if (i > 0) {
+                body.append(',');
+            }
+            body.append(String.format(Locale.US,
+                    "{\"timeframe\": {\"start\": \"2015-01-01T%02d:%02d:00.000Z\", \"end\": \"2015-01-01T%02d:%02d:59.999Z\"}, \"value\": %d}",
+                    i / 60, i % 60, i / 60, i % 60, i));
+        }
+        body.append("]}");
+        setMockResponse(200, body.toString());
+
+        Query query = new Query.Builder(QueryType.COUNT)
+                .withEventCollection(TEST_EVENT_COLLECTION)
+                .withInterval("minutely")
+                .withTimeframe(new RelativeTimeframe("today"))
+                .build();
+        KeenQueryClient client = new KeenQueryClient.Builder(TEST_PROJECT)
+                .withJsonHandler(new JacksonJsonHandler())
+                .withHttpHandler(mockHttpHandler)
+                .build();
+
+        // Warm up both code paths, then take the smallest of several measurements of each so
+        // that allocations by the JIT or the mock don't decide the comparison.
+        long threadId = Thread.currentThread().getId();
+        long treeBytes = Long.MAX_VALUE;
+        long columnarBytes = Long.MAX_VALUE;
+        ColumnarIntervalResult result = null;
+        for (int i = 0; i < 5; i++) {
+            long before = allocationBean.getThreadAllocatedBytes(threadId);
+            client.execute(query);
+            treeBytes = Math.min(treeBytes, allocationBean.getThreadAllocatedBytes(threadId) - before);
+
+            before = allocationBean.getThreadAllocatedBytes(threadId);
+            result = client.executeColumnarInterval(query);
+            columnarBytes = Math.min(columnarBytes, allocationBean.getThreadAllocatedBytes(threadId) - before);
+        }
+
+        assertEquals(1440, result.getIntervalCount());
+        assertTrue("columnar " + columnarBytes + " vs tree " + treeBytes, columnarBytes < treeBytes);
+    }
+
     //
     // TEST OPTIONAL PARAMETERS
     //
@@ -0,0 +1,295 @@
+package io.keen.client.java;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import io.keen.client.java.result.Group;
+import io.keen.client.java.result.IntervalResultValue;
+import io.keen.client.java.result.QueryResult;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the LocalQueryEngine class.
+ *
+ * @author Keen IO
+ * @since 5.1.0
+ */
+public class LocalQueryEngineTest {
+
+    private static final String COLLECTION = "purchases";
+
+    // 2016-01-01T12:00:00.000Z
+    private static final long NOW = 1451649600000L;
+
+    private ExecutorService executor;
+    private LocalQueryEngine engine;
+    private List<Map<String, Object>> events;
+
+    @Before
+    public void setup() {
+        engine = new LocalQueryEngine() {
+            @Override
+            protected long currentTimeMillis() {
+                return NOW;
+            }
+        };
+        events = new ArrayList<Map<String, Object>>();
+        events.add(event("2016-01-01T00:10:00.000Z", "alice", 10, "shoes"));
+        events.add(event("2016-01-01T00:20:00.000Z", "bob", 20, "shoes"));
+        events.add(event("2016-01-01T01:10:00.000Z", "alice", 30, "hats"));
+        events.add(event("2016-01-01T02:10:00.000Z", "carol", 40, "shoes"));
+        events.add(event("2015-12-31T23:10:00.000Z", "dave", 50, "hats"));
+    }
+
+    @After
+    public void cleanUp() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testCount() {
+        Query query = new Query.Builder(QueryType.COUNT)
+                .withEventCollection(COLLECTION)
+                .build();
+        assertEquals(5, engine.execute(query, events).longValue());
+    }
+
+    @Test
+    public void testNumericAnalyses() {
+        assertEquals(150, engine.execute(query(QueryType.SUM), events).doubleValue(), 0);
+        assertEquals(10, engine.execute(query(QueryType.MINIMUM), events).doubleValue(), 0);
+        assertEquals(50, engine.execute(query(QueryType.MAXIMUM), events).doubleValue(), 0);
+        assertEquals(30, engine.execute(query(QueryType.AVERAGE), events).doubleValue(), 0);
+        assertEquals(30, engine.execute(query(QueryType.MEDIAN), events).doubleValue(), 0.3);
+
+        Query percentile = new Query.Builder(QueryType.PERCENTILE)
+                .withEventCollection(COLLECTION)
+                .withTargetProperty("price")
+                .withPercentile(75.0)
+                .build();
+        assertEquals(40, engine.execute(percentile, events).doubleValue(), 0.4);
+    }
+
+    @Test
+    public void testUniqueAnalyses() {
+        Query countUnique = new Query.Builder(QueryType.COUNT_UNIQUE)
+                .withEventCollection(COLLECTION)
+                .withTargetProperty("user.name")
+                .build();
+        assertEquals(4, engine.execute(countUnique, events).longValue());
+
+        Query selectUnique = new Query.Builder(QueryType.SELECT_UNIQUE)
+                .withEventCollection(COLLECTION)
+                .withTargetProperty("item")
+                .build();
+        List<QueryResult> items = engine.execute(selectUnique, events).getListResults();
+        assertEquals(2, items.size());
+        assertEquals("shoes", items.get(0).stringValue());
+        assertEquals("hats", items.get(1).stringValue());
+    }
+
+    @Test
+    public void testFilters() {
+        Query query = new Query.Builder(QueryType.COUNT)
+                .withEventCollection(COLLECTION)
+                .withFilter("price", FilterOperator.GREATER_THAN_EQUAL, 20)
+                .withFilter("item", FilterOperator.EQUAL_TO, "shoes")
+                .build();
+        assertEquals(2, engine.execute(query, events).longValue());
+
+        query = new Query.Builder(QueryType.COUNT)
+                .withEventCollection(COLLECTION)
+                .withFilter("user.name", FilterOperator.IN, Arrays.asList("alice", "carol"))
+                .withFilter("coupon", FilterOperator.EXISTS, false)
+                .build();
+        assertEquals(3, engine.execute(query, events).longValue());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWithinFilterUnsupported() {
+        Query query = new Query.Builder(QueryType.COUNT)
+                .withEventCollection(COLLECTION)
+                .withFilter("location", FilterOperator.WITHIN, new HashMap<String, Object>())
+                .build();
+        engine.execute(query, events);
+    }
+
+    @Test
+    public void testTimeframes() {
+        Query absolute = new Query.Builder(QueryType.COUNT)
+                .withEventCollection(COLLECTION)
+                .withTimeframe(new AbsoluteTimeframe("2016-01-01T00:00:00.000Z", "2016-01-01T01:00:00.000Z"))
+                .build();
+        assertEquals(2, engine.execute(absolute, events).longValue());
+
+        Query relative = new Query.Builder(QueryType.COUNT)
+                .withEventCollection(COLLECTION)
+                .withTimeframe(new RelativeTimeframe("previous_1_days"))
+                .build();
+        assertEquals(1, engine.execute(relative, events).longValue());
+
+        relative = new Query.Builder(QueryType.COUNT)
+                .withEventCollection(COLLECTION)
+                .withTimeframe(new RelativeTimeframe("this_1_days"))
+                .build();
+        assertEquals(4, engine.execute(relative, events).longValue());
+    }
+
+    @Test
+    public void testGroupBy() {
+        Query query = new Query.Builder(QueryType.SUM)
+                .withEventCollection(COLLECTION)
+                .withTargetProperty("price")
+                .withGroupBy("item")
+                .build();
+        QueryResult result = engine.execute(query, events);
+        assertTrue(result.isGroupResult());
+
+        Map<String, Double> sums = new HashMap<String, Double>();
+        for (Map.Entry<Group, QueryResult> entry : result.getGroupResults().entrySet()) {
+            sums.put((String) entry.getKey().getGroupValue("item"), entry.getValue().doubleValue());
+        }
+        assertEquals(2, sums.size());
+        assertEquals(70, sums.get("shoes"), 0);
+        assertEquals(80, sums.get("hats"), 0);
+    }
+
+    @Test
+    public void testInterval() {
+        Query query = new Query.Builder(QueryType.COUNT)
+                .withEventCollection(COLLECTION)
+                .withTimeframe(new AbsoluteTimeframe("2016-01-01T00:00:00.000Z", "2016-01-01T04:00:00.000Z"))
+                .withInterval("hourly")
+                .build();
+        QueryResult result = engine.execute(query, events);
+        assertTrue(result.isIntervalResult());
+
+        List<IntervalResultValue> intervals = result.getIntervalResults();
+        assertEquals(4, intervals.size());
+        assertEquals("2016-01-01T00:00:00.000Z", intervals.get(0).getTimeframe().getStart());
+        assertEquals("2016-01-01T01:00:00.000Z", intervals.get(0).getTimeframe().getEnd());
+        assertEquals(2, intervals.get(0).getResult().longValue());
+        assertEquals(1, intervals.get(1).getResult().longValue());
+        assertEquals(1, intervals.get(2).getResult().longValue());
+        assertEquals(0, intervals.get(3).getResult().longValue());
+    }
+
+    @Test
+    public void testIntervalEmptyBucketHasNoAverage() {
+        Query query = new Query.Builder(QueryType.AVERAGE)
+                .withEventCollection(COLLECTION)
+                .withTargetProperty("price")
+                .withTimeframe(new AbsoluteTimeframe("2016-01-01T00:00:00.000Z", "2016-01-01T04:00:00.000Z"))
+                .withInterval("every_2_hours")
+                .withGroupBy("item")
+                .build();
+        List<IntervalResultValue> intervals = engine.execute(query, events).getIntervalResults();
+        assertEquals(2, intervals.size());
+        assertEquals(2, intervals.get(0).getResult().getGroupResults().size());
+        assertEquals(1, intervals.get(1).getResult().getGroupResults().size());
+
+        Query ungrouped = new Query.Builder(QueryType.AVERAGE)
+                .withEventCollection(COLLECTION)
+                .withTargetProperty("price")
+                .withTimeframe(new AbsoluteTimeframe("2016-01-01T04:00:00.000Z", "2016-01-01T05:00:00.000Z"))
+                .withInterval("hourly")
+                .build();
+        intervals = engine.execute(ungrouped, events).getIntervalResults();
+        assertEquals(1, intervals.size());
+        assertNull(intervals.get(0).getResult());
+    }
+
+    @Test
+    public void testParallelMatchesSequential() {
+        for (int i = 0; i < 1000; i++) {
+            events.add(event("2016-01-01T03:00:00.000Z", "user" + (i % 37), i, i % 2 == 0 ? "shoes" : "hats"));
+        }
+        executor = Executors.newFixedThreadPool(4);
+        LocalQueryEngine parallel = new LocalQueryEngine(executor);
+
+        Query countUnique = new Query.Builder(QueryType.COUNT_UNIQUE)
+                .withEventCollection(COLLECTION)
+                .withTargetProperty("user.name")
+                .build();
+        assertEquals(engine.execute(countUnique, events).longValue(),
+                parallel.execute(countUnique, events).longValue());
+
+        Query median = new Query.Builder(QueryType.MEDIAN)
+                .withEventCollection(COLLECTION)
+                .withTargetProperty("price")
+                .withGroupBy("item")
+                .build();
+        QueryResult sequentialResult = engine.execute(median, events);
+        QueryResult parallelResult = parallel.execute(median, events);
+        assertEquals(sequentialResult.getGroupResults().size(), parallelResult.getGroupResults().size());
+        for (Map.Entry<Group, QueryResult> entry : sequentialResult.getGroupResults().entrySet()) {
+            boolean found = false;
+            for (Map.Entry<Group, QueryResult> other : parallelResult.getGroupResults().entrySet()) {
+                if (entry.getKey().getProperties().equals(other.getKey().getProperties())) {
+                    assertEquals(entry.getValue().doubleValue(), other.getValue().doubleValue(), 0);
+                    found = true;
+                }
+            }
+            assertTrue(found);
+        }
+    }
+
+    @Test
+    public void testEventStore() throws Exception {
+        RamEventStore store = new RamEventStore();
+        TestJsonHandler jsonHandler = new TestJsonHandler();
+        for (Map<String, Object> event : events) {
+            StringWriter writer = new StringWriter();
+            jsonHandler.writeJson(writer, event);
+            store.store("project", COLLECTION, writer.toString());
+        }
+        store.store("project", "other", "{}");
+
+        Query query = new Query.Builder(QueryType.COUNT)
+                .withEventCollection(COLLECTION)
+                .withFilter("item", FilterOperator.NOT_EQUAL, "hats")
+                .build();
+        assertEquals(3, engine.execute(query, store, "project", jsonHandler).longValue());
+
+        Query missing = new Query.Builder(QueryType.COUNT)
+                .withEventCollection("missing")
+                .build();
+        assertEquals(0, engine.execute(missing, store, "project", jsonHandler).longValue());
+    }
+
+    private static Query query(QueryType queryType) {
+        return new Query.Builder(queryType)
+                .withEventCollection(COLLECTION)
+                .withTargetProperty("price")
+                .build();
+    }
+
+    private static Map<String, Object> event(String timestamp, String user, int price, String item) {
+        Map<String, Object> keen = new HashMap<String, Object>();
+        keen.put("timestamp", timestamp);
+        Map<String, Object> userProperties = new HashMap<String, Object>();
+        userProperties.put("name", user);
+        Map<String, Object> event = new HashMap<String, Object>();
+        event.put("keen", keen);
+        event.put("user", userProperties);
+        event.put("price", price);
+        event.put("item", item);
+        return event;
+    }
+
+}
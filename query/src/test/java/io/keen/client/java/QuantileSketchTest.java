@@ -0,0 +1,65 @@
+package io.keen.client.java;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the QuantileSketch class.
+ *
+ * @author Keen IO
+ * @since 5.1.0
+ */
+public class QuantileSketchTest {
+
+    @Test
+    public void emptySketchHasNoQuantiles() {
+        assertTrue(Double.isNaN(new QuantileSketch().quantile(0.5)));
+    }
+
+    @Test
+    public void quantilesWithinRelativeAccuracy() {
+        QuantileSketch sketch = new QuantileSketch();
+        for (int i = 1; i <= 10000; i++) {
+            sketch.add(i);
+        }
+        assertEquals(10000, sketch.getCount());
+        assertEquals(1, sketch.quantile(0), 0);
+        assertEquals(10000, sketch.quantile(1), 0);
+        assertEquals(5000, sketch.quantile(0.5), 50);
+        assertEquals(9900, sketch.quantile(0.99), 99);
+    }
+
+    @Test
+    public void handlesNegativeAndZeroValues() {
+        QuantileSketch sketch = new QuantileSketch();
+        for (int i = -50; i <= 50; i++) {
+            sketch.add(i);
+        }
+        assertEquals(0, sketch.quantile(0.5), 0);
+        assertEquals(-25, sketch.quantile(0.25), 0.25);
+        assertEquals(25, sketch.quantile(0.75), 0.25);
+    }
+
+    @Test
+    public void mergeMatchesSingleSketch() {
+        Random random = new Random(42);
+        QuantileSketch single = new QuantileSketch();
+        QuantileSketch left = new QuantileSketch();
+        QuantileSketch right = new QuantileSketch();
+        for (int i = 0; i < 10000; i++) {
+            double value = Math.exp(random.nextGaussian() * 3);
+            single.add(value);
+            (i % 2 == 0 ? left : right).add(value);
+        }
+        left.merge(right);
+        assertEquals(single.getCount(), left.getCount());
+        for (double quantile = 0.05; quantile < 1; quantile += 0.05) {
+            assertEquals(single.quantile(quantile), left.quantile(quantile), 0);
+        }
+    }
+
+}
@@ -0,0 +1,96 @@
+package io.keen.client.java;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import io.keen.client.java.result.LongResult;
+import io.keen.client.java.result.QueryResult;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Tests the QueryResultCache class.
+ *
+ * @author Keen IO
+ * @since 5.1.0
+ */
+public class QueryResultCacheTest {
+
+    private static final Query QUERY = new Query.Builder(QueryType.COUNT)
+            .withEventCollection("collection")
+            .build();
+    private static final Query QUERY_WITH_MAX_AGE = new Query.Builder(QueryType.COUNT)
+            .withEventCollection("collection")
+            .withMaxAge(300)
+            .build();
+
+    private long now;
+    private QueryResultCache cache;
+
+    @Before
+    public void setup() {
+        now = 0;
+        cache = new QueryResultCache(2, 1000) {
+            @Override
+            protected long currentTimeMillis() {
+                return now;
+            }
+        };
+    }
+
+    @Test
+    public void hitAndMiss() {
+        QueryResult result = new LongResult(1);
+        assertNull(cache.get("a"));
+        cache.put("a", QUERY, result);
+        assertSame(result, cache.get("a"));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(0.5, cache.getHitRate(), 0);
+    }
+
+    @Test
+    public void expiresAfterDefaultTtl() {
+        cache.put("a", QUERY, new LongResult(1));
+        now = 999;
+        assertEquals(1, cache.get("a").longValue());
+        now = 1000;
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void expiresAfterMaxAge() {
+        cache.put("a", QUERY_WITH_MAX_AGE, new LongResult(1));
+        now = 299 * 1000;
+        assertEquals(1, cache.get("a").longValue());
+        now = 300 * 1000;
+        assertNull(cache.get("a"));
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsed() {
+        cache.put("a", QUERY, new LongResult(1));
+        cache.put("b", QUERY, new LongResult(2));
+        cache.get("a");
+        cache.put("c", QUERY, new LongResult(3));
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+        assertNull(cache.get("b"));
+        assertEquals(1, cache.get("a").longValue());
+        assertEquals(3, cache.get("c").longValue());
+    }
+
+    @Test
+    public void purgeExpired() {
+        cache.put("a", QUERY, new LongResult(1));
+        cache.put("b", QUERY_WITH_MAX_AGE, new LongResult(2));
+        now = 5000;
+        cache.purgeExpired();
+        assertEquals(1, cache.size());
+        assertEquals(2, cache.get("b").longValue());
+    }
+
+}